@@ -25,6 +25,10 @@ class Settings(BaseSettings):
     # BTC price simulation
     btc_starting_price: float = float(os.getenv("BTC_STARTING_PRICE", "45000.0"))
     btc_volatility_factor: float = float(os.getenv("BTC_VOLATILITY_FACTOR", "0.02"))
+    # Publishing the simulated prices as the risk service's BTC-USD reference price is for local demos only:
+    # the risk service's price collar and volatility checks would run on a random walk
+    publish_simulated_prices: bool = os.getenv("PUBLISH_SIMULATED_PRICES", "false").lower() == "true"
+    price_channel: str = os.getenv("PRICE_CHANNEL", "prices")
     
     class Config:
         env_file = ".env"
@@ -6,6 +6,8 @@ import asyncio
 from prometheus_client import Counter, Histogram, Gauge, start_http_server
 import uvicorn
 import os
+import json
+import redis.asyncio as redis
 
 from app.services.redis_consumer import RedisConsumer
 from app.services.volatility_calculator import VolatilityCalculator
@@ -44,7 +46,21 @@ async def lifespan(app: FastAPI):
     
     # Initialize services
     settings = get_settings()
-    volatility_calculator = VolatilityCalculator()
+    price_client = redis.Redis(
+        host=settings.redis_host,
+        port=settings.redis_port,
+        db=settings.redis_db,
+        password=settings.redis_password,
+    )
+
+    async def publish_price(price: float):
+        await price_client.publish(settings.price_channel,
+                                   json.dumps({"symbol": "BTC-USD", "price": round(price, 2)}))
+
+    if settings.publish_simulated_prices:
+        logger.warning("Publishing simulated BTC-USD prices on '%s' as the risk service's reference price",
+                       settings.price_channel)
+    volatility_calculator = VolatilityCalculator(publish_price if settings.publish_simulated_prices else None)
     risk_analyzer = RiskAnalyzer(volatility_calculator)
     redis_consumer = RedisConsumer(risk_analyzer)
     
@@ -68,6 +84,7 @@ async def lifespan(app: FastAPI):
     volatility_task.cancel()
     if redis_consumer:
         await redis_consumer.stop()
+    await price_client.close()
     logger.info("Analytics Service stopped")
 
 app = FastAPI(
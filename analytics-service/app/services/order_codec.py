@@ -0,0 +1,68 @@
+import struct
+from datetime import datetime, timedelta
+from typing import Dict, Union
+
+# Mirrors com.riskengine.codec.OrderStreamCodec in risk-service.
+#
+# FLAT entries carry orderId, userId, symbol, side, quantity, price, orderType and timestamp
+# as plain UTF-8 strings. BINARY entries carry a single field "b" with the big-endian layout:
+#   version:u8 side:u8 orderType:u8 quantityScale:i8 priceScale:i8
+#   quantity:i64 price:i64 timestampMicros:i64
+#   then orderId, userId, symbol each as u16 length + UTF-8 bytes
+# LEGACY entries carry the same fields JSON-encoded plus the full order JSON in orderData.
+
+BINARY_VERSION = 1
+_HEADER = struct.Struct(">BBBbbqqq")
+_SIDES = ("BUY", "SELL")
+_ORDER_TYPES = ("MARKET", "LIMIT", "STOP", "STOP_LIMIT")
+_EPOCH = datetime(1970, 1, 1)
+
+
+def _text(value: Union[bytes, str]) -> str:
+    return value.decode("utf-8") if isinstance(value, bytes) else value
+
+
+def _decimal_string(unscaled: int, scale: int) -> str:
+    if scale <= 0:
+        return str(unscaled * 10 ** -scale)
+    sign = "-" if unscaled < 0 else ""
+    digits = str(abs(unscaled)).rjust(scale + 1, "0")
+    return f"{sign}{digits[:-scale]}.{digits[-scale:]}"
+
+
+def decode_binary_order(payload: bytes) -> Dict[str, str]:
+    """Decode a BINARY stream payload into the flat field dictionary"""
+    version, side, order_type, quantity_scale, price_scale, quantity, price, micros = \
+        _HEADER.unpack_from(payload, 0)
+    if version != BINARY_VERSION:
+        raise ValueError(f"Unsupported binary order version: {version}")
+
+    offset = _HEADER.size
+    strings = []
+    for _ in range(3):
+        (length,) = struct.unpack_from(">H", payload, offset)
+        offset += 2
+        strings.append(payload[offset:offset + length].decode("utf-8"))
+        offset += length
+
+    return {
+        "orderId": strings[0],
+        "userId": strings[1],
+        "symbol": strings[2],
+        "side": _SIDES[side],
+        "quantity": _decimal_string(quantity, quantity_scale),
+        "price": _decimal_string(price, price_scale),
+        "orderType": _ORDER_TYPES[order_type],
+        "timestamp": (_EPOCH + timedelta(microseconds=micros)).isoformat(),
+    }
+
+
+def decode_order_entry(fields: Dict) -> Dict[str, str]:
+    """Decode a raw orders:stream entry (bytes or str keys) in any supported format"""
+    decoded = {_text(name): value for name, value in fields.items()}
+
+    if "b" in decoded:
+        payload = decoded["b"]
+        return decode_binary_order(payload if isinstance(payload, bytes) else payload.encode("latin-1"))
+
+    return {name: _text(value) for name, value in decoded.items()}
@@ -6,6 +6,7 @@ import redis.asyncio as redis
 from datetime import datetime
 
 from app.services.risk_analyzer import RiskAnalyzer
+from app.services.order_codec import decode_order_entry
 from app.config import get_settings
 
 logger = logging.getLogger(__name__)
@@ -15,6 +16,8 @@ class RedisConsumer:
         self.risk_analyzer = risk_analyzer
         self.settings = get_settings()
         self.redis_client = None
+        # Stream entries may be binary, so they are read without response decoding
+        self.stream_client = None
         self.running = False
         self.consumer_group = "analytics-group"
         self.consumer_name = "analytics-consumer-1"
@@ -33,6 +36,13 @@ class RedisConsumer:
                 password=self.settings.redis_password,
                 decode_responses=True
             )
+            self.stream_client = redis.Redis(
+                host=self.settings.redis_host,
+                port=self.settings.redis_port,
+                db=self.settings.redis_db,
+                password=self.settings.redis_password,
+                decode_responses=False
+            )
             
             # Test connection
             await self.redis_client.ping()
@@ -63,13 +73,15 @@ class RedisConsumer:
         finally:
             if self.redis_client:
                 await self.redis_client.close()
+            if self.stream_client:
+                await self.stream_client.close()
     
     async def _consume_messages(self):
         """Main message consumption loop"""
         while self.running:
             try:
                 # Read messages from stream
-                messages = await self.redis_client.xreadgroup(
+                messages = await self.stream_client.xreadgroup(
                     self.consumer_group,
                     self.consumer_name,
                     {self.stream_name: '>'},
@@ -91,8 +103,9 @@ class RedisConsumer:
         """Process received messages"""
         for stream, msgs in messages:
             for msg_id, fields in msgs:
+                msg_id = msg_id.decode("utf-8") if isinstance(msg_id, bytes) else msg_id
                 try:
-                    await self._process_single_message(msg_id, fields)
+                    await self._process_single_message(msg_id, decode_order_entry(fields))
                     
                     # Acknowledge message
                     await self.redis_client.xack(
@@ -155,6 +168,8 @@ class RedisConsumer:
         self.running = False
         if self.redis_client:
             await self.redis_client.close()
+        if self.stream_client:
+            await self.stream_client.close()
         logger.info("Redis consumer stopped")
     
     async def get_analysis_result(self, order_id: str) -> Optional[Dict]:
@@ -3,7 +3,7 @@ import logging
 import numpy as np
 import pandas as pd
 from datetime import datetime, timedelta
-from typing import List, Optional
+from typing import Awaitable, Callable, List, Optional
 import random
 import math
 from collections import deque
@@ -13,8 +13,9 @@ from app.config import get_settings
 logger = logging.getLogger(__name__)
 
 class VolatilityCalculator:
-    def __init__(self):
+    def __init__(self, price_publisher: Optional[Callable[[float], Awaitable[None]]] = None):
         self.settings = get_settings()
+        self.price_publisher = price_publisher  # Called with each new price, e.g. to publish it to Redis
         self.price_history: deque = deque(maxlen=1000)  # Keep last 1000 price points
         self.current_price = self.settings.btc_starting_price
         self.last_update = datetime.now()
@@ -74,6 +75,8 @@ class VolatilityCalculator:
         
         self.current_price = new_price
         self.last_update = datetime.now()
+        if self.price_publisher:
+            await self.price_publisher(new_price)
         
         # Log significant price movements
         if abs(price_change) > self.current_price * 0.001:  # 0.1% move
@@ -0,0 +1,38 @@
+import struct
+
+import pytest
+
+from app.services.order_codec import decode_binary_order, decode_order_entry
+
+
+def _binary_payload(version=1):
+    strings = b"".join(struct.pack(">H", len(s)) + s for s in (b"order-1", b"user-1", b"BTC-USD"))
+    header = struct.pack(">BBBbbqqq", version, 1, 1, 2, 0, 15, 45000, 1_705_314_600_000_000)
+    return header + strings
+
+
+class TestOrderCodec:
+
+    def test_decode_binary_order(self):
+        fields = decode_binary_order(_binary_payload())
+
+        assert fields["orderId"] == "order-1"
+        assert fields["userId"] == "user-1"
+        assert fields["symbol"] == "BTC-USD"
+        assert fields["side"] == "SELL"
+        assert fields["orderType"] == "LIMIT"
+        assert fields["quantity"] == "0.15"
+        assert fields["price"] == "45000"
+        assert fields["timestamp"] == "2024-01-15T10:30:00"
+
+    def test_decode_entry_dispatches_on_binary_field(self):
+        assert decode_order_entry({b"b": _binary_payload()})["symbol"] == "BTC-USD"
+
+    def test_decode_entry_passes_flat_fields_through(self):
+        fields = decode_order_entry({b"orderId": b"order-2", b"price": b"100.5"})
+
+        assert fields == {"orderId": "order-2", "price": "100.5"}
+
+    def test_decode_binary_rejects_unknown_version(self):
+        with pytest.raises(ValueError):
+            decode_binary_order(_binary_payload(version=9))
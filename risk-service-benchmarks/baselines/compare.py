@@ -0,0 +1,79 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files (-rf json) benchmark by benchmark.
+
+Usage: compare.py BASELINE.json CANDIDATE.json [--threshold PERCENT]
+
+Prints the primary score and the gc.alloc.rate.norm (bytes/op) of each benchmark present in both
+files, with the relative change. Rows whose score moved in the wrong direction by more than the
+threshold are flagged; the exit status is 1 if any were.
+"""
+
+import argparse
+import json
+import sys
+
+ALLOC_METRIC = "gc.alloc.rate.norm"
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for run in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted(run.get("params", {}).items()))
+            name = run["benchmark"].rsplit(".", 2)[-2:]
+            key = ".".join(name) + (f" [{params}]" if params else "")
+            primary = run["primaryMetric"]
+            alloc = run.get("secondaryMetrics", {}).get(ALLOC_METRIC)
+            results[key] = {
+                "mode": run["mode"],
+                "score": primary["score"],
+                "unit": primary["scoreUnit"],
+                "alloc": alloc["score"] if alloc else None,
+            }
+        return results
+
+
+def change(before, after):
+    if before is None or after is None:
+        return None
+    if before == 0:
+        return 0.0 if after == 0 else float("inf")
+    return (after - before) / before * 100
+
+
+def fmt(value, suffix=""):
+    return "-" if value is None else f"{value:,.1f}{suffix}"
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("candidate")
+    parser.add_argument("--threshold", type=float, default=5.0,
+                        help="flag score regressions larger than this percentage (default 5)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    candidate = load(args.candidate)
+    regressions = 0
+
+    print(f"{'benchmark':<70} {'score':>17} {'Δ score':>9} {'B/op':>10} {'Δ B/op':>9}")
+    for key in sorted(baseline.keys() & candidate.keys()):
+        before, after = baseline[key], candidate[key]
+        score_change = change(before["score"], after["score"])
+        # Throughput is better when higher; every time-based mode is better when lower
+        worse = -score_change if before["mode"] == "thrpt" else score_change
+        flag = " !" if worse > args.threshold else ""
+        regressions += bool(flag)
+        print(f"{key:<70} {after['score']:>10,.1f} {after['unit']:<6} {fmt(score_change, '%'):>9} "
+              f"{fmt(after['alloc']):>10} {fmt(change(before['alloc'], after['alloc']), '%'):>9}{flag}")
+
+    for key in sorted(baseline.keys() - candidate.keys()):
+        print(f"{key:<70} only in baseline")
+    for key in sorted(candidate.keys() - baseline.keys()):
+        print(f"{key:<70} only in candidate")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
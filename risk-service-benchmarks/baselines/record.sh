@@ -0,0 +1,30 @@
+#!/bin/bash
+
+# Records a gc-profiled JMH baseline for every suite in risk-service-benchmarks, one JSON file per
+# suite under baselines/<short commit hash>/, plus the machine and JDK they were recorded on.
+# Run from anywhere in the repository; the REDIS backend needs Redis on localhost:6379
+# (docker-compose up -d redis). Extra arguments go to every JMH run, e.g. -p backend=IN_MEMORY.
+
+set -e
+
+ROOT=$(git rev-parse --show-toplevel)
+OUT="$ROOT/risk-service-benchmarks/baselines/$(git -C "$ROOT" rev-parse --short HEAD)"
+JAR="$ROOT/risk-service-benchmarks/target/benchmarks.jar"
+SUITES="AssessOrderBenchmark ExposureJournalBenchmark ExposureTrackerBenchmark JsonCodecBenchmark
+NotionalArithmeticBenchmark OrderIngressBenchmark OrderPublisherBenchmark RateLimiterBenchmark RuleChainBenchmark"
+
+mvn -B -f "$ROOT/pom.xml" -pl risk-service-benchmarks -am package -DskipTests
+mkdir -p "$OUT"
+{
+    java -version 2>&1
+    uname -srm
+    grep -m1 "model name" /proc/cpuinfo 2>/dev/null || sysctl -n machdep.cpu.brand_string 2>/dev/null || true
+    nproc 2>/dev/null || sysctl -n hw.ncpu
+} > "$OUT/environment.txt"
+
+for suite in $SUITES; do
+    echo "Recording $suite"
+    java -jar "$JAR" "\.$suite\." -prof gc -rf json -rff "$OUT/$suite.json" "$@"
+done
+
+echo "Baseline written to $OUT"
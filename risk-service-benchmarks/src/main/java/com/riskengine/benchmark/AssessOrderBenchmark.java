@@ -0,0 +1,170 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.benchmark.redis.RedisBackend;
+import com.riskengine.codec.StreamFormat;
+import com.riskengine.config.RateLimitProperties;
+import com.riskengine.config.RedisConfig;
+import com.riskengine.config.RuleProperties;
+import com.riskengine.config.DecisionLogProperties;
+import com.riskengine.config.IdempotencyProperties;
+import com.riskengine.config.JournalProperties;
+import com.riskengine.config.SessionProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.config.VolatilityProperties;
+import com.riskengine.decision.DecisionLog;
+import com.riskengine.idempotency.IdempotencyCache;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.pricing.ReferencePrices;
+import com.riskengine.pricing.VolatilityEstimator;
+import com.riskengine.rules.ExposureLimitRule;
+import com.riskengine.rules.MarketHoursRule;
+import com.riskengine.rules.NotionalCapRule;
+import com.riskengine.rules.PriceCollarRule;
+import com.riskengine.rules.RateLimitRule;
+import com.riskengine.rules.RuleEngine;
+import com.riskengine.rules.SymbolVolatilityRule;
+import com.riskengine.service.BackpressurePolicy;
+import com.riskengine.service.DistributedTokenStore;
+import com.riskengine.service.EngineMode;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.OrderPublisher;
+import com.riskengine.service.RateLimiter;
+import com.riskengine.service.RiskService;
+import com.riskengine.service.SymbolRegistry;
+import com.riskengine.session.SessionCalendar;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link RiskService} assessment with the production components wired by hand and the
+ * application.yml defaults: rule chain, rate limiter, exposure reservation and the async publisher.
+ * Per-stage suites sit alongside this one to explain where a change here came from.
+ * <pre>
+ * java -jar target/benchmarks.jar AssessOrderBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssessOrderBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"IN_MEMORY", "REDIS"})
+    private RedisBackend backend;
+
+    @Param({"true", "false"})
+    private boolean exposureCache;
+
+    @Param({"LOCAL", "DISTRIBUTED"})
+    private RateLimitProperties.Mode rateLimitMode;
+
+    @Param({"SHARED", "PARTITIONED"})
+    private EngineMode engineMode;
+
+    @Param({"localhost"})
+    private String redisHost;
+
+    private RedisConnectionFactory connectionFactory;
+    private OrderPublisher orderPublisher;
+    private ExposureTracker exposureTracker;
+    private RateLimiter rateLimiter;
+    private RuleEngine ruleEngine;
+    private RiskService riskService;
+    private Order[] orders;
+    private List<List<Order>> batches;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = backend.connect(redisHost);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StageTimings stageTimings = new StageTimings(meterRegistry);
+        RedisConfig redisConfig = new RedisConfig();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        orderPublisher = new OrderPublisher(redisConfig.redisTemplate(connectionFactory), redisConfig.objectMapper(),
+                meterRegistry, stageTimings, StreamFormat.FLAT, true, 65_536, 256, Duration.ofMillis(2),
+                BackpressurePolicy.DROP_OLDEST, "target/orders-publish.spill");
+        orderPublisher.start();
+        SymbolRegistry symbolRegistry = new SymbolRegistry(new SymbolProperties());
+        exposureTracker = new ExposureTracker(stringRedisTemplate, null, symbolRegistry, meterRegistry, stageTimings,
+                new JournalProperties(), null, exposureCache, 100_000, Duration.ofMinutes(10), Duration.ofMillis(50),
+                500);
+        exposureTracker.start();
+        VolatilityEstimator volatilityEstimator = new VolatilityEstimator(new VolatilityProperties());
+        ReferencePrices referencePrices =
+                BenchmarkOrders.referencePrices(symbolRegistry, volatilityEstimator, meterRegistry);
+
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setMode(rateLimitMode);
+        // High enough that the benchmark measures checks rather than rejections
+        rateLimitProperties.getTiers().get(rateLimitProperties.getDefaultTier()).setOrdersPerMinute(10_000_000);
+        rateLimiter = new RateLimiter(rateLimitProperties, new DistributedTokenStore(stringRedisTemplate), meterRegistry);
+        rateLimiter.start();
+
+        ruleEngine = new RuleEngine(List.of(new NotionalCapRule(), new RateLimitRule(rateLimiter),
+                new SymbolVolatilityRule(), new MarketHoursRule(new SessionCalendar(new SessionProperties())),
+                new ExposureLimitRule(exposureTracker), new PriceCollarRule(referencePrices)),
+                new RuleProperties(), stageTimings, meterRegistry);
+        ruleEngine.start();
+        riskService = new RiskService(orderPublisher, exposureTracker, symbolRegistry, referencePrices,
+                volatilityEstimator, ruleEngine, new DecisionLog(new DecisionLogProperties(), meterRegistry),
+                new IdempotencyCache(new IdempotencyProperties(), meterRegistry), stageTimings, meterRegistry,
+                8, false, engineMode, 0, 4096);
+        riskService.start();
+
+        orders = BenchmarkOrders.create(USERS * 2, USERS);
+        batches = new ArrayList<>();
+        for (int from = 0; from < orders.length; from += BATCH_SIZE) {
+            batches.add(List.of(orders).subList(from, from + BATCH_SIZE));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        riskService.stop();
+        ruleEngine.stop();
+        rateLimiter.stop();
+        exposureTracker.stop();
+        orderPublisher.stop();
+        RedisBackend.close(connectionFactory);
+    }
+
+    @Benchmark
+    public RiskAssessment assessOrder() {
+        return riskService.assessOrder(orders[next++ % orders.length]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<RiskAssessment> assessOrders() {
+        return riskService.assessOrders(batches.get(next++ % batches.size()));
+    }
+}
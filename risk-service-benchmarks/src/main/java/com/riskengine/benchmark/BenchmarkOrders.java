@@ -0,0 +1,55 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.config.ReferencePriceProperties;
+import com.riskengine.config.VolatilityProperties;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.pricing.ReferencePrices;
+import com.riskengine.pricing.VolatilityEstimator;
+import com.riskengine.service.SymbolRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.math.BigDecimal;
+
+/**
+ * Order fixtures shared by the suites. Orders cycle through {@code users} users, and each user's
+ * orders alternate between buying and selling the same notional, so exposure stays flat however
+ * long a benchmark runs and every order takes the full accept path through the rule chain.
+ */
+final class BenchmarkOrders {
+
+    private static final String[] SYMBOLS = {"ETH-USD", "BTC-USD", "SOL-USD", "AAPL"};
+
+    private BenchmarkOrders() {
+    }
+
+    static Order[] create(int count, int users) {
+        Order[] orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            int user = i % users;
+            OrderSide side = (i / users) % 2 == 0 ? OrderSide.BUY : OrderSide.SELL;
+            orders[i] = new Order("bench-order-" + i, "bench-user-" + user, SYMBOLS[user % SYMBOLS.length], side,
+                    new BigDecimal("0.0125"), new BigDecimal("45000.50"), OrderType.LIMIT);
+        }
+        return orders;
+    }
+
+    /**
+     * Reference prices for every symbol, close enough to the orders' price that the collar passes
+     * them, after enough small ticks that each symbol has a volatility estimate well under the
+     * volatility rule's threshold.
+     */
+    static ReferencePrices referencePrices(SymbolRegistry symbolRegistry, VolatilityEstimator volatilityEstimator,
+                                           MeterRegistry meterRegistry) {
+        // Never started, so no sweeper clears them however long a benchmark runs
+        ReferencePrices referencePrices = new ReferencePrices(new ReferencePriceProperties(), symbolRegistry,
+                volatilityEstimator, meterRegistry);
+        for (int tick = 0; tick <= new VolatilityProperties().getMinTicks(); tick++) {
+            for (String symbol : SYMBOLS) {
+                referencePrices.update(symbol, new BigDecimal(tick % 2 == 0 ? "45010.25" : "45010.50"));
+            }
+        }
+        return referencePrices;
+    }
+}
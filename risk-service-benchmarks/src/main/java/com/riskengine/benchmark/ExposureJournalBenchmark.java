@@ -0,0 +1,87 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.journal.ExposureJournal;
+import com.riskengine.journal.FsyncPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * What a reservation pays to journal its change and wait until it is durable under each fsync
+ * policy. Several threads append at once, as partitions or request threads would, so GROUP
+ * shows how far one force is shared. The journal lives under {@code journalDir}, which should be
+ * on the same kind of disk as production.
+ * <pre>
+ * java -jar target/benchmarks.jar ExposureJournalBenchmark -p journalDir=/var/tmp
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ExposureJournalBenchmark {
+
+    @Param({"OS", "GROUP", "EVERY_WRITE"})
+    private FsyncPolicy fsync;
+
+    @Param({"200"})
+    private long groupCommitMicros;
+
+    @Param({"target"})
+    private String journalDir;
+
+    private final AtomicLong next = new AtomicLong();
+    private Path directory;
+    private ExposureJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory(Path.of(journalDir), "exposure-journal-");
+        journal = new ExposureJournal(directory, 64 * 1024 * 1024, fsync,
+                Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(groupCommitMicros)), new SimpleMeterRegistry());
+        journal.open(entry -> { });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long appendDurable() {
+        long i = next.incrementAndGet();
+        long sequence = journal.appendPosition("user-" + (i & 1023), "BTC-USD", 5_625_000L, i * 5_625_000L, 0L);
+        journal.awaitDurable(sequence);
+        if ((i & ((1 << 20) - 1)) == 0) {
+            // Stands in for the position book's flushes, which keep the segments on disk bounded
+            journal.checkpoint(sequence);
+        }
+        return sequence;
+    }
+}
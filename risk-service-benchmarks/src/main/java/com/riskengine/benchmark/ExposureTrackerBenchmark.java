@@ -0,0 +1,114 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.benchmark.redis.RedisBackend;
+import com.riskengine.config.JournalProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.service.ExposureRequest;
+import com.riskengine.service.ExposureReservation;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.SymbolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposure reservation, one order at a time and as a batch, with and without the write-behind
+ * cache. Without the cache every reservation is a Lua script call, so the {@code REDIS} backend
+ * (a server on {@code redisHost}:6379) shows the round-trip cost the cache removes.
+ * <pre>
+ * java -jar target/benchmarks.jar ExposureTrackerBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExposureTrackerBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int BATCH_SIZE = 100;
+    private static final long LIMIT_UNITS = FixedPoint.toUnits(new BigDecimal("50000"));
+
+    @Param({"IN_MEMORY", "REDIS"})
+    private RedisBackend backend;
+
+    @Param({"true", "false"})
+    private boolean exposureCache;
+
+    @Param({"localhost"})
+    private String redisHost;
+
+    private RedisConnectionFactory connectionFactory;
+    private ExposureTracker exposureTracker;
+    private ExposureRequest[] requests;
+    private List<List<ExposureRequest>> batches;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = backend.connect(redisHost);
+        SymbolRegistry symbolRegistry = new SymbolRegistry(new SymbolProperties());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        exposureTracker = new ExposureTracker(new StringRedisTemplate(connectionFactory), null, symbolRegistry,
+                meterRegistry, new StageTimings(meterRegistry), new JournalProperties(), null, exposureCache, 100_000,
+                Duration.ofMinutes(10), Duration.ofMillis(50), 500);
+        exposureTracker.start();
+
+        Order[] orders = BenchmarkOrders.create(USERS * 2, USERS);
+        requests = new ExposureRequest[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            Order order = orders[i];
+            long notional = symbolRegistry.notionalUnits(order.getSymbol(), order.getQuantity(), order.getPrice());
+            long delta = order.getSide() == OrderSide.BUY ? notional : -notional;
+            requests[i] = new ExposureRequest(order.getUserId(), order.getSymbol(), delta,
+                    LIMIT_UNITS, LIMIT_UNITS, true);
+        }
+        batches = new ArrayList<>();
+        for (int from = 0; from < requests.length; from += BATCH_SIZE) {
+            batches.add(List.of(requests).subList(from, from + BATCH_SIZE));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        exposureTracker.stop();
+        RedisBackend.close(connectionFactory);
+    }
+
+    @Benchmark
+    public ExposureReservation reserveExposure() {
+        ExposureRequest request = requests[next++ % requests.length];
+        return exposureTracker.reserveExposure(request);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<ExposureReservation> reserveExposures() {
+        return exposureTracker.reserveExposures(batches.get(next++ % batches.size()));
+    }
+}
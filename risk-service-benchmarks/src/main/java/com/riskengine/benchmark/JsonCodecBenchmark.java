@@ -0,0 +1,128 @@
+package com.riskengine.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.riskengine.codec.OrderJsonDecoder;
+import com.riskengine.config.RedisConfig;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request decoding and response encoding with the service's ObjectMapper: a single order, a single
+ * assessment, and an NDJSON batch read through databind. {@code decodeOrder} is the streaming
+ * decoder the order endpoints use, with its inline checks, to compare with databind plus bean
+ * validation in {@code readOrderValidated}.
+ * <pre>
+ * java -jar target/benchmarks.jar JsonCodecBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private JsonFactory jsonFactory;
+    private Validator validator;
+    private ObjectReader orderReader;
+    private ObjectWriter assessmentWriter;
+    private byte[] orderJson;
+    private byte[] batchNdjson;
+    private RiskAssessment assessment;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new RedisConfig().objectMapper();
+        jsonFactory = objectMapper.getFactory();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        orderReader = objectMapper.readerFor(Order.class);
+        assessmentWriter = objectMapper.writerFor(RiskAssessment.class);
+
+        Order[] orders = BenchmarkOrders.create(BATCH_SIZE, BATCH_SIZE / 4);
+        orderJson = objectMapper.writeValueAsBytes(orders[0]);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        for (Order order : orders) {
+            ndjson.write(objectMapper.writeValueAsBytes(order));
+            ndjson.write('\n');
+        }
+        batchNdjson = ndjson.toByteArray();
+
+        assessment = new RiskAssessment();
+        assessment.setOrderId(orders[0].getOrderId());
+        assessment.setUserId(orders[0].getUserId());
+        assessment.setVerdict(RiskVerdict.ACCEPT);
+        assessment.setRiskScore(BigDecimal.ZERO);
+        assessment.setReasons(List.of("All risk checks passed"));
+        assessment.setNotionalAmount(new BigDecimal("562.5063"));
+        assessment.setUserExposure(new BigDecimal("562.5063"));
+        assessment.setProcessingTimeMs(1L);
+    }
+
+    @Benchmark
+    public Order readOrder() throws IOException {
+        return orderReader.readValue(orderJson);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Order>> readOrderValidated() throws IOException {
+        return validator.validate(orderReader.readValue(orderJson));
+    }
+
+    @Benchmark
+    public Order decodeOrder() throws IOException {
+        OrderJsonDecoder decoder = OrderJsonDecoder.forCurrentThread();
+        try (JsonParser parser = jsonFactory.createParser(orderJson)) {
+            parser.nextToken();
+            decoder.read(parser);
+            return decoder.toOrder();
+        }
+    }
+
+    @Benchmark
+    public byte[] writeAssessment() throws IOException {
+        return assessmentWriter.writeValueAsBytes(assessment);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Order> readBatch() throws IOException {
+        List<Order> orders = new ArrayList<>(BATCH_SIZE);
+        try (MappingIterator<Order> iterator = orderReader.readValues(batchNdjson)) {
+            while (iterator.hasNextValue()) {
+                orders.add(iterator.nextValue());
+            }
+        }
+        return orders;
+    }
+}
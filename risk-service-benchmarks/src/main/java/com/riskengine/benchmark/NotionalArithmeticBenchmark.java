@@ -0,0 +1,99 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.service.SymbolRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the BigDecimal notional/exposure/score arithmetic that assessOrder used to do with the
+ * fixed-point path, plus the two ways of computing just the notional.
+ * <pre>
+ * java -jar target/benchmarks.jar NotionalArithmeticBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotionalArithmeticBenchmark {
+
+    private static final BigDecimal MAX_NOTIONAL_PER_ORDER = new BigDecimal("10000");
+    private static final BigDecimal MAX_USER_EXPOSURE = new BigDecimal("50000");
+    private static final long MAX_NOTIONAL_PER_ORDER_UNITS = FixedPoint.toUnits(MAX_NOTIONAL_PER_ORDER);
+    private static final long MAX_USER_EXPOSURE_UNITS = FixedPoint.toUnits(MAX_USER_EXPOSURE);
+
+    private SymbolRegistry symbolRegistry;
+    private Order order;
+    private BigDecimal currentExposure;
+    private long currentExposureUnits;
+
+    @Setup
+    public void setUp() {
+        symbolRegistry = new SymbolRegistry(new SymbolProperties());
+        order = new Order("bench-order", "bench-user", "BTC-USD", OrderSide.BUY,
+                new BigDecimal("0.15"), new BigDecimal("45000.50"), OrderType.LIMIT);
+        currentExposure = new BigDecimal("12500.25");
+        currentExposureUnits = FixedPoint.toUnits(currentExposure);
+    }
+
+    @Benchmark
+    public int bigDecimalPath() {
+        BigDecimal riskScore = BigDecimal.ZERO;
+        if (order.getNotional().compareTo(MAX_NOTIONAL_PER_ORDER) > 0) {
+            riskScore = riskScore.add(BigDecimal.valueOf(50));
+        }
+        BigDecimal newExposure = currentExposure.add(order.getNotional());
+        if (newExposure.compareTo(MAX_USER_EXPOSURE) > 0) {
+            riskScore = riskScore.add(BigDecimal.valueOf(20));
+        }
+        if (order.getNotional().compareTo(new BigDecimal("5000")) > 0) {
+            riskScore = riskScore.add(BigDecimal.valueOf(15));
+        }
+        return riskScore.intValue();
+    }
+
+    @Benchmark
+    public int fixedPointPath() {
+        int riskScore = 0;
+        long notional = symbolRegistry.notionalUnits(order.getSymbol(), order.getQuantity(), order.getPrice());
+        if (notional > MAX_NOTIONAL_PER_ORDER_UNITS) {
+            riskScore += 50;
+        }
+        long newExposure = FixedPoint.addSaturated(currentExposureUnits, notional);
+        if (newExposure > MAX_USER_EXPOSURE_UNITS) {
+            riskScore += 20;
+        }
+        if (notional > 50_000_000L) {
+            riskScore += 15;
+        }
+        return riskScore;
+    }
+
+    @Benchmark
+    public BigDecimal orderGetNotional() {
+        return order.getNotional();
+    }
+
+    @Benchmark
+    public long symbolRegistryNotionalUnits() {
+        return symbolRegistry.notionalUnits(order.getSymbol(), order.getQuantity(), order.getPrice());
+    }
+}
@@ -0,0 +1,121 @@
+package com.riskengine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.client.RiskClient;
+import com.riskengine.config.RedisConfig;
+import com.riskengine.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Round-trip latency of one order through each ingress of a running risk service: REST with JSON
+ * on {@code POST /api/v1/order}, and the binary protocol over TCP and over a Unix domain socket.
+ * Start the service first (the TCP transport needs {@code risk.ingress.binary.tcp-port} set, 9095 here)
+ * and run this on the same host, as the order gateway would be. Orders cycle through many users
+ * so rate limiting rejects few of them, but the same orders go down every transport either way.
+ * <pre>
+ * java -jar target/benchmarks.jar OrderIngressBenchmark -p transport=REST,TCP
+ * java -jar target/benchmarks.jar OrderIngressBenchmark -p transport=UNIX -p unixSocket=data/risk-ingress.sock
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class OrderIngressBenchmark {
+
+    private static final int ORDERS = 100_000;
+
+    public enum Transport { REST, TCP, UNIX }
+
+    @Param({"REST", "TCP"})
+    private Transport transport;
+
+    @Param({"localhost"})
+    private String host;
+
+    @Param({"8080"})
+    private int httpPort;
+
+    @Param({"9095"})
+    private int binaryPort;
+
+    @Param({""})
+    private String unixSocket;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private Order[] orders;
+    private byte[][] orderJson;
+    private HttpClient httpClient;
+    private URI orderUri;
+    private RiskClient riskClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        orders = BenchmarkOrders.create(ORDERS, ORDERS);
+        switch (transport) {
+            case REST -> {
+                // Encoded up front, so both sides pay only for what the service does with the bytes
+                ObjectMapper objectMapper = new RedisConfig().objectMapper();
+                orderJson = new byte[ORDERS][];
+                for (int i = 0; i < ORDERS; i++) {
+                    orderJson[i] = objectMapper.writeValueAsBytes(orders[i]);
+                }
+                httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                orderUri = URI.create("http://" + host + ":" + httpPort + "/api/v1/order");
+            }
+            case TCP -> riskClient = RiskClient.connect(new InetSocketAddress(host, binaryPort));
+            case UNIX -> {
+                if (unixSocket.isBlank()) {
+                    throw new IllegalStateException("The UNIX transport needs -p unixSocket=<path>");
+                }
+                riskClient = RiskClient.connect(UnixDomainSocketAddress.of(unixSocket));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (riskClient != null) {
+            riskClient.close();
+        }
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException, InterruptedException, ExecutionException {
+        int i = Math.floorMod(next.getAndIncrement(), ORDERS);
+        if (transport == Transport.REST) {
+            HttpRequest request = HttpRequest.newBuilder(orderUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(orderJson[i]))
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+        }
+        return riskClient.assess(orders[i]).get();
+    }
+}
@@ -0,0 +1,87 @@
+package com.riskengine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.benchmark.redis.RedisBackend;
+import com.riskengine.codec.StreamFormat;
+import com.riskengine.config.RedisConfig;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.service.BackpressurePolicy;
+import com.riskengine.service.OrderPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishing to the orders stream in each stream format. {@code async=false} measures encoding plus
+ * a synchronous XADD per order; {@code async=true} measures only what the request thread pays to
+ * hand the order to the drain thread.
+ * <pre>
+ * java -jar target/benchmarks.jar OrderPublisherBenchmark -p backend=IN_MEMORY -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPublisherBenchmark {
+
+    private static final int ORDERS = 1_024;
+
+    @Param({"LEGACY", "FLAT", "BINARY"})
+    private StreamFormat streamFormat;
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    @Param({"IN_MEMORY", "REDIS"})
+    private RedisBackend backend;
+
+    @Param({"localhost"})
+    private String redisHost;
+
+    private RedisConnectionFactory connectionFactory;
+    private OrderPublisher orderPublisher;
+    private Order[] orders;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = backend.connect(redisHost);
+        RedisConfig redisConfig = new RedisConfig();
+        ObjectMapper objectMapper = redisConfig.objectMapper();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        orderPublisher = new OrderPublisher(redisConfig.redisTemplate(connectionFactory), objectMapper,
+                meterRegistry, new StageTimings(meterRegistry), streamFormat, async, 65_536, 256, Duration.ofMillis(2),
+                BackpressurePolicy.DROP_OLDEST, "target/orders-publish.spill");
+        orderPublisher.start();
+        orders = BenchmarkOrders.create(ORDERS, ORDERS / 4);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        orderPublisher.stop();
+        RedisBackend.close(connectionFactory);
+    }
+
+    @Benchmark
+    public void publishOrder() {
+        orderPublisher.publishOrder(orders[next++ % ORDERS]);
+    }
+}
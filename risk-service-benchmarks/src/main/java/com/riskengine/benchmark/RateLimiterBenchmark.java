@@ -0,0 +1,93 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.benchmark.redis.RedisBackend;
+import com.riskengine.config.RateLimitProperties;
+import com.riskengine.service.DistributedTokenStore;
+import com.riskengine.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-check latency of the rate limiter in local mode against distributed mode with token leases.
+ * The backend only matters in distributed mode; {@code REDIS} needs a server on {@code redisHost}:6379.
+ * <pre>
+ * java -jar target/benchmarks.jar RateLimiterBenchmark -p leaseFraction=0.05,0.2
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 1_000;
+
+    @Param({"LOCAL", "DISTRIBUTED"})
+    private RateLimitProperties.Mode mode;
+
+    @Param({"IN_MEMORY", "REDIS"})
+    private RedisBackend backend;
+
+    @Param({"0.2"})
+    private double leaseFraction;
+
+    @Param({"localhost"})
+    private String redisHost;
+
+    private RedisConnectionFactory connectionFactory;
+    private RateLimiter rateLimiter;
+    private String[] userIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMode(mode);
+        properties.getLease().setFraction(leaseFraction);
+        // High enough that the benchmark measures checks rather than rejections
+        properties.getTiers().get(properties.getDefaultTier()).setOrdersPerMinute(10_000_000);
+
+        DistributedTokenStore tokenStore = null;
+        if (mode == RateLimitProperties.Mode.DISTRIBUTED) {
+            connectionFactory = backend.connect(redisHost);
+            tokenStore = new DistributedTokenStore(new StringRedisTemplate(connectionFactory));
+        }
+        rateLimiter = new RateLimiter(properties, tokenStore, new SimpleMeterRegistry());
+
+        userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = "bench-user-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        rateLimiter.stop();
+        if (connectionFactory != null) {
+            RedisBackend.close(connectionFactory);
+        }
+    }
+
+    @Benchmark
+    public boolean tryConsume() {
+        String userId = userIds[next++ % USERS];
+        return rateLimiter.tryConsume(userId);
+    }
+}
@@ -0,0 +1,131 @@
+package com.riskengine.benchmark;
+
+import com.riskengine.benchmark.redis.InMemoryRedisConnectionFactory;
+import com.riskengine.config.RateLimitProperties;
+import com.riskengine.config.RuleProperties;
+import com.riskengine.config.JournalProperties;
+import com.riskengine.config.SessionProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.config.VolatilityProperties;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.pricing.ReferencePrices;
+import com.riskengine.pricing.VolatilityEstimator;
+import com.riskengine.rules.ExposureLimitRule;
+import com.riskengine.rules.MarketHoursRule;
+import com.riskengine.rules.NotionalCapRule;
+import com.riskengine.rules.PriceCollarRule;
+import com.riskengine.rules.RateLimitRule;
+import com.riskengine.rules.RuleChain;
+import com.riskengine.rules.RuleContext;
+import com.riskengine.rules.RuleEngine;
+import com.riskengine.rules.SymbolVolatilityRule;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.RateLimiter;
+import com.riskengine.service.SymbolRegistry;
+import com.riskengine.service.SymbolSpec;
+import com.riskengine.session.SessionCalendar;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rule checks that run before the exposure reservation: notional cap, local rate limit,
+ * symbol volatility, market hours and the price collar, including the per-rule latency timers.
+ * Nothing here touches Redis.
+ * <pre>
+ * java -jar target/benchmarks.jar RuleChainBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleChainBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private RateLimiter rateLimiter;
+    private ExposureTracker exposureTracker;
+    private RuleChain chain;
+    private Order[] orders;
+    private int[] symbolIds;
+    private long[] prices;
+    private double[] volatilities;
+    private long[] notionals;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitProperties properties = new RateLimitProperties();
+        // High enough that the benchmark measures checks rather than rejections
+        properties.getTiers().get(properties.getDefaultTier()).setOrdersPerMinute(10_000_000);
+        rateLimiter = new RateLimiter(properties, null, meterRegistry);
+        SymbolRegistry symbolRegistry = new SymbolRegistry(new SymbolProperties());
+        StageTimings stageTimings = new StageTimings(meterRegistry);
+        exposureTracker = new ExposureTracker(new StringRedisTemplate(new InMemoryRedisConnectionFactory()), null,
+                symbolRegistry, meterRegistry, stageTimings, new JournalProperties(), null, true, 100_000,
+                Duration.ofMinutes(10), Duration.ofMillis(50), 500);
+
+        VolatilityEstimator volatilityEstimator = new VolatilityEstimator(new VolatilityProperties());
+        ReferencePrices referencePrices =
+                BenchmarkOrders.referencePrices(symbolRegistry, volatilityEstimator, meterRegistry);
+        RuleEngine ruleEngine = new RuleEngine(List.of(new NotionalCapRule(), new RateLimitRule(rateLimiter),
+                new SymbolVolatilityRule(), new MarketHoursRule(new SessionCalendar(new SessionProperties())),
+                new ExposureLimitRule(exposureTracker),
+                new PriceCollarRule(referencePrices)),
+                new RuleProperties(), stageTimings, meterRegistry);
+        chain = ruleEngine.chain();
+
+        orders = BenchmarkOrders.create(USERS * 2, USERS);
+        symbolIds = new int[orders.length];
+        prices = new long[orders.length];
+        volatilities = new double[orders.length];
+        notionals = new long[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            Order order = orders[i];
+            SymbolSpec spec = symbolRegistry.intern(order.getSymbol());
+            symbolIds[i] = spec.id();
+            prices[i] = FixedPoint.toUnits(order.getPrice(), spec.priceScale());
+            volatilities[i] = volatilityEstimator.volatility(spec.id());
+            notionals[i] = symbolRegistry.notionalUnits(spec, order.getQuantity(), order.getPrice());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        rateLimiter.stop();
+        exposureTracker.stop();
+    }
+
+    @Benchmark
+    public RuleContext evaluateChecks() {
+        int index = next++ % orders.length;
+        Order order = orders[index];
+        long delta = order.getSide() == OrderSide.BUY ? notionals[index] : -notionals[index];
+        RuleContext context = new RuleContext(order, System.nanoTime(), symbolIds[index], prices[index],
+                volatilities[index], notionals[index], delta);
+        chain.evaluateChecks(context);
+        return context;
+    }
+}
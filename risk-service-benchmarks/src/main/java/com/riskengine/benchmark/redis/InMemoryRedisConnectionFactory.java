@@ -0,0 +1,330 @@
+package com.riskengine.benchmark.redis;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Single-process stand-in for Redis covering exactly the commands the risk service issues: string
+ * get/set/incr, hash reads and writes, bulk reads, deletes, stream appends and the service's three
+ * Lua scripts, which are
+ * re-implemented in Java and matched by SHA1. One lock serialises every command, as Redis itself
+ * would. Expiries are accepted and ignored, and stream entries are counted rather than stored, so
+ * benchmarks that use it measure the service's own overhead rather than a network round trip.
+ */
+public final class InMemoryRedisConnectionFactory implements RedisConnectionFactory {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, byte[]> strings = new HashMap<>();
+    private final Map<String, Map<String, byte[]>> hashes = new HashMap<>();
+    private final Map<String, long[]> tokenBuckets = new HashMap<>();
+    private final Map<String, Function<byte[][], Object>> scripts = new HashMap<>();
+    private long streamEntries;
+
+    public InMemoryRedisConnectionFactory() {
+        registerScript("scripts/reserve-position.lua", this::reservePosition);
+        registerScript("scripts/lease-tokens.lua", this::leaseTokens);
+        registerScript("scripts/return-tokens.lua", this::returnTokens);
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+                new Class<?>[] {RedisConnection.class}, new Connection());
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException("The in-memory Redis stand-in is not a cluster");
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return true;
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException("The in-memory Redis stand-in has no sentinels");
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+
+    public long streamEntries() {
+        lock.lock();
+        try {
+            return streamEntries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void registerScript(String path, Function<byte[][], Object> implementation) {
+        scripts.put(RedisScript.of(new ClassPathResource(path)).getSha1(), implementation);
+    }
+
+    private Object execute(Method method, Object[] args) {
+        String name = method.getName();
+        lock.lock();
+        try {
+            switch (name) {
+                case "get":
+                    return strings.get(key(args[0]));
+                case "mGet": {
+                    List<byte[]> values = new ArrayList<>();
+                    for (Object key : (Object[]) args[0]) {
+                        values.add(strings.get(key(key)));
+                    }
+                    return values;
+                }
+                case "set":
+                    strings.put(key(args[0]), (byte[]) args[1]);
+                    return Boolean.TRUE;
+                case "setEx":
+                case "pSetEx":
+                    strings.put(key(args[0]), (byte[]) args[2]);
+                    return Boolean.TRUE;
+                case "incrBy":
+                    return incrBy(key(args[0]), (Long) args[1]);
+                case "hGet":
+                    return hashes.getOrDefault(key(args[0]), Map.of()).get(key(args[1]));
+                case "hMGet": {
+                    Map<String, byte[]> hash = hashes.getOrDefault(key(args[0]), Map.of());
+                    List<byte[]> values = new ArrayList<>();
+                    for (Object field : (Object[]) args[1]) {
+                        values.add(hash.get(key(field)));
+                    }
+                    return values;
+                }
+                case "hGetAll": {
+                    Map<byte[], byte[]> entries = new HashMap<>();
+                    hashes.getOrDefault(key(args[0]), Map.of()).forEach((field, value) ->
+                            entries.put(field.getBytes(StandardCharsets.UTF_8), value));
+                    return entries;
+                }
+                case "hMSet": {
+                    Map<String, byte[]> hash = hashes.computeIfAbsent(key(args[0]), k -> new HashMap<>());
+                    ((Map<?, ?>) args[1]).forEach((field, value) -> hash.put(key(field), (byte[]) value));
+                    return null;
+                }
+                case "del": {
+                    long deleted = 0;
+                    for (Object key : (Object[]) args[0]) {
+                        boolean removed = strings.remove(key(key)) != null;
+                        removed |= hashes.remove(key(key)) != null;
+                        removed |= tokenBuckets.remove(key(key)) != null;
+                        if (removed) {
+                            deleted++;
+                        }
+                    }
+                    return deleted;
+                }
+                case "expire":
+                case "pExpire":
+                    return Boolean.TRUE;
+                case "xAdd":
+                    streamEntries++;
+                    return RecordId.of(System.currentTimeMillis(), streamEntries);
+                case "scriptLoad":
+                    return sha1((byte[]) args[0]);
+                case "eval":
+                    return runScript(sha1((byte[]) args[0]), args);
+                case "evalSha":
+                    return runScript(args[0] instanceof byte[] sha ? new String(sha, StandardCharsets.UTF_8)
+                            : (String) args[0], args);
+                case "time": {
+                    TimeUnit unit = args != null && args.length == 1 ? (TimeUnit) args[0] : TimeUnit.MILLISECONDS;
+                    return unit.convert(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                }
+                case "ping":
+                    return "PONG";
+                default:
+                    throw new UnsupportedOperationException(
+                            "Redis command " + name + " is not supported by the in-memory stand-in");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object runScript(String sha, Object[] args) {
+        Function<byte[][], Object> script = scripts.get(sha);
+        if (script == null) {
+            throw new IllegalStateException("NOSCRIPT No matching script: " + sha);
+        }
+        // args = script or sha, return type, key count, keys and arguments
+        return script.apply((byte[][]) args[3]);
+    }
+
+    private Object reservePosition(byte[][] keysAndArgs) {
+        String key = key(keysAndArgs[0]);
+        String symbol = key(keysAndArgs[1]);
+        long longDelta = number(keysAndArgs[2]);
+        long shortDelta = number(keysAndArgs[3]);
+
+        long longUnits = hIncrBy(key, symbol + ":long", longDelta);
+        long shortUnits = hIncrBy(key, symbol + ":short", shortDelta);
+        long net = longUnits - shortUnits;
+        long previous = net - longDelta + shortDelta;
+        long exposure = hIncrBy(key, "exposure", Math.abs(net) - Math.abs(previous));
+        return List.of(exposure, exposure > number(keysAndArgs[5]) ? 1L : 0L,
+                net, Math.abs(net) > number(keysAndArgs[4]) ? 1L : 0L);
+    }
+
+    private Object leaseTokens(byte[][] keysAndArgs) {
+        long capacity = number(keysAndArgs[1]);
+        long period = number(keysAndArgs[2]);
+        long requested = number(keysAndArgs[3]);
+        long now = System.currentTimeMillis();
+
+        long[] bucket = tokenBuckets.get(key(keysAndArgs[0]));
+        if (bucket == null) {
+            bucket = new long[] {capacity, now};
+            tokenBuckets.put(key(keysAndArgs[0]), bucket);
+        } else if (now - bucket[1] >= period) {
+            bucket[1] += (now - bucket[1]) / period * period;
+            bucket[0] = capacity;
+        }
+        long granted = Math.min(requested, bucket[0]);
+        bucket[0] -= granted;
+        return List.of(granted, bucket[1], now);
+    }
+
+    private Object returnTokens(byte[][] keysAndArgs) {
+        long[] bucket = tokenBuckets.get(key(keysAndArgs[0]));
+        if (bucket == null || bucket[1] != number(keysAndArgs[3])) {
+            return 0L;
+        }
+        long returned = Math.min(number(keysAndArgs[2]), number(keysAndArgs[1]) - bucket[0]);
+        if (returned > 0) {
+            bucket[0] += returned;
+        }
+        return Math.max(returned, 0L);
+    }
+
+    private long incrBy(String key, long delta) {
+        byte[] current = strings.get(key);
+        long updated = (current != null ? number(current) : 0L) + delta;
+        strings.put(key, Long.toString(updated).getBytes(StandardCharsets.UTF_8));
+        return updated;
+    }
+
+    private long hIncrBy(String key, String field, long delta) {
+        Map<String, byte[]> hash = hashes.computeIfAbsent(key, k -> new HashMap<>());
+        byte[] current = hash.get(field);
+        long updated = (current != null ? number(current) : 0L) + delta;
+        hash.put(field, Long.toString(updated).getBytes(StandardCharsets.UTF_8));
+        return updated;
+    }
+
+    private static String key(Object key) {
+        return new String((byte[]) key, StandardCharsets.UTF_8);
+    }
+
+    private static long number(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One connection's view of the store. Commands issued while pipelining return null and have
+     * their replies collected for {@code closePipeline}, the way the Lettuce connection behaves.
+     */
+    private final class Connection implements InvocationHandler {
+
+        private List<Object> pipelined;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InMemoryRedisConnection";
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getNativeConnection":
+                    return this;
+                case "isQueueing":
+                    return false;
+                case "isPipelined":
+                    return pipelined != null;
+                case "openPipeline":
+                    if (pipelined == null) {
+                        pipelined = new ArrayList<>();
+                    }
+                    return null;
+                case "closePipeline": {
+                    List<Object> replies = pipelined != null ? pipelined : List.of();
+                    pipelined = null;
+                    return replies;
+                }
+                default:
+                    break;
+            }
+            if (name.endsWith("Commands") && method.getParameterCount() == 0) {
+                return proxy;
+            }
+            if (method.isDefault() && !isSupported(name)) {
+                try {
+                    return InvocationHandler.invokeDefault(proxy, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            Object reply = execute(method, args);
+            if (pipelined != null) {
+                pipelined.add(reply);
+                return null;
+            }
+            return reply;
+        }
+
+        private boolean isSupported(String name) {
+            return switch (name) {
+                case "get", "mGet", "set", "setEx", "pSetEx", "incrBy", "hGet", "hMGet", "hGetAll", "hMSet",
+                     "del", "expire", "pExpire", "xAdd", "scriptLoad", "eval", "evalSha", "time", "ping" -> true;
+                default -> false;
+            };
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.riskengine.benchmark.redis;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Where a benchmark's Redis commands go. {@code IN_MEMORY} isolates the service's own cost;
+ * {@code REDIS} adds real round trips to a server on {@code host}:6379.
+ */
+public enum RedisBackend {
+    IN_MEMORY,
+    REDIS;
+
+    public RedisConnectionFactory connect(String host) {
+        if (this == IN_MEMORY) {
+            return new InMemoryRedisConnectionFactory();
+        }
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, 6379));
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    public static void close(RedisConnectionFactory connectionFactory) throws Exception {
+        if (connectionFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.riskengine.client;
+
+import com.riskengine.codec.OrderFrameCodec;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the binary order-entry protocol served by
+ * {@link com.riskengine.ingress.BinaryOrderServer}. Orders are written as soon as they are
+ * submitted, without waiting for earlier assessments, and a reader thread completes each order's
+ * future when its assessment comes back. Connects over TCP with an {@link InetSocketAddress} or
+ * over a Unix domain socket with a {@link UnixDomainSocketAddress}. Safe for use by many threads.
+ *
+ * <p>A future completes exceptionally with {@link RejectedExecutionException} when the service
+ * shed the order, {@link IllegalArgumentException} when it failed validation and
+ * {@link IllegalStateException} when the service failed to assess it; the message carries the
+ * service's reason. Closing the client fails whatever is still outstanding.
+ */
+public final class RiskClient implements AutoCloseable {
+
+    private static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Thread reader;
+    private volatile boolean closed;
+
+    private RiskClient(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new Thread(this::readAssessments, "risk-client-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    public static RiskClient connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        if (address instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        return new RiskClient(channel);
+    }
+
+    /**
+     * Sends the order and returns its assessment once the service answers.
+     *
+     * @throws IllegalArgumentException if the quantity or price does not fit the binary layout
+     */
+    public CompletableFuture<RiskAssessment> assess(Order order) {
+        long correlationId = nextCorrelationId.incrementAndGet();
+        ByteBuffer frame = OrderFrameCodec.encodeOrder(correlationId, order);
+        CompletableFuture<RiskAssessment> future = new CompletableFuture<>();
+        // Registered before writing, since the answer can arrive before the write returns
+        pending.put(correlationId, new Pending(order, future));
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(correlationId);
+            future.completeExceptionally(e);
+        }
+        if (closed) {
+            failPending(new IOException("Risk client closed"));
+        }
+        return future;
+    }
+
+    /**
+     * Orders sent but not yet answered.
+     */
+    public int inFlight() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing more to release
+        }
+        failPending(new IOException("Risk client closed"));
+    }
+
+    private void readAssessments() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_FRAME_BYTES * 2);
+        IOException failure;
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (OrderFrameCodec.frameLength(buffer, MAX_FRAME_BYTES) >= 0) {
+                    Pending request = pending.remove(OrderFrameCodec.correlationId(buffer));
+                    RiskAssessment assessment = new RiskAssessment();
+                    byte status = OrderFrameCodec.decodeAssessment(buffer, assessment);
+                    if (request != null) {
+                        request.complete(status, assessment);
+                    }
+                }
+                buffer.compact();
+            }
+            failure = new IOException("Connection closed by the risk service");
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("Malformed assessment frame", e);
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already failing every outstanding order
+        }
+        failPending(failure);
+    }
+
+    private void failPending(IOException failure) {
+        for (Long correlationId : pending.keySet()) {
+            Pending request = pending.remove(correlationId);
+            if (request != null) {
+                request.future().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private record Pending(Order order, CompletableFuture<RiskAssessment> future) {
+
+        void complete(byte status, RiskAssessment assessment) {
+            assessment.setOrderId(order.getOrderId());
+            assessment.setUserId(order.getUserId());
+            String reason = assessment.getReasons().isEmpty() ? "" : assessment.getReasons().get(0);
+            switch (status) {
+                case OrderFrameCodec.STATUS_OK:
+                    future.complete(assessment);
+                    break;
+                case OrderFrameCodec.STATUS_INVALID:
+                    future.completeExceptionally(new IllegalArgumentException(reason));
+                    break;
+                case OrderFrameCodec.STATUS_OVERLOADED:
+                    future.completeExceptionally(new RejectedExecutionException(reason));
+                    break;
+                default:
+                    future.completeExceptionally(new IllegalStateException(reason));
+                    break;
+            }
+        }
+    }
+}
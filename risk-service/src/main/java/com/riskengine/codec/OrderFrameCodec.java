@@ -0,0 +1,181 @@
+package com.riskengine.codec;
+
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frames of the binary order-entry protocol. Every frame is length-prefixed, big-endian:
+ * <pre>
+ * int    length of the rest of the frame
+ * byte   frame type (1 = order, 2 = assessment)
+ * long   correlation id, chosen by the client and echoed on the assessment
+ * </pre>
+ * An order frame continues with an {@link OrderStreamCodec} BINARY payload, so the fixed fields
+ * are the same as on the order stream. An assessment frame continues with:
+ * <pre>
+ * byte   status (0 = OK, 1 = INVALID, 2 = OVERLOADED, 3 = ERROR)
+ * byte   verdict (0 = ACCEPT, 1 = REJECT, 2 = WARN)
+ * int    risk score
+ * long   notional, in units of 1e-4
+ * long   user exposure, in units of 1e-4, or Long.MIN_VALUE when not known
+ * long   processing time, microseconds from receiving the order to writing the assessment
+ * short  reason count, then short length + UTF-8 bytes of each reason
+ * </pre>
+ * Assessments are written as they complete, so on a pipelined connection they can arrive in a
+ * different order from the orders; the correlation id pairs them up.
+ */
+public final class OrderFrameCodec {
+
+    public static final byte ORDER = 1;
+    public static final byte ASSESSMENT = 2;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INVALID = 1;
+    public static final byte STATUS_OVERLOADED = 2;
+    public static final byte STATUS_ERROR = 3;
+
+    /** Length prefix, frame type and correlation id. */
+    public static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+
+    public static final long UNKNOWN_EXPOSURE = Long.MIN_VALUE;
+
+    private static final RiskVerdict[] VERDICTS = {RiskVerdict.ACCEPT, RiskVerdict.REJECT, RiskVerdict.WARN};
+    private static final int FIXED_ASSESSMENT_BYTES = 2 + Integer.BYTES + 3 * Long.BYTES + Short.BYTES;
+
+    private OrderFrameCodec() {
+    }
+
+    /**
+     * Returns the order as a frame, flipped and ready to write.
+     *
+     * @throws IllegalArgumentException if the quantity or price does not fit the BINARY layout
+     */
+    public static ByteBuffer encodeOrder(long correlationId, Order order) {
+        if (!OrderStreamCodec.fitsBinaryLayout(order)) {
+            throw new IllegalArgumentException("Order " + order.getOrderId() + " does not fit the binary layout");
+        }
+        ByteBuffer frame = OrderStreamCodec.encodeBinary(order, HEADER_BYTES);
+        putHeader(frame, ORDER, correlationId);
+        return frame.flip();
+    }
+
+    /**
+     * Returns the assessment as a frame, flipped and ready to write.
+     */
+    public static ByteBuffer encodeAssessment(long correlationId, byte status, RiskAssessment assessment,
+                                              long processingMicros) {
+        List<String> reasons = assessment.getReasons() != null ? assessment.getReasons() : List.of();
+        List<byte[]> reasonBytes = new ArrayList<>(reasons.size());
+        int length = HEADER_BYTES + FIXED_ASSESSMENT_BYTES;
+        for (String reason : reasons) {
+            byte[] bytes = OrderStreamCodec.bytes(reason);
+            reasonBytes.add(bytes);
+            length += Short.BYTES + bytes.length;
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        frame.position(HEADER_BYTES);
+        frame.put(status);
+        frame.put((byte) assessment.getVerdict().ordinal());
+        frame.putInt(assessment.getRiskScore() != null ? assessment.getRiskScore().intValue() : 0);
+        frame.putLong(units(assessment.getNotionalAmount(), 0L));
+        frame.putLong(units(assessment.getUserExposure(), UNKNOWN_EXPOSURE));
+        frame.putLong(processingMicros);
+        frame.putShort((short) reasonBytes.size());
+        for (byte[] reason : reasonBytes) {
+            OrderStreamCodec.putString(frame, reason);
+        }
+        putHeader(frame, ASSESSMENT, correlationId);
+        return frame.flip();
+    }
+
+    /**
+     * Returns the length of the frame starting at the buffer's position, prefix included, or -1 if
+     * the buffer does not hold all of it yet. Does not move the position.
+     *
+     * @throws IllegalArgumentException if the frame is shorter than a header or longer than allowed
+     */
+    public static int frameLength(ByteBuffer buffer, int maxFrameBytes) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return -1;
+        }
+        int length = Integer.BYTES + buffer.getInt(buffer.position());
+        if (length < HEADER_BYTES || length > maxFrameBytes) {
+            throw new IllegalArgumentException(
+                    "Frame length " + length + " outside " + HEADER_BYTES + ".." + maxFrameBytes);
+        }
+        return buffer.remaining() >= length ? length : -1;
+    }
+
+    public static byte frameType(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + Integer.BYTES);
+    }
+
+    public static long correlationId(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position() + Integer.BYTES + 1);
+    }
+
+    /**
+     * Decodes the order frame at the buffer's position and moves the position past it. The buffer
+     * must be heap-backed and hold the whole frame.
+     */
+    public static Order decodeOrder(ByteBuffer buffer) {
+        int end = buffer.position() + Integer.BYTES + buffer.getInt(buffer.position());
+        buffer.position(buffer.position() + HEADER_BYTES);
+        try {
+            return OrderStreamCodec.decodeBinary(buffer);
+        } finally {
+            buffer.position(end);
+        }
+    }
+
+    /**
+     * Decodes the assessment frame at the buffer's position into {@code assessment} and moves the
+     * position past it, returning the frame's status.
+     */
+    public static byte decodeAssessment(ByteBuffer buffer, RiskAssessment assessment) {
+        int end = buffer.position() + Integer.BYTES + buffer.getInt(buffer.position());
+        buffer.position(buffer.position() + HEADER_BYTES);
+        try {
+            byte status = buffer.get();
+            assessment.setVerdict(VERDICTS[buffer.get()]);
+            assessment.setRiskScore(BigDecimal.valueOf(buffer.getInt()));
+            assessment.setNotionalAmount(FixedPoint.toBigDecimal(buffer.getLong()));
+            long exposure = buffer.getLong();
+            assessment.setUserExposure(exposure != UNKNOWN_EXPOSURE ? FixedPoint.toBigDecimal(exposure) : null);
+            long processingMicros = buffer.getLong();
+            assessment.setProcessingTimeMicros(processingMicros);
+            assessment.setProcessingTimeMs(processingMicros / 1000);
+            int reasonCount = Short.toUnsignedInt(buffer.getShort());
+            List<String> reasons = new ArrayList<>(reasonCount);
+            for (int i = 0; i < reasonCount; i++) {
+                reasons.add(OrderStreamCodec.getString(buffer));
+            }
+            assessment.setReasons(reasons);
+            return status;
+        } finally {
+            buffer.position(end);
+        }
+    }
+
+    private static void putHeader(ByteBuffer frame, byte type, long correlationId) {
+        frame.putInt(0, frame.position() - Integer.BYTES);
+        frame.put(Integer.BYTES, type);
+        frame.putLong(Integer.BYTES + 1, correlationId);
+    }
+
+    private static long units(BigDecimal value, long absent) {
+        if (value == null) {
+            return absent;
+        }
+        long units = FixedPoint.toUnits(value);
+        return units != FixedPoint.OVERFLOW ? units : FixedPoint.toUnitsSaturated(value);
+    }
+}
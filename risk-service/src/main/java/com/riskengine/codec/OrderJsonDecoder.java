@@ -0,0 +1,293 @@
+package com.riskengine.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for order requests, reading {@link JsonParser} tokens straight into its own
+ * fields instead of building an {@link Order} through databind. Enum names are matched against the
+ * parser's character buffer, symbols are reused from a small cache, and the {@code @NotBlank},
+ * {@code @NotNull} and {@code @Positive} constraints on {@link Order} are checked inline with the
+ * same messages, so an invalid order is answered without an {@code Order}, reflection or a
+ * validator. Only a valid order, or one that needs an error assessment, is copied out with
+ * {@link #toOrder()}, since orders travel on to other threads.
+ *
+ * <p>An instance holds one order at a time and is confined to a thread; get one from
+ * {@link #forCurrentThread()}. Accepts what databind accepts for {@link Order}: unknown and null
+ * fields, numbers given as strings, case-insensitive enum names, and timestamps as ISO-8601 or as
+ * an array of fields.
+ */
+public final class OrderJsonDecoder {
+
+    private static final ThreadLocal<OrderJsonDecoder> DECODERS = ThreadLocal.withInitial(OrderJsonDecoder::new);
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final char[][] SIDE_NAMES = names(SIDES);
+    private static final char[][] ORDER_TYPE_NAMES = names(ORDER_TYPES);
+    private static final int SYMBOL_CACHE_SIZE = 256;
+    // Shared by every thread; a racing write only costs a miss, and Strings are safe to publish this way
+    private static final String[] SYMBOLS = new String[SYMBOL_CACHE_SIZE];
+
+    private final List<String> violations = new ArrayList<>(8);
+
+    private String orderId;
+    private String userId;
+    private String symbol;
+    private OrderSide side;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private OrderType orderType;
+    private LocalDateTime timestamp;
+
+    private OrderJsonDecoder() {
+    }
+
+    /**
+     * The calling thread's decoder. Virtual threads are rarely reused, so each call on one gets a
+     * fresh decoder rather than a thread-local that would only be thrown away.
+     */
+    public static OrderJsonDecoder forCurrentThread() {
+        return Thread.currentThread().isVirtual() ? new OrderJsonDecoder() : DECODERS.get();
+    }
+
+    /**
+     * Reads the order object at the parser's current token, leaving the parser on its closing brace,
+     * and returns whether it passed validation. The violations are in {@link #violations()}.
+     *
+     * @throws JsonParseException if the JSON is not an order object or a field has the wrong type
+     */
+    public boolean read(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an order object, found " + parser.currentToken());
+        }
+        reset();
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "orderId" -> orderId = text(parser);
+                case "userId" -> userId = text(parser);
+                case "symbol" -> symbol = symbol(parser);
+                case "side" -> side = SIDES[lookup(parser, SIDE_NAMES, "order side")];
+                case "quantity" -> quantity = decimal(parser);
+                case "price" -> price = decimal(parser);
+                case "orderType" -> orderType = ORDER_TYPES[lookup(parser, ORDER_TYPE_NAMES, "order type")];
+                case "timestamp" -> timestamp = timestamp(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unterminated order object");
+        }
+
+        validate();
+        return violations.isEmpty();
+    }
+
+    /**
+     * Constraint messages of the last order read, sorted.
+     */
+    public List<String> violations() {
+        return violations;
+    }
+
+    /**
+     * Copies the last order read into a new {@link Order}, stamped now if it carried no timestamp.
+     */
+    public Order toOrder() {
+        return new Order(orderId, userId, symbol, side, quantity, price, orderType,
+                timestamp != null ? timestamp : LocalDateTime.now());
+    }
+
+    private void reset() {
+        orderId = null;
+        userId = null;
+        symbol = null;
+        side = null;
+        quantity = null;
+        price = null;
+        orderType = null;
+        timestamp = null;
+        violations.clear();
+    }
+
+    private void validate() {
+        if (isBlank(orderId)) {
+            violations.add("Order ID is required");
+        }
+        if (isBlank(userId)) {
+            violations.add("User ID is required");
+        }
+        if (isBlank(symbol)) {
+            violations.add("Symbol is required");
+        }
+        if (side == null) {
+            violations.add("Side is required");
+        }
+        if (quantity == null) {
+            violations.add("Quantity is required");
+        } else if (quantity.signum() <= 0) {
+            violations.add("Quantity must be positive");
+        }
+        if (price == null) {
+            violations.add("Price is required");
+        } else if (price.signum() <= 0) {
+            violations.add("Price must be positive");
+        }
+        if (orderType == null) {
+            violations.add("Order type is required");
+        }
+        if (violations.size() > 1) {
+            violations.sort(null);
+        }
+    }
+
+    private static String symbol(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return text(parser);
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        // The same few symbols arrive over and over, so a hit saves the String
+        int slot = (hash ^ (hash >>> 16)) & (SYMBOL_CACHE_SIZE - 1);
+        String cached = SYMBOLS[slot];
+        if (cached != null && matches(cached, chars, offset, length)) {
+            return cached;
+        }
+        String value = new String(chars, offset, length);
+        SYMBOLS[slot] = value;
+        return value;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string for " + parser.currentName());
+        }
+        return parser.getText();
+    }
+
+    private static BigDecimal decimal(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDecimalValue();
+            case VALUE_STRING:
+                try {
+                    return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser,
+                            "Not a number for " + parser.currentName() + ": " + parser.getText());
+                }
+            default:
+                throw new JsonParseException(parser, "Expected a number for " + parser.currentName());
+        }
+    }
+
+    private static int lookup(JsonParser parser, char[][] names, String kind) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            char[] chars = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            for (int i = 0; i < names.length; i++) {
+                if (equalsIgnoreCase(names[i], chars, offset, length)) {
+                    return i;
+                }
+            }
+        }
+        throw new JsonParseException(parser, "Unknown " + kind + ": " + parser.getText());
+    }
+
+    private static LocalDateTime timestamp(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            int[] fields = new int[7];
+            int count = 0;
+            while (parser.nextToken() == JsonToken.VALUE_NUMBER_INT && count < fields.length) {
+                fields[count++] = parser.getIntValue();
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY || count < 5) {
+                throw new JsonParseException(parser, "Expected [year, month, day, hour, minute, ...] for timestamp");
+            }
+            return LocalDateTime.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+        }
+        String text = text(parser).trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return text.endsWith("Z")
+                    ? LocalDateTime.ofInstant(Instant.parse(text), ZoneOffset.UTC)
+                    : LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Invalid timestamp: " + text);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        // Matches @NotBlank, which trims before checking the length
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(char[] name, char[] chars, int offset, int length) {
+        if (name.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            // Names are upper-case ASCII, so clearing bit 5 of a lower-case letter is enough
+            char c = chars[offset + i];
+            if (c != name[i] && (c < 'a' || c > 'z' || (char) (c & ~0x20) != name[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char[][] names(Enum<?>[] values) {
+        char[][] names = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().toCharArray();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,217 @@
+package com.riskengine.codec;
+
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes orders as compact stream entries and decodes any entry written by the risk service.
+ *
+ * <p>{@link StreamFormat#FLAT} entries carry the fields {@code orderId, userId, symbol, side,
+ * quantity, price, orderType, timestamp} as plain UTF-8 strings (timestamp in ISO-8601).
+ *
+ * <p>{@link StreamFormat#BINARY} entries carry a single field {@code b}, big-endian:
+ * <pre>
+ * byte   version (1)
+ * byte   side (0 = BUY, 1 = SELL)
+ * byte   orderType (0 = MARKET, 1 = LIMIT, 2 = STOP, 3 = STOP_LIMIT)
+ * byte   quantity scale
+ * byte   price scale
+ * long   quantity unscaled value
+ * long   price unscaled value
+ * long   timestamp, microseconds since the epoch (UTC)
+ * short  length + UTF-8 bytes of orderId, then userId, then symbol
+ * </pre>
+ * Orders whose quantity or price does not fit the layout are written as FLAT instead, so a
+ * decoder must always check for the {@code b} field first. Entries holding {@code orderData}
+ * are {@link StreamFormat#LEGACY}. The analytics service mirrors this contract in
+ * {@code app/services/order_codec.py}.
+ */
+public final class OrderStreamCodec {
+
+    public static final byte BINARY_VERSION = 1;
+
+    private static final byte[] BINARY_FIELD = bytes("b");
+    private static final byte[] ORDER_ID = bytes("orderId");
+    private static final byte[] USER_ID = bytes("userId");
+    private static final byte[] SYMBOL = bytes("symbol");
+    private static final byte[] SIDE = bytes("side");
+    private static final byte[] QUANTITY = bytes("quantity");
+    private static final byte[] PRICE = bytes("price");
+    private static final byte[] ORDER_TYPE = bytes("orderType");
+    private static final byte[] TIMESTAMP = bytes("timestamp");
+
+    private static final OrderSide[] SIDES = {OrderSide.BUY, OrderSide.SELL};
+    private static final OrderType[] ORDER_TYPES = {OrderType.MARKET, OrderType.LIMIT, OrderType.STOP, OrderType.STOP_LIMIT};
+    private static final int FIXED_BINARY_BYTES = 5 + 3 * Long.BYTES + 3 * Short.BYTES;
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private OrderStreamCodec() {
+    }
+
+    public static Map<byte[], byte[]> encode(Order order, StreamFormat format) {
+        if (format == StreamFormat.BINARY && fitsBinaryLayout(order)) {
+            Map<byte[], byte[]> fields = new LinkedHashMap<>(2);
+            fields.put(BINARY_FIELD, encodeBinary(order));
+            return fields;
+        }
+        return encodeFlat(order);
+    }
+
+    public static Map<byte[], byte[]> encodeFlat(Order order) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>(16);
+        fields.put(ORDER_ID, bytes(order.getOrderId()));
+        fields.put(USER_ID, bytes(order.getUserId()));
+        fields.put(SYMBOL, bytes(order.getSymbol()));
+        fields.put(SIDE, bytes(order.getSide().getValue()));
+        fields.put(QUANTITY, bytes(order.getQuantity().toPlainString()));
+        fields.put(PRICE, bytes(order.getPrice().toPlainString()));
+        fields.put(ORDER_TYPE, bytes(order.getOrderType().getValue()));
+        fields.put(TIMESTAMP, bytes(order.getTimestamp().toString()));
+        return fields;
+    }
+
+    public static byte[] encodeBinary(Order order) {
+        return encodeBinary(order, 0).array();
+    }
+
+    /**
+     * Encodes the BINARY layout after {@code headroom} bytes left free for a caller's header, and
+     * returns the buffer positioned at its end.
+     */
+    static ByteBuffer encodeBinary(Order order, int headroom) {
+        byte[] orderId = bytes(order.getOrderId());
+        byte[] userId = bytes(order.getUserId());
+        byte[] symbol = bytes(order.getSymbol());
+
+        ByteBuffer buffer = ByteBuffer.allocate(
+                headroom + FIXED_BINARY_BYTES + orderId.length + userId.length + symbol.length);
+        buffer.position(headroom);
+        buffer.put(BINARY_VERSION);
+        buffer.put((byte) (order.getSide() == OrderSide.BUY ? 0 : 1));
+        buffer.put(orderTypeCode(order.getOrderType()));
+        buffer.put((byte) order.getQuantity().scale());
+        buffer.put((byte) order.getPrice().scale());
+        buffer.putLong(order.getQuantity().unscaledValue().longValue());
+        buffer.putLong(order.getPrice().unscaledValue().longValue());
+        buffer.putLong(ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), order.getTimestamp()));
+        putString(buffer, orderId);
+        putString(buffer, userId);
+        putString(buffer, symbol);
+        return buffer;
+    }
+
+    public static Order decode(Map<byte[], byte[]> fields) {
+        Map<String, byte[]> byName = new LinkedHashMap<>(fields.size() * 2);
+        fields.forEach((name, value) -> byName.put(new String(name, StandardCharsets.UTF_8), value));
+
+        byte[] binary = byName.get("b");
+        if (binary != null) {
+            return decodeBinary(binary);
+        }
+        if (byName.containsKey("orderData")) {
+            throw new IllegalArgumentException("LEGACY entries carry Jackson-typed values; read orderData with the ObjectMapper");
+        }
+
+        Order order = new Order(
+                string(byName, "orderId"),
+                string(byName, "userId"),
+                string(byName, "symbol"),
+                OrderSide.fromValue(string(byName, "side")),
+                new BigDecimal(string(byName, "quantity")),
+                new BigDecimal(string(byName, "price")),
+                OrderType.fromValue(string(byName, "orderType")));
+        order.setTimestamp(LocalDateTime.parse(string(byName, "timestamp")));
+        return order;
+    }
+
+    public static Order decodeBinary(byte[] payload) {
+        return decodeBinary(ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Decodes the BINARY layout starting at the buffer's position and leaves the position just
+     * past it.
+     */
+    static Order decodeBinary(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary order version: " + version);
+        }
+
+        OrderSide side = SIDES[buffer.get()];
+        OrderType orderType = ORDER_TYPES[buffer.get()];
+        int quantityScale = buffer.get();
+        int priceScale = buffer.get();
+        BigDecimal quantity = BigDecimal.valueOf(buffer.getLong(), quantityScale);
+        BigDecimal price = BigDecimal.valueOf(buffer.getLong(), priceScale);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(buffer.getLong(), ChronoUnit.MICROS);
+
+        return new Order(getString(buffer), getString(buffer), getString(buffer),
+                side, quantity, price, orderType, timestamp);
+    }
+
+    static boolean fitsBinaryLayout(Order order) {
+        return fitsLong(order.getQuantity()) && fitsLong(order.getPrice());
+    }
+
+    private static boolean fitsLong(BigDecimal value) {
+        if (value.scale() < 0 || value.scale() > Byte.MAX_VALUE) {
+            return false;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        return unscaled.compareTo(MIN_LONG) >= 0 && unscaled.compareTo(MAX_LONG) <= 0;
+    }
+
+    private static byte orderTypeCode(OrderType orderType) {
+        switch (orderType) {
+            case MARKET:
+                return 0;
+            case LIMIT:
+                return 1;
+            case STOP:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        putString(buffer, bytes(value));
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static String string(Map<String, byte[]> fields, String name) {
+        byte[] value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Stream entry is missing field " + name);
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
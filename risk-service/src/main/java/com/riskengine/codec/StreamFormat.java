@@ -0,0 +1,13 @@
+package com.riskengine.codec;
+
+/**
+ * Wire format of entries written to {@code orders:stream}.
+ */
+public enum StreamFormat {
+    /** Individual JSON-serialized fields plus the full order JSON in {@code orderData}. */
+    LEGACY,
+    /** Individual plain UTF-8 string fields, no duplicate payload and no type metadata. */
+    FLAT,
+    /** A single {@code b} field holding the fixed binary layout described in {@link OrderStreamCodec}. */
+    BINARY
+}
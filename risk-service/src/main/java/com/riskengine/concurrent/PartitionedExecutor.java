@@ -0,0 +1,189 @@
+package com.riskengine.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on a fixed set of single-threaded partitions, each fed by its own bounded queue. Tasks
+ * for the same key always land on the same partition and run in submission order, so state owned
+ * by a key is only ever touched by one thread. A full queue rejects the task rather than blocking
+ * the submitter.
+ */
+public final class PartitionedExecutor {
+
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final int DRAIN_LIMIT = 64;
+
+    private final String name;
+    private final Partition[] partitions;
+    private final Counter rejectedCounter;
+    private volatile boolean running;
+
+    public PartitionedExecutor(String name, int partitionCount, int queueCapacity, MeterRegistry meterRegistry) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1");
+        }
+        this.name = name;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, queueCapacity, meterRegistry);
+        }
+        this.rejectedCounter = Counter.builder("partition.rejected")
+                .description("Tasks rejected because their partition queue was full")
+                .tag("executor", name)
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        running = true;
+        for (Partition partition : partitions) {
+            partition.thread = new Thread(partition::run, name + "-partition-" + partition.index);
+            partition.thread.setDaemon(true);
+            partition.thread.start();
+        }
+    }
+
+    /** Stops accepting tasks, runs whatever is already queued and waits for the partitions to exit. */
+    public void close() {
+        running = false;
+        for (Partition partition : partitions) {
+            if (partition.thread != null) {
+                LockSupport.unpark(partition.thread);
+            }
+        }
+        try {
+            for (Partition partition : partitions) {
+                if (partition.thread != null) {
+                    partition.thread.join(TimeUnit.SECONDS.toMillis(5));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public int partitionOf(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+        return submit(partitionOf(key), task);
+    }
+
+    public <T> CompletableFuture<T> submit(int partitionIndex, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Partition partition = partitions[partitionIndex];
+        if (!running || !partition.queue.offer(new Task<>(task, future, System.nanoTime()))) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException(running
+                    ? "Partition " + partitionIndex + " of " + name + " is full"
+                    : name + " is not running");
+        }
+        if (partition.parked) {
+            LockSupport.unpark(partition.thread);
+        }
+        return future;
+    }
+
+    private record Task<T>(Supplier<T> supplier, CompletableFuture<T> future, long enqueuedNanos) {
+
+        void run() {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class Partition {
+
+        private final int index;
+        private final BoundedRingBuffer<Task<?>> queue;
+        private final Timer queueWaitTimer;
+        private final Timer serviceTimer;
+        private volatile boolean parked;
+        private volatile long busyNanos;
+        private Thread thread;
+
+        // Utilization is measured between consecutive gauge reads
+        private long lastSampleNanos = System.nanoTime();
+        private long lastSampleBusyNanos;
+
+        Partition(int index, int queueCapacity, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.queue = new BoundedRingBuffer<>(queueCapacity);
+            String partitionTag = Integer.toString(index);
+            this.queueWaitTimer = Timer.builder("partition.queue.wait")
+                    .description("Time a task waited in its partition queue")
+                    .tags("executor", name, "partition", partitionTag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.serviceTimer = Timer.builder("partition.task.latency")
+                    .description("Time a partition spent running one task")
+                    .tags("executor", name, "partition", partitionTag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            Gauge.builder("partition.queue.depth", queue, BoundedRingBuffer::size)
+                    .description("Tasks waiting in the partition queue")
+                    .tags("executor", name, "partition", partitionTag)
+                    .register(meterRegistry);
+            Gauge.builder("partition.utilization", this, Partition::utilization)
+                    .description("Share of time the partition spent running tasks since the last read")
+                    .tags("executor", name, "partition", partitionTag)
+                    .register(meterRegistry);
+        }
+
+        void run() {
+            int idleSpins = 0;
+            while (running || !queue.isEmpty()) {
+                if (queue.drain(this::execute, DRAIN_LIMIT) > 0) {
+                    idleSpins = 0;
+                } else if (idleSpins++ < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    // Re-check after publishing the flag so a concurrent submit cannot be missed
+                    if (queue.isEmpty() && running) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    idleSpins = 0;
+                }
+            }
+        }
+
+        private void execute(Task<?> task) {
+            long started = System.nanoTime();
+            queueWaitTimer.record(started - task.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            task.run();
+            long elapsed = System.nanoTime() - started;
+            serviceTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            busyNanos += elapsed;
+        }
+
+        synchronized double utilization() {
+            long now = System.nanoTime();
+            long busy = busyNanos;
+            double utilization = now > lastSampleNanos
+                    ? (double) (busy - lastSampleBusyNanos) / (now - lastSampleNanos)
+                    : 0.0;
+            lastSampleNanos = now;
+            lastSampleBusyNanos = busy;
+            return Math.min(1.0, utilization);
+        }
+    }
+}
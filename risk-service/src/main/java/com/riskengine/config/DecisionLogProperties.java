@@ -0,0 +1,42 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.decision-log")
+public class DecisionLogProperties {
+
+    private boolean enabled = false;
+    private String file = "logs/decisions.log";
+    // Fraction of ACCEPT verdicts written; WARN and REJECT are always written
+    private double acceptSampleRate = 1.0;
+    private int queueCapacity = 65536;
+    private int batchSize = 512;
+    // Longest a written decision sits in the writer's buffer before it reaches the file
+    private Duration flushInterval = Duration.ofMillis(200);
+    // The file rolls over to <file>.1 past this size
+    private DataSize maxFileSize = DataSize.ofMegabytes(256);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public double getAcceptSampleRate() { return acceptSampleRate; }
+    public void setAcceptSampleRate(double acceptSampleRate) { this.acceptSampleRate = acceptSampleRate; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+
+    public DataSize getMaxFileSize() { return maxFileSize; }
+    public void setMaxFileSize(DataSize maxFileSize) { this.maxFileSize = maxFileSize; }
+}
@@ -0,0 +1,43 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.executions")
+public class ExecutionProperties {
+
+    private boolean enabled = false;
+    // Redis stream of fill and cancel events
+    private String stream = "executions:stream";
+    private String group = "risk-service";
+    // Unique per replica, so each one's unacknowledged events come back to it after a restart
+    private String consumer = "risk-service";
+    // Events per XREADGROUP; each batch is applied with one write
+    private int batchSize = 1000;
+    // How long an XREADGROUP waits for events on an idle stream
+    private Duration block = Duration.ofMillis(100);
+    // Pause after a failed batch before its events are read again
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getStream() { return stream; }
+    public void setStream(String stream) { this.stream = stream; }
+
+    public String getGroup() { return group; }
+    public void setGroup(String group) { this.group = group; }
+
+    public String getConsumer() { return consumer; }
+    public void setConsumer(String consumer) { this.consumer = consumer; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public Duration getBlock() { return block; }
+    public void setBlock(Duration block) { this.block = block; }
+
+    public Duration getRetryBackoff() { return retryBackoff; }
+    public void setRetryBackoff(Duration retryBackoff) { this.retryBackoff = retryBackoff; }
+}
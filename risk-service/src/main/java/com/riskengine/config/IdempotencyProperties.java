@@ -0,0 +1,35 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = false;
+    private Mode mode = Mode.LOCAL;
+    // How long a retried orderId gets back the first assessment instead of a new one
+    private Duration window = Duration.ofMinutes(5);
+    // Assessments kept for retries; past this the oldest are dropped first
+    private int maxResults = 100_000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getMaxResults() { return maxResults; }
+    public void setMaxResults(int maxResults) { this.maxResults = maxResults; }
+
+    public enum Mode {
+        // Retries are recognised by the replica that saw the first attempt
+        LOCAL,
+        // Every replica also claims each orderId in Redis with SET NX, at one round trip per order
+        DISTRIBUTED
+    }
+}
@@ -0,0 +1,33 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "risk.ingress.binary")
+public class IngressProperties {
+
+    private boolean enabled = false;
+    // Loopback, and TCP off: the listener has no authentication, so it is only for gateways on this host
+    private String host = "127.0.0.1";
+    private int tcpPort = -1;
+    private String unixSocket = "";
+    private int maxFrameBytes = 16 * 1024;
+    private int maxInFlight = 4096;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+
+    public int getTcpPort() { return tcpPort; }
+    public void setTcpPort(int tcpPort) { this.tcpPort = tcpPort; }
+
+    public String getUnixSocket() { return unixSocket; }
+    public void setUnixSocket(String unixSocket) { this.unixSocket = unixSocket; }
+
+    public int getMaxFrameBytes() { return maxFrameBytes; }
+    public void setMaxFrameBytes(int maxFrameBytes) { this.maxFrameBytes = maxFrameBytes; }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+}
@@ -0,0 +1,32 @@
+package com.riskengine.config;
+
+import com.riskengine.journal.FsyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.exposure.journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+    private String directory = "data/exposure-journal";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private FsyncPolicy fsync = FsyncPolicy.GROUP;
+    private Duration groupCommitInterval = Duration.ofNanos(200_000);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public DataSize getSegmentSize() { return segmentSize; }
+    public void setSegmentSize(DataSize segmentSize) { this.segmentSize = segmentSize; }
+
+    public FsyncPolicy getFsync() { return fsync; }
+    public void setFsync(FsyncPolicy fsync) { this.fsync = fsync; }
+
+    public Duration getGroupCommitInterval() { return groupCommitInterval; }
+    public void setGroupCommitInterval(Duration groupCommitInterval) { this.groupCommitInterval = groupCommitInterval; }
+}
@@ -0,0 +1,27 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "risk.latency")
+public class LatencyProperties {
+
+    // Service-level objective buckets published with every stage's percentile histogram
+    private List<Duration> slos = new ArrayList<>(List.of(Duration.ofNanos(100_000), Duration.ofNanos(250_000),
+            Duration.ofNanos(500_000), Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25)));
+    // Longer recordings are clamped to this in the interval histograms
+    private Duration highestTrackable = Duration.ofSeconds(10);
+    private int significantDigits = 3;
+
+    public List<Duration> getSlos() { return slos; }
+    public void setSlos(List<Duration> slos) { this.slos = slos; }
+
+    public Duration getHighestTrackable() { return highestTrackable; }
+    public void setHighestTrackable(Duration highestTrackable) { this.highestTrackable = highestTrackable; }
+
+    public int getSignificantDigits() { return significantDigits; }
+    public void setSignificantDigits(int significantDigits) { this.significantDigits = significantDigits; }
+}
@@ -0,0 +1,69 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "risk.rate-limit")
+public class RateLimitProperties {
+
+    private Mode mode = Mode.LOCAL;
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new HashMap<>(Map.of("standard", new Tier()));
+    private Map<String, String> userTiers = new HashMap<>();
+    private int maxBuckets = 1_000_000;
+    private int segments = 64;
+    private Duration sweepInterval = Duration.ofSeconds(10);
+    private Lease lease = new Lease();
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public String getDefaultTier() { return defaultTier; }
+    public void setDefaultTier(String defaultTier) { this.defaultTier = defaultTier; }
+
+    public Map<String, Tier> getTiers() { return tiers; }
+    public void setTiers(Map<String, Tier> tiers) { this.tiers = tiers; }
+
+    public Map<String, String> getUserTiers() { return userTiers; }
+    public void setUserTiers(Map<String, String> userTiers) { this.userTiers = userTiers; }
+
+    public int getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(int maxBuckets) { this.maxBuckets = maxBuckets; }
+
+    public int getSegments() { return segments; }
+    public void setSegments(int segments) { this.segments = segments; }
+
+    public Duration getSweepInterval() { return sweepInterval; }
+    public void setSweepInterval(Duration sweepInterval) { this.sweepInterval = sweepInterval; }
+
+    public Lease getLease() { return lease; }
+    public void setLease(Lease lease) { this.lease = lease; }
+
+    public enum Mode {
+        LOCAL,
+        DISTRIBUTED
+    }
+
+    public static class Tier {
+        private int ordersPerMinute = 10;
+
+        public int getOrdersPerMinute() { return ordersPerMinute; }
+        public void setOrdersPerMinute(int ordersPerMinute) { this.ordersPerMinute = ordersPerMinute; }
+    }
+
+    public static class Lease {
+        // Share of a user's per-minute limit a node borrows from Redis in one call
+        private double fraction = 0.2;
+        // Longest a node may sit on borrowed tokens before handing the rest back
+        private Duration maxHold = Duration.ofSeconds(5);
+
+        public double getFraction() { return fraction; }
+        public void setFraction(double fraction) { this.fraction = fraction; }
+
+        public Duration getMaxHold() { return maxHold; }
+        public void setMaxHold(Duration maxHold) { this.maxHold = maxHold; }
+    }
+}
@@ -3,16 +3,24 @@ package com.riskengine.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.api.StatefulConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 public class RedisConfig {
     
@@ -22,12 +30,42 @@ public class RedisConfig {
     @Value("${spring.redis.port:6379}")
     private int redisPort;
     
+    @Value("${spring.redis.timeout:2000ms}")
+    private Duration commandTimeout;
+    
+    @Value("${spring.redis.lettuce.pool.max-active:32}")
+    private int poolMaxActive;
+    
+    @Value("${spring.redis.lettuce.pool.max-idle:32}")
+    private int poolMaxIdle;
+    
+    @Value("${spring.redis.lettuce.pool.min-idle:4}")
+    private int poolMinIdle;
+    
+    @Value("${spring.redis.lettuce.pool.max-wait:2000ms}")
+    private Duration poolMaxWait;
+    
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(redisHost);
         config.setPort(redisPort);
-        return new LettuceConnectionFactory(config);
+        
+        // Plain commands share one multiplexed connection, however many (virtual) threads issue
+        // them; the pool only backs pipelines and other dedicated-connection work
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolMaxActive);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setMaxWait(poolMaxWait);
+        LettuceClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
+                .poolConfig(poolConfig)
+                .commandTimeout(commandTimeout)
+                .build();
+        
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(config, clientConfig);
+        connectionFactory.setShareNativeConnection(true);
+        return connectionFactory;
     }
     
     @Bean
@@ -47,6 +85,18 @@ public class RedisConfig {
         return template;
     }
     
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        // Plain string values for counters and scripts that Redis itself must interpret
+        return new StringRedisTemplate(connectionFactory);
+    }
+    
+    @Bean
+    public ReactiveStringRedisTemplate reactiveStringRedisTemplate(LettuceConnectionFactory connectionFactory) {
+        // Same shared connection; commands complete on Lettuce's event loop instead of blocking a caller
+        return new ReactiveStringRedisTemplate(connectionFactory);
+    }
+    
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,25 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.prices")
+public class ReferencePriceProperties {
+
+    // Subscribe to the price channel; without it prices only change through ReferencePrices.update
+    private boolean enabled = false;
+    // Redis pub/sub channel carrying {"symbol":"BTC-USD","price":45012.34} messages
+    private String channel = "prices";
+    // A symbol with no update for this long has no reference price until the next one
+    private Duration staleAfter = Duration.ofSeconds(30);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public Duration getStaleAfter() { return staleAfter; }
+    public void setStaleAfter(Duration staleAfter) { this.staleAfter = staleAfter; }
+}
@@ -0,0 +1,36 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "risk.rules")
+public class RuleProperties {
+
+    private Duration reorderInterval = Duration.ofSeconds(60);
+    private Map<String, Rule> chain = new HashMap<>();
+
+    public Duration getReorderInterval() { return reorderInterval; }
+    public void setReorderInterval(Duration reorderInterval) { this.reorderInterval = reorderInterval; }
+
+    public Map<String, Rule> getChain() { return chain; }
+    public void setChain(Map<String, Rule> chain) { this.chain = chain; }
+
+    public static class Rule {
+        private boolean enabled = true;
+        // Overrides the rule's built-in cost estimate when set
+        private Integer cost;
+        private Map<String, String> params = new HashMap<>();
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public Integer getCost() { return cost; }
+        public void setCost(Integer cost) { this.cost = cost; }
+
+        public Map<String, String> getParams() { return params; }
+        public void setParams(Map<String, String> params) { this.params = params; }
+    }
+}
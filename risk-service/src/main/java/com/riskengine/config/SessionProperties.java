@@ -0,0 +1,65 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "risk.sessions")
+public class SessionProperties {
+
+    // An external calendar with the same venues and symbols layout, replacing those below when set
+    private String file = "";
+    private String defaultVenue = "default";
+    // How far ahead session boundaries are precomputed
+    private Duration horizon = Duration.ofDays(7);
+    private Map<String, Venue> venues = new LinkedHashMap<>();
+    private Map<String, String> symbols = new HashMap<>();
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getDefaultVenue() { return defaultVenue; }
+    public void setDefaultVenue(String defaultVenue) { this.defaultVenue = defaultVenue; }
+
+    public Duration getHorizon() { return horizon; }
+    public void setHorizon(Duration horizon) { this.horizon = horizon; }
+
+    public Map<String, Venue> getVenues() { return venues; }
+    public void setVenues(Map<String, Venue> venues) { this.venues = venues; }
+
+    public Map<String, String> getSymbols() { return symbols; }
+    public void setSymbols(Map<String, String> symbols) { this.symbols = symbols; }
+
+    public static class Venue {
+        private String timezone = "UTC";
+        private boolean alwaysOpen = false;
+        // Local "HH:mm-HH:mm" windows; one that closes at or before it opens ends the next day
+        private List<String> sessions = new ArrayList<>(List.of("09:00-16:00"));
+        private Set<DayOfWeek> days = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+        // ISO dates with no session opening
+        private List<String> holidays = new ArrayList<>();
+
+        public String getTimezone() { return timezone; }
+        public void setTimezone(String timezone) { this.timezone = timezone; }
+
+        public boolean isAlwaysOpen() { return alwaysOpen; }
+        public void setAlwaysOpen(boolean alwaysOpen) { this.alwaysOpen = alwaysOpen; }
+
+        public List<String> getSessions() { return sessions; }
+        public void setSessions(List<String> sessions) { this.sessions = sessions; }
+
+        public Set<DayOfWeek> getDays() { return days; }
+        public void setDays(Set<DayOfWeek> days) { this.days = days; }
+
+        public List<String> getHolidays() { return holidays; }
+        public void setHolidays(List<String> holidays) { this.holidays = holidays; }
+    }
+}
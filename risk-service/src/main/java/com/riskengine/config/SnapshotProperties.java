@@ -0,0 +1,30 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = false;
+    private String directory = "data/snapshots";
+    private Duration interval = Duration.ofMinutes(1);
+    private int parts = 8;
+    private int retain = 2;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public Duration getInterval() { return interval; }
+    public void setInterval(Duration interval) { this.interval = interval; }
+
+    public int getParts() { return parts; }
+    public void setParts(int parts) { this.parts = parts; }
+
+    public int getRetain() { return retain; }
+    public void setRetain(int retain) { this.retain = retain; }
+}
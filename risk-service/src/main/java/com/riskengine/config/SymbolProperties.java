@@ -0,0 +1,34 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "risk.symbols")
+public class SymbolProperties {
+
+    private int defaultQuantityScale = 8;
+    private int defaultPriceScale = 4;
+    private Map<String, Scale> scales = new HashMap<>();
+
+    public int getDefaultQuantityScale() { return defaultQuantityScale; }
+    public void setDefaultQuantityScale(int defaultQuantityScale) { this.defaultQuantityScale = defaultQuantityScale; }
+
+    public int getDefaultPriceScale() { return defaultPriceScale; }
+    public void setDefaultPriceScale(int defaultPriceScale) { this.defaultPriceScale = defaultPriceScale; }
+
+    public Map<String, Scale> getScales() { return scales; }
+    public void setScales(Map<String, Scale> scales) { this.scales = scales; }
+
+    public static class Scale {
+        private int quantity;
+        private int price;
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+
+        public int getPrice() { return price; }
+        public void setPrice(int price) { this.price = price; }
+    }
+}
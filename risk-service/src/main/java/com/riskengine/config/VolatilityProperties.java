@@ -0,0 +1,30 @@
+package com.riskengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "risk.volatility")
+public class VolatilityProperties {
+
+    // EWMA decay per price tick; 0.94 is the RiskMetrics value
+    private double lambda = 0.94;
+    // Returns in the rolling realized-volatility window
+    private int window = 120;
+    // Returns a symbol needs before its volatility is reported
+    private int minTicks = 20;
+    // Ticks closer together than this are treated as this far apart, so bursts don't inflate the estimate
+    private Duration minInterval = Duration.ofMillis(100);
+
+    public double getLambda() { return lambda; }
+    public void setLambda(double lambda) { this.lambda = lambda; }
+
+    public int getWindow() { return window; }
+    public void setWindow(int window) { this.window = window; }
+
+    public int getMinTicks() { return minTicks; }
+    public void setMinTicks(int minTicks) { this.minTicks = minTicks; }
+
+    public Duration getMinInterval() { return minInterval; }
+    public void setMinInterval(Duration minInterval) { this.minInterval = minInterval; }
+}
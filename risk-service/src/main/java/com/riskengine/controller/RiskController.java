@@ -1,36 +1,63 @@
 package com.riskengine.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.codec.OrderJsonDecoder;
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
 import com.riskengine.model.Order;
 import com.riskengine.model.RiskAssessment;
 import com.riskengine.service.RiskService;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
-import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1")
 public class RiskController {
     
     private static final Logger logger = LoggerFactory.getLogger(RiskController.class);
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
     
     private final RiskService riskService;
+    private final JsonFactory jsonFactory;
+    private final int maxBatchSize;
     private final Counter orderCounter;
     private final Counter acceptedOrderCounter;
     private final Counter rejectedOrderCounter;
     private final Counter warnOrderCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final StageLatency decodeLatency;
     
     @Autowired
-    public RiskController(RiskService riskService, MeterRegistry meterRegistry) {
+    public RiskController(RiskService riskService, StageTimings stageTimings, MeterRegistry meterRegistry,
+                          ObjectMapper objectMapper, @Value("${risk.batch.max-size:1000}") int maxBatchSize) {
         this.riskService = riskService;
+        this.decodeLatency = stageTimings.stage(StageTimings.DECODE);
+        this.jsonFactory = objectMapper.getFactory();
+        this.maxBatchSize = maxBatchSize;
         this.orderCounter = Counter.builder("orders.total")
                 .description("Total number of orders processed")
                 .register(meterRegistry);
@@ -43,40 +70,115 @@ public class RiskController {
         this.warnOrderCounter = Counter.builder("orders.warned")
                 .description("Number of orders with warnings")
                 .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("orders.batch.size")
+                .description("Number of orders per batch request")
+                .register(meterRegistry);
     }
     
-    @PostMapping("/order")
+    @PostMapping(value = "/order", consumes = MediaType.APPLICATION_JSON_VALUE)
     @Timed(value = "order.processing.time", description = "Time taken to process order")
-    public ResponseEntity<RiskAssessment> processOrder(@Valid @RequestBody Order order) {
-        logger.info("Processing order: {}", order.getOrderId());
+    public ResponseEntity<RiskAssessment> processOrder(InputStream body) throws IOException {
+        Order order = readOrder(body);
+        logger.debug("Processing order: {}", order.getOrderId());
         
         try {
             orderCounter.increment();
             
             RiskAssessment assessment = riskService.assessOrder(order);
             
-            // Update metrics based on verdict
-            switch (assessment.getVerdict()) {
-                case ACCEPT:
-                    acceptedOrderCounter.increment();
-                    break;
-                case REJECT:
-                    rejectedOrderCounter.increment();
-                    break;
-                case WARN:
-                    warnOrderCounter.increment();
-                    break;
-            }
+            recordVerdict(assessment);
             
-            logger.info("Order {} processed with verdict: {}", 
-                       order.getOrderId(), assessment.getVerdict());
+            logger.debug("Order {} processed with verdict: {}", order.getOrderId(), assessment.getVerdict());
             
             return ResponseEntity.ok(assessment);
             
+        } catch (RejectedExecutionException e) {
+            logger.warn("Order {} shed: {}", order.getOrderId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorAssessment(order, "Internal error: " + e.getMessage()));
         } catch (Exception e) {
             logger.error("Error processing order {}: {}", order.getOrderId(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorAssessment(order, e.getMessage()));
+                    .body(createErrorAssessment(order, "Internal error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Non-blocking form of {@link #processOrder}. The servlet thread is handed back while the order
+     * waits on Redis or the journal, and the response is written when the assessment completes.
+     */
+    @PostMapping(value = "/order/async", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<RiskAssessment>> processOrderAsync(InputStream body) throws IOException {
+        Order order = readOrder(body);
+        orderCounter.increment();
+        return riskService.assessOrderAsync(order)
+                .thenApply(assessment -> {
+                    recordVerdict(assessment);
+                    logger.debug("Order {} processed with verdict: {}", order.getOrderId(), assessment.getVerdict());
+                    return ResponseEntity.ok(assessment);
+                })
+                .exceptionally(failure -> {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    if (cause instanceof RejectedExecutionException) {
+                        logger.warn("Order {} shed: {}", order.getOrderId(), cause.getMessage());
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(createErrorAssessment(order, "Internal error: " + cause.getMessage()));
+                    }
+                    logger.error("Error processing order {}: {}", order.getOrderId(), cause.getMessage(), cause);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(createErrorAssessment(order, "Internal error: " + cause.getMessage()));
+                });
+    }
+    
+    /**
+     * Assesses a batch of orders sent as a JSON array or as NDJSON (one order per line) and returns
+     * the assessments as a JSON array in request order. An order that fails validation gets a
+     * REJECT assessment of its own instead of failing the batch.
+     */
+    @PostMapping(value = "/orders/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Timed(value = "order.batch.processing.time", description = "Time taken to process an order batch")
+    public ResponseEntity<List<RiskAssessment>> processOrderBatch(InputStream body) throws IOException {
+        List<String> violations = new ArrayList<>();
+        List<Order> orders = readOrders(body, violations);
+        logger.info("Processing batch of {} orders", orders.size());
+        batchSizeSummary.record(orders.size());
+        orderCounter.increment(orders.size());
+        
+        List<RiskAssessment> assessments = new ArrayList<>(orders.size());
+        List<Order> validOrders = new ArrayList<>(orders.size());
+        List<Integer> validIndices = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (violations.get(i) == null) {
+                validOrders.add(order);
+                validIndices.add(i);
+                assessments.add(null);
+            } else {
+                assessments.add(createErrorAssessment(order, violations.get(i)));
+            }
+        }
+        
+        try {
+            List<RiskAssessment> results = riskService.assessOrders(validOrders);
+            for (int i = 0; i < results.size(); i++) {
+                assessments.set(validIndices.get(i), results.get(i));
+            }
+            assessments.forEach(this::recordVerdict);
+            return ResponseEntity.ok(assessments);
+            
+        } catch (RejectedExecutionException e) {
+            logger.warn("Batch of {} orders shed: {}", orders.size(), e.getMessage());
+            List<RiskAssessment> errors = orders.stream()
+                    .map(order -> createErrorAssessment(order, "Internal error: " + e.getMessage()))
+                    .toList();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errors);
+        } catch (Exception e) {
+            logger.error("Error processing batch of {} orders: {}", orders.size(), e.getMessage(), e);
+            List<RiskAssessment> errors = orders.stream()
+                    .map(order -> createErrorAssessment(order, "Internal error: " + e.getMessage()))
+                    .toList();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errors);
         }
     }
     
@@ -98,12 +200,81 @@ public class RiskController {
         ));
     }
     
-    private RiskAssessment createErrorAssessment(Order order, String errorMessage) {
+    /**
+     * Decodes one order and checks it as {@code @Valid} would, answering 400 with the violations
+     * if it fails.
+     */
+    private Order readOrder(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        OrderJsonDecoder decoder = OrderJsonDecoder.forCurrentThread();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            parser.nextToken();
+            if (!decoder.read(parser)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, validationMessage(decoder.violations()));
+            }
+            Order order = decoder.toOrder();
+            decodeLatency.recordSince(start);
+            return order;
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed order: " + e.getOriginalMessage());
+        }
+    }
+    
+    /**
+     * Decodes every order in the batch, adding to {@code violations} the failure message of each
+     * one, or null if it is valid.
+     */
+    private List<Order> readOrders(InputStream body, List<String> violations) throws IOException {
+        // Reads either a root-level JSON array or a whitespace-separated sequence such as NDJSON
+        List<Order> orders = new ArrayList<>();
+        OrderJsonDecoder decoder = OrderJsonDecoder.forCurrentThread();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (orders.size() == maxBatchSize) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Batch exceeds maximum of " + maxBatchSize + " orders");
+                }
+                long start = System.nanoTime();
+                boolean valid = decoder.read(parser);
+                orders.add(decoder.toOrder());
+                decodeLatency.recordSince(start);
+                violations.add(valid ? null : validationMessage(decoder.violations()));
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed order batch: " + e.getOriginalMessage());
+        }
+        return orders;
+    }
+    
+    private static String validationMessage(List<String> violations) {
+        return "Validation failed: " + String.join(", ", violations);
+    }
+    
+    private void recordVerdict(RiskAssessment assessment) {
+        switch (assessment.getVerdict()) {
+            case ACCEPT:
+                acceptedOrderCounter.increment();
+                break;
+            case REJECT:
+                rejectedOrderCounter.increment();
+                break;
+            case WARN:
+                warnOrderCounter.increment();
+                break;
+        }
+    }
+    
+    private RiskAssessment createErrorAssessment(Order order, String reason) {
         RiskAssessment assessment = new RiskAssessment();
         assessment.setOrderId(order.getOrderId());
         assessment.setUserId(order.getUserId());
         assessment.setVerdict(com.riskengine.model.RiskVerdict.REJECT);
-        assessment.setReasons(java.util.List.of("Internal error: " + errorMessage));
+        assessment.setReasons(java.util.List.of(reason));
         return assessment;
     }
 } 
\ No newline at end of file
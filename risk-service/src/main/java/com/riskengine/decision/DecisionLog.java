@@ -0,0 +1,247 @@
+package com.riskengine.decision;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.riskengine.concurrent.BoundedRingBuffer;
+import com.riskengine.config.DecisionLogProperties;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records each order's risk decision as one compact JSON line in its own file, off the request
+ * path. {@link #record} only samples and enqueues on a lock-free ring; a background thread
+ * serializes and writes in batches, flushing at least every {@code flush-interval}. ACCEPT
+ * verdicts are sampled at {@code accept-sample-rate} and WARN and REJECT are always kept. A full
+ * ring drops the decision rather than holding up the order, and both kinds of drop are counted in
+ * {@code decisions.log.dropped}.
+ * <pre>
+ * {"ts":1709733600000,"order":"o-1","user":"u-1","symbol":"BTC-USD","side":"BUY","verdict":"WARN",
+ *  "score":10,"notional":5000.0000,"exposure":5000.0000,"us":85,"reasons":["..."]}
+ * </pre>
+ */
+@Component
+public class DecisionLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final boolean enabled;
+    private final Path file;
+    private final double acceptSampleRate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxFileBytes;
+    private final BoundedRingBuffer<Decision> queue;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Counter loggedCounter;
+    private final Counter sampledOutCounter;
+    private final Counter queueFullCounter;
+    private final Counter failedCounter;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    // Writer thread only
+    private FileChannel channel;
+    private JsonGenerator generator;
+
+    @Autowired
+    public DecisionLog(DecisionLogProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.file = Path.of(properties.getFile());
+        this.acceptSampleRate = properties.getAcceptSampleRate();
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.maxFileBytes = properties.getMaxFileSize().toBytes();
+        this.queue = new BoundedRingBuffer<>(properties.getQueueCapacity());
+        this.loggedCounter = Counter.builder("decisions.logged")
+                .description("Decisions written to the decision log")
+                .register(meterRegistry);
+        this.sampledOutCounter = Counter.builder("decisions.log.dropped")
+                .description("Decisions left out of the decision log")
+                .tag("reason", "sampled")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("decisions.log.dropped")
+                .description("Decisions left out of the decision log")
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("decisions.log.failed")
+                .description("Decisions lost to decision log write failures")
+                .register(meterRegistry);
+        Gauge.builder("decisions.log.queue.depth", queue, BoundedRingBuffer::size)
+                .description("Decisions waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "decision-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Writing decisions to {} (ACCEPT sample rate {})", file.toAbsolutePath(), acceptSampleRate);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queues the decision for writing, unless it is a sampled-out ACCEPT or the queue is full.
+     */
+    public void record(Order order, RiskAssessment assessment) {
+        if (!running) {
+            return;
+        }
+        if (assessment.getVerdict() == RiskVerdict.ACCEPT && acceptSampleRate < 1.0
+                && ThreadLocalRandom.current().nextDouble() >= acceptSampleRate) {
+            sampledOutCounter.increment();
+            return;
+        }
+        Decision decision = new Decision(System.currentTimeMillis(), order.getOrderId(), order.getUserId(),
+                order.getSymbol(), order.getSide(), assessment.getVerdict(), assessment.getRiskScore(),
+                assessment.getNotionalAmount(), assessment.getUserExposure(), assessment.getProcessingTimeMicros(),
+                assessment.getReasons());
+        if (!queue.offer(decision)) {
+            queueFullCounter.increment();
+        }
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            int written = queue.drain(this::write, batchSize);
+            dirty |= written > 0;
+            long now = System.nanoTime();
+            if (dirty && (written == 0 || now - lastFlush >= flushIntervalNanos)) {
+                flush();
+                dirty = false;
+                lastFlush = now;
+            }
+            if (written == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        flush();
+        closeQuietly();
+    }
+
+    private void write(Decision decision) {
+        try {
+            if (generator == null) {
+                open();
+            }
+            JsonGenerator json = generator;
+            json.writeStartObject();
+            json.writeNumberField("ts", decision.timestamp());
+            json.writeStringField("order", decision.orderId());
+            json.writeStringField("user", decision.userId());
+            json.writeStringField("symbol", decision.symbol());
+            json.writeStringField("side", decision.side() != null ? decision.side().name() : null);
+            json.writeStringField("verdict", decision.verdict().name());
+            writeNumber(json, "score", decision.score());
+            writeNumber(json, "notional", decision.notional());
+            writeNumber(json, "exposure", decision.exposure());
+            if (decision.processingMicros() != null) {
+                json.writeNumberField("us", decision.processingMicros());
+            }
+            json.writeArrayFieldStart("reasons");
+            for (String reason : decision.reasons()) {
+                json.writeString(reason);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+            loggedCounter.increment();
+        } catch (IOException e) {
+            failedCounter.increment();
+            logger.error("Failed to write to the decision log {}", file, e);
+            closeQuietly();
+        }
+    }
+
+    private void flush() {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.flush();
+            if (channel.size() >= maxFileBytes) {
+                closeQuietly();
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to flush the decision log {}", file, e);
+            closeQuietly();
+        }
+    }
+
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileOutputStream out = new FileOutputStream(file.toFile(), true);
+        channel = out.getChannel();
+        generator = jsonFactory.createGenerator(new BufferedOutputStream(out, 64 * 1024));
+        // One object per line, written by write(); the default separator is a space
+        generator.setRootValueSeparator(null);
+    }
+
+    private void closeQuietly() {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the decision log {}", file, e);
+        }
+        generator = null;
+        channel = null;
+    }
+
+    private static void writeNumber(JsonGenerator json, String name, BigDecimal value) throws IOException {
+        if (value != null) {
+            json.writeFieldName(name);
+            json.writeNumber(value);
+        }
+    }
+
+    private record Decision(long timestamp, String orderId, String userId, String symbol, OrderSide side,
+                            RiskVerdict verdict, BigDecimal score, BigDecimal notional, BigDecimal exposure,
+                            Long processingMicros, List<String> reasons) {
+    }
+}
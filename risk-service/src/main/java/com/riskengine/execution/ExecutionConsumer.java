@@ -0,0 +1,254 @@
+package com.riskengine.execution;
+
+import com.riskengine.config.ExecutionProperties;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.OrderSide;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.PositionRelease;
+import com.riskengine.service.SymbolRegistry;
+import com.riskengine.service.SymbolSpec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases the exposure of orders that will no longer trade, from a Redis stream of fill and
+ * cancel events read as a consumer group. Each event carries the order's {@code userId},
+ * {@code symbol}, {@code side} and the {@code quantity} it covers, at the {@code price} exposure
+ * was reserved at. A {@code CANCEL} releases that notional. A {@code FILL} turns it into a
+ * position at {@code fillPrice}, which releases only the price improvement, or adds the slippage.
+ *
+ * <p>Events are read with large XREADGROUP counts and summed per user and symbol, so a batch is
+ * one {@link ExposureTracker#releasePositions} call, however many events it holds, and costs at
+ * most one Redis round trip. The batch is acknowledged only once that call returns. A failed batch
+ * stays pending and is read again, before any new events, as are this consumer's unacknowledged
+ * events after a restart. Delivery is therefore at least once: a batch whose write failed
+ * midway can be partly released twice.
+ */
+@Service
+public class ExecutionConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConsumer.class);
+    private static final String FILL = "FILL";
+    private static final String CANCEL = "CANCEL";
+
+    private final ExecutionProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ExposureTracker exposureTracker;
+    private final SymbolRegistry symbolRegistry;
+    private final Consumer consumer;
+    private final StreamReadOptions readOptions;
+
+    private final Counter fillCounter;
+    private final Counter cancelCounter;
+    private final Counter invalidCounter;
+    private final Counter failureCounter;
+    private final DistributionSummary batchSummary;
+    private final Timer lagTimer;
+
+    // Reads this consumer's unacknowledged events before new ones; only touched by the consumer thread
+    private boolean recovering = true;
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    @Autowired
+    public ExecutionConsumer(ExecutionProperties properties, StringRedisTemplate redisTemplate,
+                             ExposureTracker exposureTracker, SymbolRegistry symbolRegistry,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.exposureTracker = exposureTracker;
+        this.symbolRegistry = symbolRegistry;
+        this.consumer = Consumer.from(properties.getGroup(), properties.getConsumer());
+        this.readOptions = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getBlock());
+
+        this.fillCounter = Counter.builder("executions.consumed")
+                .description("Fill and cancel events applied to positions")
+                .tag("type", "fill")
+                .register(meterRegistry);
+        this.cancelCounter = Counter.builder("executions.consumed")
+                .description("Fill and cancel events applied to positions")
+                .tag("type", "cancel")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("executions.invalid")
+                .description("Execution events acknowledged without effect because they could not be parsed")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("executions.failed")
+                .description("Execution batches left pending because reading or releasing them failed")
+                .register(meterRegistry);
+        this.batchSummary = DistributionSummary.builder("executions.batch.size")
+                .description("Execution events per applied batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("executions.lag")
+                .description("Age of the oldest event in each batch when its release was applied")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        createGroup();
+        running = true;
+        consumerThread = new Thread(this::consumeLoop, "execution-consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        logger.info("Consuming executions from {} as {} in group {}",
+                properties.getStream(), properties.getConsumer(), properties.getGroup());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (consumerThread == null) {
+            return;
+        }
+        running = false;
+        // Lets the current XREADGROUP time out rather than interrupting it mid-reply
+        consumerThread.join(properties.getBlock().toMillis() + TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /** Reads, releases and acknowledges one batch, and returns how many events it held. */
+    int consume() {
+        ReadOffset offset = recovering ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .read(consumer, readOptions, StreamOffset.create(properties.getStream(), offset));
+        if (records == null || records.isEmpty()) {
+            // Nothing left pending; from here on only new events
+            recovering = false;
+            return 0;
+        }
+
+        Map<String, Map<String, long[]>> releasesByUser = new LinkedHashMap<>();
+        RecordId[] ids = new RecordId[records.size()];
+        long oldestMillis = Long.MAX_VALUE;
+        int fills = 0;
+        int cancels = 0;
+        int invalid = 0;
+        for (int i = 0; i < records.size(); i++) {
+            MapRecord<String, Object, Object> record = records.get(i);
+            ids[i] = record.getId();
+            oldestMillis = Math.min(oldestMillis, record.getId().getTimestamp());
+            String type = accumulate(record, releasesByUser);
+            if (FILL.equals(type)) {
+                fills++;
+            } else if (CANCEL.equals(type)) {
+                cancels++;
+            } else {
+                invalid++;
+            }
+        }
+
+        List<PositionRelease> releases = new ArrayList<>();
+        releasesByUser.forEach((userId, bySymbol) -> bySymbol.forEach((symbol, units) -> {
+            if (units[0] != 0 || units[1] != 0) {
+                releases.add(new PositionRelease(userId, symbol, units[0], units[1]));
+            }
+        }));
+        exposureTracker.releasePositions(releases);
+        redisTemplate.opsForStream().acknowledge(properties.getStream(), properties.getGroup(), ids);
+
+        fillCounter.increment(fills);
+        cancelCounter.increment(cancels);
+        invalidCounter.increment(invalid);
+        batchSummary.record(records.size());
+        lagTimer.record(Math.max(System.currentTimeMillis() - oldestMillis, 0L), TimeUnit.MILLISECONDS);
+        logger.debug("Released {} positions for {} execution events", releases.size(), records.size());
+        return records.size();
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try {
+                consume();
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                recovering = true;
+                logger.warn("Failed to apply execution events from {}, retrying pending events",
+                        properties.getStream(), e);
+                try {
+                    Thread.sleep(properties.getRetryBackoff().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void createGroup() {
+        try {
+            // From the start of the stream, so events published before the first replica came up count too
+            redisTemplate.opsForStream()
+                    .createGroup(properties.getStream(), ReadOffset.from("0"), properties.getGroup());
+        } catch (DataAccessException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Adds the event's release to its user and symbol, and returns its type, or null if the event
+     * could not be parsed.
+     */
+    private String accumulate(MapRecord<String, Object, Object> record,
+                              Map<String, Map<String, long[]>> releasesByUser) {
+        Map<Object, Object> fields = record.getValue();
+        try {
+            String type = field(fields, "type");
+            String userId = field(fields, "userId");
+            SymbolSpec spec = symbolRegistry.intern(field(fields, "symbol"));
+            OrderSide side = OrderSide.fromValue(field(fields, "side"));
+            BigDecimal quantity = new BigDecimal(field(fields, "quantity"));
+            long released = symbolRegistry.notionalUnits(spec, quantity, new BigDecimal(field(fields, "price")));
+            if (FILL.equals(type)) {
+                BigDecimal fillPrice = new BigDecimal(field(fields, "fillPrice"));
+                released = FixedPoint.addSaturated(released, -symbolRegistry.notionalUnits(spec, quantity, fillPrice));
+            } else if (!CANCEL.equals(type)) {
+                throw new IllegalArgumentException("unknown type " + type);
+            }
+            long[] units = releasesByUser.computeIfAbsent(userId, user -> new HashMap<>())
+                    .computeIfAbsent(spec.symbol(), symbol -> new long[2]);
+            int leg = side == OrderSide.BUY ? 0 : 1;
+            units[leg] = FixedPoint.addSaturated(units[leg], released);
+            return type;
+        } catch (RuntimeException e) {
+            logger.warn("Skipping malformed execution event {}: {}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String field(Map<Object, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + name);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,343 @@
+package com.riskengine.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.config.IdempotencyProperties;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Makes order retries idempotent: an orderId seen within {@code window} gets back the assessment
+ * of its first attempt, without checking, reserving or publishing it again. A retry that arrives
+ * while the first attempt is still running waits for the same result.
+ *
+ * <p>Orders are told apart by user and orderId, so two users choosing the same id never get each
+ * other's assessment. A retry must also repeat the first attempt's symbol, side, quantity, price
+ * and type; one that does not is a different order under a reused id, and is rejected without an
+ * assessment rather than answered with the first one ({@code orders.idempotency.conflicts}).
+ *
+ * <p>A claim costs one map insert and one ring slot, with no locks; the order is only compared
+ * field by field when its key is already present. Results live in a map bounded by
+ * {@code max-results}, with a ring of slots in claim order as the clock: each claim takes the next
+ * slot and evicts its previous occupant. All entries live for the same window, so the oldest is
+ * always the one to go, and a retry whose result was evicted is assessed as new.
+ *
+ * <p>In DISTRIBUTED mode an order the local cache cannot answer is also claimed in Redis with
+ * {@code SET NX} under {@code orders:seen:{userId length}:{userId}:{orderId}}, along with the
+ * fields a retry must repeat, and its assessment is stored there once complete, so a retry sent
+ * to another replica is recognised too. Both go through the reactive template, so
+ * {@link #claimAsync} and {@link #finish} never hold the caller's thread while Redis answers. A
+ * retry of an order another replica is still assessing is shed with
+ * {@link RejectedExecutionException}, for the gateway to retry once it completes. If Redis cannot
+ * be reached the order is assessed as new.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+    private static final String SEEN_KEY_PREFIX = "orders:seen:";
+    private static final String PENDING = "pending";
+    // Ends the fields a retry must repeat in the value stored in Redis; the JSON after it has no raw newlines
+    private static final char FINGERPRINT_END = '\n';
+    private static final Claim UNTRACKED = new Claim(null, null, false);
+    private static final CompletableFuture<Claim> UNTRACKED_FUTURE = CompletableFuture.completedFuture(UNTRACKED);
+
+    private final boolean enabled;
+    private final boolean distributed;
+    private final Duration window;
+    private final long windowNanos;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> results = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Entry> ring;
+    private final AtomicLong ringCursor = new AtomicLong();
+
+    private final Counter localDuplicateCounter;
+    private final Counter remoteDuplicateCounter;
+    private final Counter conflictCounter;
+    private final Counter remoteFailureCounter;
+
+    @Autowired
+    public IdempotencyCache(IdempotencyProperties properties, ReactiveStringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.distributed = properties.getMode() == IdempotencyProperties.Mode.DISTRIBUTED;
+        this.window = properties.getWindow();
+        this.windowNanos = window.toNanos();
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        // A disabled cache allocates no ring
+        this.ring = new AtomicReferenceArray<>(enabled ? properties.getMaxResults() : 0);
+
+        this.localDuplicateCounter = Counter.builder("orders.idempotency.duplicates")
+                .description("Retried orders answered with the assessment of their first attempt")
+                .tag("source", "local")
+                .register(meterRegistry);
+        this.remoteDuplicateCounter = Counter.builder("orders.idempotency.duplicates")
+                .description("Retried orders answered with the assessment of their first attempt")
+                .tag("source", "redis")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("orders.idempotency.conflicts")
+                .description("Orders rejected for reusing the orderId of a different order in the window")
+                .register(meterRegistry);
+        this.remoteFailureCounter = Counter.builder("orders.idempotency.redis.failed")
+                .description("Orders assessed as new because the Redis idempotency check failed")
+                .register(meterRegistry);
+        Gauge.builder("orders.idempotency.results", results, Map::size)
+                .description("Assessments held for retries")
+                .register(meterRegistry);
+    }
+
+    public IdempotencyCache(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this(properties, null, null, meterRegistry);
+    }
+
+    /** Blocking form of {@link #claimAsync}, for callers that may wait on Redis. */
+    public Claim claim(Order order) {
+        return claimAsync(order).join();
+    }
+
+    /**
+     * Claims {@code order} for the caller. Unless the claim {@linkplain Claim#isDuplicate() is a
+     * duplicate}, the caller assesses the order and must hand the outcome to {@link #finish}. An
+     * order reusing the id of a different one comes back as a duplicate holding its rejection.
+     * The future is already complete unless the claim had to go to Redis, and then completes on
+     * Redis's I/O thread, never exceptionally.
+     */
+    public CompletableFuture<Claim> claimAsync(Order order) {
+        if (!enabled || order.getOrderId() == null || order.getUserId() == null) {
+            return UNTRACKED_FUTURE;
+        }
+        long now = System.nanoTime();
+        String key = key(order);
+        Entry entry = new Entry(key, order, new CompletableFuture<>(), now + windowNanos);
+        while (true) {
+            Entry existing = results.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.expiresAt() - now > 0) {
+                if (!sameOrder(existing.order(), order)) {
+                    return CompletableFuture.completedFuture(
+                            new Claim(null, CompletableFuture.completedFuture(conflict(order)), false));
+                }
+                localDuplicateCounter.increment();
+                return CompletableFuture.completedFuture(new Claim(null, existing.result(), false));
+            }
+            if (results.replace(key, existing, entry)) {
+                break;
+            }
+        }
+        enqueue(entry);
+
+        if (!distributed) {
+            return CompletableFuture.completedFuture(new Claim(entry, null, false));
+        }
+        return claimRemote(entry).thenApply(remote -> {
+            if (remote == null) {
+                return new Claim(entry, null, true);
+            }
+            // Later retries to this replica, and any already waiting on the entry, get the same answer
+            remote.whenComplete((assessment, failure) -> {
+                if (failure != null) {
+                    results.remove(key, entry);
+                }
+                complete(entry, assessment, failure);
+            });
+            return new Claim(null, remote, false);
+        });
+    }
+
+    /**
+     * Records the outcome of an order the caller claimed. A failed assessment is forgotten, so a
+     * retry is assessed afresh, and anyone already waiting on it fails too. The Redis write, in
+     * DISTRIBUTED mode, is not waited for.
+     */
+    public void finish(Claim claim, RiskAssessment assessment, Throwable failure) {
+        Entry entry = claim.owned;
+        if (entry == null) {
+            return;
+        }
+        if (failure != null) {
+            results.remove(entry.key(), entry);
+        }
+        if (claim.remote) {
+            storeRemote(entry, failure == null ? assessment : null);
+        }
+        complete(entry, assessment, failure);
+    }
+
+    /**
+     * Claims the entry's order in Redis. Completes with null if this replica now owns it, or with
+     * the earlier attempt's outcome if not.
+     */
+    private CompletableFuture<CompletableFuture<RiskAssessment>> claimRemote(Entry entry) {
+        Order order = entry.order();
+        String key = SEEN_KEY_PREFIX + entry.key();
+        String fingerprint = fingerprint(order);
+        try {
+            return redisTemplate.opsForValue().setIfAbsent(key, fingerprint + FINGERPRINT_END + PENDING, window)
+                    .toFuture()
+                    .thenCompose(claimed -> Boolean.TRUE.equals(claimed)
+                            ? CompletableFuture.<String>completedFuture(null)
+                            : redisTemplate.opsForValue().get(key).toFuture())
+                    .thenApply(stored -> {
+                        // Null also when the key expired between the two calls; close enough to new
+                        return stored == null ? null : previous(entry, fingerprint, stored);
+                    })
+                    .exceptionally(failure -> {
+                        remoteFailureCounter.increment();
+                        logger.warn("Idempotency check in Redis failed for order {}, assessing it as new",
+                                order.getOrderId(), failure);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            remoteFailureCounter.increment();
+            logger.warn("Idempotency check in Redis failed for order {}, assessing it as new", order.getOrderId(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private CompletableFuture<RiskAssessment> previous(Entry entry, String fingerprint, String stored) {
+        Order order = entry.order();
+        int end = stored.lastIndexOf(FINGERPRINT_END);
+        if (!fingerprint.equals(stored.substring(0, Math.max(end, 0)))) {
+            // Leaves this replica free to answer retries of the order that holds the id
+            results.remove(entry.key(), entry);
+            return CompletableFuture.completedFuture(conflict(order));
+        }
+        String state = stored.substring(end + 1);
+        remoteDuplicateCounter.increment();
+        if (PENDING.equals(state)) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Order " + order.getOrderId() + " is already being assessed"));
+        }
+        try {
+            return CompletableFuture.completedFuture(objectMapper.readValue(state, RiskAssessment.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable assessment stored for order " + order.getOrderId(), e);
+        }
+    }
+
+    private void storeRemote(Entry entry, RiskAssessment assessment) {
+        String key = SEEN_KEY_PREFIX + entry.key();
+        try {
+            CompletableFuture<?> write = assessment == null
+                    ? redisTemplate.delete(key).toFuture()
+                    : redisTemplate.opsForValue().set(key, fingerprint(entry.order()) + FINGERPRINT_END
+                            + objectMapper.writeValueAsString(assessment), window).toFuture();
+            write.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    storeFailed(entry, failure);
+                }
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            storeFailed(entry, e);
+        }
+    }
+
+    private void storeFailed(Entry entry, Throwable failure) {
+        remoteFailureCounter.increment();
+        logger.warn("Failed to store the assessment of order {} in Redis", entry.key(), failure);
+    }
+
+    private RiskAssessment conflict(Order order) {
+        conflictCounter.increment();
+        return new RiskAssessment(order.getOrderId(), order.getUserId(), RiskVerdict.REJECT, null,
+                List.of("Order ID " + order.getOrderId() + " was already used for a different order"));
+    }
+
+    // Length-prefixed, so no pair of user and order ids can produce another pair's key
+    private static String key(Order order) {
+        return order.getUserId().length() + ":" + order.getUserId() + ":" + order.getOrderId();
+    }
+
+    // What a retry must repeat; quantity and price compare by value, so "2" and "2.0" are the same order
+    private static boolean sameOrder(Order first, Order retry) {
+        return Objects.equals(first.getSymbol(), retry.getSymbol())
+                && first.getSide() == retry.getSide()
+                && sameValue(first.getQuantity(), retry.getQuantity())
+                && sameValue(first.getPrice(), retry.getPrice())
+                && first.getOrderType() == retry.getOrderType();
+    }
+
+    private static boolean sameValue(BigDecimal first, BigDecimal retry) {
+        return first == null ? retry == null : retry != null && first.compareTo(retry) == 0;
+    }
+
+    // The same fields as sameOrder, for the value stored in Redis
+    private static String fingerprint(Order order) {
+        return order.getSymbol() + "|" + order.getSide() + "|" + plain(order.getQuantity()) + "|"
+                + plain(order.getPrice()) + "|" + order.getOrderType();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros().toPlainString();
+    }
+
+    private void enqueue(Entry entry) {
+        int slot = (int) (ringCursor.getAndIncrement() % ring.length());
+        Entry evicted = ring.getAndSet(slot, entry);
+        if (evicted != null) {
+            results.remove(evicted.key(), evicted);
+        }
+    }
+
+    private static void complete(Entry entry, RiskAssessment assessment, Throwable failure) {
+        if (failure != null) {
+            entry.result().completeExceptionally(failure);
+        } else {
+            entry.result().complete(assessment);
+        }
+    }
+
+    /**
+     * The caller's hold on one order. A duplicate carries the earlier attempt's assessment;
+     * otherwise the caller owns the order until {@link #finish}.
+     */
+    public static final class Claim {
+
+        // Null unless the caller is to assess the order and finish the claim
+        private final Entry owned;
+        private final CompletableFuture<RiskAssessment> previous;
+        private final boolean remote;
+
+        private Claim(Entry owned, CompletableFuture<RiskAssessment> previous, boolean remote) {
+            this.owned = owned;
+            this.previous = previous;
+            this.remote = remote;
+        }
+
+        public boolean isDuplicate() {
+            return previous != null;
+        }
+
+        /** The first attempt's assessment, possibly still to complete; only for duplicates. */
+        public CompletableFuture<RiskAssessment> previous() {
+            return previous;
+        }
+    }
+
+    private record Entry(String key, Order order, CompletableFuture<RiskAssessment> result, long expiresAt) {
+    }
+}
@@ -0,0 +1,493 @@
+package com.riskengine.ingress;
+
+import com.riskengine.codec.OrderFrameCodec;
+import com.riskengine.config.IngressProperties;
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import com.riskengine.service.RiskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the binary order-entry protocol of {@link OrderFrameCodec} over TCP and a Unix domain
+ * socket, next to the REST API, for gateways on the same host or network that cannot afford HTTP
+ * and JSON per order. One selector thread reads and decodes frames from every connection and hands
+ * each order to a virtual thread, which validates it and calls {@link RiskService#assessOrderAsync},
+ * so the selector only ever waits on sockets. Assessments are queued back to their connection as
+ * they complete and written by the selector thread, so a client can pipeline orders without
+ * waiting for each answer. A connection with {@code max-in-flight} orders outstanding, counted from
+ * decoding, is not read until some of them complete.
+ */
+@Component
+public class BinaryOrderServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryOrderServer.class);
+    private static final int WRITE_BATCH = 64;
+
+    private final RiskService riskService;
+    private final Validator validator;
+    private final IngressProperties properties;
+    private final Queue<Connection> writable = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter orderCounter;
+    private final Counter acceptedOrderCounter;
+    private final Counter rejectedOrderCounter;
+    private final Counter warnOrderCounter;
+    private final Counter protocolErrorCounter;
+    private final StageLatency decodeLatency;
+    private final StageLatency encodeLatency;
+
+    private Selector selector;
+    private ExecutorService orderExecutor;
+    private ServerSocketChannel tcpChannel;
+    private ServerSocketChannel unixChannel;
+    private Path unixSocket;
+    private volatile Thread selectorThread;
+    private volatile boolean running;
+
+    @Autowired
+    public BinaryOrderServer(RiskService riskService, Validator validator, IngressProperties properties,
+                             StageTimings stageTimings, MeterRegistry meterRegistry) {
+        this.riskService = riskService;
+        this.validator = validator;
+        this.properties = properties;
+        // Same meters as the REST controller, so order totals cover both ingresses
+        this.orderCounter = Counter.builder("orders.total")
+                .description("Total number of orders processed")
+                .register(meterRegistry);
+        this.acceptedOrderCounter = Counter.builder("orders.accepted")
+                .description("Number of orders accepted")
+                .register(meterRegistry);
+        this.rejectedOrderCounter = Counter.builder("orders.rejected")
+                .description("Number of orders rejected")
+                .register(meterRegistry);
+        this.warnOrderCounter = Counter.builder("orders.warned")
+                .description("Number of orders with warnings")
+                .register(meterRegistry);
+        this.protocolErrorCounter = Counter.builder("ingress.binary.protocol.errors")
+                .description("Binary connections closed for a malformed frame")
+                .register(meterRegistry);
+        Gauge.builder("ingress.binary.connections", connections, AtomicInteger::get)
+                .description("Open binary order-entry connections")
+                .register(meterRegistry);
+        this.decodeLatency = stageTimings.stage(StageTimings.DECODE);
+        this.encodeLatency = stageTimings.stage(StageTimings.ENCODE);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            if (properties.getTcpPort() >= 0) {
+                tcpChannel = ServerSocketChannel.open();
+                tcpChannel.bind(new InetSocketAddress(properties.getHost(), properties.getTcpPort()));
+                tcpChannel.configureBlocking(false);
+                tcpChannel.register(selector, SelectionKey.OP_ACCEPT);
+                logger.info("Binary order entry listening on {}", tcpChannel.getLocalAddress());
+            }
+            if (!properties.getUnixSocket().isBlank()) {
+                unixSocket = Path.of(properties.getUnixSocket());
+                if (unixSocket.getParent() != null) {
+                    Files.createDirectories(unixSocket.getParent());
+                }
+                // A socket file left by an earlier run would fail the bind
+                Files.deleteIfExists(unixSocket);
+                unixChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                unixChannel.bind(UnixDomainSocketAddress.of(unixSocket));
+                unixChannel.configureBlocking(false);
+                unixChannel.register(selector, SelectionKey.OP_ACCEPT);
+                logger.info("Binary order entry listening on {}", unixSocket);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open binary order entry", e);
+        }
+
+        // Validation and the rule checks run here rather than on the selector; in-flight limits bound the threads
+        orderExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("binary-ingress-order-", 0).factory());
+        running = true;
+        Thread thread = new Thread(this::run, "binary-ingress");
+        thread.setDaemon(true);
+        selectorThread = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = selectorThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        orderExecutor.shutdown();
+        selectorThread = null;
+    }
+
+    /**
+     * The port the TCP listener is bound to, or -1 if it is not listening. Useful when
+     * {@code tcp-port} is 0 and the system picked one.
+     */
+    public int tcpPort() {
+        return tcpChannel != null ? tcpChannel.socket().getLocalPort() : -1;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                Set<SelectionKey> keys = selector.selectedKeys();
+                for (SelectionKey key : keys) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                }
+                keys.clear();
+                for (Connection connection; (connection = writable.poll()) != null; ) {
+                    connection.queued.set(false);
+                    connection.flush();
+                }
+            } catch (IOException e) {
+                logger.error("Binary order entry selector failed", e);
+            }
+        }
+        closeAll();
+    }
+
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            if (server == tcpChannel) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.incrementAndGet();
+        } catch (IOException e) {
+            logger.warn("Failed to accept binary order entry connection: {}", e.getMessage());
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+        try {
+            if (tcpChannel != null) {
+                tcpChannel.close();
+            }
+            if (unixChannel != null) {
+                unixChannel.close();
+                Files.deleteIfExists(unixSocket);
+            }
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close binary order entry listeners: {}", e.getMessage());
+        }
+    }
+
+    private void recordVerdict(RiskAssessment assessment) {
+        switch (assessment.getVerdict()) {
+            case ACCEPT:
+                acceptedOrderCounter.increment();
+                break;
+            case REJECT:
+                rejectedOrderCounter.increment();
+                break;
+            case WARN:
+                warnOrderCounter.increment();
+                break;
+        }
+    }
+
+    private static RiskAssessment createErrorAssessment(Order order, String reason) {
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setOrderId(order.getOrderId());
+        assessment.setUserId(order.getUserId());
+        assessment.setVerdict(RiskVerdict.REJECT);
+        assessment.setReasons(List.of(reason));
+        return assessment;
+    }
+
+    /**
+     * One client connection. Reads, writes and interest changes happen on the selector thread;
+     * other threads only queue finished assessments on it.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer input;
+        private final Queue<ByteBuffer> completed = new ConcurrentLinkedQueue<>();
+        private final ArrayDeque<ByteBuffer> unwritten = new ArrayDeque<>();
+        private final ByteBuffer[] gather = new ByteBuffer[WRITE_BATCH];
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private SelectionKey key;
+        private boolean readPaused;
+        private volatile boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            // Room for a full frame plus whatever arrived behind it
+            this.input = ByteBuffer.allocate(properties.getMaxFrameBytes() * 2);
+        }
+
+        void read() {
+            try {
+                if (channel.read(input) < 0) {
+                    close();
+                    return;
+                }
+                drain();
+            } catch (IOException e) {
+                logger.debug("Binary order entry connection dropped: {}", e.getMessage());
+                close();
+            } catch (IllegalArgumentException e) {
+                protocolErrorCounter.increment();
+                logger.warn("Closing binary order entry connection: {}", e.getMessage());
+                close();
+            }
+        }
+
+        /**
+         * Dispatches every complete frame in the input buffer, stopping early and leaving the rest
+         * buffered once the connection reaches its in-flight limit.
+         */
+        private void drain() {
+            input.flip();
+            try {
+                while (inFlight.get() < properties.getMaxInFlight()) {
+                    int length = OrderFrameCodec.frameLength(input, properties.getMaxFrameBytes());
+                    if (length < 0) {
+                        break;
+                    }
+                    if (OrderFrameCodec.frameType(input) != OrderFrameCodec.ORDER) {
+                        throw new IllegalArgumentException(
+                                "Unexpected frame type " + OrderFrameCodec.frameType(input));
+                    }
+                    dispatch(OrderFrameCodec.correlationId(input));
+                }
+            } finally {
+                input.compact();
+            }
+            if (inFlight.get() >= properties.getMaxInFlight() && !readPaused) {
+                readPaused = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+
+        private void dispatch(long correlationId) {
+            long received = System.nanoTime();
+            orderCounter.increment();
+            Order order;
+            try {
+                order = OrderFrameCodec.decodeOrder(input);
+                decodeLatency.recordSince(received);
+            } catch (RuntimeException e) {
+                // The frame itself was well delimited, so the connection can carry on past it
+                RiskAssessment assessment = createErrorAssessment(new Order(), "Malformed order: " + e.getMessage());
+                recordVerdict(assessment);
+                send(OrderFrameCodec.encodeAssessment(correlationId, OrderFrameCodec.STATUS_INVALID, assessment, 0L));
+                return;
+            }
+
+            inFlight.incrementAndGet();
+            try {
+                orderExecutor.execute(() -> assess(order, correlationId, received));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                complete(order, correlationId, received, null, e);
+            }
+        }
+
+        /** Validates and assesses one decoded order, off the selector thread. */
+        private void assess(Order order, long correlationId, long received) {
+            Set<ConstraintViolation<Order>> violations = validator.validate(order);
+            if (!violations.isEmpty()) {
+                RiskAssessment assessment = createErrorAssessment(order, "Validation failed: " + violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                recordVerdict(assessment);
+                inFlight.decrementAndGet();
+                send(OrderFrameCodec.encodeAssessment(correlationId, OrderFrameCodec.STATUS_INVALID, assessment, 0L));
+                return;
+            }
+
+            CompletableFuture<RiskAssessment> result;
+            try {
+                result = riskService.assessOrderAsync(order);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.whenComplete((assessment, failure) -> complete(order, correlationId, received, assessment, failure));
+        }
+
+        private void complete(Order order, long correlationId, long received, RiskAssessment assessment,
+                              Throwable failure) {
+            byte status = OrderFrameCodec.STATUS_OK;
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                if (cause instanceof RejectedExecutionException) {
+                    logger.warn("Order {} shed: {}", order.getOrderId(), cause.getMessage());
+                    status = OrderFrameCodec.STATUS_OVERLOADED;
+                } else {
+                    logger.error("Error processing order {}: {}", order.getOrderId(), cause.getMessage(), cause);
+                    status = OrderFrameCodec.STATUS_ERROR;
+                }
+                assessment = createErrorAssessment(order, "Internal error: " + cause.getMessage());
+            }
+            recordVerdict(assessment);
+            long encodeStart = System.nanoTime();
+            long processingMicros = (encodeStart - received) / 1_000;
+            ByteBuffer frame = OrderFrameCodec.encodeAssessment(correlationId, status, assessment, processingMicros);
+            encodeLatency.recordSince(encodeStart);
+            // Released before queueing, so the flush that writes this frame sees the room and resumes reading
+            inFlight.decrementAndGet();
+            send(frame);
+        }
+
+        private void send(ByteBuffer frame) {
+            if (closed) {
+                return;
+            }
+            completed.add(frame);
+            if (queued.compareAndSet(false, true)) {
+                writable.add(this);
+                if (Thread.currentThread() != selectorThread && wakeupPending.compareAndSet(false, true)) {
+                    selector.wakeup();
+                }
+            }
+        }
+
+        void flush() {
+            if (closed) {
+                return;
+            }
+            try {
+                for (ByteBuffer frame; (frame = completed.poll()) != null; ) {
+                    unwritten.add(frame);
+                }
+                // Several assessments usually finish together; one gathering write sends them all
+                while (!unwritten.isEmpty()) {
+                    int count = 0;
+                    for (ByteBuffer frame : unwritten) {
+                        gather[count++] = frame;
+                        if (count == gather.length) {
+                            break;
+                        }
+                    }
+                    channel.write(gather, 0, count);
+                    boolean socketFull = gather[count - 1].hasRemaining();
+                    Arrays.fill(gather, 0, count, null);
+                    while (!unwritten.isEmpty() && !unwritten.peekFirst().hasRemaining()) {
+                        unwritten.pollFirst();
+                    }
+                    if (socketFull) {
+                        break;
+                    }
+                }
+                int interestOps = unwritten.isEmpty()
+                        ? key.interestOps() & ~SelectionKey.OP_WRITE
+                        : key.interestOps() | SelectionKey.OP_WRITE;
+                if (readPaused && inFlight.get() < properties.getMaxInFlight()) {
+                    readPaused = false;
+                    interestOps |= SelectionKey.OP_READ;
+                    key.interestOps(interestOps);
+                    drain();
+                } else {
+                    key.interestOps(interestOps);
+                }
+            } catch (IOException e) {
+                logger.debug("Binary order entry connection dropped: {}", e.getMessage());
+                close();
+            } catch (IllegalArgumentException e) {
+                protocolErrorCounter.increment();
+                logger.warn("Closing binary order entry connection: {}", e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close binary order entry connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.riskengine.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of position changes in fixed-size memory-mapped segments. An append copies
+ * one checksummed record into the mapped segment, so it costs a memory copy rather than a system
+ * call; when it becomes durable depends on the {@link FsyncPolicy}. Segments are named after the
+ * first sequence they hold and are deleted once a {@link #checkpoint} shows every entry in them
+ * has reached Redis and no retained snapshot still needs them.
+ *
+ * <p>Segment layout: magic, version and first sequence, then records of
+ * {@code [length][crc32c][payload]}. A zero length, a checksum mismatch or a sequence gap marks the
+ * end of the journal; anything after it is a torn write and is discarded on {@link #open}.
+ */
+public final class ExposureJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExposureJournal.class);
+    private static final int MAGIC = 0x524A4E4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 8 + 1 + 2 + 0xFFFF + 2 + 0xFFFF + 24;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long groupCommitNanos;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Serializes EVERY_WRITE forces, so an entry is never reported durable before the ones ahead of it
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableCondition = durableLock.newCondition();
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final PriorityBlockingQueue<DurableWaiter> durableWaiters =
+            new PriorityBlockingQueue<>(64, Comparator.comparingLong(DurableWaiter::sequence));
+    // Guarded by writeLock
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_PAYLOAD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer current;
+    private int writePosition;
+    private int unforcedFrom;
+    private long nextSequence;
+
+    private volatile long writtenSequence;
+    private volatile long durableSequence;
+    private volatile long checkpointSequence;
+    private volatile long retainedSequence = Long.MAX_VALUE;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    private final Timer forceTimer;
+    private final DistributionSummary groupSizeSummary;
+
+    public ExposureJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration groupCommitInterval,
+                           MeterRegistry meterRegistry) {
+        if (segmentSize < SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Journal segments must hold at least one maximum-size record");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitNanos = groupCommitInterval.toNanos();
+        this.forceTimer = Timer.builder("exposure.journal.force")
+                .description("Time to force journal pages to disk")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.groupSizeSummary = DistributionSummary.builder("exposure.journal.group.size")
+                .description("Journal entries made durable by one force")
+                .register(meterRegistry);
+        Gauge.builder("exposure.journal.segments", segments, Map::size)
+                .description("Journal segments on disk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays every entry after the last checkpoint into {@code replayer}, in sequence order, then
+     * positions the journal for appending after the last intact record. Returns the number of
+     * entries replayed.
+     */
+    public long open(Consumer<JournalEntry> replayer) {
+        return open(Long.MAX_VALUE, replayer);
+    }
+
+    /**
+     * As {@link #open(Consumer)}, but replays from {@code replayAfter} when that is older than the
+     * checkpoint, for a caller restoring a snapshot taken at that sequence. Entries are only there
+     * to replay if {@link #oldestSequence} is no later than {@code replayAfter + 1}.
+     */
+    public long open(long replayAfter, Consumer<JournalEntry> replayer) {
+        long replayed = 0;
+        try {
+            Files.createDirectories(directory);
+            checkpointSequence = readCheckpoint();
+            long replayFrom = Math.min(replayAfter, checkpointSequence);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .forEach(file -> segments.put(firstSequenceOf(file), file));
+            }
+
+            long expected = -1;
+            Map.Entry<Long, Path> last = null;
+            int lastEnd = SEGMENT_HEADER_BYTES;
+            for (Iterator<Map.Entry<Long, Path>> it = segments.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Long, Path> segment = it.next();
+                if (expected >= 0 && segment.getKey() != expected) {
+                    // Nothing after a gap can be trusted; a later segment is a leftover from a torn roll
+                    logger.warn("Discarding journal segment {} after a sequence gap", segment.getValue());
+                    Files.delete(segment.getValue());
+                    it.remove();
+                    continue;
+                }
+                long[] scan = scan(segment.getValue(), segment.getKey(), replayFrom, replayer);
+                if (scan == null) {
+                    // Created by a roll that crashed before writing the header
+                    logger.warn("Discarding journal segment {} with no header", segment.getValue());
+                    Files.delete(segment.getValue());
+                    it.remove();
+                    continue;
+                }
+                replayed += scan[2];
+                expected = scan[0];
+                last = segment;
+                lastEnd = (int) scan[1];
+            }
+
+            writeLock.lock();
+            try {
+                if (last == null) {
+                    nextSequence = checkpointSequence + 1;
+                    roll();
+                } else {
+                    nextSequence = expected;
+                    current = map(last.getValue());
+                    writePosition = lastEnd;
+                    unforcedFrom = lastEnd;
+                    clearTornTail(current, lastEnd);
+                }
+                writtenSequence = nextSequence - 1;
+                durableSequence = writtenSequence;
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open exposure journal in " + directory, e);
+        }
+
+        running = true;
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            syncThread = new Thread(this::syncLoop, "exposure-journal-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        }
+        logger.info("Opened exposure journal in {} at sequence {}, replayed {} entries",
+                directory, writtenSequence, replayed);
+        return replayed;
+    }
+
+    public void close() {
+        running = false;
+        if (syncThread != null) {
+            LockSupport.unpark(syncThread);
+            try {
+                syncThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            if (current != null && fsyncPolicy != FsyncPolicy.OS) {
+                force(current, unforcedFrom, writePosition);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        signalDurable(writtenSequence);
+    }
+
+    /** Appends a position change and returns its sequence; see {@link #awaitDurable}. */
+    public long appendPosition(String userId, String symbol, long deltaUnits, long longUnits, long shortUnits) {
+        return append(JournalEntry.Type.POSITION, userId, symbol, deltaUnits, longUnits, shortUnits);
+    }
+
+    public long appendReset(String userId) {
+        return append(JournalEntry.Type.RESET, userId, "", 0L, 0L, 0L);
+    }
+
+    /**
+     * Returns once the entry with {@code sequence} will survive a host crash. Under EVERY_WRITE the
+     * caller forces it here, so appends never wait on the disk; under OS nothing is ever forced.
+     */
+    public void awaitDurable(long sequence) {
+        if (fsyncPolicy == FsyncPolicy.OS || durableSequence >= sequence) {
+            return;
+        }
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE) {
+            forceThrough(sequence);
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSequence < sequence && running) {
+                durableCondition.awaitNanos(groupCommitNanos * 2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Non-blocking form of {@link #awaitDurable}: the future completes once the entry with
+     * {@code sequence} is durable. It is completed on the journal's sync thread, so stages that
+     * depend on it should be short or move to an executor of their own. Under EVERY_WRITE the
+     * entry is forced on the calling thread and the future returned already complete.
+     */
+    public CompletableFuture<Void> whenDurable(long sequence) {
+        if (fsyncPolicy == FsyncPolicy.OS || durableSequence >= sequence || !running) {
+            return DURABLE;
+        }
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE) {
+            forceThrough(sequence);
+            return DURABLE;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        durableWaiters.add(new DurableWaiter(sequence, future));
+        // The sync thread may have forced past it between the check and the add
+        if (durableSequence >= sequence || !running) {
+            completeWaiters();
+        }
+        return future;
+    }
+
+    public long lastSequence() {
+        return writtenSequence;
+    }
+
+    public long checkpointSequence() {
+        return checkpointSequence;
+    }
+
+    /** The first sequence still on disk, or the next one to be written when nothing is. */
+    public long oldestSequence() {
+        Map.Entry<Long, Path> oldest = segments.firstEntry();
+        return oldest != null ? oldest.getKey() : writtenSequence + 1;
+    }
+
+    /**
+     * Keeps every entry after {@code sequence} on disk regardless of later checkpoints, so the
+     * snapshot taken at that sequence can still be brought up to date on restart.
+     */
+    public void retainAfter(long sequence) {
+        retainedSequence = sequence;
+    }
+
+    /**
+     * Records that every entry up to {@code sequence} is reflected in Redis, so a restart replays
+     * only what follows it, and deletes segments that hold nothing newer.
+     */
+    public void checkpoint(long sequence) {
+        if (sequence <= checkpointSequence) {
+            return;
+        }
+        try {
+            Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            checkpointSequence = sequence;
+
+            // A segment is obsolete once the next one starts at or before the first entry still needed
+            long needed = Math.min(sequence, retainedSequence) + 1;
+            Map.Entry<Long, Path> oldest;
+            while ((oldest = segments.firstEntry()) != null) {
+                Long next = segments.higherKey(oldest.getKey());
+                if (next == null || next > needed) {
+                    break;
+                }
+                Files.deleteIfExists(oldest.getValue());
+                segments.remove(oldest.getKey());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint exposure journal at " + sequence, e);
+        }
+    }
+
+    private long append(JournalEntry.Type type, String userId, String symbol,
+                        long deltaUnits, long longUnits, long shortUnits) {
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        if (user.length > 0xFFFF || symbolBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Journal keys are limited to 65535 bytes");
+        }
+
+        writeLock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Exposure journal is not open");
+            }
+            long sequence = nextSequence;
+            scratch.clear();
+            scratch.putLong(sequence)
+                    .put((byte) type.ordinal())
+                    .putShort((short) user.length).put(user)
+                    .putShort((short) symbolBytes.length).put(symbolBytes)
+                    .putLong(deltaUnits).putLong(longUnits).putLong(shortUnits);
+            int length = scratch.position();
+            if (writePosition + RECORD_HEADER_BYTES + length > current.capacity()) {
+                roll();
+            }
+            crc.reset();
+            crc.update(scratch.array(), 0, length);
+
+            int start = writePosition;
+            current.put(start + RECORD_HEADER_BYTES, scratch.array(), 0, length);
+            current.putInt(start + 4, (int) crc.getValue());
+            current.putInt(start, length);
+            writePosition = start + RECORD_HEADER_BYTES + length;
+            nextSequence = sequence + 1;
+            writtenSequence = sequence;
+            return sequence;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Seals the current segment, forcing whatever it still holds unforced, and maps a fresh one. */
+    private void roll() {
+        try {
+            if (current != null && fsyncPolicy != FsyncPolicy.OS) {
+                force(current, unforcedFrom, writePosition);
+            }
+            Path file = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+            current.putInt(0, MAGIC);
+            current.putInt(4, VERSION);
+            current.putLong(8, nextSequence);
+            writePosition = SEGMENT_HEADER_BYTES;
+            unforcedFrom = 0;
+            segments.put(nextSequence, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll exposure journal segment", e);
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            LockSupport.parkNanos(groupCommitNanos);
+            MappedByteBuffer buffer;
+            int from;
+            int to;
+            long sequence;
+            writeLock.lock();
+            try {
+                sequence = writtenSequence;
+                if (sequence == durableSequence) {
+                    continue;
+                }
+                buffer = current;
+                from = unforcedFrom;
+                to = writePosition;
+                unforcedFrom = to;
+            } finally {
+                writeLock.unlock();
+            }
+            // Forced outside the lock so appends carry on into the rest of the segment meanwhile
+            force(buffer, from, to);
+            groupSizeSummary.record(sequence - durableSequence);
+            signalDurable(sequence);
+        }
+    }
+
+    /**
+     * Forces everything appended so far, unless an earlier caller's force already covered
+     * {@code sequence}; concurrent callers queue on forceLock and mostly find that it has.
+     */
+    private void forceThrough(long sequence) {
+        forceLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer buffer;
+            int from;
+            int to;
+            long written;
+            writeLock.lock();
+            try {
+                written = writtenSequence;
+                buffer = current;
+                from = unforcedFrom;
+                to = writePosition;
+                unforcedFrom = to;
+            } finally {
+                writeLock.unlock();
+            }
+            // Outside writeLock, as in the sync loop, so appends carry on meanwhile
+            force(buffer, from, to);
+            signalDurable(written);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void force(MappedByteBuffer buffer, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        long started = System.nanoTime();
+        buffer.force(from, to - from);
+        forceTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private void signalDurable(long sequence) {
+        durableLock.lock();
+        try {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+            }
+            durableCondition.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+        completeWaiters();
+    }
+
+    private void completeWaiters() {
+        DurableWaiter waiter;
+        while ((waiter = durableWaiters.poll()) != null) {
+            if (waiter.sequence() > durableSequence && running) {
+                durableWaiters.add(waiter);
+                // Another thread may have found the queue empty while this one held the waiter
+                if (waiter.sequence() > durableSequence && running) {
+                    return;
+                }
+                continue;
+            }
+            waiter.future().complete(null);
+        }
+    }
+
+    /**
+     * Returns {next expected sequence, end offset of the last intact record, entries replayed}, or
+     * null for a segment whose header was never written.
+     */
+    private long[] scan(Path file, long firstSequence, long replayFrom, Consumer<JournalEntry> replayer)
+            throws IOException {
+        MappedByteBuffer buffer = map(file);
+        if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) == 0) {
+            return null;
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != firstSequence) {
+            throw new IOException("Journal segment " + file + " has an unrecognised header");
+        }
+        long expected = firstSequence;
+        long replayed = 0;
+        int position = SEGMENT_HEADER_BYTES;
+        byte[] payload = new byte[MAX_PAYLOAD_BYTES];
+        CRC32C check = new CRC32C();
+        int capacity = buffer.capacity();
+        while (position + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES || position + RECORD_HEADER_BYTES + length > capacity) {
+                break;
+            }
+            buffer.get(position + RECORD_HEADER_BYTES, payload, 0, length);
+            check.reset();
+            check.update(payload, 0, length);
+            if ((int) check.getValue() != buffer.getInt(position + 4)) {
+                logger.warn("Journal segment {} has a torn record at offset {}", file, position);
+                break;
+            }
+            JournalEntry entry = decode(ByteBuffer.wrap(payload, 0, length));
+            if (entry.sequence() != expected) {
+                break;
+            }
+            if (entry.sequence() > replayFrom) {
+                replayer.accept(entry);
+                replayed++;
+            }
+            expected++;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return new long[] {expected, position, replayed};
+    }
+
+    /** Zeroes whatever follows the last intact record, so a torn write can never be read as records later. */
+    private static void clearTornTail(MappedByteBuffer buffer, int from) {
+        if (from + RECORD_HEADER_BYTES > buffer.capacity() || buffer.getLong(from) == 0L) {
+            return;
+        }
+        byte[] zeros = new byte[64 * 1024];
+        for (int position = from; position < buffer.capacity(); position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+        }
+        buffer.force();
+    }
+
+    private static JournalEntry decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        JournalEntry.Type type = JournalEntry.Type.values()[payload.get()];
+        byte[] user = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(user);
+        byte[] symbol = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(symbol);
+        return new JournalEntry(sequence, type, new String(user, StandardCharsets.UTF_8),
+                new String(symbol, StandardCharsets.UTF_8), payload.getLong(), payload.getLong(), payload.getLong());
+    }
+
+    /** Maps an existing segment at its own size, which may predate a change to the configured one. */
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record DurableWaiter(long sequence, CompletableFuture<Void> future) {
+    }
+}
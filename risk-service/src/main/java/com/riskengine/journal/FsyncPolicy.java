@@ -0,0 +1,13 @@
+package com.riskengine.journal;
+
+/**
+ * When journal writes are forced from the page cache to disk.
+ */
+public enum FsyncPolicy {
+    /** Every entry is forced before its caller is told it is durable, outside the append itself. */
+    EVERY_WRITE,
+    /** A sync thread forces everything appended since its last pass; callers wait for the pass covering them. */
+    GROUP,
+    /** Never forced explicitly; the OS writes pages back on its own schedule and a host crash can lose them. */
+    OS
+}
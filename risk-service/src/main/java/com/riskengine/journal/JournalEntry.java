@@ -0,0 +1,15 @@
+package com.riskengine.journal;
+
+/**
+ * One journaled change. A {@code POSITION} entry carries the order's delta and the position it
+ * produced, so replaying an entry twice leaves the same state as replaying it once. A {@code RESET}
+ * entry drops every earlier entry for the user.
+ */
+public record JournalEntry(long sequence, Type type, String userId, String symbol,
+                           long deltaUnits, long longUnits, long shortUnits) {
+
+    public enum Type {
+        POSITION,
+        RESET
+    }
+}
@@ -0,0 +1,67 @@
+package com.riskengine.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/latency} reports every stage's latency since the previous read, and
+ * {@code GET /actuator/latency/{stage}} one stage's. Each read starts a new interval, so poll from
+ * one place. Besides the percentiles, {@code histogram} carries the full-resolution interval
+ * histogram, base64 of HdrHistogram's compressed form as in its histogram logs, for tools such as
+ * HistogramLogAnalyzer.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final StageTimings stageTimings;
+
+    @Autowired
+    public LatencyEndpoint(StageTimings stageTimings) {
+        this.stageTimings = stageTimings;
+    }
+
+    @ReadOperation
+    public Map<String, StageReport> latency() {
+        Map<String, StageReport> reports = new LinkedHashMap<>();
+        stageTimings.stages().forEach((name, stage) -> reports.put(name, report(stage.intervalHistogram())));
+        return reports;
+    }
+
+    @ReadOperation
+    public StageReport stage(@Selector String stage) {
+        StageLatency latency = stageTimings.stages().get(stage);
+        return latency != null ? report(latency.intervalHistogram()) : null;
+    }
+
+    private static StageReport report(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return new StageReport(histogram.getStartTimeStamp(), histogram.getEndTimeStamp(),
+                histogram.getTotalCount(), micros(histogram.getMean()),
+                micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(90)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getValueAtPercentile(99.99)), micros(histogram.getMaxValue()),
+                Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    /** Interval bounds in epoch milliseconds; latencies in microseconds; the histogram in nanoseconds. */
+    public record StageReport(long startMillis, long endMillis, long count, double meanMicros,
+                              double p50Micros, double p90Micros, double p99Micros, double p999Micros,
+                              double p9999Micros, double maxMicros, String histogram) {
+    }
+}
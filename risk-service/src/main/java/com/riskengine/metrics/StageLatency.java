@@ -0,0 +1,56 @@
+package com.riskengine.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one processing stage, in nanoseconds. Each recording goes to a Micrometer timer,
+ * published as a percentile histogram with SLO buckets, and to an HdrHistogram {@link Recorder},
+ * whose wait-free writers never block the order path. The recorder keeps full resolution for
+ * {@link LatencyEndpoint}, which takes an interval histogram on each read.
+ */
+public final class StageLatency {
+
+    private final String name;
+    private final Timer timer;
+    private final Recorder recorder;
+    private final long highestTrackableNanos;
+    // Recycled between reads, guarded by this
+    private Histogram interval;
+
+    StageLatency(String name, Timer timer, long highestTrackableNanos, int significantDigits) {
+        this.name = name;
+        this.timer = timer;
+        this.recorder = new Recorder(highestTrackableNanos, significantDigits);
+        this.highestTrackableNanos = highestTrackableNanos;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void record(long elapsedNanos) {
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        recorder.recordValue(Math.max(0, Math.min(elapsedNanos, highestTrackableNanos)));
+    }
+
+    /** Records the time since {@code startNanos}, a {@link System#nanoTime()} reading. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        return timer.count();
+    }
+
+    /**
+     * Everything recorded since the previous call, as a copy the caller owns.
+     */
+    synchronized Histogram intervalHistogram() {
+        interval = recorder.getIntervalHistogram(interval);
+        return interval.copy();
+    }
+}
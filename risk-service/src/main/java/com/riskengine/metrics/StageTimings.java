@@ -0,0 +1,73 @@
+package com.riskengine.metrics;
+
+import com.riskengine.config.LatencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The {@link StageLatency} of every instrumented stage of order processing, by name. Pipeline
+ * stages are exported as {@code risk.stage.latency} tagged with the stage; rules keep their own
+ * {@code risk.rule.latency} timer and appear here as {@code rule.<name>}.
+ */
+@Component
+public class StageTimings {
+
+    public static final String DECODE = "decode";
+    public static final String ASSESS = "assess";
+    public static final String EXPOSURE_READ = "exposure.read";
+    public static final String EXPOSURE_WRITE = "exposure.write";
+    public static final String ENCODE = "encode";
+    public static final String PUBLISH = "publish";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] slos;
+    private final Duration highestTrackable;
+    private final int significantDigits;
+    private final Map<String, StageLatency> stages = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public StageTimings(MeterRegistry meterRegistry, LatencyProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.slos = properties.getSlos().toArray(new Duration[0]);
+        this.highestTrackable = properties.getHighestTrackable();
+        this.significantDigits = properties.getSignificantDigits();
+    }
+
+    public StageTimings(MeterRegistry meterRegistry) {
+        this(meterRegistry, new LatencyProperties());
+    }
+
+    /** The pipeline stage called {@code name}, registered on first use. */
+    public StageLatency stage(String name) {
+        return stages.computeIfAbsent(name, stage -> create(stage, Timer.builder("risk.stage.latency")
+                .tag("stage", stage)
+                .description("Time spent in one stage of order processing")));
+    }
+
+    /** The latency of one rule, recorded on its {@code risk.rule.latency} timer. */
+    public StageLatency rule(String ruleName) {
+        return stages.computeIfAbsent("rule." + ruleName, stage -> create(stage, Timer.builder("risk.rule.latency")
+                .tag("rule", ruleName)
+                .description("Time spent evaluating a risk rule")));
+    }
+
+    Map<String, StageLatency> stages() {
+        return stages;
+    }
+
+    private StageLatency create(String name, Timer.Builder timer) {
+        Timer registered = timer
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slos)
+                .maximumExpectedValue(highestTrackable)
+                .register(meterRegistry);
+        return new StageLatency(name, registered, highestTrackable.toNanos(), significantDigits);
+    }
+}
@@ -0,0 +1,92 @@
+package com.riskengine.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for the risk-check hot path. Amounts are carried as a {@code long} count of
+ * scaled units; notional and exposure share {@link #NOTIONAL_SCALE}. Conversions that cannot be
+ * represented exactly return {@link #OVERFLOW} so callers can fall back to the exact
+ * {@link BigDecimal} path.
+ */
+public final class FixedPoint {
+
+    public static final int NOTIONAL_SCALE = 4;
+    public static final long OVERFLOW = Long.MIN_VALUE;
+
+    private static final int MAX_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long toUnits(BigDecimal value, int scale) {
+        int valueScale = value.scale();
+        if (valueScale > scale || value.precision() - valueScale > MAX_DIGITS - scale) {
+            return OVERFLOW;
+        }
+        return value.unscaledValue().longValue() * POWERS_OF_TEN[scale - valueScale];
+    }
+
+    public static long toUnits(BigDecimal value) {
+        return toUnits(value, NOTIONAL_SCALE);
+    }
+
+    /**
+     * Exact conversion at {@link #NOTIONAL_SCALE}, rounding up and saturating at the long range.
+     * Used when the primitive path overflowed; the result still compares correctly against limits.
+     */
+    public static long toUnitsSaturated(BigDecimal value) {
+        BigDecimal scaled = value.setScale(NOTIONAL_SCALE, RoundingMode.CEILING);
+        if (scaled.precision() - NOTIONAL_SCALE > MAX_DIGITS - NOTIONAL_SCALE) {
+            return value.signum() < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+        }
+        return scaled.unscaledValue().longValue();
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, NOTIONAL_SCALE);
+    }
+
+    /**
+     * Multiplies two fixed-point values and rescales the product to {@link #NOTIONAL_SCALE}.
+     * Returns {@link #OVERFLOW} if the product does not fit in a long or cannot be rescaled exactly.
+     */
+    public static long multiply(long a, int aScale, long b, int bScale) {
+        if (a == OVERFLOW || b == OVERFLOW) {
+            return OVERFLOW;
+        }
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        if (high != (product >> 63)) {
+            return OVERFLOW;
+        }
+
+        int shift = aScale + bScale - NOTIONAL_SCALE;
+        if (shift > MAX_DIGITS || shift < -MAX_DIGITS) {
+            return OVERFLOW;
+        }
+        if (shift >= 0) {
+            long divisor = POWERS_OF_TEN[shift];
+            return product % divisor == 0 ? product / divisor : OVERFLOW;
+        }
+        long factor = POWERS_OF_TEN[-shift];
+        long rescaled = product * factor;
+        return Math.multiplyHigh(product, factor) == (rescaled >> 63) && rescaled != OVERFLOW ? rescaled : OVERFLOW;
+    }
+
+    public static long addSaturated(long a, long b) {
+        long sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+}
@@ -49,6 +49,11 @@ public class Order {
     
     public Order(String orderId, String userId, String symbol, OrderSide side, 
                  BigDecimal quantity, BigDecimal price, OrderType orderType) {
+        this(orderId, userId, symbol, side, quantity, price, orderType, LocalDateTime.now());
+    }
+    
+    public Order(String orderId, String userId, String symbol, OrderSide side,
+                 BigDecimal quantity, BigDecimal price, OrderType orderType, LocalDateTime timestamp) {
         this.orderId = orderId;
         this.userId = userId;
         this.symbol = symbol;
@@ -56,7 +61,7 @@ public class Order {
         this.quantity = quantity;
         this.price = price;
         this.orderType = orderType;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
     }
     
     // Getters and setters
@@ -29,6 +29,9 @@ public class RiskAssessment {
     @JsonProperty("processingTimeMs")
     private Long processingTimeMs;
     
+    @JsonProperty("processingTimeMicros")
+    private Long processingTimeMicros;
+    
     @JsonProperty("notionalAmount")
     private BigDecimal notionalAmount;
     
@@ -74,6 +77,9 @@ public class RiskAssessment {
     public Long getProcessingTimeMs() { return processingTimeMs; }
     public void setProcessingTimeMs(Long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
     
+    public Long getProcessingTimeMicros() { return processingTimeMicros; }
+    public void setProcessingTimeMicros(Long processingTimeMicros) { this.processingTimeMicros = processingTimeMicros; }
+    
     public BigDecimal getNotionalAmount() { return notionalAmount; }
     public void setNotionalAmount(BigDecimal notionalAmount) { this.notionalAmount = notionalAmount; }
     
@@ -93,6 +99,7 @@ public class RiskAssessment {
                 ", reasons=" + reasons +
                 ", timestamp=" + timestamp +
                 ", processingTimeMs=" + processingTimeMs +
+                ", processingTimeMicros=" + processingTimeMicros +
                 '}';
     }
 } 
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.riskengine.pricing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.config.ReferencePriceProperties;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.service.SymbolRegistry;
+import com.riskengine.service.SymbolSpec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last traded price per symbol, fed from a Redis pub/sub channel. Prices sit in a {@code long[]}
+ * indexed by the symbol's interned id, in units of its price scale, so a lookup on the order path
+ * is one opaque array read with no hashing, boxing or locking. Updates arrive on the listener
+ * thread and are serialized, and a sweeper clears prices older than {@code stale-after}, so
+ * readers never need a timestamp: 0 means no usable price. Each update is also a tick for the
+ * {@link VolatilityEstimator}.
+ */
+@Component
+public class ReferencePrices {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferencePrices.class);
+    private static final VarHandle PRICES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ReferencePriceProperties properties;
+    private final SymbolRegistry symbolRegistry;
+    private final VolatilityEstimator volatilityEstimator;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final long staleAfterNanos;
+    private final Counter updateCounter;
+    private final Counter invalidCounter;
+    private final Counter staleCounter;
+    // Replaced by a larger copy as symbols are interned; elements written with setOpaque
+    private volatile long[] prices = new long[64];
+    // System.nanoTime() of each price's last update; guarded by this
+    private long[] updatedAt = new long[64];
+    private RedisMessageListenerContainer container;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public ReferencePrices(ReferencePriceProperties properties, SymbolRegistry symbolRegistry,
+                           VolatilityEstimator volatilityEstimator, RedisConnectionFactory connectionFactory,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.symbolRegistry = symbolRegistry;
+        this.volatilityEstimator = volatilityEstimator;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.staleAfterNanos = properties.getStaleAfter().toNanos();
+        this.updateCounter = Counter.builder("prices.updates")
+                .description("Reference price updates applied")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("prices.updates.invalid")
+                .description("Price messages that could not be parsed or priced the symbol at zero or below")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("prices.stale")
+                .description("Reference prices cleared after going without an update for stale-after")
+                .register(meterRegistry);
+    }
+
+    public ReferencePrices(ReferencePriceProperties properties, SymbolRegistry symbolRegistry,
+                           VolatilityEstimator volatilityEstimator, MeterRegistry meterRegistry) {
+        this(properties, symbolRegistry, volatilityEstimator, null, null, meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-price-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(100), staleAfterNanos / 4);
+        sweeper.scheduleAtFixedRate(this::clearStale, period, period, TimeUnit.NANOSECONDS);
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> onMessage(message.getBody()),
+                new ChannelTopic(properties.getChannel()));
+        container.afterPropertiesSet();
+        container.start();
+        logger.info("Reading reference prices from Redis channel {}", properties.getChannel());
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (container != null) {
+            container.stop();
+            container.destroy();
+        }
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * The reference price of the symbol with this {@linkplain SymbolSpec#id() id}, in units of its
+     * price scale, or 0 if there is none or it has gone stale.
+     */
+    public long priceUnits(int symbolId) {
+        long[] current = prices;
+        return symbolId >= 0 && symbolId < current.length ? (long) PRICES.getOpaque(current, symbolId) : 0;
+    }
+
+    /** Sets the reference price of {@code symbol}, rounded to its price scale. */
+    public synchronized void update(String symbol, BigDecimal price) {
+        SymbolSpec spec = symbolRegistry.intern(symbol);
+        long units = FixedPoint.toUnits(price.setScale(spec.priceScale(), RoundingMode.HALF_UP), spec.priceScale());
+        if (units <= 0) {
+            // Also OVERFLOW, which is negative
+            invalidCounter.increment();
+            return;
+        }
+        long[] current = prices;
+        if (spec.id() >= current.length) {
+            int length = Math.max(spec.id() + 1, current.length * 2);
+            updatedAt = Arrays.copyOf(updatedAt, length);
+            current = Arrays.copyOf(current, length);
+            prices = current;
+        }
+        long now = System.nanoTime();
+        updatedAt[spec.id()] = now;
+        PRICES.setOpaque(current, spec.id(), units);
+        volatilityEstimator.onTick(spec.id(), units, now);
+        updateCounter.increment();
+    }
+
+    private void onMessage(byte[] body) {
+        try {
+            JsonNode message = objectMapper.readTree(body);
+            JsonNode symbol = message.get("symbol");
+            JsonNode price = message.get("price");
+            if (symbol == null || price == null) {
+                throw new IllegalArgumentException("symbol and price are required");
+            }
+            update(symbol.asText(), new BigDecimal(price.asText()));
+        } catch (IOException | RuntimeException e) {
+            invalidCounter.increment();
+            logger.debug("Ignoring malformed price message {}", new String(body), e);
+        }
+    }
+
+    private synchronized void clearStale() {
+        long now = System.nanoTime();
+        long[] current = prices;
+        for (int i = 0; i < current.length; i++) {
+            if ((long) PRICES.getOpaque(current, i) != 0 && now - updatedAt[i] > staleAfterNanos) {
+                PRICES.setOpaque(current, i, 0L);
+                volatilityEstimator.reset(i);
+                staleCounter.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.riskengine.pricing;
+
+import com.riskengine.config.VolatilityProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Streaming annualized volatility per symbol, estimated from the {@link ReferencePrices} ticks.
+ * Each tick's log return is squared and divided by the time since the previous tick, giving a
+ * variance per second that feeds two estimates in O(1): an EWMA, which reacts within a few ticks,
+ * and a rolling mean over the last {@code window} returns, which a single outlier cannot swing.
+ * The published volatility is the larger of the two, so a spike shows up at once and a calm
+ * spell does not hide a turbulent window.
+ *
+ * <p>Ticks come from one writer, ReferencePrices under its lock, so the per-symbol state needs no
+ * synchronization of its own. Results are published to a {@code double[]} indexed by symbol id,
+ * and a read on the order path is one opaque array load.
+ */
+@Component
+public class VolatilityEstimator {
+
+    private static final VarHandle VOLATILITIES = MethodHandles.arrayElementVarHandle(double[].class);
+    // Prices tick around the clock, so a year is every second of 365 days
+    private static final double SECONDS_PER_YEAR = 365.0 * 24 * 60 * 60;
+
+    private final double lambda;
+    private final int window;
+    private final int minTicks;
+    private final long minIntervalNanos;
+    // Replaced by a larger copy as symbols are added; elements written with setOpaque
+    private volatile double[] volatilities = new double[64];
+    // Writer-only
+    private Series[] series = new Series[64];
+
+    @Autowired
+    public VolatilityEstimator(VolatilityProperties properties) {
+        this.lambda = properties.getLambda();
+        this.window = properties.getWindow();
+        this.minTicks = properties.getMinTicks();
+        this.minIntervalNanos = properties.getMinInterval().toNanos();
+    }
+
+    /**
+     * Annualized volatility of the symbol with this id, as a fraction (0.6 is 60%), or 0 until it
+     * has {@code min-ticks} returns.
+     */
+    public double volatility(int symbolId) {
+        double[] current = volatilities;
+        return symbolId >= 0 && symbolId < current.length ? (double) VOLATILITIES.getOpaque(current, symbolId) : 0;
+    }
+
+    /** Records a price tick taken at {@code nanos}, a System.nanoTime() value. Single writer only. */
+    void onTick(int symbolId, long priceUnits, long nanos) {
+        Series symbol = series(symbolId);
+        if (symbol.lastPrice == 0) {
+            symbol.lastPrice = priceUnits;
+            symbol.lastNanos = nanos;
+            return;
+        }
+        double seconds = Math.max(nanos - symbol.lastNanos, minIntervalNanos) / 1e9;
+        double logReturn = Math.log((double) priceUnits / symbol.lastPrice);
+        double variance = logReturn * logReturn / seconds;
+        symbol.lastPrice = priceUnits;
+        symbol.lastNanos = nanos;
+
+        symbol.ewma = symbol.ticks == 0 ? variance : lambda * symbol.ewma + (1 - lambda) * variance;
+        symbol.sum += variance - symbol.variances[symbol.cursor];
+        symbol.variances[symbol.cursor] = variance;
+        if (++symbol.cursor == window) {
+            symbol.cursor = 0;
+            // Once per lap, so rounding from the running sum never accumulates
+            double sum = 0;
+            for (double windowVariance : symbol.variances) {
+                sum += windowVariance;
+            }
+            symbol.sum = sum;
+        }
+        symbol.ticks++;
+
+        if (symbol.ticks >= minTicks) {
+            double realized = symbol.sum / Math.min(symbol.ticks, window);
+            double volatility = Math.sqrt(Math.max(symbol.ewma, realized) * SECONDS_PER_YEAR);
+            VOLATILITIES.setOpaque(volatilities, symbolId, volatility);
+        }
+    }
+
+    /** Forgets the symbol's history, for when its price feed went stale. Single writer only. */
+    void reset(int symbolId) {
+        if (symbolId < series.length && series[symbolId] != null) {
+            series[symbolId] = null;
+            VOLATILITIES.setOpaque(volatilities, symbolId, 0.0);
+        }
+    }
+
+    private Series series(int symbolId) {
+        if (symbolId >= series.length) {
+            int length = Math.max(symbolId + 1, series.length * 2);
+            series = Arrays.copyOf(series, length);
+            volatilities = Arrays.copyOf(volatilities, length);
+        }
+        Series symbol = series[symbolId];
+        if (symbol == null) {
+            symbol = new Series(window);
+            series[symbolId] = symbol;
+        }
+        return symbol;
+    }
+
+    private static final class Series {
+
+        // Variance per second of each return in the window, oldest at cursor once full
+        final double[] variances;
+        long lastPrice;
+        long lastNanos;
+        double ewma;
+        double sum;
+        int cursor;
+        long ticks;
+
+        Series(int window) {
+            this.variances = new double[window];
+        }
+    }
+}
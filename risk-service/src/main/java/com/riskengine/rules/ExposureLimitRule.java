@@ -0,0 +1,109 @@
+package com.riskengine.rules;
+
+import com.riskengine.model.FixedPoint;
+import com.riskengine.service.ExposureReservation;
+import com.riskengine.service.ExposureRequest;
+import com.riskengine.service.ExposureTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reserves the order's notional against the user's position in its symbol and warns when either
+ * the symbol's position limit or the user's exposure limit is breached. Unlike the other rules it
+ * changes shared state, so the chain always runs it last and only for orders that have not been
+ * rejected; the batch path splits it into {@link Step#request} and {@link Step#apply} around one
+ * pipelined reservation.
+ */
+@Component
+public class ExposureLimitRule implements RiskRule {
+
+    public static final String NAME = "exposure-limit";
+
+    private static final String SYMBOL_POSITION_PREFIX = "max-position.";
+
+    private final ExposureTracker exposureTracker;
+
+    @Autowired
+    public ExposureLimitRule(ExposureTracker exposureTracker) {
+        this.exposureTracker = exposureTracker;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int cost() {
+        return 100;
+    }
+
+    @Override
+    public boolean canReject() {
+        return false;
+    }
+
+    @Override
+    public Step compile(RuleParameters parameters) {
+        BigDecimal maxExposure = parameters.getDecimal("max-exposure", "50000");
+        BigDecimal maxPosition = parameters.getDecimal("max-position", maxExposure.toPlainString());
+        Map<String, BigDecimal> symbolPositions = parameters.getDecimals(SYMBOL_POSITION_PREFIX);
+        Map<String, Long> symbolPositionUnits = new HashMap<>();
+        symbolPositions.forEach((symbol, limit) ->
+                symbolPositionUnits.put(symbol, FixedPoint.toUnitsSaturated(limit)));
+        return new Step(FixedPoint.toUnitsSaturated(maxExposure), FixedPoint.toUnitsSaturated(maxPosition),
+                maxPosition, Map.copyOf(symbolPositionUnits), Map.copyOf(symbolPositions),
+                parameters.getInt("score", 20),
+                "User exposure would exceed maximum allowed: " + maxExposure.toPlainString());
+    }
+
+    public final class Step implements RuleEvaluator {
+
+        private final long maxExposureUnits;
+        private final long maxPositionUnits;
+        private final BigDecimal maxPosition;
+        private final Map<String, Long> symbolPositionUnits;
+        private final Map<String, BigDecimal> symbolPositions;
+        private final int score;
+        private final String reason;
+
+        private Step(long maxExposureUnits, long maxPositionUnits, BigDecimal maxPosition,
+                     Map<String, Long> symbolPositionUnits, Map<String, BigDecimal> symbolPositions,
+                     int score, String reason) {
+            this.maxExposureUnits = maxExposureUnits;
+            this.maxPositionUnits = maxPositionUnits;
+            this.maxPosition = maxPosition;
+            this.symbolPositionUnits = symbolPositionUnits;
+            this.symbolPositions = symbolPositions;
+            this.score = score;
+            this.reason = reason;
+        }
+
+        @Override
+        public void evaluate(RuleContext context) {
+            apply(context, exposureTracker.reserveExposure(request(context)));
+        }
+
+        public ExposureRequest request(RuleContext context) {
+            String symbol = context.order().getSymbol();
+            return new ExposureRequest(context.userId(), symbol, context.exposureDeltaUnits(),
+                    symbolPositionUnits.getOrDefault(symbol, maxPositionUnits), maxExposureUnits, true);
+        }
+
+        public void apply(RuleContext context, ExposureReservation reservation) {
+            context.setExposureUnits(reservation.exposureUnits());
+            if (reservation.positionLimitBreached()) {
+                String symbol = context.order().getSymbol();
+                context.warn("Position in " + symbol + " would exceed maximum allowed: "
+                        + symbolPositions.getOrDefault(symbol, maxPosition).toPlainString(), score);
+            }
+            if (reservation.limitBreached()) {
+                context.warn(reason, score);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.riskengine.rules;
+
+import com.riskengine.session.SessionCalendar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns on orders placed while the symbol's venue is out of session, per the {@link SessionCalendar}.
+ */
+@Component
+public class MarketHoursRule implements RiskRule {
+
+    private final SessionCalendar sessionCalendar;
+
+    @Autowired
+    public MarketHoursRule(SessionCalendar sessionCalendar) {
+        this.sessionCalendar = sessionCalendar;
+    }
+
+    @Override
+    public String name() {
+        return "market-hours";
+    }
+
+    @Override
+    public int cost() {
+        return 2;
+    }
+
+    @Override
+    public boolean canReject() {
+        return false;
+    }
+
+    @Override
+    public RuleEvaluator compile(RuleParameters parameters) {
+        int score = parameters.getInt("score", 10);
+        return context -> {
+            if (!sessionCalendar.isOpen(context.order().getSymbol())) {
+                context.warn("Order placed outside market hours - reduced liquidity risk", score);
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.riskengine.rules;
+
+import com.riskengine.model.FixedPoint;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+public class NotionalCapRule implements RiskRule {
+
+    @Override
+    public String name() {
+        return "notional-cap";
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+
+    @Override
+    public boolean canReject() {
+        return true;
+    }
+
+    @Override
+    public RuleEvaluator compile(RuleParameters parameters) {
+        BigDecimal maxNotional = parameters.getDecimal("max-notional", "10000");
+        long maxNotionalUnits = FixedPoint.toUnitsSaturated(maxNotional);
+        int score = parameters.getInt("score", 50);
+        String reason = "Notional amount exceeds maximum allowed: " + maxNotional.toPlainString();
+        return context -> {
+            if (context.notionalUnits() > maxNotionalUnits) {
+                context.reject(reason, score);
+            }
+        };
+    }
+}
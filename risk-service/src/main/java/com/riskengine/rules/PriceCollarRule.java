@@ -0,0 +1,79 @@
+package com.riskengine.rules;
+
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.OrderType;
+import com.riskengine.pricing.ReferencePrices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Rejects limit orders priced further than {@code reject-band} from the symbol's {@link ReferencePrices
+ * reference price}, and warns past {@code warn-band}; bands are fractions of the reference price.
+ * Orders without a limit price, and symbols without a current reference price, pass unchecked.
+ * The limit price is compared rounded to the symbol's price scale; one too large to hold at that
+ * scale is far outside any band and is rejected.
+ */
+@Component
+public class PriceCollarRule implements RiskRule {
+
+    private final ReferencePrices referencePrices;
+
+    @Autowired
+    public PriceCollarRule(ReferencePrices referencePrices) {
+        this.referencePrices = referencePrices;
+    }
+
+    @Override
+    public String name() {
+        return "price-collar";
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+
+    @Override
+    public boolean canReject() {
+        return true;
+    }
+
+    @Override
+    public RuleEvaluator compile(RuleParameters parameters) {
+        BigDecimal rejectBand = parameters.getDecimal("reject-band", "0.10");
+        BigDecimal warnBand = parameters.getDecimal("warn-band", "0.05");
+        double reject = rejectBand.doubleValue();
+        double warn = warnBand.doubleValue();
+        int score = parameters.getInt("score", 40);
+        int warnScore = parameters.getInt("warn-score", 10);
+        String rejectReason = "Limit price more than " + percent(rejectBand) + " from reference price";
+        String warnReason = "Limit price more than " + percent(warnBand) + " from reference price";
+        return context -> {
+            OrderType type = context.order().getOrderType();
+            boolean limitPrice = type == OrderType.LIMIT || type == OrderType.STOP_LIMIT;
+            if (!limitPrice) {
+                return;
+            }
+            long reference = referencePrices.priceUnits(context.symbolId());
+            if (reference == 0) {
+                return;
+            }
+            if (context.priceUnits() == FixedPoint.OVERFLOW) {
+                context.reject(rejectReason, score);
+                return;
+            }
+            double deviation = Math.abs(context.priceUnits() - reference);
+            if (deviation > reference * reject) {
+                context.reject(rejectReason, score);
+            } else if (deviation > reference * warn) {
+                context.warn(warnReason, warnScore);
+            }
+        };
+    }
+
+    private static String percent(BigDecimal band) {
+        return band.movePointRight(2).stripTrailingZeros().toPlainString() + "%";
+    }
+}
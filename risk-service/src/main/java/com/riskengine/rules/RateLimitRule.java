@@ -0,0 +1,44 @@
+package com.riskengine.rules;
+
+import com.riskengine.service.RateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RateLimitRule implements RiskRule {
+
+    private final RateLimiter rateLimiter;
+
+    @Autowired
+    public RateLimitRule(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public String name() {
+        return "rate-limit";
+    }
+
+    @Override
+    public int cost() {
+        // Segment lock plus, in distributed mode, an occasional lease round trip
+        return 5;
+    }
+
+    @Override
+    public boolean canReject() {
+        return true;
+    }
+
+    @Override
+    public RuleEvaluator compile(RuleParameters parameters) {
+        int score = parameters.getInt("score", 30);
+        return context -> {
+            String userId = context.userId();
+            if (!rateLimiter.tryConsume(userId)) {
+                context.reject("Rate limit exceeded: maximum " + rateLimiter.ordersPerMinute(userId)
+                        + " orders per minute", score);
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.riskengine.rules;
+
+/**
+ * A single pre-trade risk check. Implementations are Spring beans; {@link RuleEngine} collects
+ * them, binds each one's parameters from {@code risk.rules.chain.<name>} and compiles them into a
+ * {@link RuleChain}. Compilation happens at startup and again whenever the parameters change, so
+ * a rule should do all parameter parsing in {@link #compile} and keep {@link RuleEvaluator#evaluate}
+ * to the check itself.
+ */
+public interface RiskRule {
+
+    /** Name used for configuration keys and metric tags. */
+    String name();
+
+    /**
+     * Relative cost of one evaluation; together with the observed rejection rate it decides the
+     * rule's place in the chain. Overridable per rule with the {@code cost} setting.
+     */
+    int cost();
+
+    /** Whether the rule can reject at all. Warn-only rules never end the chain early and run last. */
+    boolean canReject();
+
+    RuleEvaluator compile(RuleParameters parameters);
+}
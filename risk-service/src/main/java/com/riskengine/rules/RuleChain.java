@@ -0,0 +1,74 @@
+package com.riskengine.rules;
+
+import com.riskengine.service.ExposureRequest;
+import com.riskengine.service.ExposureReservation;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.List;
+
+/**
+ * An immutable, compiled sequence of rules. Checks run in the order {@link RuleEngine} chose and
+ * stop at the first REJECT; the exposure rule runs last and only for orders still standing.
+ */
+public final class RuleChain {
+
+    private final Stage[] checks;
+    private final Stage exposure;
+    private final ExposureLimitRule.Step exposureStep;
+    private final Counter shortCircuitCounter;
+
+    RuleChain(List<Stage> checks, Stage exposure, ExposureLimitRule.Step exposureStep, Counter shortCircuitCounter) {
+        this.checks = checks.toArray(new Stage[0]);
+        this.exposure = exposure;
+        this.exposureStep = exposureStep;
+        this.shortCircuitCounter = shortCircuitCounter;
+    }
+
+    public void evaluate(RuleContext context) {
+        evaluateChecks(context);
+        if (!context.isRejected()) {
+            exposure.evaluate(context);
+        }
+    }
+
+    /** Runs every rule except the exposure reservation, for callers that batch the latter. */
+    public void evaluateChecks(RuleContext context) {
+        for (int i = 0; i < checks.length; i++) {
+            if (context.isRejected()) {
+                shortCircuitCounter.increment();
+                return;
+            }
+            checks[i].evaluate(context);
+        }
+    }
+
+    public ExposureRequest exposureRequest(RuleContext context) {
+        return exposureStep.request(context);
+    }
+
+    public void applyExposure(RuleContext context, ExposureReservation reservation) {
+        int reasonsBefore = context.reasons().size();
+        long start = System.nanoTime();
+        exposureStep.apply(context, reservation);
+        exposure.metrics().record(System.nanoTime() - start, context, reasonsBefore);
+    }
+
+    public List<String> ruleNames() {
+        String[] names = new String[checks.length + 1];
+        for (int i = 0; i < checks.length; i++) {
+            names[i] = checks[i].name();
+        }
+        names[checks.length] = exposure.name();
+        return List.of(names);
+    }
+
+    record Stage(String name, RuleEvaluator evaluator, RuleMetrics metrics) {
+
+        void evaluate(RuleContext context) {
+            int reasonsBefore = context.reasons().size();
+            long start = System.nanoTime();
+            evaluator.evaluate(context);
+            metrics.record(System.nanoTime() - start, context, reasonsBefore);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.riskengine.rules;
+
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskVerdict;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable per-order state threaded through the rule chain. Amounts are fixed-point units.
+ */
+public final class RuleContext {
+
+    private final Order order;
+    // System.nanoTime() when the order arrived
+    private final long startTime;
+    // Interned SymbolSpec id, or -1 when the caller did not intern the symbol
+    private final int symbolId;
+    // Order price rounded to the symbol's price scale, or FixedPoint.OVERFLOW when it does not fit in a long
+    private final long priceUnits;
+    // Annualized volatility of the symbol, or 0 when there is no estimate
+    private final double volatility;
+    private final long notionalUnits;
+    private final long exposureDeltaUnits;
+    private final List<String> reasons = new ArrayList<>(4);
+    private RiskVerdict verdict = RiskVerdict.ACCEPT;
+    private int riskScore;
+    private long exposureUnits;
+    private boolean exposureKnown;
+
+    public RuleContext(Order order, long startTime, long notionalUnits, long exposureDeltaUnits) {
+        this(order, startTime, -1, FixedPoint.OVERFLOW, 0, notionalUnits, exposureDeltaUnits);
+    }
+
+    public RuleContext(Order order, long startTime, int symbolId, long priceUnits, double volatility,
+                       long notionalUnits, long exposureDeltaUnits) {
+        this.order = order;
+        this.startTime = startTime;
+        this.symbolId = symbolId;
+        this.priceUnits = priceUnits;
+        this.volatility = volatility;
+        this.notionalUnits = notionalUnits;
+        this.exposureDeltaUnits = exposureDeltaUnits;
+    }
+
+    public void reject(String reason, int score) {
+        reasons.add(reason);
+        verdict = RiskVerdict.REJECT;
+        riskScore += score;
+    }
+
+    public void warn(String reason, int score) {
+        reasons.add(reason);
+        if (verdict == RiskVerdict.ACCEPT) {
+            verdict = RiskVerdict.WARN;
+        }
+        riskScore += score;
+    }
+
+    public void addReason(String reason) {
+        reasons.add(reason);
+    }
+
+    public boolean isRejected() {
+        return verdict == RiskVerdict.REJECT;
+    }
+
+    public Order order() { return order; }
+    public String userId() { return order.getUserId(); }
+    public long startTime() { return startTime; }
+    public int symbolId() { return symbolId; }
+    public long priceUnits() { return priceUnits; }
+    public double volatility() { return volatility; }
+    public long notionalUnits() { return notionalUnits; }
+    public long exposureDeltaUnits() { return exposureDeltaUnits; }
+    public List<String> reasons() { return reasons; }
+    public RiskVerdict verdict() { return verdict; }
+    public int riskScore() { return riskScore; }
+    public boolean exposureKnown() { return exposureKnown; }
+    public long exposureUnits() { return exposureUnits; }
+
+    public void setExposureUnits(long exposureUnits) {
+        this.exposureUnits = exposureUnits;
+        this.exposureKnown = true;
+    }
+}
@@ -0,0 +1,168 @@
+package com.riskengine.rules;
+
+import com.riskengine.config.RuleProperties;
+import com.riskengine.metrics.StageTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the registered {@link RiskRule}s into the {@link RuleChain} used by the risk service.
+ * Rules that can reject are ordered by expected cost per rejection (cost divided by observed
+ * rejection rate), so cheap, frequently rejecting rules run first; warn-only rules follow in cost
+ * order and the exposure rule always runs last. The chain is recompiled when {@code risk.rules.*}
+ * changes (e.g. after {@code POST /actuator/refresh}) and periodically to track rejection rates.
+ */
+@Component
+public class RuleEngine implements EnvironmentAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleEngine.class);
+    private static final String PROPERTIES_PREFIX = "risk.rules";
+    private static final RuleProperties.Rule DEFAULT_SETTINGS = new RuleProperties.Rule();
+
+    private final List<RiskRule> checkRules;
+    private final ExposureLimitRule exposureRule;
+    private final StageTimings stageTimings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RuleMetrics> ruleMetrics = new ConcurrentHashMap<>();
+    private final Counter shortCircuitCounter;
+    private final ScheduledExecutorService scheduler;
+    private Environment environment;
+    private volatile RuleProperties properties;
+    private volatile RuleChain chain;
+
+    @Autowired
+    public RuleEngine(List<RiskRule> rules, RuleProperties properties, StageTimings stageTimings,
+                      MeterRegistry meterRegistry) {
+        this.exposureRule = rules.stream()
+                .filter(ExposureLimitRule.class::isInstance)
+                .map(ExposureLimitRule.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No " + ExposureLimitRule.NAME + " rule registered"));
+        this.checkRules = rules.stream().filter(rule -> rule != exposureRule).toList();
+        this.stageTimings = stageTimings;
+        this.meterRegistry = meterRegistry;
+        this.shortCircuitCounter = Counter.builder("risk.rules.short.circuited")
+                .description("Orders whose rule chain stopped early on a REJECT")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-chain-reorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.properties = properties;
+        this.chain = compile(properties);
+        logger.info("Compiled risk rule chain: {}", chain.ruleNames());
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = properties.getReorderInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::reorder, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public RuleChain chain() {
+        return chain;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (environment == null || event.getKeys().stream().noneMatch(key -> key.startsWith(PROPERTIES_PREFIX + "."))) {
+            return;
+        }
+        // Bind straight from the environment rather than relying on the order in which the
+        // properties bean itself is rebound
+        reload(Binder.get(environment).bindOrCreate(PROPERTIES_PREFIX, RuleProperties.class));
+    }
+
+    public synchronized void reload(RuleProperties updated) {
+        try {
+            chain = compile(updated);
+            properties = updated;
+            logger.info("Reloaded risk rule chain: {}", chain.ruleNames());
+        } catch (RuntimeException e) {
+            logger.error("Rejected risk rule configuration, keeping the current chain", e);
+        }
+    }
+
+    synchronized void reorder() {
+        try {
+            RuleChain reordered = compile(properties);
+            if (!reordered.ruleNames().equals(chain.ruleNames())) {
+                logger.info("Reordered risk rule chain: {}", reordered.ruleNames());
+            }
+            chain = reordered;
+        } catch (RuntimeException e) {
+            logger.error("Failed to reorder risk rule chain", e);
+        }
+    }
+
+    private RuleChain compile(RuleProperties config) {
+        for (String name : config.getChain().keySet()) {
+            if (!name.equals(exposureRule.name()) && checkRules.stream().noneMatch(rule -> rule.name().equals(name))) {
+                logger.warn("Ignoring configuration for unknown risk rule {}", name);
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (RiskRule rule : checkRules) {
+            RuleProperties.Rule settings = config.getChain().getOrDefault(rule.name(), DEFAULT_SETTINGS);
+            if (!settings.isEnabled()) {
+                continue;
+            }
+            int cost = settings.getCost() != null ? settings.getCost() : rule.cost();
+            RuleMetrics metrics = metricsFor(rule.name());
+            RuleEvaluator evaluator = rule.compile(RuleParameters.of(settings.getParams()));
+            candidates.add(new Candidate(new RuleChain.Stage(rule.name(), evaluator, metrics),
+                    rule.canReject(), rule.canReject() ? cost / metrics.rejectRate() : cost));
+        }
+        candidates.sort(Comparator.comparing((Candidate candidate) -> !candidate.canReject())
+                .thenComparingDouble(Candidate::rank));
+
+        RuleProperties.Rule exposureSettings = config.getChain().getOrDefault(exposureRule.name(), DEFAULT_SETTINGS);
+        if (!exposureSettings.isEnabled()) {
+            logger.warn("The {} rule maintains user exposure and cannot be disabled", exposureRule.name());
+        }
+        ExposureLimitRule.Step exposureStep = exposureRule.compile(RuleParameters.of(exposureSettings.getParams()));
+        RuleChain.Stage exposureStage = new RuleChain.Stage(exposureRule.name(), exposureStep, metricsFor(exposureRule.name()));
+
+        return new RuleChain(candidates.stream().map(Candidate::stage).toList(), exposureStage, exposureStep,
+                shortCircuitCounter);
+    }
+
+    private RuleMetrics metricsFor(String ruleName) {
+        return ruleMetrics.computeIfAbsent(ruleName, name -> new RuleMetrics(name, stageTimings, meterRegistry));
+    }
+
+    private record Candidate(RuleChain.Stage stage, boolean canReject, double rank) {
+    }
+}
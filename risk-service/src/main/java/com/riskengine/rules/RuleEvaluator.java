@@ -0,0 +1,7 @@
+package com.riskengine.rules;
+
+@FunctionalInterface
+public interface RuleEvaluator {
+
+    void evaluate(RuleContext context);
+}
@@ -0,0 +1,43 @@
+package com.riskengine.rules;
+
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Latency and hit counters for one rule. They outlive chain recompilation, and the observed
+ * rejection rate feeds back into the chain order.
+ */
+final class RuleMetrics {
+
+    private final StageLatency latency;
+    private final Counter rejects;
+    private final Counter warnings;
+
+    RuleMetrics(String ruleName, StageTimings stageTimings, MeterRegistry meterRegistry) {
+        this.latency = stageTimings.rule(ruleName);
+        this.rejects = Counter.builder("risk.rule.hits")
+                .tag("rule", ruleName)
+                .tag("outcome", "reject")
+                .description("Orders a risk rule rejected")
+                .register(meterRegistry);
+        this.warnings = Counter.builder("risk.rule.hits")
+                .tag("rule", ruleName)
+                .tag("outcome", "warn")
+                .description("Orders a risk rule warned on")
+                .register(meterRegistry);
+    }
+
+    void record(long elapsedNanos, RuleContext context, int reasonsBefore) {
+        latency.record(elapsedNanos);
+        if (context.reasons().size() > reasonsBefore) {
+            (context.isRejected() ? rejects : warnings).increment();
+        }
+    }
+
+    double rejectRate() {
+        // Laplace-smoothed so a rule with no history starts at an even chance
+        return (rejects.count() + 1) / (latency.count() + 2.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.riskengine.rules;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A rule's configured parameters. Values come from YAML as strings and are parsed on demand,
+ * which only happens when a rule is compiled.
+ */
+public final class RuleParameters {
+
+    private static final RuleParameters EMPTY = new RuleParameters(Map.of());
+
+    private final Map<String, String> values;
+
+    private RuleParameters(Map<String, String> values) {
+        this.values = values;
+    }
+
+    public static RuleParameters of(Map<String, String> values) {
+        return values == null || values.isEmpty() ? EMPTY : new RuleParameters(Map.copyOf(values));
+    }
+
+    public String getString(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+    }
+
+    public BigDecimal getDecimal(String name, String defaultValue) {
+        String value = values.getOrDefault(name, defaultValue);
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+    }
+
+    /**
+     * Every parameter named {@code <prefix><key>}, parsed as a decimal and keyed by {@code <key>};
+     * for per-symbol overrides such as {@code max-position.BTC-USD}.
+     */
+    public Map<String, BigDecimal> getDecimals(String prefix) {
+        Map<String, BigDecimal> decimals = new HashMap<>();
+        values.forEach((name, value) -> {
+            if (name.startsWith(prefix) && name.length() > prefix.length()) {
+                decimals.put(name.substring(prefix.length()), getDecimal(name, value));
+            }
+        });
+        return decimals;
+    }
+
+    private static IllegalArgumentException invalid(String name, String value) {
+        return new IllegalArgumentException("Invalid value for rule parameter " + name + ": " + value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.riskengine.rules;
+
+import com.riskengine.model.FixedPoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns on orders that are large for their symbol's current volatility, per the
+ * {@link com.riskengine.pricing.VolatilityEstimator}. The limit is {@code max-notional} at
+ * {@code reference-volatility} and scales inversely with volatility, so it halves when the symbol
+ * gets twice as volatile. A symbol without an estimate, because the price feed is off, went
+ * stale or has not yet given {@code min-ticks} returns, is held to the plain {@code max-notional}.
+ */
+@Component
+public class SymbolVolatilityRule implements RiskRule {
+
+    @Override
+    public String name() {
+        return "symbol-volatility";
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+
+    @Override
+    public boolean canReject() {
+        return false;
+    }
+
+    @Override
+    public RuleEvaluator compile(RuleParameters parameters) {
+        long maxNotionalUnits = FixedPoint.toUnitsSaturated(parameters.getDecimal("max-notional", "5000"));
+        double referenceVolatility = parameters.getDecimal("reference-volatility", "0.80").doubleValue();
+        // The notional times volatility an order may carry
+        double maxRisk = maxNotionalUnits * referenceVolatility;
+        int score = parameters.getInt("score", 15);
+        return context -> {
+            double volatility = context.volatility();
+            if (volatility > 0) {
+                if (context.notionalUnits() * volatility > maxRisk) {
+                    context.warn("Large " + context.order().getSymbol() + " order for its volatility - "
+                            + "increased volatility risk", score);
+                }
+            } else if (context.notionalUnits() > maxNotionalUnits) {
+                context.warn("Large " + context.order().getSymbol() + " order - increased volatility risk", score);
+            }
+        };
+    }
+}
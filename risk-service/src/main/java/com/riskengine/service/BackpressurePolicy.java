@@ -0,0 +1,10 @@
+package com.riskengine.service;
+
+/**
+ * What a producer does when a bounded hand-off queue is full.
+ */
+public enum BackpressurePolicy {
+    BLOCK,
+    DROP_OLDEST,
+    SPILL
+}
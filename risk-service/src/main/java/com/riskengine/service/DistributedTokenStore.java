@@ -0,0 +1,61 @@
+package com.riskengine.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis-backed token buckets shared by all risk-service replicas. Nodes lease a slice of a
+ * user's tokens in one script call and hand back whatever they did not use.
+ */
+@Component
+public class DistributedTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedTokenStore.class);
+    private static final String BUCKET_KEY_PREFIX = "ratelimit:bucket:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LEASE_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/lease-tokens.lua"), List.class);
+    private static final RedisScript<Long> RETURN_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/return-tokens.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public DistributedTokenStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public TokenLease lease(String userId, int capacity, Duration refillPeriod, int requested, Duration maxHold) {
+        List<?> result = redisTemplate.execute(LEASE_TOKENS_SCRIPT, List.of(BUCKET_KEY_PREFIX + userId),
+                Integer.toString(capacity), Long.toString(refillPeriod.toMillis()), Integer.toString(requested));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Unexpected reply from token lease script for user " + userId);
+        }
+
+        int granted = ((Number) result.get(0)).intValue();
+        long windowStartMillis = ((Number) result.get(1)).longValue();
+        long serverTimeMillis = ((Number) result.get(2)).longValue();
+        long windowRemainingMillis = windowStartMillis + refillPeriod.toMillis() - serverTimeMillis;
+        Duration validFor = Duration.ofMillis(Math.max(0, Math.min(windowRemainingMillis, maxHold.toMillis())));
+        return new TokenLease(granted, windowStartMillis, validFor);
+    }
+
+    public void release(String userId, int capacity, TokenLease lease) {
+        int unused = lease.remaining();
+        if (unused <= 0) {
+            return;
+        }
+        Long returned = redisTemplate.execute(RETURN_TOKENS_SCRIPT, List.of(BUCKET_KEY_PREFIX + userId),
+                Integer.toString(capacity), Integer.toString(unused), Long.toString(lease.windowStartMillis()));
+        logger.debug("Returned {} of {} unused tokens for user {}", returned, unused, userId);
+    }
+}
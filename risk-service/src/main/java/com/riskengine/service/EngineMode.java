@@ -0,0 +1,11 @@
+package com.riskengine.service;
+
+/**
+ * Which threads run the rule chain for an order.
+ */
+public enum EngineMode {
+    /** The request thread, with user state shared between threads. */
+    SHARED,
+    /** One of N single-threaded partitions chosen by userId, so each user's state has one writer. */
+    PARTITIONED
+}
@@ -0,0 +1,10 @@
+package com.riskengine.service;
+
+/**
+ * One exposure check: a signed notional delta for a user's position in a symbol (positive buys,
+ * negative sells), checked against the symbol's position limit and the user's exposure limit.
+ * With {@code reserve} false the delta is only projected onto the current book, not applied.
+ */
+public record ExposureRequest(String userId, String symbol, long deltaUnits,
+                              long positionLimitUnits, long limitUnits, boolean reserve) {
+}
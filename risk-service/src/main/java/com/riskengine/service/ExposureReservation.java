@@ -0,0 +1,18 @@
+package com.riskengine.service;
+
+import com.riskengine.model.FixedPoint;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of an atomic check-and-reserve, in fixed-point units: the user's exposure after the
+ * delta was applied, summed as absolute net positions across symbols, and the net position in
+ * the order's symbol, each with whether it now exceeds the limit it was checked against.
+ */
+public record ExposureReservation(long exposureUnits, boolean limitBreached,
+                                  long positionUnits, boolean positionLimitBreached) {
+
+    public BigDecimal exposure() {
+        return FixedPoint.toBigDecimal(exposureUnits);
+    }
+}
@@ -1,65 +1,596 @@
 package com.riskengine.service;
 
+import com.riskengine.config.JournalProperties;
+import com.riskengine.journal.ExposureJournal;
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.snapshot.SnapshotStore;
+import com.riskengine.snapshot.StateSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
+/**
+ * Per-user, per-symbol positions and the exposure derived from them. Each user's positions are
+ * one Redis hash, {@code positions:{userId}}, with {@code <symbol>:long} and {@code <symbol>:short}
+ * gross notionals plus the user's {@code exposure}, all in fixed-point units. With the cache
+ * enabled they are served from a {@link PositionBook} and written back in batches; otherwise
+ * every reservation is one Lua script call against the hash. {@link #reserveExposureAsync} does
+ * the same through the reactive template, so a caller never holds a thread while Redis answers.
+ * The cache can journal its changes to local disk so that a crash before the next flush loses
+ * nothing, and start from the latest snapshot instead of an empty book.
+ *
+ * <p>The cache decides reservations against this replica's own book, so it is only correct while
+ * one replica serves the positions. A {@link PositionCacheLease} enforces that: a second caching
+ * replica refuses to start. Several replicas either run with the cache disabled, where every
+ * reservation is decided atomically in Redis, or, with routing that keeps each user on one
+ * replica, with the lease turned off ({@code lease-ttl: 0}).
+ */
 @Service
 public class ExposureTracker {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ExposureTracker.class);
-    private static final String USER_EXPOSURE_KEY_PREFIX = "user:exposure:";
+    private static final String POSITIONS_KEY_PREFIX = "positions:";
+    private static final String EXPOSURE_FIELD = "exposure";
+    private static final String LONG_SUFFIX = ":long";
+    private static final String SHORT_SUFFIX = ":short";
     private static final Duration EXPOSURE_TTL = Duration.ofHours(24);
-    
-    private final RedisTemplate<String, Object> redisTemplate;
-    
+    private static final int WARM_BATCH_SIZE = 1000;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_POSITION_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/reserve-position.lua"), List.class);
+    private static final RedisScript<Long> RELEASE_POSITION_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/release-position.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    // Null where only the blocking template is available, such as the benchmarks
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+    private final PositionBook positionBook;
+    // Reserves for cold users once their positions arrive, off Lettuce's event loop; null without the cache
+    private final ExecutorService reloadExecutor;
+    // Null without the cache, or when the lease is turned off for user-sticky routing
+    private final PositionCacheLease cacheLease;
+    private final SnapshotStore snapshotStore;
+    private final int cacheMaxEntries;
+    private final StageLatency readLatency;
+    private final StageLatency writeLatency;
+
     @Autowired
-    public ExposureTracker(RedisTemplate<String, Object> redisTemplate) {
+    public ExposureTracker(StringRedisTemplate redisTemplate,
+                           ReactiveStringRedisTemplate reactiveRedisTemplate,
+                           SymbolRegistry symbolRegistry,
+                           MeterRegistry meterRegistry,
+                           StageTimings stageTimings,
+                           JournalProperties journalProperties,
+                           SnapshotStore snapshotStore,
+                           @Value("${risk.exposure.cache.enabled:true}") boolean cacheEnabled,
+                           @Value("${risk.exposure.cache.max-entries:100000}") int cacheMaxEntries,
+                           @Value("${risk.exposure.cache.idle-timeout:10m}") Duration cacheIdleTimeout,
+                           @Value("${risk.exposure.cache.flush-interval:50ms}") Duration cacheFlushInterval,
+                           @Value("${risk.exposure.cache.flush-dirty-threshold:500}") int cacheFlushDirtyThreshold,
+                           @Value("${risk.exposure.cache.lease-ttl:15s}") Duration cacheLeaseTtl,
+                           @Value("${risk.exposure.cache.owner:}") String cacheOwner) {
+        this(redisTemplate, reactiveRedisTemplate, symbolRegistry, meterRegistry, stageTimings, journalProperties,
+                snapshotStore, cacheEnabled, cacheMaxEntries, cacheIdleTimeout, cacheFlushInterval,
+                cacheFlushDirtyThreshold,
+                cacheEnabled && !cacheLeaseTtl.isZero()
+                        ? new PositionCacheLease(redisTemplate,
+                                cacheOwner.isBlank() ? UUID.randomUUID().toString() : cacheOwner,
+                                cacheLeaseTtl, meterRegistry)
+                        : null);
+    }
+
+    /** Without the cache lease, for a single process such as the benchmarks. */
+    public ExposureTracker(StringRedisTemplate redisTemplate,
+                           ReactiveStringRedisTemplate reactiveRedisTemplate,
+                           SymbolRegistry symbolRegistry,
+                           MeterRegistry meterRegistry,
+                           StageTimings stageTimings,
+                           JournalProperties journalProperties,
+                           SnapshotStore snapshotStore,
+                           boolean cacheEnabled,
+                           int cacheMaxEntries,
+                           Duration cacheIdleTimeout,
+                           Duration cacheFlushInterval,
+                           int cacheFlushDirtyThreshold) {
+        this(redisTemplate, reactiveRedisTemplate, symbolRegistry, meterRegistry, stageTimings, journalProperties,
+                snapshotStore, cacheEnabled, cacheMaxEntries, cacheIdleTimeout, cacheFlushInterval,
+                cacheFlushDirtyThreshold, null);
+    }
+
+    private ExposureTracker(StringRedisTemplate redisTemplate,
+                            ReactiveStringRedisTemplate reactiveRedisTemplate,
+                            SymbolRegistry symbolRegistry,
+                            MeterRegistry meterRegistry,
+                            StageTimings stageTimings,
+                            JournalProperties journalProperties,
+                            SnapshotStore snapshotStore,
+                            boolean cacheEnabled,
+                            int cacheMaxEntries,
+                            Duration cacheIdleTimeout,
+                            Duration cacheFlushInterval,
+                            int cacheFlushDirtyThreshold,
+                            PositionCacheLease cacheLease) {
         this.redisTemplate = redisTemplate;
+        this.cacheLease = cacheLease;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.snapshotStore = snapshotStore;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.readLatency = stageTimings.stage(StageTimings.EXPOSURE_READ);
+        this.writeLatency = stageTimings.stage(StageTimings.EXPOSURE_WRITE);
+        // Without the cache every change is already in Redis before it is acknowledged
+        ExposureJournal journal = cacheEnabled && journalProperties.isEnabled()
+                ? new ExposureJournal(Path.of(journalProperties.getDirectory()),
+                                      (int) journalProperties.getSegmentSize().toBytes(), journalProperties.getFsync(),
+                                      journalProperties.getGroupCommitInterval(), meterRegistry)
+                : null;
+        this.positionBook = cacheEnabled
+                ? new PositionBook(cacheMaxEntries, cacheIdleTimeout, cacheFlushInterval,
+                                   cacheFlushDirtyThreshold, symbolRegistry, this::readPositions,
+                                   this::writePositions, journal, meterRegistry)
+                : null;
+        this.reloadExecutor = cacheEnabled
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("exposure-reload-", 0).factory())
+                : null;
+    }
+
+    /**
+     * Starts the position book from the latest snapshot. Runs before the application reports
+     * ready, so the first orders after a restart already find their users in memory.
+     */
+    @PostConstruct
+    public void start() {
+        if (positionBook == null) {
+            return;
+        }
+        // Before the book replays its journal into Redis, which only the owner may write
+        if (cacheLease != null) {
+            cacheLease.acquire();
+        }
+        StateSnapshot snapshot = snapshotStore != null ? snapshotStore.latest() : null;
+        if (!positionBook.start(snapshot) && snapshot != null) {
+            warm(snapshot);
+        }
     }
-    
+
+    @PreDestroy
+    public void stop() {
+        if (positionBook != null) {
+            reloadExecutor.shutdown();
+            positionBook.close();
+        }
+        // After the final flush, so the next owner reads everything this one reserved
+        if (cacheLease != null) {
+            cacheLease.release();
+        }
+    }
+
     public BigDecimal getUserExposure(String userId) {
-        String key = USER_EXPOSURE_KEY_PREFIX + userId;
-        String exposureStr = (String) redisTemplate.opsForValue().get(key);
-        
-        if (exposureStr == null) {
-            return BigDecimal.ZERO;
+        return FixedPoint.toBigDecimal(getUserExposureUnits(userId));
+    }
+
+    /** The user's exposure: the sum of the absolute net positions across symbols. */
+    public long getUserExposureUnits(String userId) {
+        if (positionBook != null) {
+            return positionBook.exposure(userId);
         }
-        
-        try {
-            return new BigDecimal(exposureStr);
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid exposure value for user {}: {}", userId, exposureStr);
-            return BigDecimal.ZERO;
+        long start = System.nanoTime();
+        String exposure = (String) redisTemplate.opsForHash().get(positionsKey(userId), EXPOSURE_FIELD);
+        readLatency.recordSince(start);
+        return parseUnits(userId, exposure);
+    }
+
+    public Position getPosition(String userId, String symbol) {
+        if (positionBook != null) {
+            return positionBook.position(userId, symbol);
+        }
+        List<Object> values = redisTemplate.opsForHash()
+                .multiGet(positionsKey(userId), List.<Object>of(symbol + LONG_SUFFIX, symbol + SHORT_SUFFIX));
+        return new Position(symbol, parseUnits(userId, (String) values.get(0)),
+                parseUnits(userId, (String) values.get(1)));
+    }
+
+    public List<Position> getPositions(String userId) {
+        if (positionBook != null) {
+            return positionBook.positions(userId);
         }
+        return readPositions(userId);
     }
-    
-    public void updateUserExposure(String userId, BigDecimal newExposure) {
-        String key = USER_EXPOSURE_KEY_PREFIX + userId;
-        redisTemplate.opsForValue().set(key, newExposure.toString(), EXPOSURE_TTL);
-        logger.debug("Updated exposure for user {} to {}", userId, newExposure);
+
+    /**
+     * Applies the request's delta to the user's position in its symbol and checks the position and
+     * the user's exposure against the request's limits as a single atomic step: a local update when
+     * the cache is enabled, otherwise one Lua script round trip that also refreshes the hash's TTL.
+     */
+    public ExposureReservation reserveExposure(ExposureRequest request) {
+        long start = System.nanoTime();
+        if (positionBook != null) {
+            checkLease();
+            ExposureReservation reservation = positionBook.reserve(request);
+            writeLatency.recordSince(start);
+            return reservation;
+        }
+
+        List<?> result = redisTemplate.execute(RESERVE_POSITION_SCRIPT, List.of(positionsKey(request.userId())),
+                scriptArgs(request));
+        writeLatency.recordSince(start);
+        ExposureReservation reservation = toReservation(request, result);
+        logger.debug("Reserved {} units of {} for user {}, exposure now {}",
+                request.deltaUnits(), request.symbol(), request.userId(), reservation.exposureUnits());
+        return reservation;
     }
-    
-    public void incrementUserExposure(String userId, BigDecimal amount) {
-        BigDecimal currentExposure = getUserExposure(userId);
-        BigDecimal newExposure = currentExposure.add(amount);
-        updateUserExposure(userId, newExposure);
+
+    /**
+     * Non-blocking form of {@link #reserveExposure}. A cached user is reserved in memory, a cold one
+     * is first read with a reactive HGETALL, and without the cache the reservation script runs
+     * through the reactive template. The script reply is parsed on Lettuce's event loop, but a cold
+     * user's reservation, which can block on a reload or the journal, runs on a virtual thread.
+     * Stages that follow a group commit run on the journal's sync thread, and callers that may block
+     * must move off whichever thread completes the future.
+     */
+    public CompletableFuture<ExposureReservation> reserveExposureAsync(ExposureRequest request) {
+        if (reactiveRedisTemplate == null) {
+            return CompletableFuture.completedFuture(reserveExposure(request));
+        }
+        String key = positionsKey(request.userId());
+        long start = System.nanoTime();
+        if (positionBook == null) {
+            return reactiveRedisTemplate.execute(RESERVE_POSITION_SCRIPT, List.of(key), List.of(scriptArgs(request)))
+                    .collectList()
+                    .toFuture()
+                    .thenApply(reply -> {
+                        writeLatency.recordSince(start);
+                        return toReservation(request, scriptReply(reply));
+                    });
+        }
+        try {
+            checkLease();
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (positionBook.contains(request.userId())) {
+            return reserveCachedAsync(request, start);
+        }
+        return reactiveRedisTemplate.<String, String>opsForHash().entries(key)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .toFuture()
+                .thenComposeAsync(hash -> {
+                    readLatency.recordSince(start);
+                    // Evicted again before the reservation, it would be reloaded by a blocking read
+                    positionBook.preload(Map.of(request.userId(), parsePositions(request.userId(), hash)));
+                    return reserveCachedAsync(request, System.nanoTime());
+                }, reloadExecutor);
+    }
+
+    /**
+     * Batch form of {@link #reserveExposure}. Requests are applied in list order, so requests for the
+     * same user see each other's effect exactly as sequential calls would. The whole batch costs at
+     * most one Redis round trip: a bulk read of cold users in cache mode, otherwise one pipeline.
+     */
+    public List<ExposureReservation> reserveExposures(List<ExposureRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        if (positionBook == null) {
+            return reserveExposuresPipelined(requests);
+        }
+
+        checkLease();
+        preloadPositions(requests);
+        return positionBook.reserveAll(requests);
     }
-    
-    public void decrementUserExposure(String userId, BigDecimal amount) {
-        BigDecimal currentExposure = getUserExposure(userId);
-        BigDecimal newExposure = currentExposure.subtract(amount);
-        updateUserExposure(userId, newExposure);
+
+    /**
+     * Takes released notional off the users' positions, never below zero, and returns once the
+     * change is durable: applied to the cached book and journaled, or written to Redis. The batch
+     * costs at most one Redis round trip, a bulk read of cold users in cache mode, otherwise one
+     * pipeline of script calls.
+     */
+    public void releasePositions(List<PositionRelease> releases) {
+        if (releases.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (positionBook != null) {
+            checkLease();
+            Set<String> cold = new LinkedHashSet<>();
+            for (PositionRelease release : releases) {
+                if (!positionBook.contains(release.userId())) {
+                    cold.add(release.userId());
+                }
+            }
+            if (!cold.isEmpty()) {
+                loadPositions(new ArrayList<>(cold));
+            }
+            positionBook.releaseAll(releases);
+        } else {
+            releasePositionsPipelined(releases);
+        }
+        writeLatency.recordSince(start);
+        logger.debug("Released positions for {} user symbols", releases.size());
     }
-    
+
     public void resetUserExposure(String userId) {
-        String key = USER_EXPOSURE_KEY_PREFIX + userId;
-        redisTemplate.delete(key);
-        logger.info("Reset exposure for user {}", userId);
+        // Redis first, so a journaled reset is never replayed over positions that are still there
+        redisTemplate.delete(positionsKey(userId));
+        if (positionBook != null) {
+            positionBook.invalidate(userId);
+        }
+        logger.info("Reset positions for user {}", userId);
+    }
+
+    /**
+     * Hands every cached user's positions to {@code visitor} and returns the journal sequence they
+     * reflect; see {@link PositionBook#snapshot}. Without the cache there is nothing to hand over.
+     */
+    public long snapshotPositions(BiConsumer<String, List<Position>> visitor) {
+        return positionBook != null ? positionBook.snapshot(visitor) : 0L;
+    }
+
+    public void retainJournalAfter(long sequence) {
+        if (positionBook != null) {
+            positionBook.retainJournalAfter(sequence);
+        }
+    }
+
+    /**
+     * Loads the snapshot's users from Redis in pipelined batches, in parallel, for when the
+     * snapshot's own positions cannot be trusted: Redis is authoritative, and the snapshot only
+     * says who was active.
+     */
+    private void warm(StateSnapshot snapshot) {
+        List<String> userIds = new ArrayList<>();
+        for (Map<String, List<Position>> part : snapshot.positions()) {
+            for (String userId : part.keySet()) {
+                if (userIds.size() == cacheMaxEntries) {
+                    break;
+                }
+                userIds.add(userId);
+            }
+        }
+        int batches = (userIds.size() + WARM_BATCH_SIZE - 1) / WARM_BATCH_SIZE;
+        IntStream.range(0, batches).parallel().forEach(batch -> loadPositions(
+                userIds.subList(batch * WARM_BATCH_SIZE, Math.min(userIds.size(), (batch + 1) * WARM_BATCH_SIZE))));
+        logger.info("Warmed positions for {} users from Redis", userIds.size());
+    }
+
+    private void preloadPositions(List<ExposureRequest> requests) {
+        Set<String> cold = new LinkedHashSet<>();
+        for (ExposureRequest request : requests) {
+            if (!positionBook.contains(request.userId())) {
+                cold.add(request.userId());
+            }
+        }
+        if (!cold.isEmpty()) {
+            loadPositions(new ArrayList<>(cold));
+        }
+    }
+
+    private void loadPositions(List<String> userIds) {
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String userId : userIds) {
+                connection.hashCommands().hGetAll(bytes(positionsKey(userId)));
+            }
+            return null;
+        }, RedisSerializer.string());
+        Map<String, List<Position>> loaded = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            loaded.put(userIds.get(i), parsePositions(userIds.get(i), (Map<?, ?>) hashes.get(i)));
+        }
+        positionBook.preload(loaded);
+    }
+
+    private List<ExposureReservation> reserveExposuresPipelined(List<ExposureRequest> requests) {
+        byte[] script = RESERVE_POSITION_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] sha = RESERVE_POSITION_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // Loading ahead of the EVALSHAs in the same pipeline means they cannot hit NOSCRIPT
+            connection.scriptingCommands().scriptLoad(script);
+            for (ExposureRequest request : requests) {
+                byte[] key = bytes(positionsKey(request.userId()));
+                if (request.reserve()) {
+                    String[] args = scriptArgs(request);
+                    byte[][] keysAndArgs = new byte[args.length + 1][];
+                    keysAndArgs[0] = key;
+                    for (int i = 0; i < args.length; i++) {
+                        keysAndArgs[i + 1] = bytes(args[i]);
+                    }
+                    connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 1, keysAndArgs);
+                } else {
+                    connection.hashCommands().hMGet(key, bytes(EXPOSURE_FIELD),
+                            bytes(request.symbol() + LONG_SUFFIX), bytes(request.symbol() + SHORT_SUFFIX));
+                }
+            }
+            return null;
+        }, RedisSerializer.string());
+
+        List<ExposureReservation> reservations = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ExposureRequest request = requests.get(i);
+            Object reply = replies.get(i + 1);
+            if (request.reserve()) {
+                reservations.add(toReservation(request, (List<?>) reply));
+            } else {
+                List<?> values = (List<?>) reply;
+                reservations.add(project(request, parseUnits(request.userId(), (String) values.get(0)),
+                        parseUnits(request.userId(), (String) values.get(1))
+                                - parseUnits(request.userId(), (String) values.get(2))));
+            }
+        }
+        logger.debug("Reserved exposure for {} orders in one pipeline", requests.size());
+        return reservations;
+    }
+
+    private void checkLease() {
+        if (cacheLease != null) {
+            cacheLease.check();
+        }
+    }
+
+    private void releasePositionsPipelined(List<PositionRelease> releases) {
+        byte[] script = RELEASE_POSITION_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] sha = RELEASE_POSITION_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        byte[] ttl = bytes(Long.toString(EXPOSURE_TTL.toSeconds()));
+
+        // executePipelined throws once every reply is in if any command failed
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptLoad(script);
+            for (PositionRelease release : releases) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        bytes(positionsKey(release.userId())), bytes(release.symbol()),
+                        bytes(Long.toString(release.longUnits())), bytes(Long.toString(release.shortUnits())), ttl);
+            }
+            return null;
+        }, RedisSerializer.string());
+    }
+
+    private static String[] scriptArgs(ExposureRequest request) {
+        long delta = request.deltaUnits();
+        return new String[] {
+                request.symbol(),
+                Long.toString(Math.max(delta, 0L)),
+                Long.toString(Math.max(-delta, 0L)),
+                Long.toString(request.positionLimitUnits()),
+                Long.toString(request.limitUnits()),
+                Long.toString(EXPOSURE_TTL.toSeconds())
+        };
+    }
+
+    /** Lettuce hands a reactive caller a multi-bulk script reply either whole or one element at a time. */
+    private static List<?> scriptReply(List<?> emitted) {
+        return emitted.size() == 1 && emitted.get(0) instanceof List<?> whole ? whole : emitted;
+    }
+
+    private static ExposureReservation toReservation(ExposureRequest request, List<?> result) {
+        if (result == null || result.size() < 4) {
+            throw new IllegalStateException(
+                    "Unexpected reply from position reservation script for user " + request.userId());
+        }
+        return new ExposureReservation(
+                ((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue() == 1L,
+                ((Number) result.get(2)).longValue(), ((Number) result.get(3)).longValue() == 1L);
+    }
+
+    private static ExposureReservation project(ExposureRequest request, long exposureUnits, long netUnits) {
+        long projectedNet = FixedPoint.addSaturated(netUnits, request.deltaUnits());
+        long projectedExposure = FixedPoint.addSaturated(exposureUnits, Math.abs(projectedNet) - Math.abs(netUnits));
+        return new ExposureReservation(projectedExposure, projectedExposure > request.limitUnits(),
+                projectedNet, Math.abs(projectedNet) > request.positionLimitUnits());
+    }
+
+    private CompletableFuture<ExposureReservation> reserveCachedAsync(ExposureRequest request, long start) {
+        CompletableFuture<ExposureReservation> reservation = positionBook.reserveAsync(request);
+        if (reservation.isDone()) {
+            writeLatency.recordSince(start);
+            return reservation;
+        }
+        // Waiting on the journal's group commit
+        return reservation.whenComplete((result, failure) -> writeLatency.recordSince(start));
+    }
+
+    private List<Position> readPositions(String userId) {
+        long start = System.nanoTime();
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(positionsKey(userId));
+        readLatency.recordSince(start);
+        return parsePositions(userId, hash);
+    }
+
+    private List<Position> parsePositions(String userId, Map<?, ?> hash) {
+        Map<String, long[]> bySymbol = new LinkedHashMap<>();
+        if (hash != null) {
+            hash.forEach((field, value) -> {
+                String name = (String) field;
+                if (name.endsWith(LONG_SUFFIX)) {
+                    unitsFor(bySymbol, name, LONG_SUFFIX)[0] = parseUnits(userId, (String) value);
+                } else if (name.endsWith(SHORT_SUFFIX)) {
+                    unitsFor(bySymbol, name, SHORT_SUFFIX)[1] = parseUnits(userId, (String) value);
+                }
+            });
+        }
+        List<Position> positions = new ArrayList<>(bySymbol.size());
+        bySymbol.forEach((symbol, units) -> positions.add(new Position(symbol, units[0], units[1])));
+        return positions;
+    }
+
+    private static long[] unitsFor(Map<String, long[]> bySymbol, String field, String suffix) {
+        return bySymbol.computeIfAbsent(field.substring(0, field.length() - suffix.length()), symbol -> new long[2]);
+    }
+
+    private long parseUnits(String userId, String value) {
+        if (value == null) {
+            return 0L;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid position value for user {}: {}", userId, value);
+            return 0L;
+        }
+    }
+
+    private void writePositions(Map<String, PositionBook.Flush> flushes) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                flushes.forEach((userId, flush) -> {
+                    Map<String, String> fields = new HashMap<>();
+                    for (Position position : flush.positions()) {
+                        fields.put(position.symbol() + LONG_SUFFIX, Long.toString(position.longUnits()));
+                        fields.put(position.symbol() + SHORT_SUFFIX, Long.toString(position.shortUnits()));
+                    }
+                    fields.put(EXPOSURE_FIELD, Long.toString(flush.exposureUnits()));
+                    ops.opsForHash().putAll(positionsKey(userId), fields);
+                    ops.expire(positionsKey(userId), EXPOSURE_TTL);
+                });
+                return null;
+            }
+        });
+    }
+
+    private static String positionsKey(String userId) {
+        return POSITIONS_KEY_PREFIX + userId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
-} 
\ No newline at end of file
+}
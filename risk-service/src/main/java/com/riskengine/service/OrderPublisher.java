@@ -2,32 +2,94 @@ package com.riskengine.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.codec.OrderStreamCodec;
+import com.riskengine.codec.StreamFormat;
+import com.riskengine.concurrent.BoundedRingBuffer;
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
 import com.riskengine.model.Order;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class OrderPublisher {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(OrderPublisher.class);
     private static final String ORDERS_STREAM = "orders:stream";
-    
+    private static final byte[] ORDERS_STREAM_KEY = ORDERS_STREAM.getBytes(StandardCharsets.UTF_8);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long MIN_REPLAY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_REPLAY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
     private final Counter publishedOrdersCounter;
     private final Counter failedPublishCounter;
-    
+    private final StreamFormat streamFormat;
+
+    private final boolean asyncEnabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BackpressurePolicy backpressurePolicy;
+    private final Path spillFile;
+    private final BoundedRingBuffer<PendingOrder> queue;
+    private final Counter droppedOrdersCounter;
+    private final Counter spilledOrdersCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer publishLatencyTimer;
+    private final StageLatency encodeLatency;
+    private final StageLatency publishLatency;
+    private final ReentrantLock spillLock = new ReentrantLock();
+    // Only touched by the drain thread; replay waits while publishes to Redis are failing
+    private long replayBackoffNanos;
+    private long replayNotBefore = System.nanoTime();
+    private volatile boolean running;
+    private Thread drainThread;
+
     @Autowired
-    public OrderPublisher(RedisTemplate<String, Object> redisTemplate, 
-                         ObjectMapper objectMapper, 
-                         MeterRegistry meterRegistry) {
+    public OrderPublisher(RedisTemplate<String, Object> redisTemplate,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         StageTimings stageTimings,
+                         @Value("${risk.publisher.stream-format:FLAT}") StreamFormat streamFormat,
+                         @Value("${risk.publisher.async.enabled:true}") boolean asyncEnabled,
+                         @Value("${risk.publisher.async.queue-capacity:65536}") int queueCapacity,
+                         @Value("${risk.publisher.async.batch-size:256}") int batchSize,
+                         @Value("${risk.publisher.async.linger:2ms}") Duration linger,
+                         @Value("${risk.publisher.async.backpressure:DROP_OLDEST}") BackpressurePolicy backpressurePolicy,
+                         @Value("${risk.publisher.async.spill-file:data/orders-publish.spill}") String spillFile) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
         this.publishedOrdersCounter = Counter.builder("orders.published")
@@ -36,29 +98,103 @@ public class OrderPublisher {
         this.failedPublishCounter = Counter.builder("orders.publish.failed")
                 .description("Number of failed order publications")
                 .register(meterRegistry);
+        this.streamFormat = streamFormat;
+
+        this.asyncEnabled = asyncEnabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.backpressurePolicy = backpressurePolicy;
+        this.spillFile = Path.of(spillFile);
+        this.queue = new BoundedRingBuffer<>(queueCapacity);
+        this.droppedOrdersCounter = Counter.builder("orders.publish.dropped")
+                .description("Orders dropped from the publish queue under backpressure")
+                .register(meterRegistry);
+        this.spilledOrdersCounter = Counter.builder("orders.publish.spilled")
+                .description("Orders spilled to disk because the publish queue was full")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("orders.publish.batch.size")
+                .description("Orders per pipelined XADD batch")
+                .register(meterRegistry);
+        this.publishLatencyTimer = Timer.builder("orders.publish.latency")
+                .description("Time from enqueue to the order's XADD completing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("orders.publish.queue.depth", queue, BoundedRingBuffer::size)
+                .description("Orders waiting in the publish queue")
+                .register(meterRegistry);
+        this.encodeLatency = stageTimings.stage(StageTimings.ENCODE);
+        this.publishLatency = stageTimings.stage(StageTimings.PUBLISH);
     }
-    
+
+    @PostConstruct
+    public void start() {
+        if (!asyncEnabled) {
+            return;
+        }
+        running = true;
+        drainThread = new Thread(this::drainLoop, "order-publisher");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (drainThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainThread);
+        drainThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
     public void publishOrder(Order order) {
+        if (!asyncEnabled) {
+            publishNow(order);
+            return;
+        }
+
+        PendingOrder pending = new PendingOrder(order, System.nanoTime());
+        if (queue.offer(pending)) {
+            return;
+        }
+
+        switch (backpressurePolicy) {
+            case BLOCK:
+                while (!queue.offer(pending)) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(pending)) {
+                    if (queue.poll() != null) {
+                        droppedOrdersCounter.increment();
+                    }
+                }
+                break;
+            case SPILL:
+                spill(order);
+                break;
+        }
+    }
+
+    private void publishNow(Order order) {
         try {
-            String orderJson = objectMapper.writeValueAsString(order);
-            
-            Map<String, Object> messageBody = Map.of(
-                "orderId", order.getOrderId(),
-                "userId", order.getUserId(),
-                "symbol", order.getSymbol(),
-                "side", order.getSide().getValue(),
-                "quantity", order.getQuantity().toString(),
-                "price", order.getPrice().toString(),
-                "orderType", order.getOrderType().getValue(),
-                "timestamp", order.getTimestamp().toString(),
-                "orderData", orderJson
-            );
-            
-            redisTemplate.opsForStream().add(ORDERS_STREAM, messageBody);
-            
+            long start = System.nanoTime();
+            if (streamFormat == StreamFormat.LEGACY) {
+                redisTemplate.opsForStream().add(ORDERS_STREAM, buildMessageBody(order));
+            } else {
+                Map<byte[], byte[]> fields = OrderStreamCodec.encode(order, streamFormat);
+                long encoded = System.nanoTime();
+                encodeLatency.record(encoded - start);
+                start = encoded;
+                redisTemplate.execute((RedisCallback<Object>) connection ->
+                        connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(ORDERS_STREAM_KEY)));
+            }
+            publishLatency.recordSince(start);
+
             publishedOrdersCounter.increment();
             logger.debug("Published order {} to Redis stream", order.getOrderId());
-            
+
         } catch (JsonProcessingException e) {
             failedPublishCounter.increment();
             logger.error("Failed to serialize order {} to JSON", order.getOrderId(), e);
@@ -69,4 +205,237 @@ public class OrderPublisher {
             throw new RuntimeException("Failed to publish order", e);
         }
     }
-} 
\ No newline at end of file
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            long deadline = System.nanoTime() + lingerNanos;
+            queue.drain(batch::add, batchSize);
+            while (batch.size() < batchSize && running && System.nanoTime() < deadline) {
+                if (queue.drain(batch::add, batchSize - batch.size()) == 0) {
+                    LockSupport.parkNanos(Math.min(IDLE_PARK_NANOS, Math.max(0, deadline - System.nanoTime())));
+                }
+            }
+
+            if (batch.isEmpty()) {
+                replaySpill();
+                continue;
+            }
+            boolean published = publishBatch(batch);
+            backOffReplay(published);
+            if (!published && backpressurePolicy == BackpressurePolicy.SPILL) {
+                // Kept on disk for the replay rather than lost while Redis is down
+                try {
+                    spillAll(batch.stream().map(PendingOrder::order).toList());
+                } catch (IOException e) {
+                    logger.error("Failed to spill {} unpublished orders to {}", batch.size(), spillFile, e);
+                }
+            }
+            batch.clear();
+        }
+        replaySpill();
+    }
+
+    /** Publishes {@code batch} in one pipelined round trip and returns whether it succeeded. */
+    private boolean publishBatch(List<PendingOrder> batch) {
+        batchSizeSummary.record(batch.size());
+        try {
+            long start = System.nanoTime();
+            if (streamFormat == StreamFormat.LEGACY) {
+                publishLegacyBatch(batch);
+            } else {
+                List<Map<byte[], byte[]>> entries = new ArrayList<>(batch.size());
+                for (PendingOrder pending : batch) {
+                    long encodeStart = System.nanoTime();
+                    entries.add(OrderStreamCodec.encode(pending.order(), streamFormat));
+                    encodeLatency.recordSince(encodeStart);
+                }
+                start = System.nanoTime();
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Map<byte[], byte[]> fields : entries) {
+                        connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(ORDERS_STREAM_KEY));
+                    }
+                    return null;
+                });
+            }
+
+            long now = System.nanoTime();
+            // One pipelined round trip for the whole batch
+            publishLatency.record(now - start);
+            for (PendingOrder pending : batch) {
+                publishLatencyTimer.record(now - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+            publishedOrdersCounter.increment(batch.size());
+            logger.debug("Published batch of {} orders to Redis stream", batch.size());
+            return true;
+
+        } catch (Exception e) {
+            failedPublishCounter.increment(batch.size());
+            logger.error("Failed to publish batch of {} orders to Redis", batch.size(), e);
+            return false;
+        }
+    }
+
+    private void publishLegacyBatch(List<PendingOrder> batch) throws JsonProcessingException {
+        List<Map<String, Object>> bodies = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            bodies.add(buildMessageBody(pending.order()));
+        }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Map<String, Object> body : bodies) {
+                    ops.opsForStream().add(ORDERS_STREAM, body);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void spill(Order order) {
+        try {
+            spillAll(List.of(order));
+        } catch (IOException e) {
+            logger.error("Failed to spill order {} to {}", order.getOrderId(), spillFile, e);
+            throw new RuntimeException("Failed to publish order", e);
+        }
+    }
+
+    private void spillAll(List<Order> orders) throws IOException {
+        // Request threads may be virtual; file I/O under a monitor would pin their carrier
+        spillLock.lock();
+        try {
+            Files.createDirectories(spillFile.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Order order : orders) {
+                    writer.write(objectMapper.writeValueAsString(order));
+                    writer.newLine();
+                }
+            }
+            spilledOrdersCounter.increment(orders.size());
+        } catch (IOException e) {
+            failedPublishCounter.increment(orders.size());
+            throw e;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the spilled orders, oldest first, and deletes them only once they are all in Redis.
+     * A failed batch keeps itself and everything after it in the draining file, which is retried
+     * before any newer spill, after a backoff. A crash mid-replay publishes the replayed part again.
+     */
+    private void replaySpill() {
+        if (backpressurePolicy != BackpressurePolicy.SPILL || System.nanoTime() - replayNotBefore < 0) {
+            return;
+        }
+
+        Path draining = spillFile.resolveSibling(spillFile.getFileName() + ".draining");
+        try {
+            if (!Files.exists(draining)) {
+                spillLock.lock();
+                try {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, draining);
+                } finally {
+                    spillLock.unlock();
+                }
+            }
+
+            List<PendingOrder> batch = new ArrayList<>(batchSize);
+            long lines = 0;
+            long replayed = 0;
+            boolean failed = false;
+            try (BufferedReader reader = Files.newBufferedReader(draining, StandardCharsets.UTF_8)) {
+                String line;
+                while (!failed && (line = reader.readLine()) != null) {
+                    lines++;
+                    try {
+                        batch.add(new PendingOrder(objectMapper.readValue(line, Order.class), System.nanoTime()));
+                    } catch (JsonProcessingException e) {
+                        // Replaying it would fail the same way forever
+                        failedPublishCounter.increment();
+                        logger.error("Dropping unreadable spilled order at line {} of {}", lines, draining, e);
+                    }
+                    if (batch.size() == batchSize) {
+                        failed = !publishBatch(batch);
+                        batch.clear();
+                        replayed = failed ? replayed : lines;
+                    }
+                }
+            }
+            if (!failed && !batch.isEmpty()) {
+                failed = !publishBatch(batch);
+            }
+            backOffReplay(!failed);
+            if (failed) {
+                keepFrom(draining, replayed);
+                logger.warn("Replay of spilled orders failed after {} lines, retrying in {} ms",
+                        replayed, TimeUnit.NANOSECONDS.toMillis(replayBackoffNanos));
+                return;
+            }
+            Files.delete(draining);
+            logger.info("Replayed {} spilled orders from {}", lines, spillFile);
+
+        } catch (IOException e) {
+            backOffReplay(false);
+            logger.error("Failed to replay spilled orders from {}", spillFile, e);
+        }
+    }
+
+    /** Drops the first {@code lines} lines of {@code file}, which have been published. */
+    private static void keepFrom(Path file, long lines) throws IOException {
+        if (lines == 0) {
+            return;
+        }
+        Path kept = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(kept, StandardCharsets.UTF_8)) {
+            String line;
+            long index = 0;
+            while ((line = reader.readLine()) != null) {
+                if (index++ >= lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(kept, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void backOffReplay(boolean published) {
+        if (published) {
+            replayBackoffNanos = 0;
+            return;
+        }
+        replayBackoffNanos = Math.min(Math.max(replayBackoffNanos * 2, MIN_REPLAY_BACKOFF_NANOS),
+                MAX_REPLAY_BACKOFF_NANOS);
+        replayNotBefore = System.nanoTime() + replayBackoffNanos;
+    }
+
+    private Map<String, Object> buildMessageBody(Order order) throws JsonProcessingException {
+        String orderJson = objectMapper.writeValueAsString(order);
+
+        return Map.of(
+            "orderId", order.getOrderId(),
+            "userId", order.getUserId(),
+            "symbol", order.getSymbol(),
+            "side", order.getSide().getValue(),
+            "quantity", order.getQuantity().toString(),
+            "price", order.getPrice().toString(),
+            "orderType", order.getOrderType().getValue(),
+            "timestamp", order.getTimestamp().toString(),
+            "orderData", orderJson
+        );
+    }
+
+    private record PendingOrder(Order order, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.riskengine.service;
+
+/**
+ * A user's position in one symbol, in fixed-point notional units: the gross notional bought and
+ * sold, and their difference.
+ */
+public record Position(String symbol, long longUnits, long shortUnits) {
+
+    public long netUnits() {
+        return longUnits - shortUnits;
+    }
+}
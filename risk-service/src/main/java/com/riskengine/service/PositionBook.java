@@ -0,0 +1,781 @@
+package com.riskengine.service;
+
+import com.riskengine.journal.ExposureJournal;
+import com.riskengine.journal.JournalEntry;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.snapshot.StateSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Write-behind book of positions keyed by (userId, symbol), in fixed-point units. Each user's
+ * positions sit in one open-addressing table indexed by the symbol's interned id, with gross long,
+ * gross short and the user's exposure held in primitive arrays and fields, so an update is O(1)
+ * and a position costs no objects of its own. A user's exposure is the sum of the absolute net
+ * positions, so a long in one symbol does not offset a short in another.
+ *
+ * <p>Users are read from the loader on first use and written to the writer in batches holding only
+ * the positions that changed, either on the flush interval or once the dirty count reaches the
+ * threshold.
+ *
+ * <p>With a journal, every change is appended under the user's lock before it is applied, so an
+ * append that fails leaves the book as it was, and the caller waits for it to be durable, outside
+ * the lock, before the reservation is returned. Each flush that reaches Redis checkpoints the
+ * journal, and {@link #start} replays whatever followed the last checkpoint. Given a snapshot
+ * the journal still covers, start-up restores the snapshot's users in bulk and replays only the
+ * journal tail since it was taken, so the book starts warm instead of loading users one by one.
+ */
+public class PositionBook {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionBook.class);
+
+    private final ConcurrentHashMap<String, UserPositions> entries = new ConcurrentHashMap<>();
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final int maxEntries;
+    private final long idleTimeoutNanos;
+    private final Duration flushInterval;
+    private final int flushDirtyThreshold;
+    private final SymbolRegistry symbolRegistry;
+    private final Function<String, List<Position>> loader;
+    private final Consumer<Map<String, Flush>> writer;
+    // Null when journaling is off
+    private final ExposureJournal journal;
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private final Counter flushFailureCounter;
+    private final Timer flushLagTimer;
+
+    public PositionBook(int maxEntries,
+                        Duration idleTimeout,
+                        Duration flushInterval,
+                        int flushDirtyThreshold,
+                        SymbolRegistry symbolRegistry,
+                        Function<String, List<Position>> loader,
+                        Consumer<Map<String, Flush>> writer,
+                        ExposureJournal journal,
+                        MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.flushInterval = flushInterval;
+        this.flushDirtyThreshold = flushDirtyThreshold;
+        this.symbolRegistry = symbolRegistry;
+        this.loader = loader;
+        this.writer = writer;
+        this.journal = journal;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "position-book-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Metric names predate the per-symbol book and are kept for existing dashboards
+        this.hitCounter = Counter.builder("exposure.cache.hits")
+                .description("Position lookups answered from the in-memory book")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("exposure.cache.misses")
+                .description("Position lookups that loaded the user's positions from Redis")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("exposure.cache.evictions")
+                .description("Idle or overflow users evicted from the position book")
+                .register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("exposure.cache.flush.failed")
+                .description("Failed write-behind flushes of changed positions")
+                .register(meterRegistry);
+        this.flushLagTimer = Timer.builder("exposure.cache.flush.lag")
+                .description("Age of the oldest changed position when it was flushed to Redis")
+                .register(meterRegistry);
+        Gauge.builder("exposure.cache.size", entries, Map::size)
+                .description("Number of users held in the position book")
+                .register(meterRegistry);
+        Gauge.builder("exposure.cache.dirty", dirtyCount, AtomicInteger::get)
+                .description("Number of users with positions awaiting flush")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        start(null);
+    }
+
+    /**
+     * Starts the book, first restoring {@code snapshot}'s users if the journal still holds every
+     * entry written since it was taken, and returns whether it did. Without a journal a snapshot
+     * may be older than Redis, so it is never restored here.
+     */
+    public boolean start(StateSnapshot snapshot) {
+        boolean restored = journal != null && recover(snapshot);
+        long intervalNanos = flushInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        scheduler.scheduleWithFixedDelay(this::evict, 1, 1, TimeUnit.SECONDS);
+        return restored;
+    }
+
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public long exposure(String userId) {
+        UserPositions positions = getOrLoad(userId);
+        positions.lock.lock();
+        try {
+            return positions.exposureUnits;
+        } finally {
+            positions.lock.unlock();
+        }
+    }
+
+    public Position position(String userId, String symbol) {
+        int symbolId = symbolRegistry.intern(symbol).id();
+        UserPositions positions = getOrLoad(userId);
+        positions.lock.lock();
+        try {
+            int slot = positions.find(symbolId);
+            return slot >= 0 ? positions.position(slot) : new Position(symbol, 0L, 0L);
+        } finally {
+            positions.lock.unlock();
+        }
+    }
+
+    public List<Position> positions(String userId) {
+        UserPositions positions = getOrLoad(userId);
+        positions.lock.lock();
+        try {
+            return positions.positions(false);
+        } finally {
+            positions.lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the request's delta to the user's position in its symbol and checks the new net
+     * position and the user's exposure against the request's limits, as one atomic step.
+     */
+    public ExposureReservation reserve(ExposureRequest request) {
+        long[] sequence = new long[1];
+        ExposureReservation reservation = apply(request, sequence);
+        if (journal != null) {
+            journal.awaitDurable(sequence[0]);
+        }
+        return reservation;
+    }
+
+    /**
+     * As {@link #reserve}, but returns as soon as the change is applied, with a future that
+     * completes once it is durable, so the caller never blocks through a group commit.
+     */
+    public CompletableFuture<ExposureReservation> reserveAsync(ExposureRequest request) {
+        long[] sequence = new long[1];
+        ExposureReservation reservation = apply(request, sequence);
+        if (journal == null) {
+            return CompletableFuture.completedFuture(reservation);
+        }
+        return journal.whenDurable(sequence[0]).thenApply(durable -> reservation);
+    }
+
+    /**
+     * Reserves or projects each request in list order, waiting once for the whole batch to be
+     * durable rather than once per order.
+     */
+    public List<ExposureReservation> reserveAll(List<ExposureRequest> requests) {
+        long[] sequence = new long[1];
+        List<ExposureReservation> reservations = new ArrayList<>(requests.size());
+        for (ExposureRequest request : requests) {
+            reservations.add(request.reserve() ? apply(request, sequence) : project(request));
+        }
+        if (journal != null && sequence[0] > 0) {
+            journal.awaitDurable(sequence[0]);
+        }
+        return reservations;
+    }
+
+    /**
+     * Takes each release off its position, never below zero, waiting once for the whole batch to
+     * be durable. The changes reach Redis with the next flush, like reservations.
+     */
+    public void releaseAll(List<PositionRelease> releases) {
+        long sequence = 0;
+        for (PositionRelease release : releases) {
+            sequence = release(release);
+        }
+        if (journal != null && sequence > 0) {
+            journal.awaitDurable(sequence);
+        }
+    }
+
+    private long release(PositionRelease release) {
+        SymbolSpec symbol = symbolRegistry.intern(release.symbol());
+        while (true) {
+            UserPositions positions = getOrLoad(release.userId());
+            long sequence = 0;
+            positions.lock.lock();
+            try {
+                if (positions.evicted) {
+                    continue;
+                }
+                int slot = positions.slotFor(symbol.id(), symbol.symbol());
+                long longUnits = Math.max(positions.longUnits[slot] - release.longUnits(), 0L);
+                long shortUnits = Math.max(positions.shortUnits[slot] - release.shortUnits(), 0L);
+                markDirty(release.userId(), positions);
+                if (journal != null) {
+                    sequence = journal.appendPosition(release.userId(), symbol.symbol(),
+                            (longUnits - shortUnits) - positions.net(slot), longUnits, shortUnits);
+                }
+                positions.set(slot, longUnits, shortUnits);
+            } finally {
+                positions.lock.unlock();
+            }
+            maybeTriggerFlush();
+            return sequence;
+        }
+    }
+
+    private ExposureReservation apply(ExposureRequest request, long[] sequence) {
+        SymbolSpec symbol = symbolRegistry.intern(request.symbol());
+        while (true) {
+            UserPositions positions = getOrLoad(request.userId());
+            ExposureReservation reservation;
+            positions.lock.lock();
+            try {
+                if (positions.evicted) {
+                    // Lost a race with eviction; the next lookup reloads the user
+                    continue;
+                }
+                // The interned name, so the book never holds on to a request's own string
+                int slot = positions.slotFor(symbol.id(), symbol.symbol());
+                long delta = request.deltaUnits();
+                long longUnits = delta >= 0
+                        ? FixedPoint.addSaturated(positions.longUnits[slot], delta) : positions.longUnits[slot];
+                long shortUnits = delta < 0
+                        ? FixedPoint.addSaturated(positions.shortUnits[slot], -delta) : positions.shortUnits[slot];
+                // Marked dirty before journaling, so a flush that sees the entry's sequence also sees the user
+                markDirty(request.userId(), positions);
+                // Journaled before the book changes, so an append that throws leaves the book as it was
+                if (journal != null) {
+                    sequence[0] = journal.appendPosition(request.userId(), symbol.symbol(), delta,
+                            longUnits, shortUnits);
+                }
+                positions.set(slot, longUnits, shortUnits);
+                long net = positions.net(slot);
+                reservation = new ExposureReservation(positions.exposureUnits,
+                        positions.exposureUnits > request.limitUnits(), net,
+                        Math.abs(net) > request.positionLimitUnits());
+            } finally {
+                positions.lock.unlock();
+            }
+            maybeTriggerFlush();
+            return reservation;
+        }
+    }
+
+    /** What {@link #reserve} would return, without changing the book. */
+    public ExposureReservation project(ExposureRequest request) {
+        int symbolId = symbolRegistry.intern(request.symbol()).id();
+        UserPositions positions = getOrLoad(request.userId());
+        positions.lock.lock();
+        try {
+            int slot = positions.find(symbolId);
+            long net = slot >= 0 ? positions.net(slot) : 0L;
+            long projectedNet = FixedPoint.addSaturated(net, request.deltaUnits());
+            long projectedExposure = FixedPoint.addSaturated(positions.exposureUnits,
+                    Math.abs(projectedNet) - Math.abs(net));
+            return new ExposureReservation(projectedExposure, projectedExposure > request.limitUnits(),
+                    projectedNet, Math.abs(projectedNet) > request.positionLimitUnits());
+        } finally {
+            positions.lock.unlock();
+        }
+    }
+
+    public boolean contains(String userId) {
+        return entries.containsKey(userId);
+    }
+
+    /**
+     * Seeds users that are not in the book yet, so a batch can load its cold users in one bulk
+     * read instead of one loader call each.
+     */
+    public void preload(Map<String, List<Position>> positionsByUser) {
+        positionsByUser.forEach((userId, positions) -> {
+            if (!entries.containsKey(userId) && entries.putIfAbsent(userId, build(positions)) == null) {
+                missCounter.increment();
+            }
+        });
+    }
+
+    public void invalidate(String userId) {
+        UserPositions positions = entries.remove(userId);
+        if (positions != null) {
+            positions.lock.lock();
+            try {
+                positions.evicted = true;
+            } finally {
+                positions.lock.unlock();
+            }
+        }
+        if (dirtyUsers.remove(userId)) {
+            dirtyCount.decrementAndGet();
+        }
+        // After the removal, so a snapshot taken at or past the reset's sequence cannot include the user
+        if (journal != null) {
+            journal.awaitDurable(journal.appendReset(userId));
+        }
+    }
+
+    /**
+     * Hands each user's positions to {@code visitor}, copying one user at a time under its own
+     * lock so orders keep flowing while a snapshot is written. Returns the journal sequence
+     * read before the walk; every entry up to it is reflected in what the visitor sees.
+     */
+    public long snapshot(BiConsumer<String, List<Position>> visitor) {
+        long sequence = journal != null ? journal.lastSequence() : 0L;
+        for (Map.Entry<String, UserPositions> entry : entries.entrySet()) {
+            UserPositions positions = entry.getValue();
+            List<Position> copy;
+            positions.lock.lock();
+            try {
+                if (positions.evicted) {
+                    continue;
+                }
+                copy = positions.positions(false);
+            } finally {
+                positions.lock.unlock();
+            }
+            visitor.accept(entry.getKey(), copy);
+        }
+        return sequence;
+    }
+
+    /** Keeps the journal entries after {@code sequence}, where the latest snapshot was taken. */
+    public void retainJournalAfter(long sequence) {
+        if (journal != null) {
+            journal.retainAfter(sequence);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int dirtyCount() {
+        return dirtyCount.get();
+    }
+
+    public void flush() {
+        // Every entry up to here belongs to a user that is already in dirtyUsers or already flushed
+        long journaled = journal != null ? journal.lastSequence() : 0L;
+        if (dirtyUsers.isEmpty()) {
+            checkpoint(journaled);
+            return;
+        }
+
+        Map<String, Flush> batch = new HashMap<>();
+        Map<String, UserPositions> flushing = new HashMap<>();
+        long oldestDirtySince = Long.MAX_VALUE;
+        for (String userId : dirtyUsers) {
+            if (!dirtyUsers.remove(userId)) {
+                continue;
+            }
+            dirtyCount.decrementAndGet();
+            UserPositions positions = entries.get(userId);
+            if (positions == null) {
+                continue;
+            }
+            positions.lock.lock();
+            try {
+                if (!positions.dirty) {
+                    continue;
+                }
+                oldestDirtySince = Math.min(oldestDirtySince, positions.dirtySinceNanos);
+                batch.put(userId, new Flush(positions.exposureUnits, positions.positions(true)));
+                positions.dirty = false;
+                positions.flushing = true;
+                flushing.put(userId, positions);
+            } finally {
+                positions.lock.unlock();
+            }
+        }
+        if (batch.isEmpty()) {
+            checkpoint(journaled);
+            return;
+        }
+
+        try {
+            writer.accept(batch);
+            checkpoint(journaled);
+            flushLagTimer.record(System.nanoTime() - oldestDirtySince, TimeUnit.NANOSECONDS);
+            logger.debug("Flushed changed positions for {} users", batch.size());
+        } catch (RuntimeException e) {
+            flushFailureCounter.increment();
+            batch.forEach((userId, flush) -> remarkDirty(userId, flushing.get(userId), flush.positions()));
+            throw e;
+        } finally {
+            for (UserPositions positions : flushing.values()) {
+                positions.lock.lock();
+                try {
+                    positions.flushing = false;
+                } finally {
+                    positions.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void checkpoint(long sequence) {
+        if (journal != null) {
+            journal.checkpoint(sequence);
+        }
+    }
+
+    /**
+     * Rebuilds the changes that had not reached Redis before the last shutdown or crash. Entries
+     * carry absolute positions, so each user is taken from the snapshot or loaded as usual and the
+     * journaled positions are laid over it, then everything is flushed and the journal
+     * checkpointed. With a snapshot the replay starts from the snapshot's sequence, or from the
+     * checkpoint if that is older, since anything between them is in neither Redis nor the
+     * snapshot's view of it.
+     */
+    private boolean recover(StateSnapshot snapshot) {
+        Map<String, Map<String, long[]>> latest = new LinkedHashMap<>();
+        Set<String> reset = new HashSet<>();
+        long replayAfter = snapshot != null ? snapshot.journalSequence() : Long.MAX_VALUE;
+        long replayed = journal.open(replayAfter, entry -> {
+            if (entry.type() == JournalEntry.Type.RESET) {
+                latest.remove(entry.userId());
+                reset.add(entry.userId());
+            } else {
+                latest.computeIfAbsent(entry.userId(), userId -> new LinkedHashMap<>())
+                        .put(entry.symbol(), new long[] {entry.longUnits(), entry.shortUnits()});
+            }
+        });
+
+        // A journal that has lost entries since the snapshot, or was started afresh, cannot bring it up to date
+        boolean restored = snapshot != null
+                && journal.oldestSequence() <= snapshot.journalSequence() + 1
+                && journal.lastSequence() >= snapshot.journalSequence();
+        if (restored) {
+            snapshot.positions().parallelStream().forEach(part ->
+                    part.forEach((userId, positions) -> entries.put(userId, build(positions))));
+            reset.forEach(entries::remove);
+            journal.retainAfter(snapshot.journalSequence());
+            logger.info("Restored positions for {} users from the snapshot at sequence {}",
+                    entries.size(), snapshot.journalSequence());
+        } else if (snapshot != null) {
+            logger.warn("Journal no longer covers the snapshot at sequence {}; loading users from Redis",
+                    snapshot.journalSequence());
+        }
+        if (replayed == 0) {
+            return restored;
+        }
+
+        latest.forEach((userId, bySymbol) -> {
+            UserPositions positions = getOrLoad(userId);
+            positions.lock.lock();
+            try {
+                bySymbol.forEach((name, units) -> {
+                    SymbolSpec symbol = symbolRegistry.intern(name);
+                    positions.set(positions.slotFor(symbol.id(), symbol.symbol()), units[0], units[1]);
+                });
+                markDirty(userId, positions);
+            } finally {
+                positions.lock.unlock();
+            }
+        });
+        flush();
+        logger.info("Recovered positions for {} users from {} journal entries", latest.size(), replayed);
+        return restored;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush position book to Redis", e);
+        } finally {
+            flushScheduled.set(false);
+        }
+    }
+
+    private void maybeTriggerFlush() {
+        if (dirtyCount.get() >= flushDirtyThreshold && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    void evict() {
+        long now = System.nanoTime();
+        List<Map.Entry<String, UserPositions>> clean = new ArrayList<>();
+        for (Map.Entry<String, UserPositions> candidate : entries.entrySet()) {
+            UserPositions positions = candidate.getValue();
+            if (positions.dirty) {
+                continue;
+            }
+            if (now - positions.lastAccessNanos > idleTimeoutNanos) {
+                removeIfClean(candidate.getKey(), positions);
+            } else {
+                clean.add(candidate);
+            }
+        }
+
+        int overflow = entries.size() - maxEntries;
+        if (overflow <= 0) {
+            return;
+        }
+        clean.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccessNanos));
+        for (int i = 0; i < clean.size() && overflow > 0; i++) {
+            if (removeIfClean(clean.get(i).getKey(), clean.get(i).getValue())) {
+                overflow--;
+            }
+        }
+    }
+
+    private boolean removeIfClean(String userId, UserPositions positions) {
+        positions.lock.lock();
+        try {
+            if (positions.dirty || positions.flushing || positions.evicted) {
+                return false;
+            }
+            positions.evicted = true;
+        } finally {
+            positions.lock.unlock();
+        }
+        entries.remove(userId, positions);
+        evictionCounter.increment();
+        return true;
+    }
+
+    private UserPositions getOrLoad(String userId) {
+        UserPositions positions = entries.get(userId);
+        if (positions != null) {
+            hitCounter.increment();
+            positions.lastAccessNanos = System.nanoTime();
+            return positions;
+        }
+        missCounter.increment();
+        // Load outside the map's bin lock so a Redis round trip never blocks inside it
+        UserPositions loaded = build(loader.apply(userId));
+        UserPositions existing = entries.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private UserPositions build(List<Position> positions) {
+        UserPositions loaded = new UserPositions(positions.size());
+        for (Position position : positions) {
+            SymbolSpec symbol = symbolRegistry.intern(position.symbol());
+            int slot = loaded.slotFor(symbol.id(), symbol.symbol());
+            loaded.init(slot, position.longUnits(), position.shortUnits());
+        }
+        return loaded;
+    }
+
+    private void remarkDirty(String userId, UserPositions positions, List<Position> failed) {
+        positions.lock.lock();
+        try {
+            if (positions.evicted) {
+                return;
+            }
+            for (Position position : failed) {
+                int slot = positions.find(symbolRegistry.intern(position.symbol()).id());
+                if (slot >= 0) {
+                    positions.changed[slot] = true;
+                }
+            }
+            markDirty(userId, positions);
+        } finally {
+            positions.lock.unlock();
+        }
+    }
+
+    /** Called with the user's lock held. */
+    private void markDirty(String userId, UserPositions positions) {
+        if (positions.markDirty() && dirtyUsers.add(userId)) {
+            dirtyCount.incrementAndGet();
+        }
+    }
+
+    /** A user's changed positions and resulting exposure, handed to the writer. */
+    public record Flush(long exposureUnits, List<Position> positions) {
+    }
+
+    /**
+     * One user's positions. Guarded by its own lock; slots are probed linearly from the mixed
+     * symbol id, and the table doubles once it is half full.
+     */
+    private static final class UserPositions {
+        // A ReentrantLock rather than a monitor: journal appends can roll a segment under it, and a
+        // virtual thread blocking inside synchronized would pin its carrier thread
+        final ReentrantLock lock = new ReentrantLock();
+        // Symbol id + 1 per slot, so 0 marks a free slot
+        private int[] ids;
+        private String[] symbols;
+        private long[] longUnits;
+        private long[] shortUnits;
+        private boolean[] changed;
+        private int size;
+
+        // Sum of the absolute net positions
+        long exposureUnits;
+        volatile long lastAccessNanos;
+        volatile boolean dirty;
+        boolean flushing;
+        boolean evicted;
+        long dirtySinceNanos;
+
+        UserPositions(int expectedSize) {
+            allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize * 2) - 1) << 1));
+            this.lastAccessNanos = System.nanoTime();
+        }
+
+        int find(int symbolId) {
+            int mask = ids.length - 1;
+            for (int slot = mix(symbolId) & mask; ids[slot] != 0; slot = (slot + 1) & mask) {
+                if (ids[slot] == symbolId + 1) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int slotFor(int symbolId, String symbol) {
+            int slot = find(symbolId);
+            if (slot >= 0) {
+                return slot;
+            }
+            if ((size + 1) * 2 > ids.length) {
+                grow();
+            }
+            int mask = ids.length - 1;
+            slot = mix(symbolId) & mask;
+            while (ids[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = symbolId + 1;
+            symbols[slot] = symbol;
+            size++;
+            return slot;
+        }
+
+        /** Overwrites a position, keeping the exposure in step. */
+        void set(int slot, long longValue, long shortValue) {
+            long before = Math.abs(net(slot));
+            longUnits[slot] = longValue;
+            shortUnits[slot] = shortValue;
+            exposureUnits = FixedPoint.addSaturated(exposureUnits, Math.abs(net(slot)) - before);
+            changed[slot] = true;
+        }
+
+        /** Fills a freshly claimed slot with a loaded position. */
+        void init(int slot, long longValue, long shortValue) {
+            longUnits[slot] = longValue;
+            shortUnits[slot] = shortValue;
+            exposureUnits = FixedPoint.addSaturated(exposureUnits, Math.abs(net(slot)));
+        }
+
+        long net(int slot) {
+            return longUnits[slot] - shortUnits[slot];
+        }
+
+        Position position(int slot) {
+            return new Position(symbols[slot], longUnits[slot], shortUnits[slot]);
+        }
+
+        List<Position> positions(boolean changedOnly) {
+            List<Position> result = new ArrayList<>(size);
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] == 0 || (changedOnly && !changed[slot])) {
+                    continue;
+                }
+                result.add(position(slot));
+                if (changedOnly) {
+                    changed[slot] = false;
+                }
+            }
+            return result;
+        }
+
+        /** Marks the user dirty and returns whether it was clean before. */
+        boolean markDirty() {
+            lastAccessNanos = System.nanoTime();
+            if (dirty) {
+                return false;
+            }
+            dirty = true;
+            dirtySinceNanos = lastAccessNanos;
+            return true;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            String[] oldSymbols = symbols;
+            long[] oldLong = longUnits;
+            long[] oldShort = shortUnits;
+            boolean[] oldChanged = changed;
+            allocate(oldIds.length * 2);
+            int mask = ids.length - 1;
+            for (int old = 0; old < oldIds.length; old++) {
+                if (oldIds[old] == 0) {
+                    continue;
+                }
+                int slot = mix(oldIds[old] - 1) & mask;
+                while (ids[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[old];
+                symbols[slot] = oldSymbols[old];
+                longUnits[slot] = oldLong[old];
+                shortUnits[slot] = oldShort[old];
+                changed[slot] = oldChanged[old];
+            }
+        }
+
+        private void allocate(int capacity) {
+            ids = new int[capacity];
+            symbols = new String[capacity];
+            longUnits = new long[capacity];
+            shortUnits = new long[capacity];
+            changed = new boolean[capacity];
+        }
+
+        private static int mix(int symbolId) {
+            int hash = symbolId * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
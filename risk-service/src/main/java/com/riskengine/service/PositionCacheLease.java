@@ -0,0 +1,135 @@
+package com.riskengine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One replica's exclusive claim on the positions in Redis while it serves them from a
+ * {@link PositionBook}. The book decides reservations locally and writes absolute positions back,
+ * so two caching replicas would each check limits against their own view and overwrite each
+ * other's flushes. The lease is a Redis key holding the owner's id. It is taken at start-up,
+ * waiting up to two TTLs for a crashed owner's lease to lapse, and extended every third of a TTL.
+ * A replica that finds another owner at start-up refuses to start. One that loses the lease while
+ * running stops reserving for good, since its book no longer reflects Redis, and has to be restarted.
+ * One that cannot reach Redis to renew stops reserving once a TTL has passed since the last
+ * renewal, when another replica may already have taken over, and resumes if a later renewal
+ * finds the lease still its own.
+ */
+class PositionCacheLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionCacheLease.class);
+    // Outside positions:, where any name could be a user id
+    static final String KEY = "exposure:cache-owner";
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cache-lease.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/release-cache-lease.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String owner;
+    private final Duration ttl;
+    private final long ttlNanos;
+    private final Counter lostCounter;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean held;
+    // When the last successful acquire or renewal was sent; Redis started the TTL no earlier
+    private volatile long renewedAt;
+
+    PositionCacheLease(StringRedisTemplate redisTemplate, String owner, Duration ttl, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.owner = owner;
+        this.ttl = ttl;
+        this.ttlNanos = ttl.toNanos();
+        this.lostCounter = Counter.builder("exposure.cache.lease.lost")
+                .description("Times this replica found the position cache lease held by another replica")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "position-cache-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Takes the lease, or throws if another replica keeps it for two TTLs. */
+    void acquire() {
+        long deadline = System.nanoTime() + ttl.multipliedBy(2).toNanos();
+        long attemptedAt = System.nanoTime();
+        while (!tryAcquire()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Positions are already cached by replica "
+                        + redisTemplate.opsForValue().get(KEY) + "; the exposure cache needs a single replica, "
+                        + "so run one or set risk.exposure.cache.enabled=false for the shared Lua path");
+            }
+            try {
+                Thread.sleep(Math.max(ttl.toMillis() / 5, 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the position cache lease", e);
+            }
+            attemptedAt = System.nanoTime();
+        }
+        renewedAt = attemptedAt;
+        held = true;
+        long periodMillis = Math.max(ttl.toMillis() / 3, 1);
+        scheduler.scheduleWithFixedDelay(this::renew, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        logger.info("Holding the position cache lease as {}", owner);
+    }
+
+    /** Throws unless this replica holds the lease, so a reservation is never decided on a stale view. */
+    void check() {
+        if (!held) {
+            throw new IllegalStateException("Position cache lease is held by another replica");
+        }
+        if (System.nanoTime() - renewedAt > ttlNanos) {
+            throw new IllegalStateException("Position cache lease has not been renewed within its TTL of " + ttl);
+        }
+    }
+
+    void release() {
+        scheduler.shutdownNow();
+        if (held) {
+            held = false;
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY), owner);
+            } catch (RuntimeException e) {
+                // The lease lapses on its own once the TTL runs out
+                logger.warn("Failed to release the position cache lease", e);
+            }
+        }
+    }
+
+    private void renew() {
+        try {
+            long attemptedAt = System.nanoTime();
+            if (tryAcquire()) {
+                renewedAt = attemptedAt;
+                return;
+            }
+            held = false;
+            lostCounter.increment();
+            logger.error("Position cache lease was taken over by replica {}; reservations stop until this one "
+                    + "is restarted", redisTemplate.opsForValue().get(KEY));
+            scheduler.shutdown();
+        } catch (RuntimeException e) {
+            // Retried on the next period; check() stops reservations once the TTL has run out without one
+            logger.warn("Failed to renew the position cache lease", e);
+        }
+    }
+
+    private boolean tryAcquire() {
+        Long acquired = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(KEY), owner, Long.toString(ttl.toMillis()));
+        return acquired != null && acquired == 1L;
+    }
+}
@@ -0,0 +1,9 @@
+package com.riskengine.service;
+
+/**
+ * Notional to take off a user's gross long and short in one symbol, in fixed-point units, once
+ * the orders that reserved it have been cancelled or filled at a better price. Negative amounts
+ * add to the position instead, for fills at a worse price than was reserved.
+ */
+public record PositionRelease(String userId, String symbol, long longUnits, long shortUnits) {
+}
@@ -0,0 +1,339 @@
+package com.riskengine.service;
+
+import com.riskengine.config.RateLimitProperties;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-user token-bucket rate limiter with a bounded, self-expiring bucket store. Buckets live in
+ * access-ordered segments; a segment evicts its least recently used bucket once it is full, and a
+ * periodic sweep drops buckets that have gone a whole refill period unused, since such a bucket
+ * is indistinguishable from a freshly created one.
+ *
+ * <p>In distributed mode the authoritative buckets live in Redis and are shared by every replica.
+ * Each node leases a slice of a user's tokens and spends it locally, so most checks never leave
+ * memory; unspent tokens go back once the lease has been held too long or the bucket is evicted.
+ * If Redis is unreachable the node falls back to its local bucket.
+ */
+@Service
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+    private static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+
+    private final RateLimitProperties properties;
+    private final DistributedTokenStore tokenStore;
+    private final boolean distributed;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int maxBucketsPerSegment;
+    private final ScheduledExecutorService sweeper;
+    private final Counter idleEvictionCounter;
+    private final Counter capacityEvictionCounter;
+    private final Counter rejectedCounter;
+    private final Counter leaseCounter;
+    private final Counter leaseFailureCounter;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, DistributedTokenStore tokenStore, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tokenStore = tokenStore;
+        this.distributed = properties.getMode() == RateLimitProperties.Mode.DISTRIBUTED;
+        int segmentCount = properties.getSegments() <= 1 ? 1 : Integer.highestOneBit(properties.getSegments() - 1) << 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = segmentCount - 1;
+        this.maxBucketsPerSegment = Math.max(1, properties.getMaxBuckets() / segmentCount);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.idleEvictionCounter = Counter.builder("ratelimit.buckets.evicted")
+                .tag("reason", "idle")
+                .description("Rate-limit buckets evicted after a full refill period unused")
+                .register(meterRegistry);
+        this.capacityEvictionCounter = Counter.builder("ratelimit.buckets.evicted")
+                .tag("reason", "capacity")
+                .description("Rate-limit buckets evicted because their segment was full")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ratelimit.rejected")
+                .description("Orders rejected by the per-user rate limit")
+                .register(meterRegistry);
+        this.leaseCounter = Counter.builder("ratelimit.lease.requests")
+                .description("Token leases requested from the shared Redis buckets")
+                .register(meterRegistry);
+        this.leaseFailureCounter = Counter.builder("ratelimit.lease.failures")
+                .description("Token lease requests that failed and fell back to the local bucket")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.buckets.live", this, RateLimiter::liveBuckets)
+                .description("Rate-limit buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = properties.getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    public boolean tryConsume(String userId) {
+        return tryConsume(userId, 1) == 1;
+    }
+
+    /**
+     * Consumes up to {@code permits} tokens in one step and returns how many were granted, which is
+     * what consuming them one at a time would have granted.
+     */
+    public int tryConsume(String userId, int permits) {
+        Entry entry = segmentFor(userId).acquire(userId);
+        int consumed = distributed
+                ? tryConsumeLeased(userId, entry, permits)
+                : (int) entry.bucket.tryConsumeAsMuchAsPossible(permits);
+        if (consumed < permits) {
+            rejectedCounter.increment(permits - consumed);
+        }
+        return consumed;
+    }
+
+    public int ordersPerMinute(String userId) {
+        return tierFor(userId).getOrdersPerMinute();
+    }
+
+    public int liveBuckets() {
+        int live = 0;
+        for (Segment segment : segments) {
+            live += segment.size();
+        }
+        return live;
+    }
+
+    /**
+     * Hands the available tokens of every local bucket below capacity to {@code visitor}; a full
+     * bucket is no different from a fresh one. In distributed mode the shared buckets in Redis
+     * already outlive a restart, so there is nothing to hand over.
+     */
+    public void snapshotBuckets(BiConsumer<String, Long> visitor) {
+        if (distributed) {
+            return;
+        }
+        for (Segment segment : segments) {
+            // Copied under the segment's lock and read outside it; buckets are thread-safe
+            for (Map.Entry<String, Entry> entry : segment.entries()) {
+                long available = entry.getValue().bucket.getAvailableTokens();
+                if (available < ordersPerMinute(entry.getKey())) {
+                    visitor.accept(entry.getKey(), available);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws fresh buckets down to the snapshotted token counts and returns how many it restored.
+     * A restored bucket next refills a whole period after the restart, never sooner than the
+     * original would have. Snapshots a full refill period old are skipped, as every bucket in
+     * them has refilled since.
+     */
+    public int restoreBuckets(Map<String, Long> availableTokens, Duration age) {
+        if (distributed || age.compareTo(REFILL_PERIOD) >= 0) {
+            return 0;
+        }
+        int restored = 0;
+        for (Map.Entry<String, Long> tokens : availableTokens.entrySet()) {
+            long spent = ordersPerMinute(tokens.getKey()) - tokens.getValue();
+            if (spent > 0) {
+                segmentFor(tokens.getKey()).acquire(tokens.getKey()).bucket.tryConsumeAsMuchAsPossible(spent);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    void sweep() {
+        long idleBefore = System.nanoTime() - REFILL_PERIOD.toNanos();
+        int evicted = 0;
+        for (Segment segment : segments) {
+            evicted += segment.evictIdle(idleBefore);
+        }
+        if (evicted > 0) {
+            idleEvictionCounter.increment(evicted);
+            logger.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+
+    private int tryConsumeLeased(String userId, Entry entry, int permits) {
+        // A ReentrantLock rather than the entry's monitor: the lease call blocks on Redis, and a
+        // virtual thread blocking inside synchronized would pin its carrier thread
+        entry.lock.lock();
+        try {
+            TokenLease lease = entry.lease;
+            int consumed = lease != null ? lease.tryConsume(permits) : 0;
+            if (consumed == permits) {
+                return consumed;
+            }
+
+            if (lease != null && lease.remaining() > 0) {
+                // Expired with tokens left over; hand them back off the request path
+                entry.lease = null;
+                sweeper.execute(() -> returnTokens(userId, lease));
+            }
+
+            int capacity = ordersPerMinute(userId);
+            int leaseSize = Math.max(permits - consumed,
+                    (int) Math.ceil(capacity * properties.getLease().getFraction()));
+            TokenLease next;
+            try {
+                next = tokenStore.lease(userId, capacity, REFILL_PERIOD, leaseSize, properties.getLease().getMaxHold());
+                leaseCounter.increment();
+            } catch (DataAccessException e) {
+                leaseFailureCounter.increment();
+                logger.warn("Token lease failed for user {}, using local bucket: {}", userId, e.getMessage());
+                return consumed + (int) entry.bucket.tryConsumeAsMuchAsPossible(permits - consumed);
+            }
+
+            entry.lease = next;
+            if (next.remaining() > 1) {
+                sweeper.schedule(() -> releaseLease(userId, entry, next),
+                        next.validFor().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return consumed + next.tryConsume(permits - consumed);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private void releaseLease(String userId, Entry entry, TokenLease expected) {
+        TokenLease lease;
+        entry.lock.lock();
+        try {
+            lease = entry.lease;
+            if (lease == null || (expected != null && lease != expected)) {
+                return;
+            }
+            entry.lease = null;
+        } finally {
+            entry.lock.unlock();
+        }
+        returnTokens(userId, lease);
+    }
+
+    private void returnTokens(String userId, TokenLease lease) {
+        try {
+            tokenStore.release(userId, ordersPerMinute(userId), lease);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to return {} leased tokens for user {}: {}", lease.remaining(), userId, e.getMessage());
+        }
+    }
+
+    private RateLimitProperties.Tier tierFor(String userId) {
+        String tierName = properties.getUserTiers().getOrDefault(userId, properties.getDefaultTier());
+        RateLimitProperties.Tier tier = properties.getTiers().get(tierName);
+        return tier != null ? tier : properties.getTiers().get(properties.getDefaultTier());
+    }
+
+    private Bucket createBucket(String userId) {
+        int ordersPerMinute = ordersPerMinute(userId);
+        Bandwidth limit = Bandwidth.classic(ordersPerMinute, Refill.intervally(ordersPerMinute, REFILL_PERIOD));
+        return Bucket4j.builder()
+                .addLimit(limit)
+                .build();
+    }
+
+    private Segment segmentFor(String userId) {
+        int hash = userId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private static final class Entry {
+        final Bucket bucket;
+        long lastUsedNanos;
+        // Guarded by lock; only used in distributed mode
+        final ReentrantLock lock = new ReentrantLock();
+        TokenLease lease;
+
+        Entry(Bucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<String, Entry> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxBucketsPerSegment) {
+                    capacityEvictionCounter.increment();
+                    if (distributed) {
+                        Entry evicted = eldest.getValue();
+                        sweeper.execute(() -> releaseLease(eldest.getKey(), evicted, null));
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        synchronized Entry acquire(String userId) {
+            Entry entry = buckets.get(userId);
+            if (entry == null) {
+                entry = new Entry(createBucket(userId));
+                buckets.put(userId, entry);
+            }
+            entry.lastUsedNanos = System.nanoTime();
+            return entry;
+        }
+
+        synchronized int evictIdle(long idleBefore) {
+            int evicted = 0;
+            // Access order puts the least recently used buckets first
+            Iterator<Entry> iterator = buckets.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().lastUsedNanos - idleBefore > 0) {
+                    break;
+                }
+                iterator.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+
+        synchronized List<Map.Entry<String, Entry>> entries() {
+            return new ArrayList<>(buckets.entrySet());
+        }
+    }
+}
@@ -1,151 +1,394 @@
 package com.riskengine.service;
 
+import com.riskengine.concurrent.PartitionedExecutor;
+import com.riskengine.decision.DecisionLog;
+import com.riskengine.idempotency.IdempotencyCache;
+import com.riskengine.metrics.StageLatency;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.pricing.ReferencePrices;
+import com.riskengine.pricing.VolatilityEstimator;
+import com.riskengine.model.FixedPoint;
 import com.riskengine.model.Order;
+import com.riskengine.model.OrderType;
 import com.riskengine.model.RiskAssessment;
-import com.riskengine.model.RiskVerdict;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Refill;
+import com.riskengine.rules.RuleChain;
+import com.riskengine.rules.RuleContext;
+import com.riskengine.rules.RuleEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 public class RiskService {
     
     private static final Logger logger = LoggerFactory.getLogger(RiskService.class);
     
-    // Risk thresholds
-    private static final BigDecimal MAX_NOTIONAL_PER_ORDER = new BigDecimal("10000");
-    private static final BigDecimal MAX_USER_EXPOSURE = new BigDecimal("50000");
-    private static final int MAX_ORDERS_PER_MINUTE = 10;
-    
     private final OrderPublisher orderPublisher;
     private final ExposureTracker exposureTracker;
-    private final ConcurrentMap<String, Bucket> userRateLimitBuckets = new ConcurrentHashMap<>();
+    private final SymbolRegistry symbolRegistry;
+    private final ReferencePrices referencePrices;
+    private final VolatilityEstimator volatilityEstimator;
+    private final RuleEngine ruleEngine;
+    private final DecisionLog decisionLog;
+    private final IdempotencyCache idempotency;
+    private final StageLatency assessLatency;
+    private final ExecutorService batchExecutor;
+    // Finishes async assessments, whose publish may block, off the thread that completed the reservation
+    private final ExecutorService completionExecutor;
+    // Null in SHARED mode
+    private final PartitionedExecutor partitions;
     
     @Autowired
-    public RiskService(OrderPublisher orderPublisher, ExposureTracker exposureTracker) {
+    public RiskService(OrderPublisher orderPublisher, ExposureTracker exposureTracker,
+                       SymbolRegistry symbolRegistry, ReferencePrices referencePrices,
+                       VolatilityEstimator volatilityEstimator, RuleEngine ruleEngine, DecisionLog decisionLog,
+                       IdempotencyCache idempotency, StageTimings stageTimings, MeterRegistry meterRegistry,
+                       @Value("${risk.batch.parallelism:8}") int batchParallelism,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                       @Value("${risk.engine.mode:SHARED}") EngineMode engineMode,
+                       @Value("${risk.engine.partitions:0}") int partitionCount,
+                       @Value("${risk.engine.queue-capacity:4096}") int partitionQueueCapacity) {
         this.orderPublisher = orderPublisher;
         this.exposureTracker = exposureTracker;
+        this.symbolRegistry = symbolRegistry;
+        this.referencePrices = referencePrices;
+        this.volatilityEstimator = volatilityEstimator;
+        this.ruleEngine = ruleEngine;
+        this.decisionLog = decisionLog;
+        this.idempotency = idempotency;
+        this.assessLatency = stageTimings.stage(StageTimings.ASSESS);
+        this.partitions = engineMode == EngineMode.PARTITIONED
+                ? new PartitionedExecutor("risk-engine",
+                        partitionCount > 0 ? partitionCount : Runtime.getRuntime().availableProcessors(),
+                        partitionQueueCapacity, meterRegistry)
+                : null;
+        // Batch tasks mostly wait on Redis, so with virtual threads one cheap thread per user group
+        this.batchExecutor = newExecutor("risk-batch-", batchParallelism, virtualThreads);
+        this.completionExecutor = newExecutor("risk-complete-", batchParallelism, virtualThreads);
+    }
+    
+    private static ExecutorService newExecutor(String prefix, int parallelism, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory());
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
+    @PostConstruct
+    public void start() {
+        if (partitions != null) {
+            partitions.start();
+        }
+    }
+    
+    /**
+     * Assesses one order. In PARTITIONED mode the rule chain runs on the partition that owns the
+     * order's user and the calling thread only waits for the result. A retry of an order already
+     * assessed within the idempotency window gets the first attempt's assessment back.
+     */
     public RiskAssessment assessOrder(Order order) {
-        long startTime = System.currentTimeMillis();
-        
-        List<String> reasons = new ArrayList<>();
-        RiskVerdict verdict = RiskVerdict.ACCEPT;
-        BigDecimal riskScore = BigDecimal.ZERO;
-        
-        // 1. Validate notional cap
-        BigDecimal notional = order.getNotional();
-        if (notional.compareTo(MAX_NOTIONAL_PER_ORDER) > 0) {
-            reasons.add("Notional amount exceeds maximum allowed: " + MAX_NOTIONAL_PER_ORDER);
-            verdict = RiskVerdict.REJECT;
-            riskScore = riskScore.add(BigDecimal.valueOf(50));
+        long startTime = System.nanoTime();
+        IdempotencyCache.Claim claim = idempotency.claim(order);
+        if (claim.isDuplicate()) {
+            return await(claim.previous());
         }
-        
-        // 2. Check rate limits
-        if (!checkRateLimit(order.getUserId())) {
-            reasons.add("Rate limit exceeded: maximum " + MAX_ORDERS_PER_MINUTE + " orders per minute");
-            verdict = RiskVerdict.REJECT;
-            riskScore = riskScore.add(BigDecimal.valueOf(30));
+        try {
+            RuleContext context = partitions == null
+                    ? evaluate(order, startTime)
+                    : await(partitions.submit(order.getUserId(), () -> evaluate(order, startTime)));
+            RiskAssessment assessment = complete(context);
+            idempotency.finish(claim, assessment, null);
+            return assessment;
+        } catch (RuntimeException e) {
+            idempotency.finish(claim, null, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Non-blocking form of {@link #assessOrder}. The checks run on the calling thread and the
+     * exposure reservation completes without holding it, so thousands of orders can be in flight
+     * on a few threads. The assessment is then finished and published on an executor of its own,
+     * never on the Redis client's event loop, as is the rest of an order whose idempotency claim
+     * had to wait for Redis. In PARTITIONED mode the whole chain runs on the user's partition, as
+     * for {@link #assessOrder}, and the caller only holds the future.
+     */
+    public CompletableFuture<RiskAssessment> assessOrderAsync(Order order) {
+        long startTime = System.nanoTime();
+        CompletableFuture<IdempotencyCache.Claim> claimed = idempotency.claimAsync(order);
+        if (claimed.isDone()) {
+            return assessClaimed(order, claimed.join(), startTime);
+        }
+        return claimed.thenComposeAsync(claim -> assessClaimed(order, claim, startTime), completionExecutor);
+    }
+    
+    private CompletableFuture<RiskAssessment> assessClaimed(Order order, IdempotencyCache.Claim claim,
+                                                            long startTime) {
+        if (claim.isDuplicate()) {
+            return claim.previous().copy();
+        }
+        CompletableFuture<RiskAssessment> result = assessAsync(order, startTime);
+        result.whenComplete((assessment, failure) -> idempotency.finish(claim, assessment, failure));
+        return result;
+    }
+    
+    /**
+     * Assesses a batch of orders and returns the assessments in input order. Orders from the same
+     * user go through the rule checks in sequence and different users in parallel; the exposure
+     * reservations for the whole batch then go to Redis in a single call. In PARTITIONED mode each
+     * partition checks and reserves its own users' orders, with one reservation call per partition.
+     * Retries, including repeats within the batch, get their first attempt's assessment.
+     */
+    public List<RiskAssessment> assessOrders(List<Order> orders) {
+        long startTime = System.nanoTime();
+        IdempotencyCache.Claim[] claims = new IdempotencyCache.Claim[orders.size()];
+        List<Integer> owned = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            claims[i] = idempotency.claim(orders.get(i));
+            if (!claims[i].isDuplicate()) {
+                owned.add(i);
+            }
         }
         
-        // 3. Check user exposure
-        BigDecimal currentExposure = exposureTracker.getUserExposure(order.getUserId());
-        BigDecimal newExposure = calculateNewExposure(currentExposure, order);
-        if (newExposure.compareTo(MAX_USER_EXPOSURE) > 0) {
-            reasons.add("User exposure would exceed maximum allowed: " + MAX_USER_EXPOSURE);
-            if (verdict == RiskVerdict.ACCEPT) {
-                verdict = RiskVerdict.WARN;
+        RiskAssessment[] assessments = new RiskAssessment[orders.size()];
+        try {
+            assessOwned(orders, owned, startTime, assessments);
+        } catch (RuntimeException e) {
+            for (int index : owned) {
+                idempotency.finish(claims[index], null, e);
+            }
+            throw e;
+        }
+        for (int index : owned) {
+            idempotency.finish(claims[index], assessments[index], null);
+        }
+        // Only now, so a repeat of an order earlier in this batch finds its assessment
+        for (int i = 0; i < claims.length; i++) {
+            if (claims[i].isDuplicate()) {
+                assessments[i] = await(claims[i].previous());
+            }
+        }
+        return Arrays.asList(assessments);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (partitions != null) {
+            partitions.close();
+        }
+        batchExecutor.shutdown();
+        completionExecutor.shutdown();
+    }
+    
+    private CompletableFuture<RiskAssessment> assessAsync(Order order, long startTime) {
+        try {
+            if (partitions != null) {
+                return partitions.submit(order.getUserId(), () -> evaluate(order, startTime)).thenApply(this::complete);
             }
-            riskScore = riskScore.add(BigDecimal.valueOf(20));
+            RuleChain chain = ruleEngine.chain();
+            RuleContext context = createContext(order, startTime);
+            chain.evaluateChecks(context);
+            if (context.isRejected()) {
+                return CompletableFuture.completedFuture(complete(context));
+            }
+            // The reservation may complete on Lettuce's event loop, which publishing must not block
+            return exposureTracker.reserveExposureAsync(chain.exposureRequest(context))
+                    .thenApplyAsync(reservation -> {
+                        chain.applyExposure(context, reservation);
+                        return complete(context);
+                    }, completionExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /** Assesses {@code orders} at {@code indices} into {@code assessments}, as {@link #assessOrders} describes. */
+    private void assessOwned(List<Order> orders, List<Integer> indices, long startTime,
+                             RiskAssessment[] assessments) {
+        // One chain for the whole batch, even if a reload lands midway
+        RuleChain chain = ruleEngine.chain();
+        
+        Map<String, List<Integer>> ordersByUser = new LinkedHashMap<>();
+        for (int i : indices) {
+            ordersByUser.computeIfAbsent(orders.get(i).getUserId(), userId -> new ArrayList<>()).add(i);
         }
         
-        // 4. Symbol-specific checks
-        if (order.getSymbol().startsWith("BTC")) {
-            if (notional.compareTo(new BigDecimal("5000")) > 0) {
-                reasons.add("Large BTC order - increased volatility risk");
-                if (verdict == RiskVerdict.ACCEPT) {
-                    verdict = RiskVerdict.WARN;
+        RuleContext[] contexts = new RuleContext[orders.size()];
+        if (partitions == null) {
+            forEachUser(ordersByUser.values(), userIndices -> {
+                for (int index : userIndices) {
+                    contexts[index] = createContext(orders.get(index), startTime);
+                    chain.evaluateChecks(contexts[index]);
+                }
+            });
+            reserveExposures(chain, contexts, indices);
+        } else {
+            List<List<Integer>> ordersByPartition = new ArrayList<>(partitions.partitionCount());
+            for (int p = 0; p < partitions.partitionCount(); p++) {
+                ordersByPartition.add(new ArrayList<>());
+            }
+            for (int i : indices) {
+                ordersByPartition.get(partitions.partitionOf(orders.get(i).getUserId())).add(i);
+            }
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int p = 0; p < ordersByPartition.size(); p++) {
+                List<Integer> partitionIndices = ordersByPartition.get(p);
+                if (partitionIndices.isEmpty()) {
+                    continue;
                 }
-                riskScore = riskScore.add(BigDecimal.valueOf(15));
+                futures.add(partitions.submit(p, () -> {
+                    for (int index : partitionIndices) {
+                        contexts[index] = createContext(orders.get(index), startTime);
+                        chain.evaluateChecks(contexts[index]);
+                    }
+                    reserveExposures(chain, contexts, partitionIndices);
+                    return null;
+                }));
             }
+            await(CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)));
         }
         
-        // 5. Time-based checks (market hours, etc.)
-        LocalDateTime now = LocalDateTime.now();
-        int hour = now.getHour();
-        if (hour < 9 || hour > 16) {
-            reasons.add("Order placed outside market hours - reduced liquidity risk");
-            if (verdict == RiskVerdict.ACCEPT) {
-                verdict = RiskVerdict.WARN;
+        forEachUser(ordersByUser.values(), userIndices -> {
+            for (int index : userIndices) {
+                assessments[index] = complete(contexts[index]);
+            }
+        });
+    }
+    
+    private RuleContext evaluate(Order order, long startTime) {
+        RuleContext context = createContext(order, startTime);
+        ruleEngine.chain().evaluate(context);
+        return context;
+    }
+    
+    /** Reserves the unrejected orders among {@code indices}, in order, so each user's orders see their predecessors. */
+    private void reserveExposures(RuleChain chain, RuleContext[] contexts, List<Integer> indices) {
+        List<Integer> pending = new ArrayList<>(indices.size());
+        List<ExposureRequest> requests = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            if (!contexts[index].isRejected()) {
+                pending.add(index);
+                requests.add(chain.exposureRequest(contexts[index]));
             }
-            riskScore = riskScore.add(BigDecimal.valueOf(10));
         }
-        
-        // Update exposure if order is accepted
-        if (verdict == RiskVerdict.ACCEPT || verdict == RiskVerdict.WARN) {
-            exposureTracker.updateUserExposure(order.getUserId(), newExposure);
+        List<ExposureReservation> reservations = exposureTracker.reserveExposures(requests);
+        for (int i = 0; i < pending.size(); i++) {
+            chain.applyExposure(contexts[pending.get(i)], reservations.get(i));
         }
+    }
+    
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Surface the partition's own failure, as the shared path would have thrown it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private RuleContext createContext(Order order, long startTime) {
+        SymbolSpec spec = symbolRegistry.intern(order.getSymbol());
+        long priceUnits = FixedPoint.toUnits(order.getPrice(), spec.priceScale());
+        if (priceUnits == FixedPoint.OVERFLOW) {
+            // More decimals than the price scale, as in "45000.100"; a fraction of a tick is nothing to a collar band
+            priceUnits = FixedPoint.toUnits(order.getPrice().setScale(spec.priceScale(), RoundingMode.HALF_UP),
+                    spec.priceScale());
+        }
+        // A market order fills near the market, whatever price the client sent
+        long referenceUnits = order.getOrderType() == OrderType.MARKET ? referencePrices.priceUnits(spec.id()) : 0;
+        long notional = referenceUnits != 0
+                ? symbolRegistry.notionalUnits(spec, order.getQuantity(), referenceUnits)
+                : symbolRegistry.notionalUnits(spec, order.getQuantity(), order.getPrice());
+        return new RuleContext(order, startTime, spec.id(), priceUnits, volatilityEstimator.volatility(spec.id()),
+                notional, calculateExposureDelta(order, notional));
+    }
+    
+    private RiskAssessment complete(RuleContext context) {
+        Order order = context.order();
         
         // Publish order to analytics service
         try {
             orderPublisher.publishOrder(order);
         } catch (Exception e) {
             logger.error("Failed to publish order to analytics service", e);
-            reasons.add("Failed to publish to analytics service");
+            context.addReason("Failed to publish to analytics service");
         }
         
-        // Build assessment
+        // Build assessment; amounts only become BigDecimal here, for the JSON response
+        List<String> reasons = context.reasons();
         RiskAssessment assessment = new RiskAssessment();
         assessment.setOrderId(order.getOrderId());
         assessment.setUserId(order.getUserId());
-        assessment.setVerdict(verdict);
-        assessment.setRiskScore(riskScore);
+        assessment.setVerdict(context.verdict());
+        assessment.setRiskScore(BigDecimal.valueOf(context.riskScore()));
         assessment.setReasons(reasons.isEmpty() ? List.of("All risk checks passed") : reasons);
-        assessment.setNotionalAmount(notional);
-        assessment.setUserExposure(newExposure);
-        assessment.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        assessment.setNotionalAmount(FixedPoint.toBigDecimal(context.notionalUnits()));
+        if (context.exposureKnown()) {
+            assessment.setUserExposure(FixedPoint.toBigDecimal(context.exposureUnits()));
+        }
+        if (context.volatility() > 0) {
+            assessment.setVolatility(BigDecimal.valueOf(context.volatility()).setScale(4, RoundingMode.HALF_UP));
+        }
+        long elapsedNanos = System.nanoTime() - context.startTime();
+        assessment.setProcessingTimeMicros(elapsedNanos / 1_000);
+        assessment.setProcessingTimeMs(elapsedNanos / 1_000_000);
+        assessLatency.record(elapsedNanos);
         
-        logger.info("Risk assessment completed for order {}: verdict={}, score={}, time={}ms",
-                   order.getOrderId(), verdict, riskScore, assessment.getProcessingTimeMs());
+        decisionLog.record(order, assessment);
+        logger.debug("Risk assessment completed for order {}: verdict={}, score={}, time={}us",
+                   order.getOrderId(), context.verdict(), context.riskScore(), assessment.getProcessingTimeMicros());
         
         return assessment;
     }
     
-    private boolean checkRateLimit(String userId) {
-        Bucket bucket = userRateLimitBuckets.computeIfAbsent(userId, this::createRateLimitBucket);
-        return bucket.tryConsume(1);
-    }
-    
-    private Bucket createRateLimitBucket(String userId) {
-        Bandwidth limit = Bandwidth.classic(MAX_ORDERS_PER_MINUTE, Refill.intervally(MAX_ORDERS_PER_MINUTE, Duration.ofMinutes(1)));
-        return Bucket4j.builder()
-                .addLimit(limit)
-                .build();
+    private void forEachUser(Collection<List<Integer>> ordersByUser, Consumer<List<Integer>> task) {
+        if (ordersByUser.size() == 1) {
+            ordersByUser.forEach(task);
+            return;
+        }
+        CompletableFuture<?>[] futures = ordersByUser.stream()
+                .map(indices -> CompletableFuture.runAsync(() -> task.accept(indices), batchExecutor))
+                .toArray(CompletableFuture[]::new);
+        // Unwrapped, so a shed task still reaches the caller as RejectedExecutionException
+        await(CompletableFuture.allOf(futures));
     }
     
-    private BigDecimal calculateNewExposure(BigDecimal currentExposure, Order order) {
-        BigDecimal orderExposure = order.getNotional();
+    private long calculateExposureDelta(Order order, long notional) {
         switch (order.getSide()) {
             case BUY:
-                return currentExposure.add(orderExposure);
+                return notional;
             case SELL:
-                return currentExposure.subtract(orderExposure);
+                return -notional;
             default:
-                return currentExposure;
+                return 0L;
         }
     }
-} 
\ No newline at end of file
+}
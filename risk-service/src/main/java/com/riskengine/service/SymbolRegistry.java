@@ -0,0 +1,69 @@
+package com.riskengine.service;
+
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.model.FixedPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class SymbolRegistry {
+
+    private final SymbolProperties properties;
+    private final ConcurrentHashMap<String, SymbolSpec> symbols = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Autowired
+    public SymbolRegistry(SymbolProperties properties) {
+        this.properties = properties;
+    }
+
+    public SymbolSpec intern(String symbol) {
+        SymbolSpec spec = symbols.get(symbol);
+        return spec != null ? spec : symbols.computeIfAbsent(symbol, this::register);
+    }
+
+    public int size() {
+        return nextId.get();
+    }
+
+    /**
+     * Order notional in {@link FixedPoint#NOTIONAL_SCALE} units. Uses primitive math at the
+     * symbol's scales and falls back to the exact BigDecimal product when that would overflow
+     * or lose precision.
+     */
+    public long notionalUnits(String symbol, BigDecimal quantity, BigDecimal price) {
+        return notionalUnits(intern(symbol), quantity, price);
+    }
+
+    public long notionalUnits(SymbolSpec spec, BigDecimal quantity, BigDecimal price) {
+        long notional = FixedPoint.multiply(
+                FixedPoint.toUnits(quantity, spec.quantityScale()), spec.quantityScale(),
+                FixedPoint.toUnits(price, spec.priceScale()), spec.priceScale());
+        if (notional != FixedPoint.OVERFLOW) {
+            return notional;
+        }
+        return FixedPoint.toUnitsSaturated(quantity.multiply(price));
+    }
+
+    /** As above, for a price already in units of the symbol's price scale. */
+    public long notionalUnits(SymbolSpec spec, BigDecimal quantity, long priceUnits) {
+        long notional = FixedPoint.multiply(
+                FixedPoint.toUnits(quantity, spec.quantityScale()), spec.quantityScale(),
+                priceUnits, spec.priceScale());
+        if (notional != FixedPoint.OVERFLOW) {
+            return notional;
+        }
+        return FixedPoint.toUnitsSaturated(quantity.multiply(BigDecimal.valueOf(priceUnits, spec.priceScale())));
+    }
+
+    private SymbolSpec register(String symbol) {
+        SymbolProperties.Scale scale = properties.getScales().get(symbol);
+        int quantityScale = scale != null ? scale.getQuantity() : properties.getDefaultQuantityScale();
+        int priceScale = scale != null ? scale.getPrice() : properties.getDefaultPriceScale();
+        return new SymbolSpec(nextId.getAndIncrement(), symbol, quantityScale, priceScale);
+    }
+}
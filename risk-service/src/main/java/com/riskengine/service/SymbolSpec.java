@@ -0,0 +1,7 @@
+package com.riskengine.service;
+
+/**
+ * Interned symbol with a dense id and the fixed-point scales used for its quantities and prices.
+ */
+public record SymbolSpec(int id, String symbol, int quantityScale, int priceScale) {
+}
@@ -0,0 +1,51 @@
+package com.riskengine.service;
+
+import java.time.Duration;
+
+/**
+ * Tokens a node has borrowed from a user's shared bucket. Consumption is local; the lease is only
+ * valid within the bucket window it was taken from.
+ */
+public final class TokenLease {
+
+    private final long windowStartMillis;
+    private final long validUntilNanos;
+    private final Duration validFor;
+    private int remaining;
+
+    public TokenLease(int granted, long windowStartMillis, Duration validFor) {
+        this.remaining = granted;
+        this.windowStartMillis = windowStartMillis;
+        this.validFor = validFor;
+        this.validUntilNanos = System.nanoTime() + validFor.toNanos();
+    }
+
+    public boolean tryConsume() {
+        return tryConsume(1) == 1;
+    }
+
+    public int tryConsume(int permits) {
+        if (remaining <= 0 || isExpired(System.nanoTime())) {
+            return 0;
+        }
+        int consumed = Math.min(permits, remaining);
+        remaining -= consumed;
+        return consumed;
+    }
+
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - validUntilNanos >= 0;
+    }
+
+    public int remaining() {
+        return remaining;
+    }
+
+    public Duration validFor() {
+        return validFor;
+    }
+
+    public long windowStartMillis() {
+        return windowStartMillis;
+    }
+}
@@ -0,0 +1,168 @@
+package com.riskengine.session;
+
+import com.riskengine.config.SessionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers whether a symbol's venue is in a trading session, from per-venue sessions, trading days,
+ * holidays and timezones. Each venue's boundaries for the next {@code horizon} are precomputed into
+ * a {@link SessionSchedule}, so checking an order is a clock read and a comparison; the tables are
+ * rebuilt by the first check after they run out. The calendar comes from {@code risk.sessions}, or
+ * from {@code risk.sessions.file} when set, and is re-read on {@code POST /actuator/refresh}; the
+ * new tables replace the old ones in a single swap.
+ */
+@Component
+public class SessionCalendar implements EnvironmentAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCalendar.class);
+    private static final String PROPERTIES_PREFIX = "risk.sessions";
+
+    private final Clock clock;
+    private Environment environment;
+    private volatile SessionProperties properties;
+    private volatile Schedules schedules;
+
+    @Autowired
+    public SessionCalendar(SessionProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public SessionCalendar(SessionProperties properties, Clock clock) {
+        this.clock = clock;
+        this.properties = properties;
+        this.schedules = build(load(properties), clock.millis());
+        logger.info("Loaded trading sessions for {} venues", schedules.venueCount());
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    public boolean isOpen(String symbol) {
+        long now = clock.millis();
+        Schedules current = schedules;
+        if (now >= current.refreshAt()) {
+            current = rebuild(now);
+        }
+        return current.forSymbol(symbol).isOpen(now);
+    }
+
+    @EventListener
+    public void onRefresh(RefreshScopeRefreshedEvent event) {
+        // Re-read on every refresh, since the calendar file can change without the environment changing
+        reload(environment != null
+                ? Binder.get(environment).bindOrCreate(PROPERTIES_PREFIX, SessionProperties.class)
+                : properties);
+    }
+
+    public synchronized void reload(SessionProperties updated) {
+        try {
+            schedules = build(load(updated), clock.millis());
+            properties = updated;
+            logger.info("Reloaded trading sessions for {} venues", schedules.venueCount());
+        } catch (RuntimeException e) {
+            logger.error("Rejected trading session calendar, keeping the current one", e);
+        }
+    }
+
+    private synchronized Schedules rebuild(long now) {
+        Schedules current = schedules;
+        if (now < current.refreshAt()) {
+            return current;
+        }
+        try {
+            current = build(current.source(), now);
+        } catch (RuntimeException e) {
+            // Only reachable if the zone rules changed underneath; keep answering from the old tables
+            logger.error("Failed to extend trading session tables", e);
+            return current;
+        }
+        schedules = current;
+        return current;
+    }
+
+    /**
+     * The calendar to build from: the external file when one is set, otherwise the properties.
+     */
+    private static SessionProperties load(SessionProperties properties) {
+        if (properties.getFile() == null || properties.getFile().isBlank()) {
+            return properties;
+        }
+        Path file = Path.of(properties.getFile());
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("Trading session calendar not found: " + file.toAbsolutePath());
+        }
+        try {
+            List<PropertySource<?>> sources =
+                    new YamlPropertySourceLoader().load(file.toString(), new FileSystemResource(file));
+            SessionProperties loaded = new Binder(ConfigurationPropertySources.from(sources))
+                    .bind(ConfigurationPropertyName.EMPTY, Bindable.of(SessionProperties.class))
+                    .orElseGet(SessionProperties::new);
+            loaded.setFile(properties.getFile());
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trading session calendar " + file, e);
+        }
+    }
+
+    private static Schedules build(SessionProperties source, long now) {
+        // A day either side of the horizon covers every timezone's local date
+        LocalDate today = LocalDate.ofEpochDay(Math.floorDiv(now, 86_400_000L));
+        long horizonDays = Math.max(1, source.getHorizon().toDays());
+        LocalDate first = today.minusDays(1);
+        LocalDate last = today.plusDays(horizonDays + 1);
+
+        Map<String, SessionSchedule> venues = new HashMap<>();
+        source.getVenues().forEach((name, venue) -> venues.put(name, SessionSchedule.build(venue, first, last)));
+        SessionSchedule fallback = venues.get(source.getDefaultVenue());
+        if (fallback == null) {
+            fallback = SessionSchedule.build(new SessionProperties.Venue(), first, last);
+        }
+
+        Map<String, SessionSchedule> bySymbol = new HashMap<>();
+        for (Map.Entry<String, String> entry : source.getSymbols().entrySet()) {
+            SessionSchedule schedule = venues.get(entry.getValue());
+            if (schedule == null) {
+                throw new IllegalArgumentException(
+                        "Symbol " + entry.getKey() + " is on unknown venue " + entry.getValue());
+            }
+            bySymbol.put(entry.getKey(), schedule);
+        }
+        long refreshAt = today.plusDays(horizonDays).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        return new Schedules(source, bySymbol, fallback, venues.size(), refreshAt);
+    }
+
+    private record Schedules(SessionProperties source, Map<String, SessionSchedule> bySymbol,
+                             SessionSchedule fallback, int venueCount, long refreshAt) {
+
+        SessionSchedule forSymbol(String symbol) {
+            return bySymbol.getOrDefault(symbol, fallback);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.riskengine.session;
+
+import com.riskengine.config.SessionProperties;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One venue's sessions over a fixed span, precomputed as a sorted array of epoch-millisecond
+ * boundaries alternating open, close, open, close. The interval around the last lookup is cached,
+ * so while the clock stays inside it a check is two comparisons; crossing a boundary costs one
+ * binary search.
+ */
+final class SessionSchedule {
+
+    static final SessionSchedule ALWAYS_OPEN = new SessionSchedule(new long[0], Long.MIN_VALUE, Long.MAX_VALUE, true);
+
+    private final long[] boundaries;
+    private final long from;
+    private final long until;
+    private final boolean alwaysOpen;
+    private volatile Window window;
+
+    private SessionSchedule(long[] boundaries, long from, long until, boolean alwaysOpen) {
+        this.boundaries = boundaries;
+        this.from = from;
+        this.until = until;
+        this.alwaysOpen = alwaysOpen;
+        this.window = new Window(from, from, false);
+    }
+
+    /**
+     * Lays out the venue's sessions for every local date from {@code first} to {@code last}
+     * inclusive, skipping holidays and days it does not trade.
+     *
+     * @throws IllegalArgumentException if the timezone, a session or a holiday does not parse
+     */
+    static SessionSchedule build(SessionProperties.Venue venue, LocalDate first, LocalDate last) {
+        if (venue.isAlwaysOpen()) {
+            return ALWAYS_OPEN;
+        }
+        ZoneId zone = ZoneId.of(venue.getTimezone());
+        List<LocalTime[]> sessions = new ArrayList<>(venue.getSessions().size());
+        for (String session : venue.getSessions()) {
+            String[] times = session.split("-");
+            if (times.length != 2) {
+                throw new IllegalArgumentException("Session must be HH:mm-HH:mm: " + session);
+            }
+            sessions.add(new LocalTime[]{LocalTime.parse(times[0].trim()), LocalTime.parse(times[1].trim())});
+        }
+        Set<LocalDate> holidays = new HashSet<>();
+        for (String holiday : venue.getHolidays()) {
+            holidays.add(LocalDate.parse(holiday.trim()));
+        }
+        Set<DayOfWeek> days = venue.getDays();
+
+        List<long[]> intervals = new ArrayList<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek()) || holidays.contains(date)) {
+                continue;
+            }
+            for (LocalTime[] session : sessions) {
+                LocalDate closeDate = session[1].isAfter(session[0]) ? date : date.plusDays(1);
+                intervals.add(new long[]{
+                        ZonedDateTime.of(date, session[0], zone).toInstant().toEpochMilli(),
+                        ZonedDateTime.of(closeDate, session[1], zone).toInstant().toEpochMilli()});
+            }
+        }
+        intervals.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        // Overlapping or back-to-back sessions merge, so the boundaries strictly alternate
+        long[] boundaries = new long[intervals.size() * 2];
+        int count = 0;
+        for (long[] interval : intervals) {
+            if (count > 0 && interval[0] <= boundaries[count - 1]) {
+                boundaries[count - 1] = Math.max(boundaries[count - 1], interval[1]);
+            } else {
+                boundaries[count++] = interval[0];
+                boundaries[count++] = interval[1];
+            }
+        }
+        return new SessionSchedule(Arrays.copyOf(boundaries, count),
+                first.atStartOfDay(zone).toInstant().toEpochMilli(),
+                last.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(), false);
+    }
+
+    boolean isOpen(long now) {
+        if (alwaysOpen) {
+            return true;
+        }
+        Window current = window;
+        if (now >= current.from() && now < current.until()) {
+            return current.open();
+        }
+        int index = Arrays.binarySearch(boundaries, now);
+        int passed = index >= 0 ? index + 1 : -index - 1;
+        Window found = new Window(passed == 0 ? from : boundaries[passed - 1],
+                passed == boundaries.length ? until : boundaries[passed], (passed & 1) == 1);
+        window = found;
+        return found.open();
+    }
+
+    private record Window(long from, long until, boolean open) {
+    }
+}
@@ -0,0 +1,377 @@
+package com.riskengine.snapshot;
+
+import com.riskengine.config.SnapshotProperties;
+import com.riskengine.service.Position;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshots of risk state on local disk, one directory per snapshot named after the time it was
+ * started. Positions are spread over several part files by userId so they can be written as a
+ * stream and read back in parallel; rate-limit buckets go in a file of their own. The manifest
+ * holds each file's record count and CRC32C and is written last, and the directory is staged
+ * under a temporary name and renamed into place, so a snapshot is either complete or ignored.
+ */
+@Component
+public class SnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final int MAGIC = 0x52534E50;
+    private static final int VERSION = 1;
+    private static final String MANIFEST_FILE = "manifest";
+    private static final String BUCKETS_FILE = "buckets.bin";
+    private static final String STAGING_SUFFIX = ".tmp";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int parts;
+    private final int retain;
+    private final Timer loadTimer;
+
+    // Guarded by this
+    private StateSnapshot latest;
+    private boolean loaded;
+
+    @Autowired
+    public SnapshotStore(SnapshotProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.directory = Path.of(properties.getDirectory());
+        this.parts = Math.max(1, properties.getParts());
+        this.retain = Math.max(1, properties.getRetain());
+        this.loadTimer = Timer.builder("snapshot.load")
+                .description("Time to read the latest state snapshot at start-up")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The newest snapshot that reads back intact, or null if there is none. Read once, with the
+     * parts in parallel, and kept for every component restoring from it until {@link #release}.
+     */
+    public synchronized StateSnapshot latest() {
+        if (!enabled) {
+            return null;
+        }
+        if (!loaded) {
+            latest = loadTimer.record(this::loadNewest);
+            loaded = true;
+        }
+        return latest;
+    }
+
+    /** Drops the snapshot read at start-up once everything has been restored from it. */
+    public synchronized void release() {
+        latest = null;
+    }
+
+    /** Starts a snapshot taken now; nothing is visible until {@link Writer#commit}. */
+    public Writer begin() {
+        try {
+            return new Writer(Instant.now());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a snapshot in " + directory, e);
+        }
+    }
+
+    private StateSnapshot loadNewest() {
+        List<Path> snapshots;
+        try {
+            snapshots = committed();
+        } catch (IOException e) {
+            logger.warn("Failed to list snapshots in {}: {}", directory, e.getMessage());
+            return null;
+        }
+        for (Path snapshot : snapshots) {
+            try {
+                StateSnapshot state = read(snapshot);
+                logger.info("Read snapshot {} with {} users and {} rate-limit buckets",
+                        snapshot.getFileName(), state.userCount(), state.buckets().size());
+                return state;
+            } catch (IOException | UncheckedIOException e) {
+                logger.warn("Skipping unreadable snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private StateSnapshot read(Path snapshot) throws IOException {
+        long journalSequence;
+        long takenAtMillis;
+        long[] counts;
+        int[] checksums;
+        try (DataInputStream manifest = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot.resolve(MANIFEST_FILE))))) {
+            if (manifest.readInt() != MAGIC || manifest.readInt() != VERSION) {
+                throw new IOException("Snapshot " + snapshot + " has an unrecognised manifest");
+            }
+            journalSequence = manifest.readLong();
+            takenAtMillis = manifest.readLong();
+            int files = manifest.readInt();
+            counts = new long[files];
+            checksums = new int[files];
+            for (int i = 0; i < files; i++) {
+                counts[i] = manifest.readLong();
+                checksums[i] = manifest.readInt();
+            }
+        }
+
+        // The last file holds the buckets; every other one is a part of the positions
+        int positionParts = counts.length - 1;
+        List<Map<String, List<Position>>> positions = IntStream.range(0, positionParts).parallel()
+                .mapToObj(part -> readPositions(snapshot.resolve(partFile(part)), counts[part], checksums[part]))
+                .toList();
+        Map<String, Long> buckets = readBuckets(snapshot.resolve(BUCKETS_FILE),
+                counts[positionParts], checksums[positionParts]);
+        return new StateSnapshot(journalSequence, Instant.ofEpochMilli(takenAtMillis), positions, buckets);
+    }
+
+    private static Map<String, List<Position>> readPositions(Path file, long users, int checksum) {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = open(file, crc)) {
+            Map<String, List<Position>> part = new HashMap<>((int) Math.min(users * 2, Integer.MAX_VALUE));
+            for (long i = 0; i < users; i++) {
+                String userId = in.readUTF();
+                int count = in.readInt();
+                List<Position> positions = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    positions.add(new Position(in.readUTF(), in.readLong(), in.readLong()));
+                }
+                part.put(userId, positions);
+            }
+            verify(file, crc, checksum);
+            return part;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot file " + file, e);
+        }
+    }
+
+    private static Map<String, Long> readBuckets(Path file, long buckets, int checksum) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = open(file, crc)) {
+            Map<String, Long> tokens = new HashMap<>((int) Math.min(buckets * 2, Integer.MAX_VALUE));
+            for (long i = 0; i < buckets; i++) {
+                tokens.put(in.readUTF(), in.readLong());
+            }
+            verify(file, crc, checksum);
+            return tokens;
+        }
+    }
+
+    private static DataInputStream open(Path file, CRC32C crc) throws IOException {
+        // Checked above the buffer, so the checksum covers exactly the bytes consumed
+        return new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc));
+    }
+
+    private static void verify(Path file, CRC32C crc, int checksum) throws IOException {
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Snapshot file " + file + " failed its checksum");
+        }
+    }
+
+    /** Committed snapshots, newest first. */
+    private List<Path> committed() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isDirectory)
+                    .filter(file -> !file.getFileName().toString().endsWith(STAGING_SUFFIX))
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> snapshots = committed();
+        for (int i = retain; i < snapshots.size(); i++) {
+            deleteRecursively(snapshots.get(i));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (file.getFileName().toString().endsWith(STAGING_SUFFIX)) {
+                    // Left behind by a snapshot that failed or was interrupted
+                    deleteRecursively(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static String partFile(int part) {
+        return String.format("positions-%03d.bin", part);
+    }
+
+    /**
+     * One snapshot being written. Users and buckets are streamed straight to their files as they
+     * are visited, so writing never holds more than one user's copy in memory. Not thread-safe.
+     */
+    public final class Writer implements AutoCloseable {
+
+        private final Instant takenAt;
+        private final String name;
+        private final Path staging;
+        private final Output[] outputs;
+        private boolean committed;
+
+        private Writer(Instant takenAt) throws IOException {
+            this.takenAt = takenAt;
+            this.name = String.format("%020d", takenAt.toEpochMilli());
+            this.staging = directory.resolve(name + STAGING_SUFFIX);
+            Files.createDirectories(directory);
+            deleteRecursively(staging);
+            Files.createDirectory(staging);
+            this.outputs = new Output[parts + 1];
+            for (int part = 0; part < parts; part++) {
+                outputs[part] = new Output(staging.resolve(partFile(part)));
+            }
+            outputs[parts] = new Output(staging.resolve(BUCKETS_FILE));
+        }
+
+        public Instant takenAt() {
+            return takenAt;
+        }
+
+        public void writePositions(String userId, List<Position> positions) {
+            int hash = userId.hashCode();
+            Output output = outputs[Math.floorMod(hash ^ (hash >>> 16), parts)];
+            try {
+                output.data.writeUTF(userId);
+                output.data.writeInt(positions.size());
+                for (Position position : positions) {
+                    output.data.writeUTF(position.symbol());
+                    output.data.writeLong(position.longUnits());
+                    output.data.writeLong(position.shortUnits());
+                }
+                output.count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot " + name, e);
+            }
+        }
+
+        public void writeBucket(String userId, long availableTokens) {
+            Output output = outputs[parts];
+            try {
+                output.data.writeUTF(userId);
+                output.data.writeLong(availableTokens);
+                output.count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot " + name, e);
+            }
+        }
+
+        /**
+         * Makes the snapshot durable and visible, recording that its positions reflect every
+         * journal entry up to {@code journalSequence}, then deletes all but the newest snapshots.
+         */
+        public void commit(long journalSequence) {
+            try {
+                for (Output output : outputs) {
+                    output.finish();
+                }
+                Path manifest = staging.resolve(MANIFEST_FILE);
+                try (FileOutputStream file = new FileOutputStream(manifest.toFile());
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(journalSequence);
+                    out.writeLong(takenAt.toEpochMilli());
+                    out.writeInt(outputs.length);
+                    for (Output output : outputs) {
+                        out.writeLong(output.count);
+                        out.writeInt((int) output.crc.getValue());
+                    }
+                    out.flush();
+                    file.getFD().sync();
+                }
+                Files.move(staging, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+                prune();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to commit snapshot " + name, e);
+            }
+        }
+
+        /** Discards the snapshot unless it was committed. */
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            for (Output output : outputs) {
+                if (output != null) {
+                    output.closeQuietly();
+                }
+            }
+            try {
+                deleteRecursively(staging);
+            } catch (IOException e) {
+                logger.warn("Failed to delete abandoned snapshot {}: {}", staging, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Output {
+        final FileOutputStream file;
+        final CRC32C crc = new CRC32C();
+        final DataOutputStream data;
+        long count;
+
+        Output(Path path) throws IOException {
+            this.file = new FileOutputStream(path.toFile());
+            this.data = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), crc));
+        }
+
+        void finish() throws IOException {
+            data.flush();
+            file.getFD().sync();
+            data.close();
+        }
+
+        void closeQuietly() {
+            try {
+                data.close();
+            } catch (IOException e) {
+                // Being discarded anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.riskengine.snapshot;
+
+import com.riskengine.service.Position;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Risk state read back from a snapshot: every user's positions, in the parts they were written
+ * to so they can be restored in parallel, and the fill level of each drawn-down rate-limit
+ * bucket. {@code journalSequence} is the last journal entry the positions reflect.
+ */
+public record StateSnapshot(long journalSequence,
+                            Instant takenAt,
+                            List<Map<String, List<Position>>> positions,
+                            Map<String, Long> buckets) {
+
+    public int userCount() {
+        int users = 0;
+        for (Map<String, List<Position>> part : positions) {
+            users += part.size();
+        }
+        return users;
+    }
+}
@@ -0,0 +1,114 @@
+package com.riskengine.snapshot;
+
+import com.riskengine.config.SnapshotProperties;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a snapshot of positions and rate-limit buckets on a background thread every interval and
+ * once more on shutdown, and restores the rate-limit buckets from the latest one at start-up.
+ * Positions are restored earlier, by the {@link ExposureTracker} as it starts, since the journal
+ * replay has to follow them.
+ */
+@Service
+public class StateSnapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateSnapshotter.class);
+
+    private final SnapshotStore store;
+    private final ExposureTracker exposureTracker;
+    private final RateLimiter rateLimiter;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+    private final Timer writeTimer;
+    private final Counter writeFailureCounter;
+
+    @Autowired
+    public StateSnapshotter(SnapshotStore store,
+                            ExposureTracker exposureTracker,
+                            RateLimiter rateLimiter,
+                            SnapshotProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.store = store;
+        this.exposureTracker = exposureTracker;
+        this.rateLimiter = rateLimiter;
+        this.interval = properties.getInterval();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writeTimer = Timer.builder("snapshot.write")
+                .description("Time to write a state snapshot")
+                .register(meterRegistry);
+        this.writeFailureCounter = Counter.builder("snapshot.write.failed")
+                .description("State snapshots that failed and were discarded")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!store.isEnabled()) {
+            return;
+        }
+        StateSnapshot snapshot = store.latest();
+        if (snapshot != null) {
+            int restored = rateLimiter.restoreBuckets(snapshot.buckets(),
+                    Duration.between(snapshot.takenAt(), Instant.now()));
+            logger.info("Restored {} rate-limit buckets from the snapshot", restored);
+        }
+        store.release();
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::writeQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!store.isEnabled()) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The exposure tracker is stopped after this, so its journal is still open to be retained
+        writeQuietly();
+    }
+
+    public void write() {
+        long started = System.nanoTime();
+        try (SnapshotStore.Writer writer = store.begin()) {
+            long sequence = exposureTracker.snapshotPositions(writer::writePositions);
+            rateLimiter.snapshotBuckets(writer::writeBucket);
+            writer.commit(sequence);
+            exposureTracker.retainJournalAfter(sequence);
+        }
+        writeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (RuntimeException e) {
+            writeFailureCounter.increment();
+            logger.error("Failed to write state snapshot", e);
+        }
+    }
+}
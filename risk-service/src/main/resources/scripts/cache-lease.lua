@@ -0,0 +1,10 @@
+-- Takes the position cache lease for a replica, or extends it if that replica already holds it.
+-- KEYS[1] = lease key
+-- ARGV[1] = owner id, ARGV[2] = lease TTL in milliseconds
+-- Returns 1 when the caller holds the lease afterwards, 0 when another replica does
+local owner = redis.call('GET', KEYS[1])
+if owner and owner ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+return 1
@@ -0,0 +1,28 @@
+-- Leases up to ARGV[3] tokens from a user's shared token bucket, refilling it to full
+-- capacity at each refill-period boundary.
+-- KEYS[1] = bucket hash
+-- ARGV[1] = capacity, ARGV[2] = refill period in ms, ARGV[3] = tokens requested
+-- Returns {granted, window start ms, server time ms}
+local capacity = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'window')
+local tokens = tonumber(state[1])
+local window = tonumber(state[2])
+if tokens == nil or window == nil then
+    tokens = capacity
+    window = now
+elseif now - window >= period then
+    window = window + math.floor((now - window) / period) * period
+    tokens = capacity
+end
+
+local granted = math.min(requested, tokens)
+tokens = tokens - granted
+redis.call('HSET', KEYS[1], 'tokens', tokens, 'window', window)
+redis.call('PEXPIRE', KEYS[1], period * 2)
+
+return {granted, window, now}
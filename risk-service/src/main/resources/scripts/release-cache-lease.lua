@@ -0,0 +1,8 @@
+-- Gives up the position cache lease, provided the caller still holds it.
+-- KEYS[1] = lease key
+-- ARGV[1] = owner id
+-- Returns 1 when the lease was released
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,17 @@
+-- Takes released notional off one position in a user's position hash, never below zero, and keeps
+-- the user's exposure (sum of absolute net positions) in step.
+-- KEYS[1] = position hash, with fields <symbol>:long, <symbol>:short and exposure (scaled integer units)
+-- ARGV[1] = symbol, ARGV[2] = long release, ARGV[3] = short release, ARGV[4] = TTL in seconds
+-- Returns the user's exposure
+local longField = ARGV[1] .. ':long'
+local shortField = ARGV[1] .. ':short'
+local longUnits = tonumber(redis.call('HGET', KEYS[1], longField) or '0')
+local shortUnits = tonumber(redis.call('HGET', KEYS[1], shortField) or '0')
+local previous = longUnits - shortUnits
+longUnits = math.max(longUnits - tonumber(ARGV[2]), 0)
+shortUnits = math.max(shortUnits - tonumber(ARGV[3]), 0)
+redis.call('HSET', KEYS[1], longField, string.format('%d', longUnits), shortField, string.format('%d', shortUnits))
+local exposure = redis.call('HINCRBY', KEYS[1], 'exposure',
+        string.format('%d', math.abs(longUnits - shortUnits) - math.abs(previous)))
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+return exposure
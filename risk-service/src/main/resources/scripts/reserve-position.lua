@@ -0,0 +1,24 @@
+-- Atomically applies a notional delta to one position in a user's position hash, keeps the
+-- user's exposure (sum of absolute net positions) in step, and reports limit breaches.
+-- KEYS[1] = position hash, with fields <symbol>:long, <symbol>:short and exposure (scaled integer units)
+-- ARGV[1] = symbol, ARGV[2] = long delta, ARGV[3] = short delta,
+-- ARGV[4] = position limit, ARGV[5] = exposure limit, ARGV[6] = TTL in seconds
+-- Returns {exposure, exposure breached, net position, position breached}
+local longUnits = redis.call('HINCRBY', KEYS[1], ARGV[1] .. ':long', ARGV[2])
+local shortUnits = redis.call('HINCRBY', KEYS[1], ARGV[1] .. ':short', ARGV[3])
+local net = longUnits - shortUnits
+local previous = net - tonumber(ARGV[2]) + tonumber(ARGV[3])
+local exposure = redis.call('HINCRBY', KEYS[1], 'exposure',
+        string.format('%d', math.abs(net) - math.abs(previous)))
+redis.call('EXPIRE', KEYS[1], ARGV[6])
+
+local exposureBreached = 0
+if exposure > tonumber(ARGV[5]) then
+    exposureBreached = 1
+end
+local positionBreached = 0
+if math.abs(net) > tonumber(ARGV[4]) then
+    positionBreached = 1
+end
+
+return {exposure, exposureBreached, net, positionBreached}
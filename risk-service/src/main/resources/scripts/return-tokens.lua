@@ -0,0 +1,16 @@
+-- Returns unused leased tokens to a user's shared bucket, provided the bucket has not
+-- refilled since they were leased.
+-- KEYS[1] = bucket hash
+-- ARGV[1] = capacity, ARGV[2] = tokens to return, ARGV[3] = window start ms of the lease
+local window = redis.call('HGET', KEYS[1], 'window')
+if not window or tonumber(window) ~= tonumber(ARGV[3]) then
+    return 0
+end
+
+local tokens = tonumber(redis.call('HGET', KEYS[1], 'tokens') or '0')
+local returned = math.min(tonumber(ARGV[2]), tonumber(ARGV[1]) - tokens)
+if returned > 0 then
+    redis.call('HINCRBY', KEYS[1], 'tokens', returned)
+end
+
+return returned
@@ -0,0 +1,90 @@
+package com.riskengine.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.config.RedisConfig;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJsonDecoderTest {
+
+    private final ObjectMapper objectMapper = new RedisConfig().objectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testRead_DecodesWhatDatabindWrites() throws IOException {
+        Order order = new Order("order1", "user1", "BTC-USD", OrderSide.SELL, new BigDecimal("0.15"),
+                new BigDecimal("45000.50"), OrderType.STOP_LIMIT, LocalDateTime.of(2024, 3, 1, 14, 30, 5, 123_000_000));
+
+        Order decoded = decode(objectMapper.writeValueAsString(order));
+
+        assertEquals(order.toString(), decoded.toString());
+    }
+
+    @Test
+    void testRead_AcceptsWhatDatabindAccepts() throws IOException {
+        Order decoded = decode("{\"orderId\":\"order1\",\"userId\":\"user1\",\"symbol\":\"ETH-USD\","
+                + "\"side\":\"buy\",\"quantity\":\"2\",\"price\":3100.25,\"orderType\":\"Limit\","
+                + "\"timestamp\":[2024,3,1,14,30],\"venue\":{\"name\":\"x\"},\"note\":null}");
+
+        assertEquals(OrderSide.BUY, decoded.getSide());
+        assertEquals(OrderType.LIMIT, decoded.getOrderType());
+        assertEquals(new BigDecimal("2"), decoded.getQuantity());
+        assertEquals(new BigDecimal("3100.25"), decoded.getPrice());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 14, 30), decoded.getTimestamp());
+        assertNotNull(decode("{\"orderId\":\"order1\",\"userId\":\"user1\",\"symbol\":\"ETH-USD\",\"side\":\"SELL\","
+                + "\"quantity\":1,\"price\":1,\"orderType\":\"MARKET\"}").getTimestamp());
+    }
+
+    @Test
+    void testRead_ReportsTheSameViolationsAsBeanValidation() throws IOException {
+        List<String> payloads = List.of(
+                "{}",
+                "{\"orderId\":\" \",\"userId\":\"user1\",\"symbol\":\"BTC-USD\",\"side\":\"BUY\","
+                        + "\"quantity\":0,\"price\":-1,\"orderType\":\"LIMIT\"}",
+                "{\"orderId\":\"order1\",\"userId\":\"\",\"symbol\":null,\"quantity\":\"0.5\",\"price\":1}");
+
+        for (String payload : payloads) {
+            OrderJsonDecoder decoder = OrderJsonDecoder.forCurrentThread();
+            try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+                parser.nextToken();
+                assertFalse(decoder.read(parser));
+            }
+            List<String> expected = validator.validate(objectMapper.readValue(payload, Order.class)).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, decoder.violations(), payload);
+        }
+    }
+
+    @Test
+    void testRead_RejectsUnknownEnumsAndWrongTypes() {
+        assertThrows(JsonParseException.class, () -> decode("{\"side\":\"HOLD\"}"));
+        assertThrows(JsonParseException.class, () -> decode("{\"quantity\":\"lots\"}"));
+        assertThrows(JsonParseException.class, () -> decode("{\"orderId\":{\"id\":1}}"));
+        assertThrows(JsonParseException.class, () -> decode("[]"));
+    }
+
+    private Order decode(String json) throws IOException {
+        OrderJsonDecoder decoder = OrderJsonDecoder.forCurrentThread();
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            decoder.read(parser);
+            return decoder.toOrder();
+        }
+    }
+}
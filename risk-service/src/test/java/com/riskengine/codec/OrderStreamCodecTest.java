@@ -0,0 +1,65 @@
+package com.riskengine.codec;
+
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStreamCodecTest {
+
+    @Test
+    void testBinary_RoundTripsInASingleField() {
+        Order order = createSampleOrder(new BigDecimal("0.15"), new BigDecimal("45000.50"));
+
+        Map<byte[], byte[]> fields = OrderStreamCodec.encode(order, StreamFormat.BINARY);
+
+        assertEquals(1, fields.size());
+        assertOrderEquals(order, OrderStreamCodec.decode(fields));
+    }
+
+    @Test
+    void testFlat_RoundTripsWithoutDuplicatePayload() {
+        Order order = createSampleOrder(new BigDecimal("2"), new BigDecimal("3100.25"));
+
+        Map<byte[], byte[]> fields = OrderStreamCodec.encode(order, StreamFormat.FLAT);
+
+        assertEquals(8, fields.size());
+        assertTrue(fields.keySet().stream()
+                .noneMatch(name -> new String(name, StandardCharsets.UTF_8).equals("orderData")));
+        assertOrderEquals(order, OrderStreamCodec.decode(fields));
+    }
+
+    @Test
+    void testBinary_FallsBackToFlatWhenValueDoesNotFitLayout() {
+        Order order = createSampleOrder(new BigDecimal("1E+30"), new BigDecimal("1"));
+
+        Map<byte[], byte[]> fields = OrderStreamCodec.encode(order, StreamFormat.BINARY);
+
+        assertEquals(8, fields.size());
+        assertEquals(0, order.getQuantity().compareTo(OrderStreamCodec.decode(fields).getQuantity()));
+    }
+
+    private void assertOrderEquals(Order expected, Order actual) {
+        assertEquals(expected.getOrderId(), actual.getOrderId());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.getSide(), actual.getSide());
+        assertEquals(expected.getOrderType(), actual.getOrderType());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    private Order createSampleOrder(BigDecimal quantity, BigDecimal price) {
+        Order order = new Order("order-1", "user-1", "BTC-USD", OrderSide.SELL, quantity, price, OrderType.STOP_LIMIT);
+        order.setTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000));
+        return order;
+    }
+}
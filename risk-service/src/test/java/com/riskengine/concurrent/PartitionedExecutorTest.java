@@ -0,0 +1,110 @@
+package com.riskengine.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PartitionedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    void testSubmit_SameKeyRunsInOrderOnOneThread() {
+        executor = new PartitionedExecutor("test", 4, 1024, meterRegistry);
+        executor.start();
+
+        // Unsynchronised on purpose: only the owning partition ever touches it
+        List<Integer> seen = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int value = i;
+            futures.add(executor.submit("user1", () -> {
+                seen.add(value);
+                threads.add(Thread.currentThread().getName());
+                return value;
+            }));
+        }
+
+        assertEquals(999, futures.get(999).join());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertEquals(1, threads.stream().distinct().count());
+        assertEquals("test-partition-" + executor.partitionOf("user1"), threads.get(0));
+    }
+
+    @Test
+    void testSubmit_FailedTaskCompletesExceptionallyAndPartitionKeepsRunning() {
+        executor = new PartitionedExecutor("test", 1, 16, meterRegistry);
+        executor.start();
+
+        CompletableFuture<Object> failed = executor.submit("user1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletionException thrown = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+
+        assertEquals("ok", executor.submit("user1", () -> "ok").join());
+    }
+
+    @Test
+    void testSubmit_RejectsWhenPartitionQueueIsFull() throws InterruptedException {
+        executor = new PartitionedExecutor("test", 1, 2, meterRegistry);
+        executor.start();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("user1", () -> {
+            running.countDown();
+            await(release);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.submit("user1", () -> null);
+        executor.submit("user1", () -> null);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit("user1", () -> null));
+        assertEquals(1.0, meterRegistry.counter("partition.rejected", "executor", "test").count());
+        release.countDown();
+    }
+
+    @Test
+    void testSubmit_RejectsBeforeStartAndAfterClose() {
+        executor = new PartitionedExecutor("test", 2, 16, meterRegistry);
+        assertThrows(RejectedExecutionException.class, () -> executor.submit("user1", () -> null));
+
+        executor.start();
+        CompletableFuture<String> queued = executor.submit("user1", () -> "done");
+        executor.close();
+
+        assertEquals("done", queued.join());
+        assertThrows(RejectedExecutionException.class, () -> executor.submit("user1", () -> null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
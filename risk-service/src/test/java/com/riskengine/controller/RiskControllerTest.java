@@ -0,0 +1,74 @@
+package com.riskengine.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import com.riskengine.service.RiskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskControllerTest {
+
+    private static final String VALID = "{\"orderId\":\"order1\",\"userId\":\"user1\",\"symbol\":\"ETH-USD\","
+            + "\"side\":\"BUY\",\"quantity\":\"2\",\"price\":3100.25,\"orderType\":\"LIMIT\"}";
+    private static final String INVALID = "{\"orderId\":\"order2\",\"userId\":\"user1\",\"symbol\":\"ETH-USD\","
+            + "\"side\":\"BUY\",\"price\":3100.25,\"orderType\":\"LIMIT\"}";
+
+    @Mock
+    private RiskService riskService;
+
+    private RiskController controller;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        controller = new RiskController(riskService, new StageTimings(meterRegistry), meterRegistry,
+                new ObjectMapper(), 1000);
+    }
+
+    @Test
+    void testProcessOrderBatch_ReportsValidationFailuresAsTheyAre() throws Exception {
+        RiskAssessment accepted = new RiskAssessment();
+        accepted.setOrderId("order1");
+        accepted.setVerdict(RiskVerdict.ACCEPT);
+        when(riskService.assessOrders(anyList())).thenReturn(List.of(accepted));
+
+        ResponseEntity<List<RiskAssessment>> response =
+                controller.processOrderBatch(body("[" + VALID + "," + INVALID + "]"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        RiskAssessment invalid = response.getBody().get(1);
+        assertEquals(RiskVerdict.REJECT, invalid.getVerdict());
+        assertTrue(invalid.getReasons().get(0).startsWith("Validation failed: "), invalid.getReasons().toString());
+    }
+
+    @Test
+    void testProcessOrderBatch_PrefixesServerFaults() throws Exception {
+        when(riskService.assessOrders(anyList())).thenThrow(new IllegalStateException("Redis down"));
+
+        ResponseEntity<List<RiskAssessment>> response = controller.processOrderBatch(body("[" + VALID + "]"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(List.of("Internal error: Redis down"), response.getBody().get(0).getReasons());
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
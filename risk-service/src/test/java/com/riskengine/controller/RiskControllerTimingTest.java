@@ -0,0 +1,87 @@
+package com.riskengine.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import com.riskengine.service.RiskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAspectsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that the {@code management.observations.annotations.enabled} setting in application.yml
+ * is what makes the controllers' {@code @Timed} record anything.
+ */
+class RiskControllerTimingTest {
+
+    private static final String ORDER = "{\"orderId\":\"order1\",\"userId\":\"user1\",\"symbol\":\"ETH-USD\","
+            + "\"side\":\"BUY\",\"quantity\":\"2\",\"price\":3100.25,\"orderType\":\"LIMIT\"}";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, MetricsAutoConfiguration.class,
+                    SimpleMetricsExportAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class,
+                    MetricsAspectsAutoConfiguration.class))
+            .withUserConfiguration(ControllerConfiguration.class);
+
+    @Test
+    void testProcessOrder_RecordsItsTimerWhenAnnotationsAreEnabled() {
+        contextRunner.withPropertyValues("management.observations.annotations.enabled=true").run(context -> {
+            context.getBean(RiskController.class).processOrder(body(ORDER));
+
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            assertEquals(1, meterRegistry.get("order.processing.time").timer().count());
+        });
+    }
+
+    @Test
+    void testProcessOrder_RecordsNoTimerWithoutTheSetting() {
+        contextRunner.run(context -> {
+            context.getBean(RiskController.class).processOrder(body(ORDER));
+
+            assertNull(context.getBean(MeterRegistry.class).find("order.processing.time").timer());
+        });
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class ControllerConfiguration {
+
+        @Bean
+        RiskService riskService() {
+            RiskService riskService = mock(RiskService.class);
+            when(riskService.assessOrder(any(Order.class))).thenAnswer(invocation -> {
+                RiskAssessment assessment = new RiskAssessment();
+                assessment.setOrderId(invocation.<Order>getArgument(0).getOrderId());
+                assessment.setVerdict(RiskVerdict.ACCEPT);
+                return assessment;
+            });
+            return riskService;
+        }
+
+        @Bean
+        RiskController riskController(RiskService riskService, MeterRegistry meterRegistry) {
+            return new RiskController(riskService, new StageTimings(meterRegistry), meterRegistry,
+                    new ObjectMapper(), 1000);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.riskengine.decision;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.config.DecisionLogProperties;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRecord_WritesOneJsonLinePerDecision() throws Exception {
+        DecisionLog decisionLog = start(1.0);
+
+        decisionLog.record(order("order1"), assessment(RiskVerdict.ACCEPT, "All risk checks passed"));
+        decisionLog.record(order("order2"), assessment(RiskVerdict.WARN, "Order placed \"outside\" market hours"));
+        decisionLog.stop();
+
+        List<String> lines = Files.readAllLines(directory.resolve("decisions.log"));
+        assertEquals(2, lines.size());
+        JsonNode warn = new ObjectMapper().readTree(lines.get(1));
+        assertEquals("order2", warn.get("order").asText());
+        assertEquals("BTC-USD", warn.get("symbol").asText());
+        assertEquals("WARN", warn.get("verdict").asText());
+        assertEquals(new BigDecimal("5000.0000"), warn.get("notional").decimalValue());
+        assertEquals("Order placed \"outside\" market hours", warn.get("reasons").get(0).asText());
+        assertNull(warn.get("exposure"));
+        assertEquals(2.0, meterRegistry.get("decisions.logged").counter().count());
+    }
+
+    @Test
+    void testRecord_SamplesAcceptsButKeepsWarningsAndRejections() throws Exception {
+        DecisionLog decisionLog = start(0.0);
+
+        for (int i = 0; i < 10; i++) {
+            decisionLog.record(order("accept" + i), assessment(RiskVerdict.ACCEPT, "All risk checks passed"));
+        }
+        decisionLog.record(order("warn"), assessment(RiskVerdict.WARN, "Large BTC order"));
+        decisionLog.record(order("reject"), assessment(RiskVerdict.REJECT, "Rate limit exceeded"));
+        decisionLog.stop();
+
+        List<String> lines = Files.readAllLines(directory.resolve("decisions.log"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"order\":\"warn\""));
+        assertTrue(lines.get(1).contains("\"order\":\"reject\""));
+        assertEquals(10.0, meterRegistry.get("decisions.log.dropped").tag("reason", "sampled").counter().count());
+    }
+
+    @Test
+    void testRecord_DoesNothingWhenDisabled() throws InterruptedException {
+        DecisionLog decisionLog = new DecisionLog(new DecisionLogProperties(), meterRegistry);
+        decisionLog.start();
+
+        decisionLog.record(order("order1"), assessment(RiskVerdict.REJECT, "Rate limit exceeded"));
+        decisionLog.stop();
+
+        assertEquals(0.0, meterRegistry.get("decisions.logged").counter().count());
+    }
+
+    private DecisionLog start(double acceptSampleRate) {
+        DecisionLogProperties properties = new DecisionLogProperties();
+        properties.setEnabled(true);
+        properties.setFile(directory.resolve("decisions.log").toString());
+        properties.setAcceptSampleRate(acceptSampleRate);
+        DecisionLog decisionLog = new DecisionLog(properties, meterRegistry);
+        decisionLog.start();
+        return decisionLog;
+    }
+
+    private static Order order(String orderId) {
+        return new Order(orderId, "user1", "BTC-USD", OrderSide.BUY, new BigDecimal("0.1"),
+                new BigDecimal("50000"), OrderType.LIMIT);
+    }
+
+    private static RiskAssessment assessment(RiskVerdict verdict, String reason) {
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setVerdict(verdict);
+        assessment.setRiskScore(BigDecimal.TEN);
+        assessment.setNotionalAmount(new BigDecimal("5000.0000"));
+        assessment.setProcessingTimeMs(1L);
+        assessment.setReasons(List.of(reason));
+        return assessment;
+    }
+}
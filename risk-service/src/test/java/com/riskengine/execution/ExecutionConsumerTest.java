@@ -0,0 +1,132 @@
+package com.riskengine.execution;
+
+import com.riskengine.config.ExecutionProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.service.ExposureTracker;
+import com.riskengine.service.PositionRelease;
+import com.riskengine.service.SymbolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionConsumerTest {
+
+    private static final String STREAM = "executions:stream";
+    private static final String GROUP = "risk-service";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private ExposureTracker exposureTracker;
+
+    @Captor
+    private ArgumentCaptor<StreamOffset<String>> offsets;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutionConsumer executionConsumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(redisTemplate.<Object, Object>opsForStream()).thenReturn(streamOperations);
+        executionConsumer = new ExecutionConsumer(new ExecutionProperties(), redisTemplate, exposureTracker,
+                new SymbolRegistry(new SymbolProperties()), meterRegistry);
+    }
+
+    @Test
+    void testConsume_CoalescesTheBatchPerUserAndSymbolAndAcknowledgesIt() {
+        List<MapRecord<String, Object, Object>> records = List.of(
+                event("1-0", "CANCEL", "user-1", "BTC-USD", "BUY", "0.1", "45000", null),
+                event("1-1", "FILL", "user-1", "BTC-USD", "BUY", "0.1", "45000", "44900"),
+                // Filled at the reserved price: nothing to release
+                event("1-2", "FILL", "user-1", "ETH-USD", "SELL", "0.2", "3000", "3000"),
+                event("1-3", "CANCEL", "user-2", "ETH-USD", "SELL", "1", "3000", null),
+                event("1-4", "TRADE", "user-2", "ETH-USD", "SELL", "1", "3000", null));
+        givenBatch(records);
+
+        assertEquals(5, executionConsumer.consume());
+
+        verify(exposureTracker).releasePositions(List.of(
+                new PositionRelease("user-1", "BTC-USD", 45_100_000L, 0),
+                new PositionRelease("user-2", "ETH-USD", 0, 30_000_000L)));
+        verify(streamOperations).acknowledge(STREAM, GROUP, RecordId.of("1-0"), RecordId.of("1-1"),
+                RecordId.of("1-2"), RecordId.of("1-3"), RecordId.of("1-4"));
+        assertEquals(2.0, meterRegistry.get("executions.consumed").tag("type", "fill").counter().count());
+        assertEquals(2.0, meterRegistry.get("executions.consumed").tag("type", "cancel").counter().count());
+        assertEquals(1.0, meterRegistry.get("executions.invalid").counter().count());
+        assertEquals(5.0, meterRegistry.get("executions.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testConsume_LeavesTheBatchPendingWhenTheWriteFails() {
+        givenBatch(List.of(event("1-0", "CANCEL", "user-1", "BTC-USD", "BUY", "0.1", "45000", null)));
+        doThrow(new RedisSystemException("connection reset", null))
+                .when(exposureTracker).releasePositions(anyList());
+
+        assertThrows(RedisSystemException.class, () -> executionConsumer.consume());
+
+        verify(streamOperations, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+        assertEquals(0.0, meterRegistry.get("executions.consumed").tag("type", "cancel").counter().count());
+    }
+
+    @Test
+    void testConsume_ReadsPendingEventsBeforeNewOnes() {
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), offsets.capture()))
+                .thenReturn(List.of());
+
+        executionConsumer.consume();
+        executionConsumer.consume();
+
+        assertEquals(ReadOffset.from("0").getOffset(), offsets.getAllValues().get(0).getOffset().getOffset());
+        assertEquals(ReadOffset.lastConsumed().getOffset(), offsets.getAllValues().get(1).getOffset().getOffset());
+        verifyNoInteractions(exposureTracker);
+    }
+
+    private void givenBatch(List<MapRecord<String, Object, Object>> records) {
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(records);
+    }
+
+    private static MapRecord<String, Object, Object> event(String id, String type, String userId, String symbol,
+                                                           String side, String quantity, String price,
+                                                           String fillPrice) {
+        Map<Object, Object> fields = new LinkedHashMap<>();
+        fields.put("type", type);
+        fields.put("userId", userId);
+        fields.put("symbol", symbol);
+        fields.put("side", side);
+        fields.put("quantity", quantity);
+        fields.put("price", price);
+        if (fillPrice != null) {
+            fields.put("fillPrice", fillPrice);
+        }
+        return StreamRecords.<String, Object, Object>mapBacked(fields).withStreamKey(STREAM).withId(RecordId.of(id));
+    }
+}
@@ -0,0 +1,158 @@
+package com.riskengine.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.config.IdempotencyProperties;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class IdempotencyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testClaim_RetryWaitsForAndGetsTheFirstAssessment() {
+        IdempotencyCache cache = create(100);
+
+        IdempotencyCache.Claim first = cache.claim(order("order1"));
+        IdempotencyCache.Claim retry = cache.claim(order("order1"));
+        assertFalse(first.isDuplicate());
+        assertTrue(retry.isDuplicate());
+        assertFalse(retry.previous().isDone());
+
+        RiskAssessment assessment = assessment("order1");
+        cache.finish(first, assessment, null);
+
+        assertSame(assessment, retry.previous().join());
+        assertSame(assessment, cache.claim(order("order1")).previous().join());
+        assertEquals(2.0, meterRegistry.get("orders.idempotency.duplicates").tag("source", "local").counter().count());
+    }
+
+    @Test
+    void testFinish_FailedAssessmentIsForgottenSoTheRetryRunsAgain() {
+        IdempotencyCache cache = create(100);
+
+        IdempotencyCache.Claim first = cache.claim(order("order1"));
+        IdempotencyCache.Claim waiting = cache.claim(order("order1"));
+        cache.finish(first, null, new IllegalStateException("Redis connection failed"));
+
+        assertThrows(CompletionException.class, () -> waiting.previous().join());
+        assertFalse(cache.claim(order("order1")).isDuplicate());
+    }
+
+    @Test
+    void testClaim_EvictsTheOldestResultPastCapacity() {
+        IdempotencyCache cache = create(2);
+        for (String orderId : List.of("order1", "order2", "order3")) {
+            cache.finish(cache.claim(order(orderId)), assessment(orderId), null);
+        }
+
+        // order1 went first, so its retry is assessed as new
+        assertFalse(cache.claim(order("order1")).isDuplicate());
+        assertTrue(cache.claim(order("order3")).isDuplicate());
+    }
+
+    @Test
+    void testClaim_KeepsTheSameOrderIdFromDifferentUsersApart() {
+        IdempotencyCache cache = create(100);
+        cache.finish(cache.claim(order("order1")), assessment("order1"), null);
+
+        Order other = order("order1");
+        other.setUserId("user2");
+
+        assertFalse(cache.claim(other).isDuplicate());
+    }
+
+    @Test
+    void testClaim_RejectsADifferentOrderReusingTheId() {
+        IdempotencyCache cache = create(100);
+        RiskAssessment assessment = assessment("order1");
+        cache.finish(cache.claim(order("order1")), assessment, null);
+
+        Order changed = order("order1");
+        changed.setQuantity(new BigDecimal("20"));
+        IdempotencyCache.Claim conflict = cache.claim(changed);
+
+        assertTrue(conflict.isDuplicate());
+        assertEquals(RiskVerdict.REJECT, conflict.previous().join().getVerdict());
+        assertEquals(1.0, meterRegistry.get("orders.idempotency.conflicts").counter().count());
+        // The first attempt keeps the id, and a retry written differently is still the same order
+        Order retry = order("order1");
+        retry.setQuantity(new BigDecimal("2.0"));
+        assertSame(assessment, cache.claim(retry).previous().join());
+    }
+
+    @Test
+    void testClaim_TracksNothingWhenDisabled() {
+        IdempotencyCache cache = new IdempotencyCache(new IdempotencyProperties(), meterRegistry);
+
+        IdempotencyCache.Claim first = cache.claim(order("order1"));
+        cache.finish(first, assessment("order1"), null);
+
+        assertFalse(cache.claim(order("order1")).isDuplicate());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testClaimAsync_ClaimsInRedisWithoutHoldingTheCaller() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        CompletableFuture<Boolean> reply = new CompletableFuture<>();
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(Mono.fromFuture(reply));
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setEnabled(true);
+        properties.setMode(IdempotencyProperties.Mode.DISTRIBUTED);
+        IdempotencyCache cache = new IdempotencyCache(properties, redisTemplate,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+
+        CompletableFuture<IdempotencyCache.Claim> claimed = cache.claimAsync(order("order1"));
+        assertFalse(claimed.isDone());
+
+        reply.complete(true);
+        IdempotencyCache.Claim claim = claimed.join();
+        assertFalse(claim.isDuplicate());
+        cache.finish(claim, assessment("order1"), null);
+
+        verify(valueOperations).set(eq("orders:seen:5:user1:order1"), startsWith("BTC-USD|BUY|2|45000|LIMIT\n{"),
+                eq(Duration.ofMinutes(5)));
+    }
+
+    private IdempotencyCache create(int maxResults) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setEnabled(true);
+        properties.setMaxResults(maxResults);
+        return new IdempotencyCache(properties, meterRegistry);
+    }
+
+    private static Order order(String orderId) {
+        return new Order(orderId, "user1", "BTC-USD", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("45000"),
+                OrderType.LIMIT);
+    }
+
+    private static RiskAssessment assessment(String orderId) {
+        return new RiskAssessment(orderId, "user1", RiskVerdict.ACCEPT, null, List.of("All risk checks passed"));
+    }
+}
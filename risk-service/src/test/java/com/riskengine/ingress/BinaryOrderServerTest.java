@@ -0,0 +1,146 @@
+package com.riskengine.ingress;
+
+import com.riskengine.client.RiskClient;
+import com.riskengine.config.IngressProperties;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.model.RiskAssessment;
+import com.riskengine.model.RiskVerdict;
+import com.riskengine.service.RiskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryOrderServerTest {
+
+    @Mock
+    private RiskService riskService;
+
+    @TempDir
+    Path directory;
+
+    private BinaryOrderServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testPipelinedOrders_AnsweredOutOfOrderAreMatchedByCorrelationId() throws Exception {
+        CompletableFuture<RiskAssessment> first = new CompletableFuture<>();
+        CompletableFuture<RiskAssessment> second = new CompletableFuture<>();
+        when(riskService.assessOrderAsync(argThat(order -> order != null && order.getOrderId().equals("order1"))))
+                .thenReturn(first);
+        when(riskService.assessOrderAsync(argThat(order -> order != null && order.getOrderId().equals("order2"))))
+                .thenReturn(second);
+        startServer();
+
+        try (RiskClient client = RiskClient.connect(new InetSocketAddress("localhost", server.tcpPort()))) {
+            CompletableFuture<RiskAssessment> one = client.assess(createOrder("order1", new BigDecimal("0.5")));
+            CompletableFuture<RiskAssessment> two = client.assess(createOrder("order2", new BigDecimal("0.5")));
+
+            verify(riskService, timeout(5_000).times(2)).assessOrderAsync(any());
+            second.complete(assessment(RiskVerdict.REJECT, 50, "Notional exceeds cap"));
+            RiskAssessment rejected = two.get(5, TimeUnit.SECONDS);
+            assertFalse(one.isDone());
+            first.complete(assessment(RiskVerdict.ACCEPT, 0));
+            RiskAssessment accepted = one.get(5, TimeUnit.SECONDS);
+
+            assertEquals("order1", accepted.getOrderId());
+            assertEquals(RiskVerdict.ACCEPT, accepted.getVerdict());
+            assertEquals(0, new BigDecimal("22500.25").compareTo(accepted.getNotionalAmount()));
+            assertEquals("order2", rejected.getOrderId());
+            assertEquals(RiskVerdict.REJECT, rejected.getVerdict());
+            assertEquals(50, rejected.getRiskScore().intValue());
+            assertEquals(List.of("Notional exceeds cap"), rejected.getReasons());
+            assertEquals(0, client.inFlight());
+        }
+    }
+
+    @Test
+    void testUnixSocket_ReportsInvalidAndShedOrdersThroughTheFuture() throws Exception {
+        when(riskService.assessOrderAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Partition 3 is full")));
+        startServer();
+
+        try (RiskClient client = RiskClient.connect(UnixDomainSocketAddress.of(directory.resolve("risk.sock")))) {
+            ExecutionException invalid = assertThrows(ExecutionException.class,
+                    () -> client.assess(createOrder("order1", new BigDecimal("-1"))).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, invalid.getCause());
+            assertTrue(invalid.getCause().getMessage().contains("Quantity must be positive"));
+
+            ExecutionException shed = assertThrows(ExecutionException.class,
+                    () -> client.assess(createOrder("order2", new BigDecimal("1"))).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, shed.getCause());
+        }
+        verify(riskService, times(1)).assessOrderAsync(any());
+    }
+
+    @Test
+    void testOrders_AreAssessedOffTheSelectorThread() throws Exception {
+        AtomicReference<String> assessedOn = new AtomicReference<>();
+        when(riskService.assessOrderAsync(any())).thenAnswer(invocation -> {
+            assessedOn.set(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(assessment(RiskVerdict.ACCEPT, 0));
+        });
+        startServer();
+
+        try (RiskClient client = RiskClient.connect(new InetSocketAddress("localhost", server.tcpPort()))) {
+            client.assess(createOrder("order1", new BigDecimal("0.5"))).get(5, TimeUnit.SECONDS);
+        }
+
+        assertTrue(assessedOn.get().startsWith("binary-ingress-order-"), assessedOn.get());
+    }
+
+    private void startServer() {
+        IngressProperties properties = new IngressProperties();
+        properties.setEnabled(true);
+        properties.setHost("localhost");
+        properties.setTcpPort(0);
+        properties.setUnixSocket(directory.resolve("risk.sock").toString());
+        server = new BinaryOrderServer(riskService, Validation.buildDefaultValidatorFactory().getValidator(),
+                properties, new StageTimings(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        server.start();
+    }
+
+    private Order createOrder(String orderId, BigDecimal quantity) {
+        Order order = new Order(orderId, "user1", "BTC-USD", OrderSide.BUY, quantity,
+                new BigDecimal("45000.50"), OrderType.LIMIT);
+        order.setTimestamp(LocalDateTime.now());
+        return order;
+    }
+
+    private RiskAssessment assessment(RiskVerdict verdict, int riskScore, String... reasons) {
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setVerdict(verdict);
+        assessment.setRiskScore(BigDecimal.valueOf(riskScore));
+        assessment.setNotionalAmount(new BigDecimal("22500.25"));
+        assessment.setReasons(List.of(reasons));
+        return assessment;
+    }
+}
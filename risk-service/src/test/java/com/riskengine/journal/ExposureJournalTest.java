@@ -0,0 +1,173 @@
+package com.riskengine.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExposureJournalTest {
+
+    private static final int SEGMENT_SIZE = 256 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOpen_ReplaysEverythingAfterTheCheckpoint() {
+        ExposureJournal journal = journal(FsyncPolicy.EVERY_WRITE);
+        journal.open(entry -> fail("fresh journal replayed " + entry));
+        assertEquals(1L, journal.appendPosition("user1", "BTC-USD", 100L, 100L, 0L));
+        assertEquals(2L, journal.appendPosition("user1", "ETH-USD", -50L, 0L, 50L));
+        assertEquals(3L, journal.appendReset("user2"));
+        journal.checkpoint(1L);
+        journal.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        ExposureJournal reopened = journal(FsyncPolicy.EVERY_WRITE);
+        assertEquals(2L, reopened.open(replayed::add));
+
+        assertEquals(List.of(
+                new JournalEntry(2L, JournalEntry.Type.POSITION, "user1", "ETH-USD", -50L, 0L, 50L),
+                new JournalEntry(3L, JournalEntry.Type.RESET, "user2", "", 0L, 0L, 0L)), replayed);
+        assertEquals(4L, reopened.appendPosition("user1", "BTC-USD", 1L, 101L, 0L));
+        reopened.close();
+    }
+
+    @Test
+    void testOpen_StopsAtATornRecordAndOverwritesIt() throws IOException {
+        ExposureJournal journal = journal(FsyncPolicy.OS);
+        journal.open(entry -> { });
+        journal.appendPosition("user1", "BTC-USD", 100L, 100L, 0L);
+        journal.appendPosition("user1", "BTC-USD", 100L, 200L, 0L);
+        journal.close();
+
+        // Flip a payload byte of the second record so its checksum no longer matches
+        Path segment = segments().get(0);
+        int secondRecordPayload = 16 + recordLength("user1", "BTC-USD") + 8;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, secondRecordPayload + 12);
+            one.put(0, (byte) (one.get(0) ^ 0x7F)).rewind();
+            channel.write(one, secondRecordPayload + 12);
+        }
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        ExposureJournal reopened = journal(FsyncPolicy.OS);
+        reopened.open(replayed::add);
+        assertEquals(1, replayed.size());
+        assertEquals(2L, reopened.appendPosition("user1", "BTC-USD", 50L, 150L, 0L));
+        reopened.close();
+
+        replayed.clear();
+        journal(FsyncPolicy.OS).open(replayed::add);
+        assertEquals(List.of(1L, 2L), replayed.stream().map(JournalEntry::sequence).toList());
+        assertEquals(150L, replayed.get(1).longUnits());
+    }
+
+    @Test
+    void testAppend_RollsSegmentsAndCheckpointDeletesCoveredOnes() throws IOException {
+        ExposureJournal journal = journal(FsyncPolicy.GROUP);
+        journal.open(entry -> { });
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            last = journal.appendPosition("user" + (i % 100), "BTC-USD", 1L, i, 0L);
+        }
+        journal.awaitDurable(last);
+        int rolled = segments().size();
+        assertTrue(rolled > 1, "expected more than one segment, got " + rolled);
+
+        journal.checkpoint(last);
+        assertEquals(1, segments().size());
+        journal.close();
+
+        ExposureJournal reopened = journal(FsyncPolicy.GROUP);
+        assertEquals(0L, reopened.open(entry -> fail("checkpointed entry replayed " + entry)));
+        assertEquals(last + 1, reopened.appendPosition("user1", "BTC-USD", 1L, 1L, 0L));
+        reopened.close();
+    }
+
+    @Test
+    void testOpen_ReplaysFromARetainedSnapshotBehindTheCheckpoint() {
+        ExposureJournal journal = journal(FsyncPolicy.GROUP);
+        journal.open(entry -> { });
+        long snapshotAt = 0;
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            last = journal.appendPosition("user" + (i % 100), "BTC-USD", 1L, i, 0L);
+            if (i == 10) {
+                snapshotAt = last;
+                journal.retainAfter(snapshotAt);
+            }
+        }
+        journal.awaitDurable(last);
+        journal.checkpoint(last);
+        journal.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        ExposureJournal reopened = journal(FsyncPolicy.GROUP);
+        reopened.open(snapshotAt, replayed::add);
+
+        assertTrue(reopened.oldestSequence() <= snapshotAt + 1);
+        assertEquals(last - snapshotAt, replayed.size());
+        assertEquals(snapshotAt + 1, replayed.get(0).sequence());
+        reopened.close();
+    }
+
+    @Test
+    void testAwaitDurable_GroupCommitReturnsOnceForced() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExposureJournal journal = new ExposureJournal(directory, SEGMENT_SIZE, FsyncPolicy.GROUP,
+                Duration.ofMillis(1), meterRegistry);
+        journal.open(entry -> { });
+
+        long sequence = journal.appendPosition("user1", "BTC-USD", 100L, 100L, 0L);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> journal.awaitDurable(sequence));
+
+        assertTrue(meterRegistry.timer("exposure.journal.force").count() >= 1);
+        journal.close();
+    }
+
+    @Test
+    void testWhenDurable_CompletesWithoutBlockingTheAppender() {
+        ExposureJournal journal = journal(FsyncPolicy.GROUP);
+        journal.open(entry -> { });
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(journal.whenDurable(journal.appendPosition("user1", "BTC-USD", 1L, i, 0L)));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join());
+        assertTrue(journal(FsyncPolicy.OS).whenDurable(Long.MAX_VALUE).isDone());
+        journal.close();
+    }
+
+    private ExposureJournal journal(FsyncPolicy fsyncPolicy) {
+        return new ExposureJournal(directory, SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(1), new SimpleMeterRegistry());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static int recordLength(String userId, String symbol) {
+        // Record header, then sequence, type, two length-prefixed strings and three longs
+        return 8 + 8 + 1 + 2 + userId.length() + 2 + symbol.length() + 24;
+    }
+}
@@ -0,0 +1,52 @@
+package com.riskengine.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyEndpointTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StageTimings stageTimings = new StageTimings(meterRegistry);
+    private final LatencyEndpoint endpoint = new LatencyEndpoint(stageTimings);
+
+    @Test
+    void testRecord_GoesToTimerAndIntervalHistogram() throws Exception {
+        StageLatency decode = stageTimings.stage(StageTimings.DECODE);
+        for (int i = 1; i <= 100; i++) {
+            decode.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencyEndpoint.StageReport report = endpoint.stage(StageTimings.DECODE);
+
+        assertEquals(100, report.count());
+        assertEquals(50.0, report.p50Micros(), 0.1);
+        assertEquals(100.0, report.maxMicros(), 0.1);
+        assertEquals(100, meterRegistry.get("risk.stage.latency").tag("stage", "decode").timer().count());
+        Histogram histogram = Histogram.decodeFromCompressedByteBuffer(
+                ByteBuffer.wrap(Base64.getDecoder().decode(report.histogram())), 0);
+        assertEquals(100, histogram.getTotalCount());
+    }
+
+    @Test
+    void testLatency_StartsANewIntervalOnEachRead() {
+        stageTimings.stage(StageTimings.PUBLISH).record(1_000);
+        stageTimings.rule("notional-cap").record(2_000);
+
+        Map<String, LatencyEndpoint.StageReport> first = endpoint.latency();
+        Map<String, LatencyEndpoint.StageReport> second = endpoint.latency();
+
+        assertEquals(1, first.get(StageTimings.PUBLISH).count());
+        assertEquals(1, first.get("rule.notional-cap").count());
+        assertEquals(0, second.get(StageTimings.PUBLISH).count());
+        assertEquals(1, meterRegistry.get("risk.rule.latency").tag("rule", "notional-cap").timer().count());
+        assertNull(endpoint.stage("unknown"));
+    }
+}
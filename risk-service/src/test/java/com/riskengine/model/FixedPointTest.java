@@ -0,0 +1,54 @@
+package com.riskengine.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void testToUnits_ExactValues() {
+        assertEquals(450_000_000L, FixedPoint.toUnits(new BigDecimal("45000")));
+        assertEquals(1_000L, FixedPoint.toUnits(new BigDecimal("0.1")));
+        assertEquals(10_000_000L, FixedPoint.toUnits(new BigDecimal("0.1"), 8));
+    }
+
+    @Test
+    void testToUnits_ReportsOverflowWhenNotRepresentable() {
+        assertEquals(FixedPoint.OVERFLOW, FixedPoint.toUnits(new BigDecimal("0.00001")));
+        assertEquals(FixedPoint.OVERFLOW, FixedPoint.toUnits(new BigDecimal("1000000000000000")));
+    }
+
+    @Test
+    void testMultiply_RescalesToNotionalScale() {
+        long quantity = FixedPoint.toUnits(new BigDecimal("0.2"), 8);
+        long price = FixedPoint.toUnits(new BigDecimal("50000"), 2);
+
+        assertEquals(FixedPoint.toUnits(new BigDecimal("10000")), FixedPoint.multiply(quantity, 8, price, 2));
+    }
+
+    @Test
+    void testMultiply_DetectsOverflowAndInexactProducts() {
+        long quantity = FixedPoint.toUnits(new BigDecimal("1000"), 8);
+        long price = FixedPoint.toUnits(new BigDecimal("50000"), 8);
+        assertEquals(FixedPoint.OVERFLOW, FixedPoint.multiply(quantity, 8, price, 8));
+
+        long tinyQuantity = FixedPoint.toUnits(new BigDecimal("0.00000001"), 8);
+        long tinyPrice = FixedPoint.toUnits(new BigDecimal("0.01"), 2);
+        assertEquals(FixedPoint.OVERFLOW, FixedPoint.multiply(tinyQuantity, 8, tinyPrice, 2));
+    }
+
+    @Test
+    void testToUnitsSaturated_RoundsUpAndSaturates() {
+        assertEquals(1L, FixedPoint.toUnitsSaturated(new BigDecimal("0.0000000001")));
+        assertEquals(Long.MAX_VALUE, FixedPoint.toUnitsSaturated(new BigDecimal("1E+30")));
+    }
+
+    @Test
+    void testAddSaturated() {
+        assertEquals(5L, FixedPoint.addSaturated(2L, 3L));
+        assertEquals(Long.MAX_VALUE, FixedPoint.addSaturated(Long.MAX_VALUE, 1L));
+    }
+}
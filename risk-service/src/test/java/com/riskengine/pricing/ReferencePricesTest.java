@@ -0,0 +1,81 @@
+package com.riskengine.pricing;
+
+import com.riskengine.config.ReferencePriceProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.config.VolatilityProperties;
+import com.riskengine.service.SymbolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferencePricesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SymbolRegistry symbolRegistry = new SymbolRegistry(new SymbolProperties());
+    private final VolatilityEstimator volatilityEstimator = new VolatilityEstimator(new VolatilityProperties());
+
+    @Test
+    void testUpdate_StoresPriceInUnitsOfTheSymbolsPriceScale() {
+        ReferencePrices prices = create(new ReferencePriceProperties());
+
+        prices.update("BTC-USD", new BigDecimal("45012.345678"));
+
+        int id = symbolRegistry.intern("BTC-USD").id();
+        assertEquals(450_123_457L, prices.priceUnits(id));
+        assertEquals(0, prices.priceUnits(symbolRegistry.intern("ETH-USD").id()));
+        assertEquals(0, prices.priceUnits(-1));
+    }
+
+    @Test
+    void testUpdate_GrowsPastTheInitialCapacity() {
+        ReferencePrices prices = create(new ReferencePriceProperties());
+        for (int i = 0; i < 200; i++) {
+            prices.update("SYM-" + i, BigDecimal.valueOf(i + 1));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals((i + 1) * 10_000L, prices.priceUnits(symbolRegistry.intern("SYM-" + i).id()));
+        }
+    }
+
+    @Test
+    void testUpdate_IgnoresPricesThatAreNotPositive() {
+        ReferencePrices prices = create(new ReferencePriceProperties());
+        prices.update("BTC-USD", new BigDecimal("45000"));
+
+        prices.update("BTC-USD", BigDecimal.ZERO);
+        prices.update("BTC-USD", new BigDecimal("-1"));
+
+        assertEquals(450_000_000L, prices.priceUnits(symbolRegistry.intern("BTC-USD").id()));
+        assertEquals(2.0, meterRegistry.get("prices.updates.invalid").counter().count());
+    }
+
+    @Test
+    void testSweeper_ClearsPricesThatWentStale() throws Exception {
+        ReferencePriceProperties properties = new ReferencePriceProperties();
+        properties.setStaleAfter(Duration.ofMillis(10));
+        ReferencePrices prices = create(properties);
+        prices.start();
+        try {
+            prices.update("BTC-USD", new BigDecimal("45000"));
+            int id = symbolRegistry.intern("BTC-USD").id();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (prices.priceUnits(id) != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, prices.priceUnits(id));
+            assertEquals(1.0, meterRegistry.get("prices.stale").counter().count());
+        } finally {
+            prices.stop();
+        }
+    }
+
+    private ReferencePrices create(ReferencePriceProperties properties) {
+        return new ReferencePrices(properties, symbolRegistry, volatilityEstimator, meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package com.riskengine.pricing;
+
+import com.riskengine.config.VolatilityProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolatilityEstimatorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double SECONDS_PER_YEAR = 365.0 * 24 * 60 * 60;
+
+    @Test
+    void testOnTick_ReportsNothingUntilMinTicks() {
+        VolatilityEstimator estimator = new VolatilityEstimator(properties(10, 5));
+
+        alternate(estimator, 0, 10_000, 10_100, 4, 0);
+
+        assertEquals(0.0, estimator.volatility(0));
+        estimator.onTick(0, 10_100, 5 * SECOND);
+        assertTrue(estimator.volatility(0) > 0);
+        assertEquals(0.0, estimator.volatility(1));
+        assertEquals(0.0, estimator.volatility(-1));
+    }
+
+    @Test
+    void testOnTick_SteadyReturnsGiveTheirAnnualizedVolatility() {
+        VolatilityEstimator estimator = new VolatilityEstimator(properties(10, 5));
+
+        alternate(estimator, 0, 10_000, 10_100, 50, 0);
+
+        double logReturn = Math.log(10_100.0 / 10_000);
+        assertEquals(logReturn * Math.sqrt(SECONDS_PER_YEAR), estimator.volatility(0), 1e-6);
+    }
+
+    @Test
+    void testOnTick_SpikeRaisesTheEstimateAndCalmWindowLowersIt() {
+        VolatilityEstimator estimator = new VolatilityEstimator(properties(10, 5));
+        alternate(estimator, 0, 10_000, 10_010, 20, 0);
+        double calm = estimator.volatility(0);
+
+        estimator.onTick(0, 11_000, 21 * SECOND);
+        double spike = estimator.volatility(0);
+        assertTrue(spike > 5 * calm, "calm " + calm + ", spike " + spike);
+
+        alternate(estimator, 0, 11_000, 11_011, 200, 22 * SECOND);
+        assertEquals(calm, estimator.volatility(0), calm * 0.01);
+    }
+
+    @Test
+    void testReset_ForgetsTheHistory() {
+        VolatilityEstimator estimator = new VolatilityEstimator(properties(10, 5));
+        alternate(estimator, 0, 10_000, 10_100, 10, 0);
+
+        estimator.reset(0);
+
+        assertEquals(0.0, estimator.volatility(0));
+        estimator.onTick(0, 10_000, 20 * SECOND);
+        assertEquals(0.0, estimator.volatility(0));
+    }
+
+    @Test
+    void testOnTick_GrowsPastTheInitialCapacity() {
+        VolatilityEstimator estimator = new VolatilityEstimator(properties(10, 5));
+
+        alternate(estimator, 500, 10_000, 10_100, 10, 0);
+
+        assertTrue(estimator.volatility(500) > 0);
+    }
+
+    private static VolatilityProperties properties(int window, int minTicks) {
+        VolatilityProperties properties = new VolatilityProperties();
+        properties.setWindow(window);
+        properties.setMinTicks(minTicks);
+        return properties;
+    }
+
+    /** {@code returns} returns one second apart, the price alternating between {@code low} and {@code high}. */
+    private static void alternate(VolatilityEstimator estimator, int symbolId, long low, long high, int returns,
+                                  long startNanos) {
+        for (int tick = 0; tick <= returns; tick++) {
+            estimator.onTick(symbolId, tick % 2 == 0 ? low : high, startNanos + tick * SECOND);
+        }
+    }
+}
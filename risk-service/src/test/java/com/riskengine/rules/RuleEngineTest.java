@@ -0,0 +1,99 @@
+package com.riskengine.rules;
+
+import com.riskengine.config.RuleProperties;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.FixedPoint;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import com.riskengine.model.RiskVerdict;
+import com.riskengine.service.ExposureTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RuleEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExposureLimitRule exposureRule = new ExposureLimitRule(mock(ExposureTracker.class));
+
+    @Test
+    void testCompile_OrdersByCostPerRejectionWithWarnOnlyRulesAndExposureLast() {
+        RuleEngine engine = new RuleEngine(List.of(
+                exposureRule,
+                new StubRule("warn-cheap", 1, false, context -> { }),
+                new StubRule("reject-expensive", 20, true, context -> { }),
+                new StubRule("reject-cheap", 2, true, context -> { })),
+                new RuleProperties(), new StageTimings(meterRegistry), meterRegistry);
+
+        assertEquals(List.of("reject-cheap", "reject-expensive", "warn-cheap", ExposureLimitRule.NAME),
+                engine.chain().ruleNames());
+    }
+
+    @Test
+    void testEvaluate_StopsAtFirstReject() {
+        AtomicInteger laterEvaluations = new AtomicInteger();
+        RuleEngine engine = new RuleEngine(List.of(
+                exposureRule,
+                new StubRule("always-reject", 1, true, context -> context.reject("rejected", 50)),
+                new StubRule("later", 5, true, context -> laterEvaluations.incrementAndGet())),
+                new RuleProperties(), new StageTimings(meterRegistry), meterRegistry);
+
+        RuleContext context = newContext(100);
+        engine.chain().evaluate(context);
+
+        assertEquals(RiskVerdict.REJECT, context.verdict());
+        assertEquals(0, laterEvaluations.get());
+        assertFalse(context.exposureKnown());
+    }
+
+    @Test
+    void testReload_AppliesNewParametersAndKeepsChainOnInvalidConfig() {
+        RuleEngine engine = new RuleEngine(List.of(exposureRule, new NotionalCapRule()),
+                new RuleProperties(), new StageTimings(meterRegistry), meterRegistry);
+        RuleContext before = newContext(500);
+        engine.chain().evaluateChecks(before);
+        assertEquals(RiskVerdict.ACCEPT, before.verdict());
+
+        engine.reload(notionalCap("100"));
+        RuleContext after = newContext(500);
+        engine.chain().evaluateChecks(after);
+        assertEquals(RiskVerdict.REJECT, after.verdict());
+        assertEquals(List.of("Notional amount exceeds maximum allowed: 100"), after.reasons());
+
+        engine.reload(notionalCap("not-a-number"));
+        RuleContext invalid = newContext(500);
+        engine.chain().evaluateChecks(invalid);
+        assertEquals(RiskVerdict.REJECT, invalid.verdict());
+    }
+
+    private static RuleProperties notionalCap(String maxNotional) {
+        RuleProperties.Rule rule = new RuleProperties.Rule();
+        rule.setParams(Map.of("max-notional", maxNotional));
+        RuleProperties properties = new RuleProperties();
+        properties.setChain(Map.of("notional-cap", rule));
+        return properties;
+    }
+
+    private static RuleContext newContext(long notional) {
+        Order order = new Order("order-1", "user1", "ETH-USD", OrderSide.BUY,
+                BigDecimal.ONE, BigDecimal.valueOf(notional), OrderType.LIMIT);
+        long notionalUnits = FixedPoint.toUnits(BigDecimal.valueOf(notional));
+        return new RuleContext(order, System.currentTimeMillis(), notionalUnits, notionalUnits);
+    }
+
+    private record StubRule(String name, int cost, boolean canReject, RuleEvaluator evaluator) implements RiskRule {
+
+        @Override
+        public RuleEvaluator compile(RuleParameters parameters) {
+            return evaluator;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.riskengine.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskengine.codec.StreamFormat;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.Order;
+import com.riskengine.model.OrderSide;
+import com.riskengine.model.OrderType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPublisherTest {
+
+    // As Spring Boot configures it, which ignores the derived notional field when reading an order back
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private OrderPublisher publisher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void testReplaySpill_KeepsTheSpilledOrdersWhileRedisIsDown() throws Exception {
+        Path spillFile = givenSpilledOrders(3);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        publisher = createPublisher(spillFile);
+        publisher.start();
+        Thread.sleep(300);
+        publisher.stop();
+
+        assertEquals(3, Files.readAllLines(draining(spillFile)).size());
+        // Backed off after the first failure instead of retrying on every idle pass
+        verify(redisTemplate, atMost(3)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testReplaySpill_DeletesTheSpilledOrdersOncePublished() throws Exception {
+        Path spillFile = givenSpilledOrders(3);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of());
+
+        publisher = createPublisher(spillFile);
+        publisher.start();
+        Thread.sleep(300);
+        publisher.stop();
+
+        assertFalse(Files.exists(spillFile));
+        assertFalse(Files.exists(draining(spillFile)));
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    private OrderPublisher createPublisher(Path spillFile) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new OrderPublisher(redisTemplate, objectMapper, meterRegistry, new StageTimings(meterRegistry),
+                StreamFormat.FLAT, true, 16, 2, Duration.ofMillis(1), BackpressurePolicy.SPILL,
+                spillFile.toString());
+    }
+
+    private Path givenSpilledOrders(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(objectMapper.writeValueAsString(new Order("order" + i, "user1", "BTC-USD", OrderSide.BUY,
+                    new BigDecimal("0.1"), new BigDecimal("45000"), OrderType.LIMIT)));
+        }
+        Path spillFile = directory.resolve("orders-publish.spill");
+        Files.write(spillFile, lines, StandardCharsets.UTF_8);
+        return spillFile;
+    }
+
+    private static Path draining(Path spillFile) {
+        return spillFile.resolveSibling(spillFile.getFileName() + ".draining");
+    }
+}
@@ -0,0 +1,277 @@
+package com.riskengine.service;
+
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.journal.ExposureJournal;
+import com.riskengine.journal.FsyncPolicy;
+import com.riskengine.snapshot.StateSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionBookTest {
+
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Map<String, PositionBook.Flush>> flushedBatches = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private PositionBook book;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        book = new PositionBook(2, Duration.ofMinutes(10), Duration.ofSeconds(30), 100,
+                new SymbolRegistry(new SymbolProperties()),
+                userId -> {
+                    loads.incrementAndGet();
+                    return List.of(new Position("BTC-USD", 300L, 200L));
+                },
+                flushedBatches::add, null, meterRegistry);
+    }
+
+    @Test
+    void testExposure_LoadsOnColdMissAndServesFromMemoryAfter() {
+        assertEquals(100L, book.exposure("user1"));
+        assertEquals(100L, book.exposure("user1"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.counter("exposure.cache.misses").count());
+        assertEquals(1.0, meterRegistry.counter("exposure.cache.hits").count());
+    }
+
+    @Test
+    void testReserve_LongAndShortInDifferentSymbolsDoNotNet() {
+        book.reserve(request("user1", "ETH-USD", 500L, NO_LIMIT, NO_LIMIT));
+        ExposureReservation reservation = book.reserve(request("user1", "SOL-USD", -400L, NO_LIMIT, NO_LIMIT));
+
+        // 100 net long BTC + 500 long ETH + 400 short SOL
+        assertEquals(1_000L, reservation.exposureUnits());
+        assertEquals(-400L, reservation.positionUnits());
+        assertEquals(new Position("SOL-USD", 0L, 400L), book.position("user1", "SOL-USD"));
+    }
+
+    @Test
+    void testReserve_OffsettingTradesInOneSymbolNetAndKeepGrossTotals() {
+        ExposureReservation reservation = book.reserve(request("user1", "BTC-USD", -100L, NO_LIMIT, NO_LIMIT));
+
+        assertEquals(0L, reservation.exposureUnits());
+        assertEquals(0L, reservation.positionUnits());
+        Position position = book.position("user1", "BTC-USD");
+        assertEquals(300L, position.longUnits());
+        assertEquals(300L, position.shortUnits());
+    }
+
+    @Test
+    void testReserve_ChecksPositionAndExposureLimitsSeparately() {
+        ExposureReservation withinBoth = book.reserve(request("user1", "ETH-USD", 150L, 200L, 300L));
+        assertFalse(withinBoth.positionLimitBreached());
+        assertFalse(withinBoth.limitBreached());
+
+        ExposureReservation overPosition = book.reserve(request("user1", "ETH-USD", 100L, 200L, 1_000L));
+        assertTrue(overPosition.positionLimitBreached());
+        assertFalse(overPosition.limitBreached());
+
+        ExposureReservation overExposure = book.reserve(request("user1", "SOL-USD", 50L, 200L, 300L));
+        assertFalse(overExposure.positionLimitBreached());
+        assertTrue(overExposure.limitBreached());
+    }
+
+    @Test
+    void testReleaseAll_TakesReleasesOffEachLegButNotBelowZero() {
+        book.reserve(request("user1", "ETH-USD", 500L, NO_LIMIT, NO_LIMIT));
+
+        book.releaseAll(List.of(new PositionRelease("user1", "ETH-USD", 200L, 0L),
+                new PositionRelease("user1", "BTC-USD", 0L, 250L)));
+
+        // 300 long ETH + BTC at 300 long, 0 short
+        assertEquals(600L, book.exposure("user1"));
+        assertEquals(new Position("ETH-USD", 300L, 0L), book.position("user1", "ETH-USD"));
+        assertEquals(new Position("BTC-USD", 300L, 0L), book.position("user1", "BTC-USD"));
+        book.flush();
+        assertEquals(600L, flushedBatches.get(0).get("user1").exposureUnits());
+    }
+
+    @Test
+    void testProject_LeavesTheBookUnchanged() {
+        ExposureRequest request = new ExposureRequest("user1", "ETH-USD", 500L, NO_LIMIT, 550L, false);
+
+        ExposureReservation projected = book.project(request);
+
+        assertEquals(600L, projected.exposureUnits());
+        assertTrue(projected.limitBreached());
+        assertEquals(100L, book.exposure("user1"));
+        assertEquals(0, book.dirtyCount());
+    }
+
+    @Test
+    void testReserve_GrowsTheTableWithoutLosingPositions() {
+        for (int i = 0; i < 50; i++) {
+            book.reserve(request("user1", "SYM-" + i, i + 1L, NO_LIMIT, NO_LIMIT));
+        }
+
+        assertEquals(51, book.positions("user1").size());
+        assertEquals(100L + 50 * 51 / 2, book.exposure("user1"));
+        assertEquals(new Position("SYM-17", 18L, 0L), book.position("user1", "SYM-17"));
+    }
+
+    @Test
+    void testFlush_WritesOnlyChangedPositionsInOneBatch() {
+        book.reserve(request("user1", "ETH-USD", 250L, NO_LIMIT, NO_LIMIT));
+        book.reserve(request("user2", "BTC-USD", 50L, NO_LIMIT, NO_LIMIT));
+        assertEquals(2, book.dirtyCount());
+
+        book.flush();
+
+        assertEquals(1, flushedBatches.size());
+        PositionBook.Flush user1 = flushedBatches.get(0).get("user1");
+        assertEquals(List.of(new Position("ETH-USD", 250L, 0L)), user1.positions());
+        assertEquals(350L, user1.exposureUnits());
+        assertEquals(List.of(new Position("BTC-USD", 350L, 200L)), flushedBatches.get(0).get("user2").positions());
+        assertEquals(0, book.dirtyCount());
+
+        book.flush();
+        assertEquals(1, flushedBatches.size());
+    }
+
+    @Test
+    void testFlush_RemarksPositionsWhenTheWriterFails() {
+        PositionBook failing = new PositionBook(10, Duration.ofMinutes(10), Duration.ofSeconds(30), 100,
+                new SymbolRegistry(new SymbolProperties()), userId -> List.of(),
+                batch -> {
+                    throw new IllegalStateException("Redis down");
+                }, null, meterRegistry);
+        failing.reserve(request("user1", "ETH-USD", 250L, NO_LIMIT, NO_LIMIT));
+
+        assertThrows(IllegalStateException.class, failing::flush);
+
+        assertEquals(1, failing.dirtyCount());
+        assertEquals(1.0, meterRegistry.counter("exposure.cache.flush.failed").count());
+    }
+
+    @Test
+    void testEvict_KeepsDirtyUsersAndBoundsCleanOnes() {
+        book.exposure("user1");
+        book.exposure("user2");
+        book.exposure("user3");
+        book.reserve(request("user4", "ETH-USD", 1L, NO_LIMIT, NO_LIMIT));
+
+        book.evict();
+
+        assertEquals(2, book.size());
+        assertEquals(101L, book.exposure("user4"));
+    }
+
+    @Test
+    void testStart_ReplaysJournaledChangesThatMissedTheLastFlush(@TempDir Path journalDir) {
+        // Given - a book whose flushes never reach Redis, then "crashes" without closing
+        PositionBook crashed = journaledBook(journalDir, batch -> {
+            throw new IllegalStateException("Redis down");
+        });
+        crashed.start();
+        crashed.reserve(request("user1", "ETH-USD", 250L, NO_LIMIT, NO_LIMIT));
+        crashed.reserve(request("user1", "BTC-USD", -100L, NO_LIMIT, NO_LIMIT));
+
+        // When
+        PositionBook recovered = journaledBook(journalDir, flushedBatches::add);
+        recovered.start();
+
+        // Then - Redis still holds BTC 300/200, the journal supplies both changes
+        try {
+            assertEquals(1, flushedBatches.size());
+            PositionBook.Flush user1 = flushedBatches.get(0).get("user1");
+            assertEquals(250L, user1.exposureUnits());
+            assertEquals(new Position("ETH-USD", 250L, 0L), recovered.position("user1", "ETH-USD"));
+            assertEquals(new Position("BTC-USD", 300L, 300L), recovered.position("user1", "BTC-USD"));
+        } finally {
+            recovered.close();
+        }
+
+        // And a clean restart after the checkpoint replays nothing
+        PositionBook restarted = journaledBook(journalDir, flushedBatches::add);
+        restarted.start();
+        restarted.close();
+        assertEquals(1, flushedBatches.size());
+    }
+
+    @Test
+    void testStart_RestoresSnapshotAndReplaysOnlyTheJournalTail(@TempDir Path journalDir, @TempDir Path otherDir) {
+        // Given - a snapshot taken part way through, then one more change
+        PositionBook running = journaledBook(journalDir, flushedBatches::add);
+        running.start();
+        running.reserve(request("user1", "ETH-USD", 250L, NO_LIMIT, NO_LIMIT));
+        running.reserve(request("user2", "ETH-USD", 100L, NO_LIMIT, NO_LIMIT));
+        Map<String, List<Position>> part = new HashMap<>();
+        long sequence = running.snapshot(part::put);
+        running.reserve(request("user1", "ETH-USD", 50L, NO_LIMIT, NO_LIMIT));
+        running.close();
+        StateSnapshot snapshot = new StateSnapshot(sequence, Instant.now(), List.of(part), Map.of());
+        loads.set(0);
+
+        // When
+        PositionBook restored = journaledBook(journalDir, flushedBatches::add);
+
+        // Then - both users come from the snapshot, and the later change from the journal
+        try {
+            assertTrue(restored.start(snapshot));
+            assertEquals(new Position("ETH-USD", 300L, 0L), restored.position("user1", "ETH-USD"));
+            assertEquals(new Position("ETH-USD", 100L, 0L), restored.position("user2", "ETH-USD"));
+            assertEquals(0, loads.get());
+        } finally {
+            restored.close();
+        }
+
+        // A journal that cannot account for everything since the snapshot is not trusted with it
+        PositionBook fresh = journaledBook(otherDir, flushedBatches::add);
+        assertFalse(fresh.start(snapshot));
+        fresh.close();
+    }
+
+    @Test
+    void testReserve_LeavesTheBookUnchangedWhenTheJournalRefusesTheEntry(@TempDir Path journalDir) {
+        PositionBook journaled = journaledBook(journalDir, flushedBatches::add);
+        journaled.start();
+        String oversizedSymbol = "X".repeat(70_000);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> journaled.reserve(request("user1", oversizedSymbol, 500L, NO_LIMIT, NO_LIMIT)));
+        assertEquals(100L, journaled.exposure("user1"));
+        assertEquals(new Position(oversizedSymbol, 0L, 0L), journaled.position("user1", oversizedSymbol));
+
+        journaled.close();
+        assertThrows(IllegalStateException.class,
+                () -> journaled.reserve(request("user1", "BTC-USD", 500L, NO_LIMIT, NO_LIMIT)));
+        assertThrows(IllegalStateException.class,
+                () -> journaled.releaseAll(List.of(new PositionRelease("user1", "BTC-USD", 300L, 0L))));
+        assertEquals(new Position("BTC-USD", 300L, 200L), journaled.position("user1", "BTC-USD"));
+        assertEquals(100L, journaled.exposure("user1"));
+    }
+
+    private PositionBook journaledBook(Path journalDir, Consumer<Map<String, PositionBook.Flush>> writer) {
+        ExposureJournal journal = new ExposureJournal(journalDir, 1024 * 1024, FsyncPolicy.EVERY_WRITE,
+                Duration.ofMillis(1), meterRegistry);
+        return new PositionBook(10, Duration.ofMinutes(10), Duration.ofSeconds(30), 100,
+                new SymbolRegistry(new SymbolProperties()),
+                userId -> {
+                    loads.incrementAndGet();
+                    return List.of(new Position("BTC-USD", 300L, 200L));
+                },
+                writer, journal, meterRegistry);
+    }
+
+    private static ExposureRequest request(String userId, String symbol, long delta, long positionLimit, long limit) {
+        return new ExposureRequest(userId, symbol, delta, positionLimit, limit, true);
+    }
+}
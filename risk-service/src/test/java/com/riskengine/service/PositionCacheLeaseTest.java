@@ -0,0 +1,76 @@
+package com.riskengine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PositionCacheLeaseTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Test
+    void testAcquire_RefusesToStartWhileAnotherReplicaCaches() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(PositionCacheLease.KEY)).thenReturn("replica-a");
+        PositionCacheLease lease = lease("replica-b");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, lease::acquire);
+
+        assertTrue(e.getMessage().contains("replica-a"), e.getMessage());
+        assertThrows(IllegalStateException.class, lease::check);
+    }
+
+    @Test
+    void testAcquire_ServesOnceTheLeaseIsTakenAndGivesItBackOnRelease() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        PositionCacheLease lease = lease("replica-b");
+
+        lease.acquire();
+        lease.check();
+        lease.release();
+
+        assertThrows(IllegalStateException.class, lease::check);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PositionCacheLease.KEY)), eq("replica-b"));
+    }
+
+    @Test
+    void testCheck_StopsServingOnceRenewalsFailForATtl() throws InterruptedException {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(1L)
+                .thenThrow(new RedisConnectionFailureException("Redis down"));
+        PositionCacheLease lease = lease("replica-b");
+
+        lease.acquire();
+        lease.check();
+        Thread.sleep(150);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, lease::check);
+        assertTrue(e.getMessage().contains("not been renewed"), e.getMessage());
+        lease.release();
+    }
+
+    private PositionCacheLease lease(String owner) {
+        return new PositionCacheLease(redisTemplate, owner, Duration.ofMillis(50), new SimpleMeterRegistry());
+    }
+}
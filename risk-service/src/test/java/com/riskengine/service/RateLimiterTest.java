@@ -0,0 +1,113 @@
+package com.riskengine.service;
+
+import com.riskengine.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private final DistributedTokenStore tokenStore = mock(DistributedTokenStore.class);
+
+    @Test
+    void testTryConsume_AppliesUserTierLimit() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Tier premium = new RateLimitProperties.Tier();
+        premium.setOrdersPerMinute(20);
+        properties.getTiers().put("premium", premium);
+        properties.setUserTiers(Map.of("vip", "premium"));
+        RateLimiter rateLimiter = new RateLimiter(properties, tokenStore, new SimpleMeterRegistry());
+
+        assertEquals(10, consumeUntilRejected(rateLimiter, "user1"));
+        assertEquals(20, consumeUntilRejected(rateLimiter, "vip"));
+    }
+
+    @Test
+    void testStore_IsBoundedBySegmentCapacity() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSegments(1);
+        properties.setMaxBuckets(100);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(properties, tokenStore, meterRegistry);
+
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.tryConsume("user" + i);
+        }
+
+        assertEquals(100, rateLimiter.liveBuckets());
+        assertEquals(900.0, meterRegistry.counter("ratelimit.buckets.evicted", "reason", "capacity").count());
+    }
+
+    @Test
+    void testSweep_KeepsRecentlyUsedBuckets() {
+        RateLimiter rateLimiter = new RateLimiter(new RateLimitProperties(), tokenStore, new SimpleMeterRegistry());
+        rateLimiter.tryConsume("user1");
+
+        rateLimiter.sweep();
+
+        assertEquals(1, rateLimiter.liveBuckets());
+    }
+
+    @Test
+    void testDistributed_SpendsLeasedTokensLocally() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMode(RateLimitProperties.Mode.DISTRIBUTED);
+        when(tokenStore.lease(eq("user1"), eq(10), any(), eq(2), any()))
+                .thenReturn(new TokenLease(2, 0L, Duration.ofMinutes(1)))
+                .thenReturn(new TokenLease(0, 0L, Duration.ofMinutes(1)));
+        RateLimiter rateLimiter = new RateLimiter(properties, tokenStore, new SimpleMeterRegistry());
+
+        assertEquals(2, consumeUntilRejected(rateLimiter, "user1"));
+        verify(tokenStore, times(2)).lease(eq("user1"), eq(10), any(), eq(2), any());
+    }
+
+    @Test
+    void testDistributed_FallsBackToLocalBucketWhenRedisFails() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMode(RateLimitProperties.Mode.DISTRIBUTED);
+        when(tokenStore.lease(any(), anyInt(), any(), anyInt(), any()))
+                .thenThrow(new QueryTimeoutException("Redis timed out"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(properties, tokenStore, meterRegistry);
+
+        assertEquals(10, consumeUntilRejected(rateLimiter, "user1"));
+        assertEquals(11.0, meterRegistry.counter("ratelimit.lease.failures").count());
+    }
+
+    @Test
+    void testRestoreBuckets_CarriesFillLevelsAcrossARestart() {
+        RateLimiter before = new RateLimiter(new RateLimitProperties(), tokenStore, new SimpleMeterRegistry());
+        before.tryConsume("user1", 7);
+        before.tryConsume("user2", 10);
+        before.tryConsume("user3");
+        Map<String, Long> levels = new HashMap<>();
+        before.snapshotBuckets(levels::put);
+
+        RateLimiter after = new RateLimiter(new RateLimitProperties(), tokenStore, new SimpleMeterRegistry());
+        assertEquals(3, after.restoreBuckets(levels, Duration.ofSeconds(5)));
+
+        assertEquals(Map.of("user1", 3L, "user2", 0L, "user3", 9L), levels);
+        assertEquals(3, consumeUntilRejected(after, "user1"));
+        assertEquals(0, consumeUntilRejected(after, "user2"));
+        assertEquals(0, new RateLimiter(new RateLimitProperties(), tokenStore, new SimpleMeterRegistry())
+                .restoreBuckets(levels, Duration.ofMinutes(1)));
+    }
+
+    private int consumeUntilRejected(RateLimiter rateLimiter, String userId) {
+        int consumed = 0;
+        while (rateLimiter.tryConsume(userId)) {
+            consumed++;
+        }
+        return consumed;
+    }
+}
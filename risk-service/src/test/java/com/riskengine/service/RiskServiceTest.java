@@ -1,10 +1,33 @@
 package com.riskengine.service;
 
+import com.riskengine.config.DecisionLogProperties;
+import com.riskengine.config.IdempotencyProperties;
+import com.riskengine.config.RateLimitProperties;
+import com.riskengine.config.ReferencePriceProperties;
+import com.riskengine.config.RuleProperties;
+import com.riskengine.config.SessionProperties;
+import com.riskengine.config.SymbolProperties;
+import com.riskengine.config.VolatilityProperties;
+import com.riskengine.decision.DecisionLog;
+import com.riskengine.idempotency.IdempotencyCache;
+import com.riskengine.metrics.StageTimings;
+import com.riskengine.model.FixedPoint;
 import com.riskengine.model.Order;
 import com.riskengine.model.OrderSide;
 import com.riskengine.model.OrderType;
 import com.riskengine.model.RiskAssessment;
 import com.riskengine.model.RiskVerdict;
+import com.riskengine.pricing.ReferencePrices;
+import com.riskengine.pricing.VolatilityEstimator;
+import com.riskengine.rules.ExposureLimitRule;
+import com.riskengine.rules.MarketHoursRule;
+import com.riskengine.rules.NotionalCapRule;
+import com.riskengine.rules.PriceCollarRule;
+import com.riskengine.rules.RateLimitRule;
+import com.riskengine.rules.RuleEngine;
+import com.riskengine.rules.SymbolVolatilityRule;
+import com.riskengine.session.SessionCalendar;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,7 +35,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,19 +56,35 @@ class RiskServiceTest {
     
     @Mock
     private ExposureTracker exposureTracker;
+
+    @Mock
+    private DistributedTokenStore tokenStore;
+    
+    // A Wednesday, inside and after the default 09:00-16:00 UTC session
+    private static final Instant IN_SESSION = Instant.parse("2024-03-06T12:00:00Z");
+    private static final Instant AFTER_HOURS = Instant.parse("2024-03-06T20:00:00Z");
     
+    private SymbolRegistry symbolRegistry;
+    private VolatilityEstimator volatilityEstimator;
+    private ReferencePrices referencePrices;
+    private RuleEngine ruleEngine;
     private RiskService riskService;
     
     @BeforeEach
     void setUp() {
-        riskService = new RiskService(orderPublisher, exposureTracker);
+        symbolRegistry = new SymbolRegistry(new SymbolProperties());
+        volatilityEstimator = new VolatilityEstimator(new VolatilityProperties());
+        referencePrices = new ReferencePrices(new ReferencePriceProperties(), symbolRegistry, volatilityEstimator,
+                new SimpleMeterRegistry());
+        ruleEngine = createRuleEngine(IN_SESSION);
+        riskService = createRiskService(EngineMode.SHARED);
     }
     
     @Test
     void testAssessOrder_AcceptedOrder() {
         // Given
         Order order = createSampleOrder("user1", new BigDecimal("1000"), new BigDecimal("50000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        givenExposure("user1", BigDecimal.ZERO);
         
         // When
         RiskAssessment result = riskService.assessOrder(order);
@@ -48,17 +95,17 @@ class RiskServiceTest {
         assertEquals("user1", result.getUserId());
         assertEquals(RiskVerdict.ACCEPT, result.getVerdict());
         assertTrue(result.getRiskScore().compareTo(BigDecimal.valueOf(50)) < 0);
-        assertTrue(result.getProcessingTimeMs() > 0);
+        assertTrue(result.getProcessingTimeMicros() > 0);
         
         verify(orderPublisher).publishOrder(order);
-        verify(exposureTracker).updateUserExposure(eq("user1"), any(BigDecimal.class));
+        verify(exposureTracker).reserveExposure(argThat(request -> request.userId().equals("user1")));
     }
     
     @Test
     void testAssessOrder_RejectedOrder_ExceedsNotionalCap() {
         // Given - Order exceeds $10,000 notional cap
         Order order = createSampleOrder("user1", new BigDecimal("0.5"), new BigDecimal("25000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        givenExposure("user1", BigDecimal.ZERO);
         
         // When
         RiskAssessment result = riskService.assessOrder(order);
@@ -71,14 +118,14 @@ class RiskServiceTest {
                 .anyMatch(reason -> reason.contains("Notional amount exceeds maximum")));
         
         verify(orderPublisher).publishOrder(order);
-        verify(exposureTracker, never()).updateUserExposure(any(), any());
+        verify(exposureTracker, never()).reserveExposure(any());
     }
     
     @Test
     void testAssessOrder_WarnOrder_HighUserExposure() {
         // Given - User already has high exposure
         Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("5000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(new BigDecimal("48000"));
+        givenExposure("user1", new BigDecimal("48000"));
         
         // When
         RiskAssessment result = riskService.assessOrder(order);
@@ -90,15 +137,38 @@ class RiskServiceTest {
                 .anyMatch(reason -> reason.contains("User exposure would exceed maximum")));
         
         verify(orderPublisher).publishOrder(order);
-        verify(exposureTracker).updateUserExposure(eq("user1"), any(BigDecimal.class));
+        verify(exposureTracker).reserveExposure(argThat(request -> request.userId().equals("user1")));
     }
     
     @Test
-    void testAssessOrder_BTCVolatilityWarning() {
-        // Given - Large BTC order
+    void testAssessOrder_VolatilityWarningFallsBackToMaxNotionalWithoutAnEstimate() {
+        // Given - no reference price ticks, so no volatility estimate for BTC
         Order order = createSampleOrder("user1", new BigDecimal("0.2"), new BigDecimal("50000"));
         order.setSymbol("BTC-USD");
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        Order small = createSampleOrder("user2", new BigDecimal("0.05"), new BigDecimal("50000"));
+        small.setOrderId("small-order");
+        small.setSymbol("BTC-USD");
+        givenExposure("user1", BigDecimal.ZERO);
+        givenExposure("user2", BigDecimal.ZERO);
+        
+        // When
+        RiskAssessment result = riskService.assessOrder(order);
+        RiskAssessment smallResult = riskService.assessOrder(small);
+        
+        // Then - 10,000 is over the 5,000 max-notional, 2,500 is not
+        assertEquals(0, result.getVolatility().signum());
+        assertTrue(result.getReasons().stream()
+                .anyMatch(reason -> reason.contains("Large BTC-USD order - increased volatility risk")));
+        assertTrue(smallResult.getReasons().stream().noneMatch(reason -> reason.contains("Large BTC-USD order")));
+    }
+    
+    @Test
+    void testAssessOrder_VolatilityWarning() {
+        // Given - Large BTC order while BTC swings 2% a tick
+        givenVolatileMarket("BTC-USD", new BigDecimal("50000"), new BigDecimal("51000"));
+        Order order = createSampleOrder("user1", new BigDecimal("0.2"), new BigDecimal("50000"));
+        order.setSymbol("BTC-USD");
+        givenExposure("user1", BigDecimal.ZERO);
         
         // When
         RiskAssessment result = riskService.assessOrder(order);
@@ -106,24 +176,28 @@ class RiskServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.getReasons().stream()
-                .anyMatch(reason -> reason.contains("Large BTC order")));
+                .anyMatch(reason -> reason.contains("Large BTC-USD order for its volatility")));
+        assertTrue(result.getVolatility().compareTo(BigDecimal.ONE) > 0);
         
         verify(orderPublisher).publishOrder(order);
     }
     
     @Test
     void testAssessOrder_OutsideMarketHours() {
-        // Given - Order during off hours (assuming current time is outside 9-16)
+        // Given - Order after the session has closed
+        ruleEngine = createRuleEngine(AFTER_HOURS);
+        riskService = createRiskService(EngineMode.SHARED);
         Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("5000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        givenExposure("user1", BigDecimal.ZERO);
         
         // When
         RiskAssessment result = riskService.assessOrder(order);
         
         // Then
         assertNotNull(result);
-        // Note: This test depends on current time, so we just verify it doesn't crash
-        assertTrue(result.getProcessingTimeMs() > 0);
+        assertEquals(RiskVerdict.WARN, result.getVerdict());
+        assertTrue(result.getReasons().stream()
+                .anyMatch(reason -> reason.contains("outside market hours")));
         
         verify(orderPublisher).publishOrder(order);
     }
@@ -132,7 +206,7 @@ class RiskServiceTest {
     void testAssessOrder_RateLimitExceeded() {
         // Given - User has exceeded rate limit (simulate by making multiple calls)
         Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("1000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        givenExposure("user1", BigDecimal.ZERO);
         
         // When - Make multiple rapid calls to trigger rate limiting
         for (int i = 0; i < 12; i++) {
@@ -156,7 +230,7 @@ class RiskServiceTest {
     void testAssessOrder_OrderPublisherFailure() {
         // Given
         Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("5000"));
-        when(exposureTracker.getUserExposure("user1")).thenReturn(BigDecimal.ZERO);
+        givenExposure("user1", BigDecimal.ZERO);
         doThrow(new RuntimeException("Redis connection failed")).when(orderPublisher).publishOrder(order);
         
         // When
@@ -170,6 +244,328 @@ class RiskServiceTest {
         verify(orderPublisher).publishOrder(order);
     }
     
+    @Test
+    void testAssessOrders_KeepsInputOrderAndRateLimitsPerUser() {
+        // Given - 12 orders for user1 interleaved with one for user2
+        List<Order> orders = createInterleavedOrders();
+        givenBatchReservations();
+        
+        // When
+        List<RiskAssessment> results = riskService.assessOrders(orders);
+        
+        // Then
+        assertInterleavedResults(orders, results);
+        verify(exposureTracker, times(1)).reserveExposures(anyList());
+        verify(exposureTracker, never()).reserveExposure(any());
+    }
+    
+    @Test
+    void testAssessOrders_ShedCheckReachesTheCallerUnwrapped() {
+        // Given - two users, so the checks run on the batch executor, and Redis sheds the token lease
+        RateLimitProperties rateLimits = new RateLimitProperties();
+        rateLimits.setMode(RateLimitProperties.Mode.DISTRIBUTED);
+        ruleEngine = createRuleEngine(IN_SESSION, rateLimits);
+        RiskService shedding = createRiskService(EngineMode.SHARED);
+        when(tokenStore.lease(anyString(), anyInt(), any(), anyInt(), any()))
+                .thenThrow(new RejectedExecutionException("Redis pool exhausted"));
+        
+        // When / Then - the controller answers this with 503 rather than 500
+        assertThrows(RejectedExecutionException.class, () -> shedding.assessOrders(createInterleavedOrders()));
+    }
+    
+    @Test
+    void testAssessOrder_PartitionedModeRunsChecksOnPartition() {
+        // Given
+        RiskService partitioned = createRiskService(EngineMode.PARTITIONED);
+        partitioned.start();
+        Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("5000"));
+        givenExposure("user1", new BigDecimal("48000"));
+        
+        try {
+            // When
+            RiskAssessment result = partitioned.assessOrder(order);
+            
+            // Then
+            assertEquals(RiskVerdict.WARN, result.getVerdict());
+            verify(exposureTracker).reserveExposure(argThat(request -> request.userId().equals("user1")));
+            verify(orderPublisher).publishOrder(order);
+        } finally {
+            partitioned.stop();
+        }
+    }
+    
+    @Test
+    void testAssessOrders_PartitionedModeKeepsInputOrderAndRateLimitsPerUser() {
+        // Given
+        RiskService partitioned = createRiskService(EngineMode.PARTITIONED);
+        partitioned.start();
+        List<Order> orders = createInterleavedOrders();
+        givenBatchReservations();
+        
+        try {
+            // When
+            List<RiskAssessment> results = partitioned.assessOrders(orders);
+            
+            // Then - at most one reservation call per partition holding orders
+            assertInterleavedResults(orders, results);
+            verify(exposureTracker, atMost(2)).reserveExposures(anyList());
+            verify(exposureTracker, never()).reserveExposure(any());
+        } finally {
+            partitioned.stop();
+        }
+    }
+    
+    @Test
+    void testAssessOrderAsync_CompletesOnlyOnceTheReservationDoes() {
+        // Given
+        Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("100"));
+        CompletableFuture<ExposureReservation> reservation = new CompletableFuture<>();
+        when(exposureTracker.reserveExposureAsync(any())).thenReturn(reservation);
+        
+        // When
+        CompletableFuture<RiskAssessment> result = riskService.assessOrderAsync(order);
+        
+        // Then - nothing is published until the reservation answers
+        assertFalse(result.isDone());
+        verifyNoInteractions(orderPublisher);
+        
+        long notional = FixedPoint.toUnits(new BigDecimal("100"));
+        reservation.complete(new ExposureReservation(notional, false, notional, false));
+        assertNotEquals(RiskVerdict.REJECT, result.join().getVerdict());
+        assertEquals(0, new BigDecimal("100").compareTo(result.join().getUserExposure()));
+        verify(orderPublisher).publishOrder(order);
+        verify(exposureTracker, never()).reserveExposure(any());
+    }
+    
+    @Test
+    void testAssessOrderAsync_PublishesOffTheThreadThatAnsweredTheReservation() throws InterruptedException {
+        // Given
+        Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("100"));
+        CompletableFuture<ExposureReservation> reservation = new CompletableFuture<>();
+        when(exposureTracker.reserveExposureAsync(any())).thenReturn(reservation);
+        AtomicReference<Thread> publishingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            publishingThread.set(Thread.currentThread());
+            return null;
+        }).when(orderPublisher).publishOrder(order);
+        
+        // When - the reply arrives on the Redis client's event loop
+        CompletableFuture<RiskAssessment> result = riskService.assessOrderAsync(order);
+        long notional = FixedPoint.toUnits(new BigDecimal("100"));
+        ExposureReservation reply = new ExposureReservation(notional, false, notional, false);
+        Thread eventLoop = new Thread(() -> reservation.complete(reply), "lettuce-eventExecutorLoop-1-1");
+        eventLoop.start();
+        eventLoop.join();
+        result.join();
+        
+        // Then
+        assertNotSame(eventLoop, publishingThread.get());
+        assertTrue(publishingThread.get().getName().startsWith("risk-complete-"), publishingThread.get().getName());
+    }
+    
+    @Test
+    void testAssessOrderAsync_RejectedByAnEarlierRuleSkipsTheReservation() {
+        // Given - Order exceeds $10,000 notional cap
+        Order order = createSampleOrder("user1", new BigDecimal("0.5"), new BigDecimal("25000"));
+        
+        // When
+        CompletableFuture<RiskAssessment> result = riskService.assessOrderAsync(order);
+        
+        // Then
+        assertTrue(result.isDone());
+        assertEquals(RiskVerdict.REJECT, result.join().getVerdict());
+        verify(exposureTracker, never()).reserveExposureAsync(any());
+    }
+    
+    @Test
+    void testAssessOrder_RetryGetsTheFirstAssessmentWithoutReservingAgain() {
+        // Given
+        RiskService idempotent = createRiskService(EngineMode.SHARED, enabledIdempotency());
+        Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("5000"));
+        givenExposure("user1", BigDecimal.ZERO);
+        
+        // When - the gateway times out and sends the same order again
+        RiskAssessment first = idempotent.assessOrder(order);
+        RiskAssessment retry = idempotent.assessOrder(order);
+        
+        // Then
+        assertSame(first, retry);
+        verify(exposureTracker, times(1)).reserveExposure(any());
+        verify(orderPublisher, times(1)).publishOrder(order);
+    }
+    
+    @Test
+    void testAssessOrders_RepeatWithinBatchGetsTheFirstAssessment() {
+        // Given
+        RiskService idempotent = createRiskService(EngineMode.SHARED, enabledIdempotency());
+        List<Order> orders = createInterleavedOrders();
+        orders.add(orders.get(0));
+        givenBatchReservations();
+        
+        // When
+        List<RiskAssessment> results = idempotent.assessOrders(orders);
+        
+        // Then
+        assertEquals(orders.size(), results.size());
+        assertSame(results.get(0), results.get(orders.size() - 1));
+        verify(exposureTracker, times(1)).reserveExposures(anyList());
+        verify(orderPublisher, times(orders.size() - 1)).publishOrder(any());
+    }
+    
+    @Test
+    void testAssessOrder_MarketOrderNotionalUsesReferencePrice() {
+        // Given - the client's price would pass the notional cap, the market price does not
+        referencePrices.update("ETH-USD", new BigDecimal("3000"));
+        Order order = createSampleOrder("user1", new BigDecimal("4"), new BigDecimal("2000"));
+        order.setOrderType(OrderType.MARKET);
+        givenExposure("user1", BigDecimal.ZERO);
+        
+        // When
+        RiskAssessment result = riskService.assessOrder(order);
+        
+        // Then
+        assertEquals(RiskVerdict.REJECT, result.getVerdict());
+        assertEquals(0, new BigDecimal("12000").compareTo(result.getNotionalAmount()));
+    }
+    
+    @Test
+    void testAssessOrder_PriceCollar() {
+        // Given
+        referencePrices.update("ETH-USD", new BigDecimal("2000"));
+        givenExposure("user1", BigDecimal.ZERO);
+        Order outsideReject = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("2250"));
+        Order outsideWarn = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("1880"));
+        outsideWarn.setOrderId("test-order-2");
+        
+        // When
+        RiskAssessment rejected = riskService.assessOrder(outsideReject);
+        RiskAssessment warned = riskService.assessOrder(outsideWarn);
+        
+        // Then
+        assertEquals(RiskVerdict.REJECT, rejected.getVerdict());
+        assertTrue(rejected.getReasons().contains("Limit price more than 10% from reference price"));
+        assertEquals(RiskVerdict.WARN, warned.getVerdict());
+        assertTrue(warned.getReasons().contains("Limit price more than 5% from reference price"));
+    }
+    
+    @Test
+    void testAssessOrder_PriceCollarComparesPricesFinerThanTheSymbolScale() {
+        // Given - ETH-USD prices carry 4 decimals here; both prices have more
+        referencePrices.update("ETH-USD", new BigDecimal("2000"));
+        givenExposure("user1", BigDecimal.ZERO);
+        Order trailingZeros = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("2000.000000"));
+        Order outsideReject = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("2250.000001"));
+        outsideReject.setOrderId("test-order-2");
+        
+        // When
+        RiskAssessment accepted = riskService.assessOrder(trailingZeros);
+        RiskAssessment rejected = riskService.assessOrder(outsideReject);
+        
+        // Then
+        assertEquals(RiskVerdict.ACCEPT, accepted.getVerdict());
+        assertEquals(RiskVerdict.REJECT, rejected.getVerdict());
+        assertTrue(rejected.getReasons().contains("Limit price more than 10% from reference price"));
+    }
+    
+    @Test
+    void testAssessOrder_PriceCollarPassesAFinePriceWithoutAReference() {
+        // Given - no reference price for ETH-USD
+        givenExposure("user1", BigDecimal.ZERO);
+        Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("2000.123456"));
+        
+        // When
+        RiskAssessment result = riskService.assessOrder(order);
+        
+        // Then
+        assertFalse(result.getReasons().stream().anyMatch(reason -> reason.startsWith("Limit price")));
+        verify(exposureTracker).reserveExposure(any());
+    }
+    
+    private RuleEngine createRuleEngine(Instant now) {
+        return createRuleEngine(now, new RateLimitProperties());
+    }
+    
+    private RuleEngine createRuleEngine(Instant now, RateLimitProperties rateLimits) {
+        RateLimiter rateLimiter = new RateLimiter(rateLimits, tokenStore, new SimpleMeterRegistry());
+        SessionCalendar sessionCalendar =
+                new SessionCalendar(new SessionProperties(), Clock.fixed(now, ZoneOffset.UTC));
+        return new RuleEngine(List.of(new NotionalCapRule(), new RateLimitRule(rateLimiter),
+                new SymbolVolatilityRule(), new MarketHoursRule(sessionCalendar),
+                new ExposureLimitRule(exposureTracker), new PriceCollarRule(referencePrices)),
+                new RuleProperties(), new StageTimings(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+    }
+    
+    private RiskService createRiskService(EngineMode engineMode) {
+        IdempotencyCache disabled = new IdempotencyCache(new IdempotencyProperties(), new SimpleMeterRegistry());
+        return createRiskService(engineMode, disabled);
+    }
+    
+    private RiskService createRiskService(EngineMode engineMode, IdempotencyCache idempotency) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new RiskService(orderPublisher, exposureTracker, symbolRegistry, referencePrices, volatilityEstimator,
+                ruleEngine, new DecisionLog(new DecisionLogProperties(), meterRegistry), idempotency,
+                new StageTimings(meterRegistry), meterRegistry, 4, false, engineMode, 4, 64);
+    }
+    
+    private static IdempotencyCache enabledIdempotency() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setEnabled(true);
+        return new IdempotencyCache(properties, new SimpleMeterRegistry());
+    }
+    
+    private List<Order> createInterleavedOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Order order = createSampleOrder("user1", new BigDecimal("1"), new BigDecimal("100"));
+            order.setOrderId("user1-order-" + i);
+            orders.add(order);
+            if (i == 5) {
+                Order other = createSampleOrder("user2", new BigDecimal("1"), new BigDecimal("100"));
+                other.setOrderId("user2-order");
+                orders.add(other);
+            }
+        }
+        return orders;
+    }
+    
+    private void givenVolatileMarket(String symbol, BigDecimal low, BigDecimal high) {
+        for (int tick = 0; tick <= new VolatilityProperties().getMinTicks(); tick++) {
+            referencePrices.update(symbol, tick % 2 == 0 ? low : high);
+        }
+    }
+    
+    private void givenBatchReservations() {
+        when(exposureTracker.reserveExposures(anyList())).thenAnswer(invocation -> {
+            List<ExposureRequest> requests = invocation.getArgument(0);
+            return requests.stream()
+                    .map(request -> new ExposureReservation(request.deltaUnits(), false, request.deltaUnits(), false))
+                    .toList();
+        });
+    }
+    
+    private void assertInterleavedResults(List<Order> orders, List<RiskAssessment> results) {
+        assertEquals(orders.size(), results.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(orders.get(i).getOrderId(), results.get(i).getOrderId());
+        }
+        assertEquals(RiskVerdict.REJECT, results.get(11).getVerdict());
+        assertEquals(RiskVerdict.REJECT, results.get(12).getVerdict());
+        assertTrue(results.get(6).getReasons().stream()
+                .noneMatch(reason -> reason.contains("Rate limit exceeded")));
+    }
+    
+    private void givenExposure(String userId, BigDecimal currentExposure) {
+        long currentUnits = FixedPoint.toUnits(currentExposure);
+        lenient().when(exposureTracker.getUserExposureUnits(userId)).thenReturn(currentUnits);
+        lenient().when(exposureTracker.reserveExposure(argThat(request -> userId.equals(request.userId()))))
+                .thenAnswer(invocation -> {
+                    ExposureRequest request = invocation.getArgument(0);
+                    long newExposure = currentUnits + request.deltaUnits();
+                    return new ExposureReservation(newExposure, newExposure > request.limitUnits(),
+                            request.deltaUnits(), Math.abs(request.deltaUnits()) > request.positionLimitUnits());
+                });
+    }
+    
     private Order createSampleOrder(String userId, BigDecimal quantity, BigDecimal price) {
         Order order = new Order();
         order.setOrderId("test-order");
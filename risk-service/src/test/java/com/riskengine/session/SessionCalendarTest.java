@@ -0,0 +1,173 @@
+package com.riskengine.session;
+
+import com.riskengine.config.SessionProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCalendarTest {
+
+    @TempDir
+    Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-03-04T00:00:00Z"));
+
+    @Test
+    void testIsOpen_FollowsTheVenueTimezone() {
+        SessionCalendar calendar = new SessionCalendar(usEquities(), clock);
+
+        // Wednesday 2024-03-06, 09:30-16:00 in New York is 14:30-21:00 UTC before the DST switch
+        assertFalse(openAt(calendar, "AAPL", "2024-03-06T14:29:59Z"));
+        assertTrue(openAt(calendar, "AAPL", "2024-03-06T14:30:00Z"));
+        assertTrue(openAt(calendar, "AAPL", "2024-03-06T20:59:59Z"));
+        assertFalse(openAt(calendar, "AAPL", "2024-03-06T21:00:00Z"));
+        // After clocks go forward on 2024-03-10 the same local session is an hour earlier in UTC
+        assertTrue(openAt(calendar, "AAPL", "2024-03-11T13:30:00Z"));
+        assertFalse(openAt(calendar, "AAPL", "2024-03-11T20:00:00Z"));
+    }
+
+    @Test
+    void testIsOpen_ClosedOnWeekendsAndHolidays() {
+        SessionCalendar calendar = new SessionCalendar(usEquities(), clock);
+
+        assertFalse(openAt(calendar, "AAPL", "2024-03-09T16:00:00Z"));
+        assertFalse(openAt(calendar, "AAPL", "2024-03-07T16:00:00Z"));
+        assertTrue(openAt(calendar, "AAPL", "2024-03-08T16:00:00Z"));
+    }
+
+    @Test
+    void testIsOpen_UsesTheSymbolsVenue() {
+        SessionCalendar calendar = new SessionCalendar(usEquities(), clock);
+
+        assertTrue(openAt(calendar, "BTC-USD", "2024-03-09T03:00:00Z"));
+        assertFalse(openAt(calendar, "AAPL", "2024-03-09T03:00:00Z"));
+    }
+
+    @Test
+    void testIsOpen_SessionsPastMidnightCloseTheNextDay() {
+        SessionProperties properties = new SessionProperties();
+        SessionProperties.Venue futures = new SessionProperties.Venue();
+        futures.setSessions(List.of("18:00-02:00"));
+        properties.getVenues().put("futures", futures);
+        properties.setDefaultVenue("futures");
+        SessionCalendar calendar = new SessionCalendar(properties, clock);
+
+        assertTrue(openAt(calendar, "ES", "2024-03-06T23:00:00Z"));
+        assertTrue(openAt(calendar, "ES", "2024-03-07T01:59:59Z"));
+        assertFalse(openAt(calendar, "ES", "2024-03-07T02:00:00Z"));
+        // Friday's session runs into Saturday, but none opens on Saturday
+        assertTrue(openAt(calendar, "ES", "2024-03-09T01:00:00Z"));
+        assertFalse(openAt(calendar, "ES", "2024-03-09T19:00:00Z"));
+    }
+
+    @Test
+    void testIsOpen_ExtendsTheTablesPastTheHorizon() {
+        SessionCalendar calendar = new SessionCalendar(usEquities(), clock);
+
+        assertTrue(openAt(calendar, "AAPL", "2024-04-17T15:00:00Z"));
+        assertFalse(openAt(calendar, "AAPL", "2024-04-20T15:00:00Z"));
+    }
+
+    @Test
+    void testReload_SwapsInTheCalendarFile() throws IOException {
+        Path file = directory.resolve("sessions.yml");
+        Files.writeString(file, """
+                default-venue: equities
+                venues:
+                  equities:
+                    timezone: Europe/London
+                    sessions: ["08:00-16:30"]
+                """);
+        SessionProperties properties = new SessionProperties();
+        properties.setFile(file.toString());
+        SessionCalendar calendar = new SessionCalendar(properties, clock);
+
+        assertTrue(openAt(calendar, "VOD", "2024-03-06T08:00:00Z"));
+        assertFalse(openAt(calendar, "VOD", "2024-03-06T16:30:00Z"));
+
+        Files.writeString(file, """
+                default-venue: equities
+                venues:
+                  equities:
+                    always-open: true
+                """);
+        calendar.reload(properties);
+        assertTrue(openAt(calendar, "VOD", "2024-03-06T16:30:00Z"));
+
+        Files.writeString(file, """
+                default-venue: equities
+                symbols:
+                  VOD: missing
+                """);
+        calendar.reload(properties);
+        assertTrue(openAt(calendar, "VOD", "2024-03-06T16:30:00Z"), "a bad calendar keeps the current one");
+    }
+
+    @Test
+    void testConstructor_RejectsAMissingFile() {
+        SessionProperties properties = new SessionProperties();
+        properties.setFile(directory.resolve("missing.yml").toString());
+
+        assertThrows(IllegalStateException.class, () -> new SessionCalendar(properties, clock));
+    }
+
+    private boolean openAt(SessionCalendar calendar, String symbol, String instant) {
+        clock.set(Instant.parse(instant));
+        return calendar.isOpen(symbol);
+    }
+
+    private static SessionProperties usEquities() {
+        SessionProperties properties = new SessionProperties();
+        SessionProperties.Venue equities = new SessionProperties.Venue();
+        equities.setTimezone("America/New_York");
+        equities.setSessions(List.of("09:30-16:00"));
+        equities.setHolidays(List.of("2024-03-07"));
+        SessionProperties.Venue crypto = new SessionProperties.Venue();
+        crypto.setAlwaysOpen(true);
+        properties.getVenues().putAll(Map.of("us-equities", equities, "crypto", crypto));
+        properties.getSymbols().put("BTC-USD", "crypto");
+        properties.setDefaultVenue("us-equities");
+        properties.setHorizon(Duration.ofDays(7));
+        return properties;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.riskengine.snapshot;
+
+import com.riskengine.config.SnapshotProperties;
+import com.riskengine.service.Position;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLatest_ReadsBackWhatWasCommitted() {
+        try (SnapshotStore.Writer writer = store().begin()) {
+            for (int i = 0; i < 100; i++) {
+                writer.writePositions("user" + i, List.of(
+                        new Position("BTC-USD", i * 100L, 0L), new Position("ETH-USD", 0L, i)));
+            }
+            writer.writeBucket("user1", 3L);
+            writer.commit(42L);
+        }
+
+        StateSnapshot snapshot = store().latest();
+
+        assertEquals(42L, snapshot.journalSequence());
+        assertEquals(100, snapshot.userCount());
+        assertTrue(snapshot.positions().stream().filter(part -> !part.isEmpty()).count() > 1,
+                "expected users spread over several parts");
+        Map<String, List<Position>> users = new HashMap<>();
+        snapshot.positions().forEach(users::putAll);
+        assertEquals(List.of(new Position("BTC-USD", 700L, 0L), new Position("ETH-USD", 0L, 7L)), users.get("user7"));
+        assertEquals(Map.of("user1", 3L), snapshot.buckets());
+    }
+
+    @Test
+    void testLatest_IgnoresUncommittedAndFallsBackFromCorruptSnapshots() throws Exception {
+        SnapshotStore store = store();
+        try (SnapshotStore.Writer writer = store.begin()) {
+            writer.writePositions("user1", List.of(new Position("BTC-USD", 100L, 0L)));
+            writer.commit(1L);
+        }
+        Thread.sleep(2);
+        try (SnapshotStore.Writer writer = store.begin()) {
+            writer.writePositions("user1", List.of(new Position("BTC-USD", 200L, 0L)));
+            writer.commit(2L);
+        }
+        Thread.sleep(2);
+        try (SnapshotStore.Writer writer = store.begin()) {
+            writer.writePositions("user1", List.of(new Position("BTC-USD", 300L, 0L)));
+            // Abandoned without a commit
+        }
+
+        // Flip a byte in every file of the newest snapshot
+        List<Path> snapshots = snapshots();
+        assertEquals(2, snapshots.size());
+        try (Stream<Path> files = Files.list(snapshots.get(1))) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".bin")).toList()) {
+                byte[] bytes = Files.readAllBytes(file);
+                if (bytes.length > 0) {
+                    bytes[bytes.length - 1] ^= 0x7F;
+                    Files.write(file, bytes);
+                }
+            }
+        }
+
+        StateSnapshot snapshot = store().latest();
+        assertEquals(1L, snapshot.journalSequence());
+    }
+
+    @Test
+    void testCommit_KeepsOnlyTheNewestSnapshots() throws Exception {
+        SnapshotStore store = store();
+        for (int i = 1; i <= 4; i++) {
+            try (SnapshotStore.Writer writer = store.begin()) {
+                writer.commit(i);
+            }
+            Thread.sleep(2);
+        }
+
+        assertEquals(2, snapshots().size());
+        assertEquals(4L, store().latest().journalSequence());
+    }
+
+    private SnapshotStore store() {
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setParts(4);
+        return new SnapshotStore(properties, new SimpleMeterRegistry());
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
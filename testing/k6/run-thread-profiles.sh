@@ -0,0 +1,35 @@
+#!/bin/bash
+
+# Runs thread-profile.js once with risk-service on platform threads and once on virtual threads,
+# restarting the service in between, and leaves both results in testing/k6/results:
+# thread-profile-platform.json and thread-profile-virtual.json. Extra arguments go to both k6
+# runs, e.g. -e DURATION=5m.
+
+set -e
+
+cd "$(git rev-parse --show-toplevel)"
+
+wait_for_service() {
+    for _ in $(seq 1 60); do
+        if curl -sf http://localhost:8080/actuator/health > /dev/null; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo "risk-service did not become healthy" >&2
+    exit 1
+}
+
+docker-compose up -d redis
+for mode in platform virtual; do
+    enabled=false
+    if [ "$mode" = virtual ]; then
+        enabled=true
+    fi
+    echo "Profiling risk-service on $mode threads"
+    VIRTUAL_THREADS_ENABLED=$enabled docker-compose up -d --build --force-recreate risk-service
+    wait_for_service
+    docker-compose --profile testing run --rm k6 run -e MODE=$mode "$@" /scripts/thread-profile.js
+done
+
+echo "Results in testing/k6/results/thread-profile-{platform,virtual}.json"
@@ -0,0 +1,98 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend } from 'k6/metrics';
+
+// Compares request handling on platform threads with virtual threads. run-thread-profiles.sh runs
+// both modes; by hand, run it once per mode against the same stack, restarting risk-service in
+// between:
+//
+//   VIRTUAL_THREADS_ENABLED=false docker-compose up -d risk-service
+//   docker-compose exec k6 k6 run -e MODE=platform /scripts/thread-profile.js
+//   VIRTUAL_THREADS_ENABLED=true docker-compose up -d risk-service
+//   docker-compose exec k6 k6 run -e MODE=virtual /scripts/thread-profile.js
+//
+// Each run prints and writes /scripts/results/thread-profile-<MODE>.json with throughput,
+// p99 latency and the service's live/peak JVM thread counts sampled during the run.
+
+const BASE_URL = __ENV.BASE_URL || 'http://risk-service:8080';
+const MODE = __ENV.MODE || 'unknown';
+const CLIENTS = parseInt(__ENV.CLIENTS || '250');
+const DURATION = __ENV.DURATION || '2m';
+
+const liveThreads = new Trend('jvm_threads_live');
+const peakThreads = new Trend('jvm_threads_peak');
+
+export let options = {
+  scenarios: {
+    orders: {
+      // Closed loop without think time, so every client keeps one request in flight
+      executor: 'constant-vus',
+      vus: CLIENTS,
+      duration: DURATION,
+      exec: 'placeOrder',
+    },
+    threads: {
+      executor: 'constant-vus',
+      vus: 1,
+      duration: DURATION,
+      exec: 'sampleThreads',
+    },
+  },
+  // Thresholds on the tagged metrics make k6 report them separately from the actuator polling
+  thresholds: {
+    'http_req_duration{name:order}': ['p(99)<1000'],
+    'http_reqs{name:order}': ['count>0'],
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const params = { headers: { 'Content-Type': 'application/json' } };
+
+export function placeOrder() {
+  // Spread load over many users so the per-user rate limit does not dominate the profile
+  const userId = `profile-user-${__VU}-${__ITER % 50}`;
+  const order = {
+    orderId: `profile-${__VU}-${__ITER}`,
+    userId: userId,
+    symbol: 'ETH-USD',
+    side: __ITER % 2 === 0 ? 'BUY' : 'SELL',
+    quantity: 0.5,
+    price: 3000,
+    orderType: 'LIMIT',
+  };
+
+  const response = http.post(`${BASE_URL}/api/v1/order`, JSON.stringify(order), params,
+    { tags: { name: 'order' } });
+  check(response, { 'status is 200': (r) => r.status === 200 });
+}
+
+export function sampleThreads() {
+  const live = http.get(`${BASE_URL}/actuator/metrics/jvm.threads.live`, { tags: { name: 'actuator' } });
+  const peak = http.get(`${BASE_URL}/actuator/metrics/jvm.threads.peak`, { tags: { name: 'actuator' } });
+  if (live.status === 200) {
+    liveThreads.add(live.json().measurements[0].value);
+  }
+  if (peak.status === 200) {
+    peakThreads.add(peak.json().measurements[0].value);
+  }
+  sleep(5);
+}
+
+export function handleSummary(data) {
+  const metric = (name, stat) => (data.metrics[name] ? data.metrics[name].values[stat] : null);
+  const profile = {
+    mode: MODE,
+    clients: CLIENTS,
+    duration: DURATION,
+    throughputPerSecond: metric('http_reqs{name:order}', 'rate') ?? metric('iterations', 'rate'),
+    p99Ms: metric('http_req_duration{name:order}', 'p(99)') ?? metric('http_req_duration', 'p(99)'),
+    failedRate: metric('http_req_failed', 'rate'),
+    jvmThreadsLiveMax: metric('jvm_threads_live', 'max'),
+    jvmThreadsPeakMax: metric('jvm_threads_peak', 'max'),
+  };
+
+  return {
+    stdout: JSON.stringify(profile, null, 2) + '\n',
+    [`/scripts/results/thread-profile-${MODE}.json`]: JSON.stringify(profile, null, 2),
+  };
+}